@@ -0,0 +1,65 @@
+package org.example.controller;
+
+import org.example.controller.support.ChunkedImport;
+import org.example.controller.support.CsvIngest;
+import org.example.entity.StudentData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse throughput of the shared upload engine on a spooled students file, without the database: the chunk
+ * handler only counts rows. Compare {@code threads} to see how parsing scales with cores; raise {@code rows}
+ * (e.g. {@code -p rows=40000000}, about 2.5 GB) for multi-gigabyte files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class CsvIngestBenchmark {
+    private static final String[] GENDERS = {"MALE", "FEMALE", "OTHER"};
+    private static final String[] STATUSES = {"ACTIVE", "INACTIVE", "GRADUATED"};
+
+    @Param({"2000000"})
+    public int rows;
+
+    @Param({"1", "4", "0"}) // 0 = one per core
+    public int threads;
+
+    private Path file;
+    private CsvIngest ingest;
+    private CsvIngest.Header header;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("ingest-bench-", ".csv");
+        try (BufferedWriter w = Files.newBufferedWriter(file)) {
+            w.write("firstName,lastName,dateOfBirth,gender,joiningDate,studentStatus\n");
+            for (int i = 0; i < rows; i++) {
+                LocalDate dob = LocalDate.of(1995, 1, 1).plusDays(i % 3650);
+                w.write("First" + i + ",\"Last, " + i + "\"," + dob + "," + GENDERS[i % 3] + "," + dob.plusYears(18) + "," + STATUSES[i % 3] + "\n");
+            }
+        }
+        ingest = new CsvIngest(threads, 4 << 20);
+        header = ingest.header(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void parseFile(Blackhole bh) throws IOException {
+        ChunkedImport<StudentData> importer = new ChunkedImport<>(1000, list -> list, s -> s, s -> { });
+        ingest.ingest(file, header, StudentController::parseRow, (chunk, imp) -> bh.consume(chunk.size()), importer);
+        bh.consume(importer.getErrors().size());
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.controller;
+
+import org.example.controller.support.CsvFields;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Per-row cost of the course, enrollment, grade and attendance upload-csv parsers: tokenize the spooled bytes and
+ * build the row the chunk handler receives, as each parser thread does. {@link StudentCsvBenchmark} covers students.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvRowParserBenchmark {
+    private static final String[] ASSESSMENTS = {"Quiz", "Midterm", "Final"};
+    private static final String[] ATTENDANCE = {"PRESENT", "ABSENT", "EXCUSED"};
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"courses", "enrollments", "grades", "attendance"})
+    public String entity;
+
+    private ByteBuffer csv;
+    private int[] lineStarts;
+    private CsvFields fields;
+    private Function<CsvFields, ?> parser;
+
+    @Setup
+    public void setUp() {
+        String header;
+        IntFunction<String> line;
+        switch (entity) {
+            case "courses" -> {
+                header = "courseName,courseCode,courseCredits";
+                line = i -> "Course " + i + ",C" + i + "," + (1 + i % 4) + ".0";
+                parser = CourseController::parseRow;
+            }
+            case "enrollments" -> {
+                header = "studentNumber,courseNumber,enrollmentDate,overallGrade,semester,instructorName";
+                line = i -> (1 + i) + "," + (1 + i % 50) + "," + LocalDate.of(2024, 9, 1).plusDays(i % 14) + "," + i % 101 + ",FALL24,Prof. " + i % 40;
+                parser = EnrollmentController::parseRow;
+            }
+            case "grades" -> {
+                header = "enrollmentNumber,assessmentDate,assessmentType,obtainedScore,maxScore,gradeCode";
+                line = i -> (1 + i / 5) + "," + LocalDate.of(2024, 10, 1).plusDays(i % 60) + "," + ASSESSMENTS[i % 3] + "," + i % 101 + ",100," + i % 5;
+                parser = GradesController::parseRow;
+            }
+            case "attendance" -> {
+                header = "studentNumber,enrollmentNumber,attendanceDate,attendanceStatus,semester";
+                line = i -> (1 + i / 90) + "," + (1 + i / 90) + "," + LocalDate.of(2024, 9, 2).plusDays(i % 90) + "," + ATTENDANCE[i % 3] + ",FALL24";
+                parser = AttendanceController::parseRow;
+            }
+            default -> throw new IllegalArgumentException("Unknown entity " + entity);
+        }
+        String[] columns = header.split(",");
+        Map<String, Integer> headerIndex = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) headerIndex.put(columns[i].toLowerCase(), i);
+        fields = new CsvFields(headerIndex);
+
+        StringBuilder text = new StringBuilder();
+        lineStarts = new int[rows + 1];
+        for (int i = 0; i < rows; i++) {
+            lineStarts[i] = text.length();
+            text.append(line.apply(i)).append('\n');
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8); // ASCII, so char offsets are byte offsets
+        lineStarts[rows] = bytes.length;
+        csv = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    @Benchmark
+    public void parseRows(Blackhole bh) {
+        for (int i = 0; i < rows; i++) bh.consume(parser.apply(fields.tokenize(csv, lineStarts[i], lineStarts[i + 1] - 1)));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.example.dto.EnrollmentDataDto;
+import org.example.dto.StudentDataDto;
+import org.example.entity.StudentData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the list endpoints: the student and enrollment DTO lists, written
+ * both as one buffered array and element by element through a generator the way KeysetPaging streams.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ListSerializationBenchmark {
+    @Param({"500"})
+    public int rows;
+
+    private ObjectMapper mapper;
+    private ObjectWriter streamingWriter;
+    private List<StudentDataDto> students;
+    private List<EnrollmentDataDto> enrollments;
+
+    @Setup
+    public void setUp() {
+        // Same date handling as Spring Boot's auto-configured mapper (ISO strings, not timestamps)
+        mapper = JsonMapper.builder().findAndAddModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        streamingWriter = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        students = new ArrayList<>(rows);
+        enrollments = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            StudentData student = StudentData.builder()
+                    .studentNumber((long) i + 1)
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .dateOfBirth(LocalDate.of(2000, 1, 1).plusDays(i))
+                    .gender(StudentData.Gender.values()[i % 3])
+                    .joiningDate(LocalDate.of(2020, 9, 1))
+                    .studentStatus(StudentData.StudentStatus.ACTIVE)
+                    .build();
+            students.add(StudentController.mapEntityToDto(student));
+            enrollments.add(new EnrollmentDataDto((long) i + 1, student.getStudentNumber(), 1L, LocalDate.of(2024, 9, 1), 70 + i % 30, "2024-FALL", "Dr. Smith", 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] studentsAsArray() throws IOException { return mapper.writeValueAsBytes(students); }
+
+    @Benchmark
+    public void studentsStreamed() throws IOException { stream(students); }
+
+    @Benchmark
+    public byte[] enrollmentsAsArray() throws IOException { return mapper.writeValueAsBytes(enrollments); }
+
+    @Benchmark
+    public void enrollmentsStreamed() throws IOException { stream(enrollments); }
+
+    private void stream(List<?> rows) throws IOException {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            gen.writeStartArray();
+            for (Object row : rows) streamingWriter.writeValue(gen, row);
+            gen.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.controller;
+
+import org.example.Main;
+import org.example.entity.StudentData;
+import org.example.service.StudentDataService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the full HTTP stack: many concurrent clients (JMH threads, override with {@code -t}) hit the
+ * transcript endpoint, once with Tomcat's platform worker pool and once with virtual threads, each with and
+ * without the database limiter. Throughput is requests/s, the sample mode gives the latency percentiles and
+ * the {@code ok}/{@code shed} counters show how many requests the limiter answered with 503.
+ * Defaults to embedded H2; pass {@code -Djmh.datasource.url=jdbc:postgresql://...} (plus username/password)
+ * to include real JDBC round trips, which is where blocking platform threads run out first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(512)
+public class RequestConcurrencyBenchmark {
+    private static final int SEED_STUDENTS = 2_000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"false", "true"})
+    public boolean limiter;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private long firstStudent;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long ok;
+        public long shed;
+    }
+
+    @Setup(Level.Trial)
+    public void startServer() {
+        context = new SpringApplicationBuilder(Main.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "app.db-limiter.enabled=" + limiter,
+                        "spring.datasource.url=" + System.getProperty("jmh.datasource.url", "jdbc:h2:mem:jmhload;DB_CLOSE_DELAY=-1;MODE=PostgreSQL"),
+                        "spring.datasource.driver-class-name=" + System.getProperty("jmh.datasource.driver", "org.h2.Driver"),
+                        "spring.datasource.username=" + System.getProperty("jmh.datasource.username", "sa"),
+                        "spring.datasource.password=" + System.getProperty("jmh.datasource.password", ""),
+                        "spring.jpa.database-platform=" + System.getProperty("jmh.datasource.dialect", "org.hibernate.dialect.H2Dialect"),
+                        "spring.sql.init.mode=always",
+                        "spring.sql.init.schema-locations=classpath:schema.sql",
+                        "logging.file.name=",
+                        "logging.level.root=WARN")
+                .run();
+        StudentDataService students = context.getBean(StudentDataService.class);
+        List<StudentData> batch = new ArrayList<>(SEED_STUDENTS);
+        for (int i = 0; i < SEED_STUDENTS; i++) {
+            batch.add(StudentData.builder()
+                    .firstName("Load" + i)
+                    .lastName("Student" + i)
+                    .dateOfBirth(LocalDate.of(2001, 1, 1).plusDays(i % 365))
+                    .gender(StudentData.Gender.values()[i % 3])
+                    .joiningDate(LocalDate.of(2022, 9, 1))
+                    .studentStatus(StudentData.StudentStatus.ACTIVE)
+                    .build());
+        }
+        firstStudent = students.createStudents(batch).get(0).getStudentNumber();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int transcript(Outcomes outcomes) throws IOException, InterruptedException {
+        long student = firstStudent + ThreadLocalRandom.current().nextInt(SEED_STUDENTS);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/students/" + student + "/transcript")).GET().build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status == 503) outcomes.shed++;
+        else outcomes.ok++;
+        return status;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.controller;
+
+import org.example.controller.support.CsvFields;
+import org.example.dto.StudentDataDto;
+import org.example.entity.StudentData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Per-row cost of the students upload-csv path and of the DTO mapping used by every student endpoint. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StudentCsvBenchmark {
+    private static final String[] GENDERS = {"MALE", "FEMALE", "OTHER"};
+    private static final String[] STATUSES = {"ACTIVE", "INACTIVE", "GRADUATED"};
+
+    @Param({"1000"})
+    public int rows;
+
+    private List<String> lines;
+    private ByteBuffer csv;
+    private int[] lineStarts;
+    private CsvFields fields;
+    private List<StudentDataDto> dtos;
+    private List<StudentData> entities;
+
+    @Setup
+    public void setUp() {
+        String[] header = "firstName,lastName,dateOfBirth,gender,joiningDate,studentStatus".split(",");
+        Map<String, Integer> headerIndex = new HashMap<>();
+        for (int i = 0; i < header.length; i++) headerIndex.put(header[i].toLowerCase(), i);
+        fields = new CsvFields(headerIndex);
+        lines = new ArrayList<>(rows);
+        dtos = new ArrayList<>(rows);
+        entities = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalDate dob = LocalDate.of(1995, 1, 1).plusDays(i % 3650);
+            lines.add("First" + i + ",Last" + i + "," + dob + "," + GENDERS[i % 3] + "," + dob.plusYears(18) + "," + STATUSES[i % 3]);
+            StudentData entity = StudentController.parseRow(fields.tokenize(ByteBuffer.wrap(lines.get(i).getBytes(StandardCharsets.UTF_8)), 0, lines.get(i).length()));
+            dtos.add(StudentController.mapEntityToDto(entity));
+            entity.setStudentNumber((long) i + 1);
+            entities.add(entity);
+        }
+        byte[] bytes = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        csv = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        lineStarts = new int[rows + 1];
+        for (int i = 0, p = 0; i < rows; i++) { lineStarts[i] = p; p += lines.get(i).length() + 1; }
+        lineStarts[rows] = bytes.length;
+    }
+
+    @Benchmark
+    public void splitOnly(Blackhole bh) {
+        for (String line : lines) bh.consume(line.split(",", -1));
+    }
+
+    @Benchmark
+    public void tokenizeOnly(Blackhole bh) {
+        for (int i = 0; i < rows; i++) bh.consume(fields.tokenize(csv, lineStarts[i], lineStarts[i + 1] - 1).size());
+    }
+
+    /** What each upload parser thread does per row: tokenize the mapped bytes and build the entity. */
+    @Benchmark
+    public void parseRows(Blackhole bh) {
+        for (int i = 0; i < rows; i++) bh.consume(StudentController.parseRow(fields.tokenize(csv, lineStarts[i], lineStarts[i + 1] - 1)));
+    }
+
+    @Benchmark
+    public void mapDtoToEntity(Blackhole bh) {
+        for (StudentDataDto dto : dtos) bh.consume(StudentController.mapDtoToEntity(dto));
+    }
+
+    @Benchmark
+    public void mapEntityToDto(Blackhole bh) {
+        for (StudentData entity : entities) bh.consume(StudentController.mapEntityToDto(entity));
+    }
+}
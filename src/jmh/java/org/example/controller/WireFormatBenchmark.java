@@ -0,0 +1,99 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.example.controller.support.KeysetPaging;
+import org.example.controller.support.StreamFormats;
+import org.example.dto.AttendanceDataDto;
+import org.example.dto.StudentDataDto;
+import org.example.entity.StudentData;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Streamed list bodies per wire format and content coding, written through the same
+ * {@link KeysetPaging#stream} path the list endpoints use. Time is per full list; the {@code bytes}
+ * counter is the size of one response body on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WireFormatBenchmark {
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"attendance", "students"})
+    public String list;
+
+    @Param({"application/json", "application/x-ndjson", "application/cbor", "application/x-jackson-smile"})
+    public String accept;
+
+    @Param({"identity", "gzip", "zstd"})
+    public String encoding;
+
+    private List<Object> dtos;
+    private Function<Object, Long> key;
+    private StreamFormats.StreamFormat format;
+
+    /** Bytes written for the last response; reported as a secondary result. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        // Same date handling as Spring Boot's auto-configured mapper (ISO strings, not timestamps)
+        StreamFormats formats = new StreamFormats(
+                JsonMapper.builder().findAndAddModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build(),
+                new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.cbor().build()),
+                new MappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder.smile().build()), 3);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT, accept);
+        headers.set(HttpHeaders.ACCEPT_ENCODING, encoding);
+        format = formats.negotiate(headers);
+
+        dtos = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            if (list.equals("attendance")) {
+                dtos.add(new AttendanceDataDto((long) i + 1, 1000L + i / 20, String.valueOf(1 + i / 200), LocalDate.of(2024, 9, 2).plusDays(i % 90), i % 7 == 0 ? 1 : 0, "2024-FALL", 0L));
+            } else {
+                dtos.add(StudentController.mapEntityToDto(StudentData.builder().studentNumber((long) i + 1).firstName("First" + i).lastName("Last" + i)
+                        .dateOfBirth(LocalDate.of(2000, 1, 1).plusDays(i % 3650)).gender(StudentData.Gender.values()[i % 3])
+                        .joiningDate(LocalDate.of(2020, 9, 1)).studentStatus(StudentData.StudentStatus.ACTIVE).version(0L).build()));
+            }
+        }
+        key = list.equals("attendance") ? d -> ((AttendanceDataDto) d).getAttendanceNumber() : d -> Long.valueOf(((StudentDataDto) d).getStudentNumber());
+    }
+
+    @Benchmark
+    public void writeList(WireSize size) throws IOException {
+        CountingStream out = new CountingStream();
+        KeysetPaging.<Object, Object>stream(format, null, "asc", this::page, key, Function.identity()).getBody().writeTo(out);
+        size.bytes = out.count;
+    }
+
+    private List<Object> page(Long after, int limit, boolean descending) {
+        int from = after == null ? 0 : after.intValue(); // keys are 1..rows
+        return dtos.subList(from, Math.min(from + limit, dtos.size()));
+    }
+
+    private static final class CountingStream extends OutputStream {
+        long count;
+
+        @Override public void write(int b) { count++; }
+        @Override public void write(byte[] b, int off, int len) { count += len; }
+    }
+}
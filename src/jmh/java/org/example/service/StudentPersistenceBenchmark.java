@@ -0,0 +1,84 @@
+package org.example.service;
+
+import org.example.Main;
+import org.example.entity.StudentData;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service/repository reads and writes against an embedded H2 database (PostgreSQL mode, same schema.sql),
+ * so the numbers include Hibernate, JDBC batching and the second-level cache but not network latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StudentPersistenceBenchmark {
+    private static final int SEED_ROWS = 10_000;
+
+    @Param({"500"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private StudentDataService service;
+    private long maxStudentNumber;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "spring.sql.init.mode=always",
+                        "spring.sql.init.schema-locations=classpath:schema.sql",
+                        "logging.file.name=",
+                        "logging.level.root=WARN")
+                .run();
+        service = context.getBean(StudentDataService.class);
+        for (int i = 0; i < SEED_ROWS; i += batchSize) service.createStudents(students(batchSize));
+        maxStudentNumber = service.getStudentPage(null, 1, true).get(0).getStudentNumber();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() { context.close(); }
+
+    @Benchmark
+    public List<StudentData> keysetPage() {
+        long after = ThreadLocalRandom.current().nextLong(maxStudentNumber - 100);
+        return service.getStudentPage(after, 100, false);
+    }
+
+    @Benchmark
+    public StudentData findByStudentNumber() {
+        return service.getStudentByNumber(ThreadLocalRandom.current().nextLong(1, maxStudentNumber + 1));
+    }
+
+    @Benchmark
+    public List<StudentData> batchInsert() { return service.createStudents(students(batchSize)); }
+
+    private static List<StudentData> students(int count) {
+        List<StudentData> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(StudentData.builder()
+                    .firstName("Bench" + i)
+                    .lastName("Student" + i)
+                    .dateOfBirth(LocalDate.of(2001, 1, 1).plusDays(i % 365))
+                    .gender(StudentData.Gender.values()[i % 3])
+                    .joiningDate(LocalDate.of(2022, 9, 1))
+                    .studentStatus(StudentData.StudentStatus.ACTIVE)
+                    .build());
+        }
+        return out;
+    }
+}
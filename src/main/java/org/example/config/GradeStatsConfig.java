@@ -0,0 +1,27 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.service.GradeStatsService;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class GradeStatsConfig {
+    /** One-off backfill of the grade summary tables: run once with {@code --app.grades.rebuild-stats-on-startup=true}. */
+    @Bean
+    @ConditionalOnProperty(name = "app.grades.rebuild-stats-on-startup", havingValue = "true")
+    public ApplicationRunner gradeStatsRebuild(GradeStatsService gradeStatsService) {
+        return args -> {
+            boolean previous = DatabaseConcurrencyLimiter.background(true);
+            try {
+                log.info("Rebuilt grade stats: {}", gradeStatsService.rebuild());
+            } finally {
+                DatabaseConcurrencyLimiter.restore(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.config;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.schema.GraphQLTypeUtil;
+import org.example.controller.support.KeysetPaging;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Static limits checked before a GraphQL query touches the database. Complexity estimates rows: a field costs
+ * one plus its children, multiplied by its page size ({@code first}, as clamped by the resolvers) or, for a
+ * nested list, by {@code app.graphql.list-weight} as the expected children per parent.
+ */
+@Configuration
+public class GraphQlLimitsConfig {
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(@Value("${app.graphql.max-depth:6}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(@Value("${app.graphql.max-complexity:50000}") int maxComplexity,
+                                                                               @Value("${app.graphql.list-weight:10}") int listWeight) {
+        return new MaxQueryComplexityInstrumentation(maxComplexity, rowEstimate(listWeight));
+    }
+
+    static FieldComplexityCalculator rowEstimate(int listWeight) {
+        return (env, childComplexity) -> {
+            long fanOut = 1;
+            if (env.getArguments().get("first") instanceof Integer first) fanOut = KeysetPaging.clampLimit(first);
+            else if (GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()))) fanOut = listWeight;
+            return (int) Math.min(Integer.MAX_VALUE, fanOut * (1L + childComplexity));
+        };
+    }
+}
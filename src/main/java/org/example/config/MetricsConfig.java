@@ -0,0 +1,13 @@
+package org.example.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    /** Turns {@code @Timed} on the service implementations into {@code app.service} timers. */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) { return new TimedAspect(registry); }
+}
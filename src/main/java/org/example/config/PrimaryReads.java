@@ -0,0 +1,39 @@
+package org.example.config;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Per-thread switch that sends read-only transactions to the primary instead of a replica: set for the whole
+ * of a write request, for reads inside the read-your-writes window and for import jobs, whose foreign-key
+ * lookups must see rows committed a moment ago. Without replicas configured it has no effect.
+ */
+public final class PrimaryReads {
+    private static final ThreadLocal<Boolean> PINNED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private PrimaryReads() {}
+
+    public static boolean isPinned() { return PINNED.get(); }
+
+    /** Sets the switch and returns the previous value, to be handed back to {@link #restore}. */
+    public static boolean pin(boolean pinned) {
+        boolean previous = PINNED.get();
+        PINNED.set(pinned);
+        return previous;
+    }
+
+    public static void restore(boolean previous) {
+        if (previous) PINNED.set(true);
+        else PINNED.remove();
+    }
+
+    /** Carries the submitting thread's switch over to async work (streamed responses). */
+    public static TaskDecorator propagating() {
+        return task -> {
+            boolean pinned = isPinned();
+            return () -> {
+                boolean previous = pin(pinned);
+                try { task.run(); } finally { restore(previous); }
+            };
+        };
+    }
+}
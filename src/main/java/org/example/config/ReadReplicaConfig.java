@@ -0,0 +1,80 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting, active once {@code app.datasource.replicas[0].url} is set. The application data source
+ * is a {@link LazyConnectionDataSourceProxy} over the primary pool: the physical connection is only fetched at
+ * the first statement, by which time a {@code @Transactional(readOnly = true)} transaction (every Spring Data
+ * read outside a write transaction, and the service read methods) has marked it read-only, and read-only
+ * connections come from the {@link ReplicaPoolDataSource}. Writes and everything else stay on the primary.
+ */
+@Configuration
+@ConditionalOnProperty("app.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaPoolDataSource replicaDataSource(HikariDataSource primaryDataSource, ReadReplicaProperties properties, MeterRegistry registry) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReadReplicaProperties.Replica replica = properties.getReplicas().get(i);
+            DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword());
+            if (replica.getDriverClassName() != null) builder.driverClassName(replica.getDriverClassName()); // otherwise derived from the URL
+            HikariDataSource pool = builder.build();
+            pool.setPoolName("replica-" + i);
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+            pool.setInitializationFailTimeout(-1); // a replica that is down at startup must not stop the application
+            pool.setReadOnly(true);
+            pools.add(pool);
+        }
+        ReplicaPoolDataSource replicas = new ReplicaPoolDataSource(primaryDataSource, pools, properties.getReplicaRetryAfter().toMillis());
+        Gauge.builder("app.datasource.replicas.healthy", replicas, ReplicaPoolDataSource::healthyReplicas)
+                .description("Read replicas currently accepting connections").register(registry);
+        return replicas;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPoolDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primaryDataSource);
+        routing.setReadOnlyDataSource(replicaDataSource);
+        return routing;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadReplicaProperties properties, @Value("${spring.graphql.path:/graphql}") String graphQlPath) {
+        return new ReadYourWritesFilter(properties.getReadYourWrites(), graphQlPath);
+    }
+
+    /** Picked up by the auto-configured task executor, so streamed responses keep the request's routing. */
+    @Bean
+    public TaskDecorator primaryReadsTaskDecorator() { return PrimaryReads.propagating(); }
+}
@@ -0,0 +1,27 @@
+package org.example.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties("app.datasource")
+public class ReadReplicaProperties {
+    private List<Replica> replicas = new ArrayList<>();
+    private Duration readYourWrites = Duration.ofSeconds(5); // reads of a client stay on the primary this long after it wrote
+    private Duration replicaRetryAfter = Duration.ofSeconds(30); // a replica that refused a connection is skipped this long
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes for replica routing. A write request (anything but GET/HEAD/OPTIONS) runs entirely on the
+ * primary and answers with a cookie holding the end of the stickiness window; reads that carry an unexpired
+ * cookie are pinned to the primary as well, so a client never reads a replica that has not caught up with it.
+ * GraphQL is POSTed but the schema has no mutations, so its endpoint counts as a read.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String COOKIE = "primary-until";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration window;
+    private final String graphQlPath;
+
+    public ReadYourWritesFilter(Duration window, String graphQlPath) {
+        this.window = window;
+        this.graphQlPath = graphQlPath;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod()) && !graphQlPath.equals(request.getRequestURI().substring(request.getContextPath().length()));
+        if (write) {
+            Cookie cookie = new Cookie(COOKIE, String.valueOf(now + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            response.addCookie(cookie);
+        }
+        if (!write && stickyUntil(request) <= now) {
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean previous = PrimaryReads.pin(true);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PrimaryReads.restore(previous);
+        }
+    }
+
+    private static long stickyUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) return 0;
+        for (Cookie c : request.getCookies()) {
+            if (!COOKIE.equals(c.getName())) continue;
+            try { return Long.parseLong(c.getValue()); } catch (NumberFormatException e) { return 0; }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Connections for read-only transactions: replicas in round-robin order. A replica whose pool cannot hand out
+ * a connection is skipped for {@code replicaRetryAfter} and the next one is tried; with every replica down,
+ * or when {@link PrimaryReads} is pinned, the primary serves the read.
+ */
+@Slf4j
+public class ReplicaPoolDataSource extends AbstractDataSource implements AutoCloseable {
+    private final DataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final AtomicLongArray downUntil;
+    private final AtomicInteger next = new AtomicInteger();
+    private final long retryAfterMillis;
+
+    public ReplicaPoolDataSource(DataSource primary, List<HikariDataSource> replicas, long retryAfterMillis) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.downUntil = new AtomicLongArray(replicas.size());
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!PrimaryReads.isPinned()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                int r = (start + i) % replicas.size();
+                long now = System.currentTimeMillis();
+                if (downUntil.get(r) > now) continue;
+                try {
+                    return replicas.get(r).getConnection();
+                } catch (SQLException e) {
+                    downUntil.set(r, now + retryAfterMillis);
+                    log.warn("Replica {} unavailable, skipping it for {} ms: {}", replicas.get(r).getPoolName(), retryAfterMillis, e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica credentials come from app.datasource.replicas");
+    }
+
+    public int healthyReplicas() {
+        long now = System.currentTimeMillis();
+        int healthy = 0;
+        for (int r = 0; r < replicas.size(); r++) if (downUntil.get(r) <= now) healthy++;
+        return healthy;
+    }
+
+    @Override
+    public void close() { replicas.forEach(HikariDataSource::close); }
+}
@@ -0,0 +1,47 @@
+package org.example.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * The JCache manager behind Hibernate's second-level cache. JCache hands out one manager per URI and class loader
+ * for the whole JVM, so two application contexts (e.g. test contexts on different databases) would otherwise share
+ * cached entities; each context gets a manager of its own, still configured from {@code application.conf}.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager() {
+        URI uri = URI.create("urn:student-management:l2:" + UUID.randomUUID());
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager(uri, getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    /**
+     * {@code cache.gets{result=hit|miss}}, {@code cache.puts}, {@code cache.removals} and {@code cache.evictions} per
+     * region; the regions exist once the entity manager factory is up, hence the dependency.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager secondLevelCacheManager, EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            for (String name : secondLevelCacheManager.getCacheNames())
+                JCacheMetrics.monitor(registry, secondLevelCacheManager.getCache(name));
+        };
+    }
+}
@@ -1,21 +1,36 @@
 package org.example.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.controller.support.ChunkedImport;
+import org.example.controller.support.CsvExport;
+import org.example.controller.support.CsvFields;
+import org.example.controller.support.CsvIngest;
+import org.example.controller.support.CsvRow;
+import org.example.controller.support.CsvUploads;
+import org.example.controller.support.KeysetPaging;
+import org.example.controller.support.Preconditions;
+import org.example.controller.support.ReferenceResolver;
+import org.example.controller.support.StreamFormats;
 import org.example.entity.AddressDetails;
 import org.example.entity.StudentData;
+import org.example.service.DatabaseBusyException;
 import org.example.service.AddressDetailsService;
 import org.example.service.StudentDataService;
 import org.example.dto.AddressDetailsDto;
 import org.example.dto.ErrorDto;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.*;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/addresses")
@@ -23,46 +38,59 @@ import java.util.*;
 public class AddressController {
     private final AddressDetailsService addressService;
     private final StudentDataService studentService;
+    private final StreamFormats streamFormats;
+    private final CsvUploads csvUploads;
+    private final DatabaseConcurrencyLimiter limiter;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
 
     @GetMapping
-    public List<AddressDetails> list(){ return addressService.getAllAddresses(); }
+    public ResponseEntity<StreamingResponseBody> list(@RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort, @RequestHeader HttpHeaders headers) {
+        return KeysetPaging.stream(streamFormats.negotiate(headers), after, sort, addressService::getAddressPage, AddressDetails::getAddressNumber, Function.identity());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<AddressDetails>> page(@RequestParam Integer limit, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort) {
+        return KeysetPaging.page(limit, after, sort, addressService::getAddressPage, AddressDetails::getAddressNumber, Function.identity());
+    }
+
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        return CsvExport.<AddressDetails>stream(limiter, "addresses.csv", new String[]{"addressNumber", "studentNumber", "street", "city", "state", "zipCode"}, addressService::exportAddresses,
+                a -> new Object[]{a.getAddressNumber(), a.getStudent().getStudentNumber(), a.getStreet(), a.getCity(), a.getState(), a.getZipCode()});
+    }
 
     @PostMapping("/upload-csv")
-    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) throws IOException {
-        if(file.isEmpty()) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Empty file"));
-        List<AddressDetails> created = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        try(BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))){
-            String headerLine = reader.readLine();
-            if(headerLine == null) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing header row"));
-            String[] headersRaw = headerLine.split(",");
-            Map<String,Integer> idx = new HashMap<>();
-            for(int i=0;i<headersRaw.length;i++) idx.put(headersRaw[i].trim().toLowerCase(), i);
-            String[] required = {"studentnumber","street","city","state","zipcode"};
-            for(String r: required) if(!idx.containsKey(r)) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing column: "+r));
-            String line; int row=1;
-            while((line=reader.readLine())!=null){
-                row++; if(line.isBlank()) continue; String[] parts=line.split(",", -1);
-                try {
-                    Long studentNumber = Long.parseLong(get(parts, idx.get("studentnumber")));
-                    StudentData student = studentService.getStudentByNumber(studentNumber);
-                    if(student==null) throw new IllegalArgumentException("Missing FK student");
-                    AddressDetails ad = AddressDetails.builder()
-                            .student(student)
-                            .street(get(parts, idx.get("street")))
-                            .city(get(parts, idx.get("city")))
-                            .state(get(parts, idx.get("state")))
-                            .zipCode(get(parts, idx.get("zipcode")))
-                            .build();
-                    created.add(addressService.createAddress(ad));
-                } catch(Exception ex){ errors.add("Row "+row+": "+ex.getMessage()); }
-            }
-        }
-        if(!errors.isEmpty()) return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(Map.of("inserted",created.size(),"errors",errors,"addresses",created));
-        return ResponseEntity.ok(created);
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file, @RequestParam(defaultValue = "false") boolean sync) throws IOException {
+        return csvUploads.accept(file, sync, "addresses", new String[]{"studentnumber","street","city","state","zipcode"},
+                () -> new ChunkedImport<>(chunkSize, addressService::createAddresses, addressService::createAddress, x -> { x.setAddressNumber(null); x.setVersion(null); }),
+                AddressController::parseRow, this::rowImporter, Function.identity());
+    }
+
+    private record AddressRow(long studentNumber, AddressDetails address) {}
+
+    private static AddressRow parseRow(CsvFields row) {
+        return new AddressRow(row.longValue("studentnumber"), AddressDetails.builder()
+                .street(row.text("street"))
+                .city(row.text("city"))
+                .state(row.text("state"))
+                .zipCode(row.text("zipcode"))
+                .build());
     }
 
-    private String get(String[] parts, int i){ return (i>=0 && i<parts.length)? parts[i].trim():""; }
+    private CsvIngest.ChunkHandler<AddressRow, AddressDetails> rowImporter() {
+        ReferenceResolver<StudentData> students = new ReferenceResolver<>(studentService::getStudentsByNumbers, StudentData::getStudentNumber);
+        return (rows, importer) -> {
+            students.prefetch(rows.stream().map(r -> r.value().studentNumber()).toList());
+            for (CsvRow<AddressRow> r : rows) {
+                StudentData student = students.get(r.value().studentNumber());
+                if (student == null) { importer.fail(r.row(), "Missing FK student"); continue; }
+                r.value().address().setStudent(student);
+                importer.add(r.row(), r.value().address());
+            }
+        };
+    }
 
     @PostMapping
     public ResponseEntity<?> create(@Valid @RequestBody AddressDetailsDto dto){
@@ -78,6 +106,8 @@ public class AddressController {
                     .build();
             AddressDetails saved = addressService.createAddress(entity);
             return ResponseEntity.status(HttpStatus.CREATED).body(mapEntity(saved));
+        } catch(DatabaseBusyException ex){
+            throw ex; // 503 via ConcurrencyExceptionHandler
         } catch(Exception ex){
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid address data").details(ex.getMessage()).build());
         }
@@ -87,18 +117,20 @@ public class AddressController {
     public ResponseEntity<?> get(@PathVariable Long addressNumber){
         AddressDetails ad = addressService.getAddressById(addressNumber);
         if(ad==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Address not found").details("addressNumber="+addressNumber).build());
-        return ResponseEntity.ok(mapEntity(ad));
+        return ResponseEntity.ok().eTag(Preconditions.etag(ad.getVersion())).body(mapEntity(ad));
     }
 
     @PutMapping("/{addressNumber}")
-    public ResponseEntity<?> update(@PathVariable Long addressNumber, @Valid @RequestBody AddressDetailsDto dto){
+    public ResponseEntity<?> update(@PathVariable Long addressNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch, @Valid @RequestBody AddressDetailsDto dto){
         AddressDetails existing = addressService.getAddressById(addressNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Address not found").details("addressNumber="+addressNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Address", existing.getVersion());
         try {
             StudentData student = studentService.getStudentByNumber(Long.parseLong(dto.getStudentNumber()));
             if(student==null) return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid studentNumber").build());
             AddressDetails updated = AddressDetails.builder()
                     .addressNumber(addressNumber)
+                    .version(existing.getVersion())
                     .student(student)
                     .street(dto.getStreet())
                     .city(dto.getCity())
@@ -106,16 +138,19 @@ public class AddressController {
                     .zipCode(dto.getZipCode())
                     .build();
             AddressDetails saved = addressService.updateAddress(addressNumber, updated);
-            return ResponseEntity.ok(mapEntity(saved));
+            return ResponseEntity.ok().eTag(Preconditions.etag(saved.getVersion())).body(mapEntity(saved));
+        } catch(OptimisticLockingFailureException | DatabaseBusyException ex){
+            throw ex; // 412/503 via ConcurrencyExceptionHandler
         } catch(Exception ex){
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid address data").details(ex.getMessage()).build());
         }
     }
 
     @DeleteMapping("/{addressNumber}")
-    public ResponseEntity<?> delete(@PathVariable Long addressNumber){
+    public ResponseEntity<?> delete(@PathVariable Long addressNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch){
         AddressDetails existing = addressService.getAddressById(addressNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Address not found").details("addressNumber="+addressNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Address", existing.getVersion());
         addressService.deleteAddress(addressNumber);
         return ResponseEntity.noContent().build();
     }
@@ -128,6 +163,7 @@ public class AddressController {
                 .city(a.getCity())
                 .state(a.getState())
                 .zipCode(a.getZipCode())
+                .version(a.getVersion())
                 .build();
     }
 }
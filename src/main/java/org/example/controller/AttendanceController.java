@@ -1,24 +1,44 @@
 package org.example.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.controller.support.BatchWrites;
+import org.example.controller.support.ChunkedImport;
+import org.example.controller.support.CsvExport;
+import org.example.controller.support.CsvFields;
+import org.example.controller.support.CsvIngest;
+import org.example.controller.support.CsvRow;
+import org.example.controller.support.CsvUploads;
+import org.example.controller.support.KeysetPaging;
+import org.example.controller.support.Preconditions;
+import org.example.controller.support.ReferenceResolver;
+import org.example.controller.support.StreamFormats;
 import org.example.entity.AttendanceData;
 import org.example.entity.EnrollmentData;
 import org.example.entity.StudentData;
+import org.example.service.DatabaseBusyException;
 import org.example.service.AttendanceDataService;
+import org.example.service.AttendanceRollupService;
 import org.example.service.EnrollmentDataService;
 import org.example.service.StudentDataService;
 import org.example.dto.AttendanceDataDto;
+import org.example.dto.AttendanceSummaryDto;
 import org.example.dto.ErrorDto;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/attendance")
@@ -27,48 +47,68 @@ public class AttendanceController {
     private final AttendanceDataService attendanceService;
     private final EnrollmentDataService enrollmentService;
     private final StudentDataService studentService;
+    private final StreamFormats streamFormats;
+    private final CsvUploads csvUploads;
+    private final DatabaseConcurrencyLimiter limiter;
+    private final AttendanceRollupService rollupService;
+    private final BatchWrites batchWrites;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
 
     @GetMapping
-    public List<AttendanceData> list(){ return attendanceService.getAllAttendance(); }
+    public ResponseEntity<StreamingResponseBody> list(@RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort, @RequestHeader HttpHeaders headers) {
+        return KeysetPaging.stream(streamFormats.negotiate(headers), after, sort, attendanceService::getAttendancePage, AttendanceDataDto::getAttendanceNumber, Function.identity());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<AttendanceDataDto>> page(@RequestParam Integer limit, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort) {
+        return KeysetPaging.page(limit, after, sort, attendanceService::getAttendancePage, AttendanceDataDto::getAttendanceNumber, Function.identity());
+    }
+
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        return CsvExport.<AttendanceData>stream(limiter, "attendance.csv", new String[]{"attendanceNumber", "studentNumber", "enrollmentNumber", "attendanceDate", "attendanceStatus", "semester"}, attendanceService::exportAttendance,
+                a -> new Object[]{a.getAttendanceNumber(), a.getStudent().getStudentNumber(), a.getEnrollment().getEnrollmentNumber(), a.getAttendanceDate(), a.getAttendanceStatus(), a.getSemester()});
+    }
 
     @PostMapping("/upload-csv")
-    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) throws IOException {
-        if(file.isEmpty()) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Empty file"));
-        List<AttendanceData> created = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        try(BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))){
-            String headerLine = reader.readLine();
-            if(headerLine == null) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing header row"));
-            String[] headersRaw = headerLine.split(",");
-            Map<String,Integer> idx = new HashMap<>();
-            for(int i=0;i<headersRaw.length;i++) idx.put(headersRaw[i].trim().toLowerCase(), i);
-            String[] required = {"studentnumber","enrollmentnumber","attendancedate","attendancestatus","semester"};
-            for(String r: required) if(!idx.containsKey(r)) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing column: "+r));
-            String line; int row=1;
-            while((line=reader.readLine())!=null){
-                row++; if(line.isBlank()) continue; String[] parts=line.split(",", -1);
-                try {
-                    Long studentNumber = Long.parseLong(get(parts, idx.get("studentnumber")));
-                    Long enrollmentNumber = Long.parseLong(get(parts, idx.get("enrollmentnumber")));
-                    StudentData student = studentService.getStudentByNumber(studentNumber);
-                    EnrollmentData enrollment = enrollmentService.getEnrollmentByNumber(enrollmentNumber);
-                    if(student==null || enrollment==null) throw new IllegalArgumentException("Missing FK student or enrollment");
-                    AttendanceData ad = AttendanceData.builder()
-                            .student(student)
-                            .enrollment(enrollment)
-                            .attendanceDate(LocalDate.parse(get(parts, idx.get("attendancedate"))))
-                            .attendanceStatus(AttendanceData.AttendanceStatus.valueOf(get(parts, idx.get("attendancestatus")).toUpperCase()))
-                            .semester(get(parts, idx.get("semester")))
-                            .build();
-                    created.add(attendanceService.createAttendance(ad));
-                } catch(Exception ex){ errors.add("Row "+row+": "+ex.getMessage()); }
-            }
-        }
-        if(!errors.isEmpty()) return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(Map.of("inserted",created.size(),"errors",errors,"attendance",created));
-        return ResponseEntity.ok(created);
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file, @RequestParam(defaultValue = "false") boolean sync) throws IOException {
+        return csvUploads.accept(file, sync, "attendance", new String[]{"studentnumber","enrollmentnumber","attendancedate","attendancestatus","semester"},
+                this::importer, AttendanceController::parseRow, this::rowImporter, Function.identity());
     }
 
-    private String get(String[] parts, int i){ return (i>=0 && i<parts.length)? parts[i].trim():""; }
+    private ChunkedImport<AttendanceData> importer() {
+        return new ChunkedImport<>(chunkSize, attendanceService::createAttendanceRecords, attendanceService::createAttendance, x -> { x.setAttendanceNumber(null); x.setVersion(null); });
+    }
+
+    record AttendanceRow(long studentNumber, long enrollmentNumber, AttendanceData attendance) {}
+
+    static AttendanceRow parseRow(CsvFields row) {
+        return new AttendanceRow(row.longValue("studentnumber"), row.longValue("enrollmentnumber"), AttendanceData.builder()
+                .attendanceDate(row.date("attendancedate"))
+                .attendanceStatus(AttendanceData.AttendanceStatus.valueOf(row.text("attendancestatus").toUpperCase()))
+                .semester(row.text("semester"))
+                .build());
+    }
+
+    private CsvIngest.ChunkHandler<AttendanceRow, AttendanceData> rowImporter() {
+        ReferenceResolver<StudentData> students = new ReferenceResolver<>(studentService::getStudentsByNumbers, StudentData::getStudentNumber);
+        ReferenceResolver<EnrollmentData> enrollments = new ReferenceResolver<>(enrollmentService::getEnrollmentsByNumbers, EnrollmentData::getEnrollmentNumber);
+        return (rows, importer) -> {
+            students.prefetch(rows.stream().map(r -> r.value().studentNumber()).toList());
+            enrollments.prefetch(rows.stream().map(r -> r.value().enrollmentNumber()).toList());
+            for (CsvRow<AttendanceRow> r : rows) {
+                StudentData student = students.get(r.value().studentNumber());
+                EnrollmentData enrollment = enrollments.get(r.value().enrollmentNumber());
+                if (student == null || enrollment == null) { importer.fail(r.row(), "Missing FK student or enrollment"); continue; }
+                AttendanceData ad = r.value().attendance();
+                ad.setStudent(student);
+                ad.setEnrollment(enrollment);
+                importer.add(r.row(), ad);
+            }
+        };
+    }
 
     @PostMapping
     public ResponseEntity<?> create(@Valid @RequestBody AttendanceDataDto dto){
@@ -76,37 +116,89 @@ public class AttendanceController {
             StudentData student = studentService.getStudentByNumber(Long.parseLong(dto.getStudentNumber()));
             EnrollmentData enrollment = enrollmentService.getEnrollmentByNumber(dto.getEnrollmentNumber());
             if(student==null || enrollment==null) return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid FK student or enrollment").build());
-            AttendanceData entity = AttendanceData.builder()
-                    .student(student)
-                    .enrollment(enrollment)
-                    .attendanceDate(dto.getAttendanceDate())
-                    .attendanceStatus(AttendanceData.AttendanceStatus.values()[dto.getAttendanceStatus()])
-                    .semester(dto.getSemester())
-                    .build();
-            AttendanceData saved = attendanceService.createAttendance(entity);
+            AttendanceData saved = attendanceService.createAttendance(mapDto(dto, student, enrollment));
             return ResponseEntity.status(HttpStatus.CREATED).body(mapEntity(saved));
+        } catch(DatabaseBusyException ex){
+            throw ex; // 503 via ConcurrencyExceptionHandler
         } catch(Exception ex){
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid attendance data").details(ex.getMessage()).build());
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBatch(@RequestBody List<AttendanceDataDto> items){
+        ReferenceResolver<StudentData> students = new ReferenceResolver<>(studentService::getStudentsByNumbers, StudentData::getStudentNumber);
+        ReferenceResolver<EnrollmentData> enrollments = new ReferenceResolver<>(enrollmentService::getEnrollmentsByNumbers, EnrollmentData::getEnrollmentNumber);
+        return batchWrites.accept("attendance", items, chunkSize, importer(),
+                chunk -> {
+                    students.prefetch(chunk.stream().map(d -> BatchWrites.number(d.getStudentNumber())).toList());
+                    enrollments.prefetch(chunk.stream().map(AttendanceDataDto::getEnrollmentNumber).toList());
+                },
+                dto -> {
+                    StudentData student = students.get(Long.parseLong(dto.getStudentNumber()));
+                    EnrollmentData enrollment = enrollments.get(dto.getEnrollmentNumber());
+                    if(student==null || enrollment==null) throw new IllegalArgumentException("Invalid FK student or enrollment");
+                    return mapDto(dto, student, enrollment);
+                }, AttendanceData::getAttendanceNumber);
+    }
+
+    /**
+     * Reads the rollup counters: exactly one of enrollmentNumber, studentNumber (optionally one semester) or
+     * courseNumber (per date within from..to) selects the summary.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<?> summary(@RequestParam(required = false) Long enrollmentNumber,
+                                     @RequestParam(required = false) Long studentNumber, @RequestParam(required = false) String semester,
+                                     @RequestParam(required = false) Long courseNumber,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        if(Stream.of(enrollmentNumber, studentNumber, courseNumber).filter(Objects::nonNull).count() != 1)
+            return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Specify exactly one of enrollmentNumber, studentNumber or courseNumber").build());
+        if(enrollmentNumber!=null) return ResponseEntity.ok(rollupService.getEnrollmentSummary(enrollmentNumber));
+        if(studentNumber!=null) return ResponseEntity.ok(rollupService.getStudentSummary(studentNumber, semester));
+        if(from==null && to==null)
+            return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("courseNumber requires from and/or to").build());
+        List<AttendanceSummaryDto> days = rollupService.getCourseSummary(courseNumber, from!=null? from : to, to!=null? to : from);
+        return ResponseEntity.ok(days);
+    }
+
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<Map<String,Integer>> rebuildSummary(){
+        return ResponseEntity.ok(rollupService.rebuild());
+    }
+
+    /**
+     * Day counts, rate and present streaks per enrollment from the attendance bitmaps, optionally within from..to;
+     * answered from memory, so asking for many enrollments at once is cheap.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats(@RequestParam List<Long> enrollmentNumber,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        if(enrollmentNumber.size() > KeysetPaging.MAX_LIMIT)
+            return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("At most " + KeysetPaging.MAX_LIMIT + " enrollments per request").details("enrollmentNumber count=" + enrollmentNumber.size()).build());
+        return ResponseEntity.ok(attendanceService.getAttendanceStats(enrollmentNumber, from, to));
+    }
+
     @GetMapping("/{attendanceNumber}")
     public ResponseEntity<?> get(@PathVariable Long attendanceNumber){
         AttendanceData ad = attendanceService.getAttendanceById(attendanceNumber);
         if(ad==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Attendance not found").details("attendanceNumber="+attendanceNumber).build());
-        return ResponseEntity.ok(mapEntity(ad));
+        return ResponseEntity.ok().eTag(Preconditions.etag(ad.getVersion())).body(mapEntity(ad));
     }
 
     @PutMapping("/{attendanceNumber}")
-    public ResponseEntity<?> update(@PathVariable Long attendanceNumber, @Valid @RequestBody AttendanceDataDto dto){
+    public ResponseEntity<?> update(@PathVariable Long attendanceNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch, @Valid @RequestBody AttendanceDataDto dto){
         AttendanceData existing = attendanceService.getAttendanceById(attendanceNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Attendance not found").details("attendanceNumber="+attendanceNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Attendance", existing.getVersion());
         try {
             StudentData student = studentService.getStudentByNumber(Long.parseLong(dto.getStudentNumber()));
             EnrollmentData enrollment = enrollmentService.getEnrollmentByNumber(dto.getEnrollmentNumber());
             if(student==null || enrollment==null) return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid FK student or enrollment").build());
             AttendanceData updated = AttendanceData.builder()
                     .attendanceNumber(attendanceNumber)
+                    .version(existing.getVersion())
                     .student(student)
                     .enrollment(enrollment)
                     .attendanceDate(dto.getAttendanceDate())
@@ -114,19 +206,32 @@ public class AttendanceController {
                     .semester(dto.getSemester())
                     .build();
             AttendanceData saved = attendanceService.updateAttendance(attendanceNumber, updated);
-            return ResponseEntity.ok(mapEntity(saved));
+            return ResponseEntity.ok().eTag(Preconditions.etag(saved.getVersion())).body(mapEntity(saved));
+        } catch(OptimisticLockingFailureException | DatabaseBusyException ex){
+            throw ex; // 412/503 via ConcurrencyExceptionHandler
         } catch(Exception ex){
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid attendance data").details(ex.getMessage()).build());
         }
     }
 
     @DeleteMapping("/{attendanceNumber}")
-    public ResponseEntity<?> delete(@PathVariable Long attendanceNumber){
+    public ResponseEntity<?> delete(@PathVariable Long attendanceNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch){
         AttendanceData existing = attendanceService.getAttendanceById(attendanceNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Attendance not found").details("attendanceNumber="+attendanceNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Attendance", existing.getVersion());
         attendanceService.deleteAttendance(attendanceNumber); return ResponseEntity.noContent().build();
     }
 
+    private AttendanceData mapDto(AttendanceDataDto dto, StudentData student, EnrollmentData enrollment){
+        return AttendanceData.builder()
+                .student(student)
+                .enrollment(enrollment)
+                .attendanceDate(dto.getAttendanceDate())
+                .attendanceStatus(AttendanceData.AttendanceStatus.values()[dto.getAttendanceStatus()])
+                .semester(dto.getSemester())
+                .build();
+    }
+
     private AttendanceDataDto mapEntity(AttendanceData a){
         return AttendanceDataDto.builder()
                 .attendanceNumber(a.getAttendanceNumber())
@@ -135,6 +240,7 @@ public class AttendanceController {
                 .attendanceDate(a.getAttendanceDate())
                 .attendanceStatus(a.getAttendanceStatus().ordinal())
                 .semester(a.getSemester())
+                .version(a.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,31 @@
+package org.example.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/** Exposes the JCache statistics of the second-level cache regions (hits, misses, evictions, ...). */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+    private static final String[] ATTRIBUTES = {"CacheHits", "CacheMisses", "CacheHitPercentage", "CachePuts", "CacheRemovals", "CacheEvictions"};
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Map<String, Map<String, Object>> regions = new TreeMap<>();
+        for (ObjectName name : server.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String attribute : ATTRIBUTES) values.put(attribute, server.getAttribute(name, attribute));
+            regions.put(name.getKeyProperty("Cache"), values);
+        }
+        return ResponseEntity.ok(regions);
+    }
+}
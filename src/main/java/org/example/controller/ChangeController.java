@@ -0,0 +1,68 @@
+package org.example.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.controller.support.ChangeFeed;
+import org.example.dto.AttendanceDataDto;
+import org.example.dto.EnrollmentDataDto;
+import org.example.dto.ErrorDto;
+import org.example.dto.GradesDto;
+import org.example.entity.AttendanceData;
+import org.example.entity.EnrollmentData;
+import org.example.entity.Grades;
+import org.example.entity.StudentData;
+import org.example.service.EntityChange;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Server-sent change feed: every committed insert, update and delete of the service layer, with the row in the same
+ * shape as the section's list endpoint, so a client can keep its loaded lists current without re-fetching them.
+ */
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+    private final ChangeFeed feed;
+
+    @GetMapping("/stream")
+    public SseEmitter stream(@RequestParam(required = false) List<String> entities, @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (entities == null || entities.isEmpty()) return feed.subscribe(entity -> true, lastEventId);
+        Set<String> wanted = new HashSet<>(entities);
+        wanted.removeIf(EntityChange.ENTITIES::contains);
+        if (!wanted.isEmpty()) throw new IllegalArgumentException("Unknown entities " + wanted + ", expected any of " + EntityChange.ENTITIES);
+        return feed.subscribe(Set.copyOf(entities)::contains, lastEventId);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorDto> badRequest(IllegalArgumentException ex) {
+        // explicit JSON: EventSource clients send Accept: text/event-stream
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorDto.builder().status(400).message("Invalid change stream request").details(ex.getMessage()).build());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(EntityChange change) {
+        feed.publish(new ChangeFeed.Change(change.entity(), change.op().name(), change.id(), change.value() == null ? null : listRow(change.value())));
+    }
+
+    /** The row as {@code GET /api/{section}} lists it. */
+    static Object listRow(Object value) {
+        return switch (value) {
+            case StudentData s -> StudentController.mapEntityToDto(s);
+            case EnrollmentData e -> new EnrollmentDataDto(e.getEnrollmentNumber(), e.getStudent().getStudentNumber(), e.getCourse().getCourseNumber(),
+                    e.getEnrollmentDate(), e.getOverallGrade(), e.getSemester(), e.getInstructorName(), e.getVersion());
+            case Grades g -> new GradesDto(g.getGradeNumber(), g.getEnrollment().getEnrollmentNumber(), g.getAssessmentDate(), g.getAssessmentType(),
+                    g.getObtainedScore(), g.getMaxScore(), g.getGradeCode(), g.getVersion());
+            case AttendanceData a -> new AttendanceDataDto(a.getAttendanceNumber(), a.getEnrollment().getEnrollmentNumber(), a.getStudent().getStudentNumber(),
+                    a.getAttendanceDate(), a.getAttendanceStatus(), a.getSemester(), a.getVersion());
+            default -> value; // courses, addresses and contacts are listed as entities
+        };
+    }
+}
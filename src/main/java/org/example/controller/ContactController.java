@@ -1,22 +1,38 @@
 package org.example.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.controller.support.ChunkedImport;
+import org.example.controller.support.CsvExport;
+import org.example.controller.support.CsvFields;
+import org.example.controller.support.CsvIngest;
+import org.example.controller.support.CsvRow;
+import org.example.controller.support.CsvUploads;
+import org.example.controller.support.KeysetPaging;
+import org.example.controller.support.Preconditions;
+import org.example.controller.support.ReferenceResolver;
+import org.example.controller.support.StreamFormats;
+import org.example.controller.support.UniqueKeys;
 import org.example.entity.ContactDetails;
 import org.example.entity.StudentData;
+import org.example.service.DatabaseBusyException;
 import org.example.service.ContactDetailsService;
 import org.example.service.StudentDataService;
 import org.example.dto.ContactDetailsDto;
 import org.example.dto.ErrorDto;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.*;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/contacts")
@@ -24,44 +40,67 @@ import java.util.*;
 public class ContactController {
     private final ContactDetailsService contactService;
     private final StudentDataService studentService;
+    private final StreamFormats streamFormats;
+    private final CsvUploads csvUploads;
+    private final DatabaseConcurrencyLimiter limiter;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
 
     @GetMapping
-    public List<ContactDetails> list(){ return contactService.getAllContacts(); }
+    public ResponseEntity<StreamingResponseBody> list(@RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort, @RequestHeader HttpHeaders headers) {
+        return KeysetPaging.stream(streamFormats.negotiate(headers), after, sort, contactService::getContactPage, ContactDetails::getContactNumber, Function.identity());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<ContactDetails>> page(@RequestParam Integer limit, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort) {
+        return KeysetPaging.page(limit, after, sort, contactService::getContactPage, ContactDetails::getContactNumber, Function.identity());
+    }
+
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        return CsvExport.<ContactDetails>stream(limiter, "contacts.csv", new String[]{"contactNumber", "studentNumber", "emailAddress", "mobileNumber"}, contactService::exportContacts,
+                c -> new Object[]{c.getContactNumber(), c.getStudent().getStudentNumber(), c.getEmailAddress(), c.getMobileNumber()});
+    }
 
     @PostMapping("/upload-csv")
-    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) throws IOException {
-        if(file.isEmpty()) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Empty file"));
-        List<ContactDetails> created = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        try(BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))){
-            String headerLine = reader.readLine();
-            if(headerLine == null) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing header row"));
-            String[] headersRaw = headerLine.split(",");
-            Map<String,Integer> idx = new HashMap<>();
-            for(int i=0;i<headersRaw.length;i++) idx.put(headersRaw[i].trim().toLowerCase(), i);
-            String[] required = {"studentnumber","emailaddress","mobilenumber"};
-            for(String r: required) if(!idx.containsKey(r)) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing column: "+r));
-            String line; int row=1;
-            while((line=reader.readLine())!=null){
-                row++; if(line.isBlank()) continue; String[] parts=line.split(",", -1);
-                try {
-                    Long studentNumber = Long.parseLong(get(parts, idx.get("studentnumber")));
-                    StudentData student = studentService.getStudentByNumber(studentNumber);
-                    if(student==null) throw new IllegalArgumentException("Missing FK student");
-                    ContactDetails cd = ContactDetails.builder()
-                            .student(student)
-                            .emailAddress(get(parts, idx.get("emailaddress")))
-                            .mobileNumber(get(parts, idx.get("mobilenumber")))
-                            .build();
-                    created.add(contactService.createContact(cd));
-                } catch(Exception ex){ errors.add("Row "+row+": "+ex.getMessage()); }
-            }
-        }
-        if(!errors.isEmpty()) return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(Map.of("inserted",created.size(),"errors",errors,"contacts",created));
-        return ResponseEntity.ok(created);
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file, @RequestParam(defaultValue = "false") boolean sync) throws IOException {
+        return csvUploads.accept(file, sync, "contacts", new String[]{"studentnumber","emailaddress","mobilenumber"},
+                () -> new ChunkedImport<>(chunkSize, contactService::createContacts, contactService::createContact, x -> { x.setContactNumber(null); x.setVersion(null); }),
+                ContactController::parseRow, this::rowImporter, Function.identity());
+    }
+
+    private record ContactRow(long studentNumber, ContactDetails contact) {}
+
+    private static ContactRow parseRow(CsvFields row) {
+        return new ContactRow(row.longValue("studentnumber"), ContactDetails.builder()
+                .emailAddress(row.text("emailaddress"))
+                .mobileNumber(row.text("mobilenumber"))
+                .build());
     }
 
-    private String get(String[] parts, int i){ return (i>=0 && i<parts.length)? parts[i].trim():""; }
+    private CsvIngest.ChunkHandler<ContactRow, ContactDetails> rowImporter() {
+        ReferenceResolver<StudentData> students = new ReferenceResolver<>(studentService::getStudentsByNumbers, StudentData::getStudentNumber);
+        UniqueKeys<String> emails = new UniqueKeys<>("emailAddress", contactService::getExistingEmailAddresses);
+        UniqueKeys<String> mobiles = new UniqueKeys<>("mobileNumber", contactService::getExistingMobileNumbers);
+        return (rows, importer) -> {
+            students.prefetch(rows.stream().map(r -> r.value().studentNumber()).toList());
+            emails.prefetch(rows.stream().map(r -> r.value().contact().getEmailAddress()).toList());
+            mobiles.prefetch(rows.stream().map(r -> r.value().contact().getMobileNumber()).toList());
+            for (CsvRow<ContactRow> r : rows) {
+                StudentData student = students.get(r.value().studentNumber());
+                if (student == null) { importer.fail(r.row(), "Missing FK student"); continue; }
+                ContactDetails contact = r.value().contact();
+                String duplicate = emails.conflict(contact.getEmailAddress());
+                if (duplicate == null) duplicate = mobiles.conflict(contact.getMobileNumber());
+                if (duplicate != null) { importer.fail(r.row(), duplicate); continue; }
+                emails.claim(contact.getEmailAddress(), r.row());
+                mobiles.claim(contact.getMobileNumber(), r.row());
+                contact.setStudent(student);
+                importer.add(r.row(), contact);
+            }
+        };
+    }
 
     @PostMapping
     public ResponseEntity<?> create(@Valid @RequestBody ContactDetailsDto dto){
@@ -75,6 +114,8 @@ public class ContactController {
                     .build();
             ContactDetails saved = contactService.createContact(entity);
             return ResponseEntity.status(HttpStatus.CREATED).body(mapEntity(saved));
+        } catch(DatabaseBusyException ex){
+            throw ex; // 503 via ConcurrencyExceptionHandler
         } catch(Exception ex){
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid contact data").details(ex.getMessage()).build());
         }
@@ -84,33 +125,38 @@ public class ContactController {
     public ResponseEntity<?> get(@PathVariable Long contactNumber){
         ContactDetails cd = contactService.getContactById(contactNumber);
         if(cd==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Contact not found").details("contactNumber="+contactNumber).build());
-        return ResponseEntity.ok(mapEntity(cd));
+        return ResponseEntity.ok().eTag(Preconditions.etag(cd.getVersion())).body(mapEntity(cd));
     }
 
     @PutMapping("/{contactNumber}")
-    public ResponseEntity<?> update(@PathVariable Long contactNumber, @Valid @RequestBody ContactDetailsDto dto){
+    public ResponseEntity<?> update(@PathVariable Long contactNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch, @Valid @RequestBody ContactDetailsDto dto){
         ContactDetails existing = contactService.getContactById(contactNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Contact not found").details("contactNumber="+contactNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Contact", existing.getVersion());
         try {
             StudentData student = studentService.getStudentByNumber(Long.parseLong(dto.getStudentNumber()));
             if(student==null) return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid studentNumber").build());
             ContactDetails updated = ContactDetails.builder()
                     .contactNumber(contactNumber)
+                    .version(existing.getVersion())
                     .student(student)
                     .emailAddress(dto.getEmailAddress())
                     .mobileNumber(dto.getMobileNumber())
                     .build();
             ContactDetails saved = contactService.updateContact(contactNumber, updated);
-            return ResponseEntity.ok(mapEntity(saved));
+            return ResponseEntity.ok().eTag(Preconditions.etag(saved.getVersion())).body(mapEntity(saved));
+        } catch(OptimisticLockingFailureException | DatabaseBusyException ex){
+            throw ex; // 412/503 via ConcurrencyExceptionHandler
         } catch(Exception ex){
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid contact data").details(ex.getMessage()).build());
         }
     }
 
     @DeleteMapping("/{contactNumber}")
-    public ResponseEntity<?> delete(@PathVariable Long contactNumber){
+    public ResponseEntity<?> delete(@PathVariable Long contactNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch){
         ContactDetails existing = contactService.getContactById(contactNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Contact not found").details("contactNumber="+contactNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Contact", existing.getVersion());
         contactService.deleteContact(contactNumber); return ResponseEntity.noContent().build();
     }
 
@@ -120,6 +166,7 @@ public class ContactController {
                 .studentNumber(c.getStudent().getStudentNumber().toString())
                 .emailAddress(c.getEmailAddress())
                 .mobileNumber(c.getMobileNumber())
+                .version(c.getVersion())
                 .build();
     }
 }
@@ -1,58 +1,95 @@
 package org.example.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.controller.support.ChunkedImport;
+import org.example.controller.support.CsvExport;
+import org.example.controller.support.CsvFields;
+import org.example.controller.support.CsvIngest;
+import org.example.controller.support.CsvRow;
+import org.example.controller.support.CsvUploads;
+import org.example.controller.support.KeysetPaging;
+import org.example.controller.support.Preconditions;
+import org.example.controller.support.StreamFormats;
+import org.example.controller.support.UniqueKeys;
 import org.example.entity.CourseDetails;
+import org.example.service.DatabaseBusyException;
 import org.example.service.CourseDetailsService;
 import org.example.dto.CourseDetailsDto;
 import org.example.dto.ErrorDto;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.*;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/courses")
 @RequiredArgsConstructor
 public class CourseController {
     private final CourseDetailsService service;
+    private final StreamFormats streamFormats;
+    private final CsvUploads csvUploads;
+    private final DatabaseConcurrencyLimiter limiter;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
 
     @GetMapping
-    public List<CourseDetails> list() { return service.getAllCourses(); }
+    public ResponseEntity<StreamingResponseBody> list(@RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort, @RequestHeader HttpHeaders headers) {
+        return KeysetPaging.stream(streamFormats.negotiate(headers), after, sort, service::getCoursePage, CourseDetails::getCourseNumber, Function.identity());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<CourseDetails>> page(@RequestParam Integer limit, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort) {
+        return KeysetPaging.page(limit, after, sort, service::getCoursePage, CourseDetails::getCourseNumber, Function.identity());
+    }
+
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        return CsvExport.<CourseDetails>stream(limiter, "courses.csv", new String[]{"courseNumber", "courseName", "courseCode", "courseCredits"}, service::exportCourses,
+                c -> new Object[]{c.getCourseNumber(), c.getCourseName(), c.getCourseCode(), c.getCourseCredits()});
+    }
 
     @PostMapping("/upload-csv")
-    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) throws IOException {
-        if (file.isEmpty()) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Empty file"));
-        List<CourseDetails> created = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        try(BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            String headerLine = reader.readLine();
-            if (headerLine == null) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing header row"));
-            String[] headersRaw = headerLine.split(",");
-            Map<String,Integer> idx = new HashMap<>();
-            for(int i=0;i<headersRaw.length;i++) idx.put(headersRaw[i].trim().toLowerCase(), i);
-            String[] required = {"coursename","coursecode","coursecredits"};
-            for(String r: required) if(!idx.containsKey(r)) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing column: "+r));
-            String line; int row=1;
-            while((line = reader.readLine()) != null){
-                row++; if(line.isBlank()) continue; String[] parts = line.split(",", -1);
-                try {
-                    CourseDetails cd = CourseDetails.builder()
-                            .courseName(get(parts, idx.get("coursename")))
-                            .courseCode(get(parts, idx.get("coursecode")))
-                            .courseCredits(Double.parseDouble(get(parts, idx.get("coursecredits"))))
-                            .build();
-                    created.add(service.createCourse(cd));
-                } catch(Exception ex){ errors.add("Row "+row+": "+ex.getMessage()); }
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file, @RequestParam(defaultValue = "false") boolean sync) throws IOException {
+        return csvUploads.accept(file, sync, "courses", new String[]{"coursename","coursecode","coursecredits"},
+                () -> new ChunkedImport<>(chunkSize, service::createCourses, service::createCourse, x -> { x.setCourseNumber(null); x.setVersion(null); }),
+                CourseController::parseRow, this::rowImporter, Function.identity());
+    }
+
+    static CourseDetails parseRow(CsvFields row) {
+        return CourseDetails.builder()
+                .courseName(row.text("coursename"))
+                .courseCode(row.text("coursecode"))
+                .courseCredits(row.doubleValue("coursecredits"))
+                .build();
+    }
+
+    private CsvIngest.ChunkHandler<CourseDetails, CourseDetails> rowImporter() {
+        UniqueKeys<String> names = new UniqueKeys<>("courseName", service::getExistingCourseNames);
+        UniqueKeys<String> codes = new UniqueKeys<>("courseCode", service::getExistingCourseCodes);
+        return (rows, importer) -> {
+            names.prefetch(rows.stream().map(r -> r.value().getCourseName()).toList());
+            codes.prefetch(rows.stream().map(r -> r.value().getCourseCode()).toList());
+            for (CsvRow<CourseDetails> r : rows) {
+                CourseDetails course = r.value();
+                String duplicate = names.conflict(course.getCourseName());
+                if (duplicate == null) duplicate = codes.conflict(course.getCourseCode());
+                if (duplicate != null) { importer.fail(r.row(), duplicate); continue; }
+                names.claim(course.getCourseName(), r.row());
+                codes.claim(course.getCourseCode(), r.row());
+                importer.add(r.row(), course);
             }
-        }
-        if(!errors.isEmpty()) return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(Map.of("inserted",created.size(),"errors",errors,"courses",created));
-        return ResponseEntity.ok(created);
+        };
     }
 
     @PostMapping
@@ -61,6 +98,8 @@ public class CourseController {
             CourseDetails entity = mapDtoToEntity(dto);
             CourseDetails saved = service.createCourse(entity);
             return ResponseEntity.status(HttpStatus.CREATED).body(mapEntityToDto(saved));
+        } catch (DatabaseBusyException ex) {
+            throw ex; // 503 via ConcurrencyExceptionHandler
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid course data").details(ex.getMessage()).build());
         }
@@ -70,25 +109,32 @@ public class CourseController {
     public ResponseEntity<?> getByNumber(@PathVariable Long courseNumber) {
         CourseDetails course = service.getCourseByNumber(courseNumber);
         if(course==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Course not found").details("courseNumber="+courseNumber).build());
-        return ResponseEntity.ok(mapEntityToDto(course));
+        return ResponseEntity.ok().eTag(Preconditions.etag(course.getVersion())).body(mapEntityToDto(course));
     }
 
     @PutMapping("/{courseNumber}")
-    public ResponseEntity<?> update(@PathVariable Long courseNumber, @Valid @RequestBody CourseDetailsDto dto) {
+    public ResponseEntity<?> update(@PathVariable Long courseNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch, @Valid @RequestBody CourseDetailsDto dto) {
+        CourseDetails existing = service.getCourseByNumber(courseNumber);
+        if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Course not found").details("courseNumber="+courseNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Course", existing.getVersion());
         try {
             CourseDetails updated = mapDtoToEntity(dto);
+            updated.setVersion(existing.getVersion());
             CourseDetails saved = service.updateCourse(courseNumber, updated);
             if(saved==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Course not found").details("courseNumber="+courseNumber).build());
-            return ResponseEntity.ok(mapEntityToDto(saved));
+            return ResponseEntity.ok().eTag(Preconditions.etag(saved.getVersion())).body(mapEntityToDto(saved));
+        } catch (OptimisticLockingFailureException | DatabaseBusyException ex) {
+            throw ex; // 412/503 via ConcurrencyExceptionHandler
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid course data").details(ex.getMessage()).build());
         }
     }
 
     @DeleteMapping("/{courseNumber}")
-    public ResponseEntity<?> delete(@PathVariable Long courseNumber) {
+    public ResponseEntity<?> delete(@PathVariable Long courseNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         CourseDetails existing = service.getCourseByNumber(courseNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Course not found").details("courseNumber="+courseNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Course", existing.getVersion());
         service.deleteCourse(courseNumber);
         return ResponseEntity.noContent().build();
     }
@@ -99,6 +145,7 @@ public class CourseController {
                 .courseName(c.getCourseName())
                 .courseCode(c.getCourseCode())
                 .courseCredits(c.getCourseCredits())
+                .version(c.getVersion())
                 .build();
     }
     private CourseDetails mapDtoToEntity(CourseDetailsDto dto) {
@@ -108,5 +155,4 @@ public class CourseController {
                 .courseCredits(dto.getCourseCredits())
                 .build();
     }
-    private String get(String[] parts, int i){ return (i>=0 && i<parts.length)? parts[i].trim():""; }
 }
@@ -1,24 +1,42 @@
 package org.example.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.controller.support.BatchWrites;
+import org.example.controller.support.ChunkedImport;
+import org.example.controller.support.CsvExport;
+import org.example.controller.support.CsvFields;
+import org.example.controller.support.CsvIngest;
+import org.example.controller.support.CsvRow;
+import org.example.controller.support.CsvUploads;
+import org.example.controller.support.KeysetPaging;
+import org.example.controller.support.Preconditions;
+import org.example.controller.support.ReferenceResolver;
+import org.example.controller.support.StreamFormats;
+import org.example.controller.support.UniqueKeys;
 import org.example.entity.EnrollmentData;
 import org.example.entity.StudentData;
 import org.example.entity.CourseDetails;
+import org.example.service.DatabaseBusyException;
 import org.example.service.EnrollmentDataService;
 import org.example.service.StudentDataService;
 import org.example.service.CourseDetailsService;
 import org.example.dto.EnrollmentDataDto;
+import org.example.dto.EnrollmentFilter;
+import org.example.dto.EnrollmentKey;
 import org.example.dto.ErrorDto;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
 import java.io.IOException;
-import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/enrollments")
@@ -27,49 +45,79 @@ public class EnrollmentController {
     private final EnrollmentDataService enrollmentService;
     private final StudentDataService studentService;
     private final CourseDetailsService courseService;
+    private final StreamFormats streamFormats;
+    private final CsvUploads csvUploads;
+    private final DatabaseConcurrencyLimiter limiter;
+    private final BatchWrites batchWrites;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
 
     @GetMapping
-    public List<EnrollmentData> list(){ return enrollmentService.getAllEnrollments(); }
+    public ResponseEntity<StreamingResponseBody> list(EnrollmentFilter filter, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort, @RequestHeader HttpHeaders headers) {
+        return KeysetPaging.stream(streamFormats.negotiate(headers), after, sort, pages(filter), e -> Long.valueOf(e.getEnrollmentNumber()), Function.identity());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<EnrollmentDataDto>> page(EnrollmentFilter filter, @RequestParam Integer limit, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort) {
+        return KeysetPaging.page(limit, after, sort, pages(filter), e -> Long.valueOf(e.getEnrollmentNumber()), Function.identity());
+    }
+
+    private KeysetPaging.PageLoader<EnrollmentDataDto> pages(EnrollmentFilter filter) {
+        return filter.isEmpty() ? enrollmentService::getEnrollmentPage : (after, limit, descending) -> enrollmentService.getEnrollmentPage(filter, after, limit, descending);
+    }
+
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        return CsvExport.<EnrollmentData>stream(limiter, "enrollments.csv", new String[]{"enrollmentNumber", "studentNumber", "courseNumber", "enrollmentDate", "overallGrade", "semester", "instructorName"}, enrollmentService::exportEnrollments,
+                e -> new Object[]{e.getEnrollmentNumber(), e.getStudent().getStudentNumber(), e.getCourse().getCourseNumber(), e.getEnrollmentDate(), e.getOverallGrade(), e.getSemester(), e.getInstructorName()});
+    }
 
     @PostMapping("/upload-csv")
-    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) throws IOException {
-        if(file.isEmpty()) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Empty file"));
-        List<EnrollmentData> created = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        try(BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))){
-            String headerLine = reader.readLine();
-            if(headerLine == null) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing header row"));
-            String[] headersRaw = headerLine.split(",");
-            Map<String,Integer> idx = new HashMap<>();
-            for(int i=0;i<headersRaw.length;i++) idx.put(headersRaw[i].trim().toLowerCase(), i);
-            String[] required = {"studentnumber","coursenumber","enrollmentdate","overallgrade","semester","instructorname"};
-            for(String r: required) if(!idx.containsKey(r)) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing column: "+r));
-            String line; int row=1;
-            while((line=reader.readLine())!=null){
-                row++; if(line.isBlank()) continue; String[] parts = line.split(",", -1);
-                try {
-                    Long studentNumber = Long.parseLong(get(parts, idx.get("studentnumber")));
-                    Long courseNumber = Long.parseLong(get(parts, idx.get("coursenumber")));
-                    StudentData student = studentService.getStudentByNumber(studentNumber);
-                    CourseDetails course = courseService.getCourseByNumber(courseNumber);
-                    if(student == null || course == null) throw new IllegalArgumentException("Missing FK student or course");
-                    EnrollmentData ed = EnrollmentData.builder()
-                            .student(student)
-                            .course(course)
-                            .enrollmentDate(LocalDate.parse(get(parts, idx.get("enrollmentdate"))))
-                            .overallGrade(Integer.parseInt(get(parts, idx.get("overallgrade"))))
-                            .semester(get(parts, idx.get("semester")))
-                            .instructorName(get(parts, idx.get("instructorname")))
-                            .build();
-                    created.add(enrollmentService.createEnrollment(ed));
-                } catch(Exception ex){ errors.add("Row "+row+": "+ex.getMessage()); }
-            }
-        }
-        if(!errors.isEmpty()) return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(Map.of("inserted",created.size(),"errors",errors,"enrollments",created));
-        return ResponseEntity.ok(created);
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file, @RequestParam(defaultValue = "false") boolean sync) throws IOException {
+        return csvUploads.accept(file, sync, "enrollments", new String[]{"studentnumber","coursenumber","enrollmentdate","overallgrade","semester","instructorname"},
+                this::importer, EnrollmentController::parseRow, this::rowImporter, Function.identity());
+    }
+
+    private ChunkedImport<EnrollmentData> importer() {
+        return new ChunkedImport<>(chunkSize, enrollmentService::createEnrollments, enrollmentService::createEnrollment, x -> { x.setEnrollmentNumber(null); x.setVersion(null); });
+    }
+
+    record EnrollmentRow(long studentNumber, long courseNumber, EnrollmentData enrollment) {
+        EnrollmentKey key() { return new EnrollmentKey(studentNumber, courseNumber, enrollment.getSemester()); }
+    }
+
+    static EnrollmentRow parseRow(CsvFields row) {
+        return new EnrollmentRow(row.longValue("studentnumber"), row.longValue("coursenumber"), EnrollmentData.builder()
+                .enrollmentDate(row.date("enrollmentdate"))
+                .overallGrade(row.intValue("overallgrade"))
+                .semester(row.text("semester"))
+                .instructorName(row.text("instructorname"))
+                .build());
     }
 
-    private String get(String[] parts, int i){ return (i>=0 && i<parts.length)? parts[i].trim():""; }
+    private CsvIngest.ChunkHandler<EnrollmentRow, EnrollmentData> rowImporter() {
+        ReferenceResolver<StudentData> students = new ReferenceResolver<>(studentService::getStudentsByNumbers, StudentData::getStudentNumber);
+        ReferenceResolver<CourseDetails> courses = new ReferenceResolver<>(courseService::getCoursesByNumbers, CourseDetails::getCourseNumber);
+        UniqueKeys<EnrollmentKey> keys = new UniqueKeys<>("enrollment", enrollmentService::getExistingEnrollmentKeys);
+        return (rows, importer) -> {
+            students.prefetch(rows.stream().map(r -> r.value().studentNumber()).toList());
+            courses.prefetch(rows.stream().map(r -> r.value().courseNumber()).toList());
+            keys.prefetch(rows.stream().map(r -> r.value().key()).toList());
+            for (CsvRow<EnrollmentRow> r : rows) {
+                StudentData student = students.get(r.value().studentNumber());
+                CourseDetails course = courses.get(r.value().courseNumber());
+                if (student == null || course == null) { importer.fail(r.row(), "Missing FK student or course"); continue; }
+                String duplicate = keys.conflict(r.value().key());
+                if (duplicate != null) { importer.fail(r.row(), duplicate); continue; }
+                keys.claim(r.value().key(), r.row());
+                EnrollmentData ed = r.value().enrollment();
+                ed.setStudent(student);
+                ed.setCourse(course);
+                importer.add(r.row(), ed);
+            }
+        };
+    }
 
     @PostMapping
     public ResponseEntity<?> create(@Valid @RequestBody EnrollmentDataDto dto){
@@ -77,38 +125,51 @@ public class EnrollmentController {
             StudentData student = studentService.getStudentByNumber(Long.parseLong(dto.getStudentNumber()));
             CourseDetails course = courseService.getCourseByNumber(Long.parseLong(dto.getCourseNumber()));
             if(student==null || course==null) return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid FK student or course").build());
-            EnrollmentData entity = EnrollmentData.builder()
-                    .student(student)
-                    .course(course)
-                    .enrollmentDate(dto.getEnrollmentDate())
-                    .overallGrade(dto.getOverallGrade())
-                    .semester(dto.getSemester())
-                    .instructorName(dto.getInstructorName())
-                    .build();
-            EnrollmentData saved = enrollmentService.createEnrollment(entity);
+            EnrollmentData saved = enrollmentService.createEnrollment(mapDto(dto, student, course));
             return ResponseEntity.status(HttpStatus.CREATED).body(mapEntity(saved));
+        } catch(DatabaseBusyException ex){
+            throw ex; // 503 via ConcurrencyExceptionHandler
         } catch(Exception ex){
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid enrollment data").details(ex.getMessage()).build());
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBatch(@RequestBody List<EnrollmentDataDto> items){
+        ReferenceResolver<StudentData> students = new ReferenceResolver<>(studentService::getStudentsByNumbers, StudentData::getStudentNumber);
+        ReferenceResolver<CourseDetails> courses = new ReferenceResolver<>(courseService::getCoursesByNumbers, CourseDetails::getCourseNumber);
+        return batchWrites.accept("enrollments", items, chunkSize, importer(),
+                chunk -> {
+                    students.prefetch(chunk.stream().map(d -> BatchWrites.number(d.getStudentNumber())).toList());
+                    courses.prefetch(chunk.stream().map(d -> BatchWrites.number(d.getCourseNumber())).toList());
+                },
+                dto -> {
+                    StudentData student = students.get(Long.parseLong(dto.getStudentNumber()));
+                    CourseDetails course = courses.get(Long.parseLong(dto.getCourseNumber()));
+                    if(student==null || course==null) throw new IllegalArgumentException("Invalid FK student or course");
+                    return mapDto(dto, student, course);
+                }, EnrollmentData::getEnrollmentNumber);
+    }
+
     @GetMapping("/{enrollmentNumber}")
     public ResponseEntity<?> get(@PathVariable Long enrollmentNumber){
         EnrollmentData ed = enrollmentService.getEnrollmentByNumber(enrollmentNumber);
         if(ed==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Enrollment not found").details("enrollmentNumber="+enrollmentNumber).build());
-        return ResponseEntity.ok(mapEntity(ed));
+        return ResponseEntity.ok().eTag(Preconditions.etag(ed.getVersion())).body(mapEntity(ed));
     }
 
     @PutMapping("/{enrollmentNumber}")
-    public ResponseEntity<?> update(@PathVariable Long enrollmentNumber, @Valid @RequestBody EnrollmentDataDto dto){
+    public ResponseEntity<?> update(@PathVariable Long enrollmentNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch, @Valid @RequestBody EnrollmentDataDto dto){
         EnrollmentData existing = enrollmentService.getEnrollmentByNumber(enrollmentNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Enrollment not found").details("enrollmentNumber="+enrollmentNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Enrollment", existing.getVersion());
         try {
             StudentData student = studentService.getStudentByNumber(Long.parseLong(dto.getStudentNumber()));
             CourseDetails course = courseService.getCourseByNumber(Long.parseLong(dto.getCourseNumber()));
             if(student==null || course==null) return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid FK student or course").build());
             EnrollmentData updated = EnrollmentData.builder()
                     .enrollmentNumber(existing.getEnrollmentNumber())
+                    .version(existing.getVersion())
                     .student(student)
                     .course(course)
                     .enrollmentDate(dto.getEnrollmentDate())
@@ -116,20 +177,34 @@ public class EnrollmentController {
                     .semester(dto.getSemester())
                     .instructorName(dto.getInstructorName())
                     .build();
-            EnrollmentData saved = enrollmentService.createEnrollment(updated); // using save with existing number
-            return ResponseEntity.ok(mapEntity(saved));
+            EnrollmentData saved = enrollmentService.updateEnrollment(enrollmentNumber, updated);
+            return ResponseEntity.ok().eTag(Preconditions.etag(saved.getVersion())).body(mapEntity(saved));
+        } catch(OptimisticLockingFailureException | DatabaseBusyException ex){
+            throw ex; // 412/503 via ConcurrencyExceptionHandler
         } catch(Exception ex){
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid enrollment data").details(ex.getMessage()).build());
         }
     }
 
     @DeleteMapping("/{enrollmentNumber}")
-    public ResponseEntity<?> delete(@PathVariable Long enrollmentNumber){
+    public ResponseEntity<?> delete(@PathVariable Long enrollmentNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch){
         EnrollmentData existing = enrollmentService.getEnrollmentByNumber(enrollmentNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Enrollment not found").details("enrollmentNumber="+enrollmentNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Enrollment", existing.getVersion());
         enrollmentService.deleteEnrollmentByNumber(enrollmentNumber); return ResponseEntity.noContent().build();
     }
 
+    private EnrollmentData mapDto(EnrollmentDataDto dto, StudentData student, CourseDetails course){
+        return EnrollmentData.builder()
+                .student(student)
+                .course(course)
+                .enrollmentDate(dto.getEnrollmentDate())
+                .overallGrade(dto.getOverallGrade())
+                .semester(dto.getSemester())
+                .instructorName(dto.getInstructorName())
+                .build();
+    }
+
     private EnrollmentDataDto mapEntity(EnrollmentData e){
         return EnrollmentDataDto.builder()
                 .enrollmentNumber(e.getEnrollmentNumber()!=null?e.getEnrollmentNumber().toString():null)
@@ -139,6 +214,7 @@ public class EnrollmentController {
                 .overallGrade(e.getOverallGrade())
                 .semester(e.getSemester())
                 .instructorName(e.getInstructorName())
+                .version(e.getVersion())
                 .build();
     }
 }
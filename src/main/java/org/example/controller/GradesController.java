@@ -1,22 +1,39 @@
 package org.example.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.controller.support.BatchWrites;
+import org.example.controller.support.ChunkedImport;
+import org.example.controller.support.CsvExport;
+import org.example.controller.support.CsvFields;
+import org.example.controller.support.CsvIngest;
+import org.example.controller.support.CsvRow;
+import org.example.controller.support.CsvUploads;
+import org.example.controller.support.KeysetPaging;
+import org.example.controller.support.Preconditions;
+import org.example.controller.support.ReferenceResolver;
+import org.example.controller.support.StreamFormats;
 import org.example.entity.Grades;
 import org.example.entity.EnrollmentData;
+import org.example.service.DatabaseBusyException;
+import org.example.service.GradeStatsService;
 import org.example.service.GradesService;
 import org.example.service.EnrollmentDataService;
+import org.example.dto.GradeStatsDto;
 import org.example.dto.GradesDto;
 import org.example.dto.ErrorDto;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
 import java.io.IOException;
-import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/grades")
@@ -24,44 +41,64 @@ import java.util.*;
 public class GradesController {
     private final GradesService gradesService;
     private final EnrollmentDataService enrollmentService;
+    private final StreamFormats streamFormats;
+    private final CsvUploads csvUploads;
+    private final DatabaseConcurrencyLimiter limiter;
+    private final GradeStatsService gradeStatsService;
+    private final BatchWrites batchWrites;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
 
     @GetMapping
-    public List<Grades> list(){ return gradesService.getAllGrades(); }
+    public ResponseEntity<StreamingResponseBody> list(@RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort, @RequestHeader HttpHeaders headers) {
+        return KeysetPaging.stream(streamFormats.negotiate(headers), after, sort, gradesService::getGradePage, GradesDto::getGradeNumber, Function.identity());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<GradesDto>> page(@RequestParam Integer limit, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort) {
+        return KeysetPaging.page(limit, after, sort, gradesService::getGradePage, GradesDto::getGradeNumber, Function.identity());
+    }
+
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        return CsvExport.<Grades>stream(limiter, "grades.csv", new String[]{"gradeNumber", "enrollmentNumber", "assessmentDate", "assessmentType", "obtainedScore", "maxScore", "gradeCode"}, gradesService::exportGrades,
+                g -> new Object[]{g.getGradeNumber(), g.getEnrollment().getEnrollmentNumber(), g.getAssessmentDate(), g.getAssessmentType(), g.getObtainedScore(), g.getMaxScore(), g.getGradeCode()});
+    }
 
     @PostMapping("/upload-csv")
-    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) throws IOException {
-        if(file.isEmpty()) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Empty file"));
-        List<Grades> created = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        try(BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))){
-            String headerLine = reader.readLine();
-            if(headerLine == null) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing header row"));
-            String[] headersRaw = headerLine.split(",");
-            Map<String,Integer> idx = new HashMap<>();
-            for(int i=0;i<headersRaw.length;i++) idx.put(headersRaw[i].trim().toLowerCase(), i);
-            String[] required = {"enrollmentnumber","assessmentdate","assessmenttype","obtainedscore","maxscore","gradecode"};
-            for(String r: required) if(!idx.containsKey(r)) return ResponseEntity.badRequest().body(Map.of("status",400,"message","Missing column: "+r));
-            String line; int row=1;
-            while((line=reader.readLine())!=null){
-                row++; if(line.isBlank()) continue; String[] parts = line.split(",", -1);
-                try {
-                    Long enrollmentNumber = Long.parseLong(get(parts, idx.get("enrollmentnumber")));
-                    EnrollmentData enrollment = enrollmentService.getEnrollmentByNumber(enrollmentNumber);
-                    if(enrollment == null) throw new IllegalArgumentException("Missing FK enrollment");
-                    Grades g = Grades.builder()
-                            .enrollment(enrollment)
-                            .assessmentDate(LocalDate.parse(get(parts, idx.get("assessmentdate"))))
-                            .assessmentType(get(parts, idx.get("assessmenttype")))
-                            .obtainedScore(Integer.parseInt(get(parts, idx.get("obtainedscore"))))
-                            .maxScore(Integer.parseInt(get(parts, idx.get("maxscore"))))
-                            .gradeCode(Integer.parseInt(get(parts, idx.get("gradecode"))))
-                            .build();
-                    created.add(gradesService.createGrade(g));
-                } catch(Exception ex){ errors.add("Row "+row+": "+ex.getMessage()); }
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file, @RequestParam(defaultValue = "false") boolean sync) throws IOException {
+        return csvUploads.accept(file, sync, "grades", new String[]{"enrollmentnumber","assessmentdate","assessmenttype","obtainedscore","maxscore","gradecode"},
+                this::importer, GradesController::parseRow, this::rowImporter, Function.identity());
+    }
+
+    private ChunkedImport<Grades> importer() {
+        return new ChunkedImport<>(chunkSize, gradesService::createGrades, gradesService::createGrade, x -> { x.setGradeNumber(null); x.setVersion(null); });
+    }
+
+    record GradeRow(long enrollmentNumber, Grades grade) {}
+
+    static GradeRow parseRow(CsvFields row) {
+        return new GradeRow(row.longValue("enrollmentnumber"), Grades.builder()
+                .assessmentDate(row.date("assessmentdate"))
+                .assessmentType(row.text("assessmenttype"))
+                .obtainedScore(row.intValue("obtainedscore"))
+                .maxScore(row.intValue("maxscore"))
+                .gradeCode(row.intValue("gradecode"))
+                .build());
+    }
+
+    private CsvIngest.ChunkHandler<GradeRow, Grades> rowImporter() {
+        ReferenceResolver<EnrollmentData> enrollments = new ReferenceResolver<>(enrollmentService::getEnrollmentsByNumbers, EnrollmentData::getEnrollmentNumber);
+        return (rows, importer) -> {
+            enrollments.prefetch(rows.stream().map(r -> r.value().enrollmentNumber()).toList());
+            for (CsvRow<GradeRow> r : rows) {
+                EnrollmentData enrollment = enrollments.get(r.value().enrollmentNumber());
+                if (enrollment == null) { importer.fail(r.row(), "Missing FK enrollment"); continue; }
+                r.value().grade().setEnrollment(enrollment);
+                importer.add(r.row(), r.value().grade());
             }
-        }
-        if(!errors.isEmpty()) return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(Map.of("inserted",created.size(),"errors",errors,"grades",created));
-        return ResponseEntity.ok(created);
+        };
     }
 
     @PostMapping
@@ -69,37 +106,69 @@ public class GradesController {
         try {
             EnrollmentData enrollment = enrollmentService.getEnrollmentByNumber(dto.getEnrollmentNumber());
             if(enrollment==null) return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid enrollmentNumber").build());
-            Grades entity = Grades.builder()
-                    .enrollment(enrollment)
-                    .assessmentDate(dto.getAssessmentDate())
-                    .assessmentType(dto.getAssessmentType())
-                    .obtainedScore(dto.getObtainedScore())
-                    .maxScore(dto.getMaxScore())
-                    .gradeCode(dto.getGradeCode())
-                    .build();
-            Grades saved = gradesService.createGrade(entity);
+            Grades saved = gradesService.createGrade(mapDto(dto, enrollment));
             return ResponseEntity.status(HttpStatus.CREATED).body(mapEntity(saved));
+        } catch(DatabaseBusyException ex){
+            throw ex; // 503 via ConcurrencyExceptionHandler
         } catch(Exception ex){
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid grade data").details(ex.getMessage()).build());
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBatch(@RequestBody List<GradesDto> items){
+        ReferenceResolver<EnrollmentData> enrollments = new ReferenceResolver<>(enrollmentService::getEnrollmentsByNumbers, EnrollmentData::getEnrollmentNumber);
+        return batchWrites.accept("grades", items, chunkSize, importer(),
+                chunk -> enrollments.prefetch(chunk.stream().map(GradesDto::getEnrollmentNumber).toList()),
+                dto -> {
+                    EnrollmentData enrollment = enrollments.get(dto.getEnrollmentNumber());
+                    if(enrollment==null) throw new IllegalArgumentException("Invalid enrollmentNumber");
+                    return mapDto(dto, enrollment);
+                }, Grades::getGradeNumber);
+    }
+
+    @GetMapping("/stats/enrollments/{enrollmentNumber}")
+    public ResponseEntity<?> enrollmentStats(@PathVariable Long enrollmentNumber){
+        GradeStatsDto stats = gradeStatsService.getEnrollmentStats(enrollmentNumber);
+        if(stats==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("No grades for enrollment").details("enrollmentNumber="+enrollmentNumber).build());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/stats/courses/{courseNumber}")
+    public ResponseEntity<?> courseStats(@PathVariable Long courseNumber){
+        List<GradeStatsDto> stats = gradeStatsService.getCourseStats(courseNumber);
+        if(stats.isEmpty()) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("No grades for course").details("courseNumber="+courseNumber).build());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/stats/students/{studentNumber}")
+    public ResponseEntity<GradeStatsDto> studentStats(@PathVariable Long studentNumber){
+        return ResponseEntity.ok(gradeStatsService.getStudentStats(studentNumber));
+    }
+
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Map<String,Integer>> rebuildStats(){
+        return ResponseEntity.ok(gradeStatsService.rebuild());
+    }
+
     @GetMapping("/{gradeNumber}")
     public ResponseEntity<?> get(@PathVariable Long gradeNumber){
         Grades g = gradesService.getGradeById(gradeNumber);
         if(g==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Grade not found").details("gradeNumber="+gradeNumber).build());
-        return ResponseEntity.ok(mapEntity(g));
+        return ResponseEntity.ok().eTag(Preconditions.etag(g.getVersion())).body(mapEntity(g));
     }
 
     @PutMapping("/{gradeNumber}")
-    public ResponseEntity<?> update(@PathVariable Long gradeNumber, @Valid @RequestBody GradesDto dto){
+    public ResponseEntity<?> update(@PathVariable Long gradeNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch, @Valid @RequestBody GradesDto dto){
         Grades existing = gradesService.getGradeById(gradeNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Grade not found").details("gradeNumber="+gradeNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Grade", existing.getVersion());
         try {
             EnrollmentData enrollment = enrollmentService.getEnrollmentByNumber(dto.getEnrollmentNumber());
             if(enrollment==null) return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid enrollmentNumber").build());
             Grades updated = Grades.builder()
                     .gradeNumber(gradeNumber)
+                    .version(existing.getVersion())
                     .enrollment(enrollment)
                     .assessmentDate(dto.getAssessmentDate())
                     .assessmentType(dto.getAssessmentType())
@@ -108,19 +177,33 @@ public class GradesController {
                     .gradeCode(dto.getGradeCode())
                     .build();
             Grades saved = gradesService.updateGrade(gradeNumber, updated);
-            return ResponseEntity.ok(mapEntity(saved));
+            return ResponseEntity.ok().eTag(Preconditions.etag(saved.getVersion())).body(mapEntity(saved));
+        } catch(OptimisticLockingFailureException | DatabaseBusyException ex){
+            throw ex; // 412/503 via ConcurrencyExceptionHandler
         } catch(Exception ex){
             return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Invalid grade data").details(ex.getMessage()).build());
         }
     }
 
     @DeleteMapping("/{gradeNumber}")
-    public ResponseEntity<?> delete(@PathVariable Long gradeNumber){
+    public ResponseEntity<?> delete(@PathVariable Long gradeNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch){
         Grades existing = gradesService.getGradeById(gradeNumber);
         if(existing==null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Grade not found").details("gradeNumber="+gradeNumber).build());
+        if(Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Grade", existing.getVersion());
         gradesService.deleteGrade(gradeNumber); return ResponseEntity.noContent().build();
     }
 
+    private Grades mapDto(GradesDto dto, EnrollmentData enrollment){
+        return Grades.builder()
+                .enrollment(enrollment)
+                .assessmentDate(dto.getAssessmentDate())
+                .assessmentType(dto.getAssessmentType())
+                .obtainedScore(dto.getObtainedScore())
+                .maxScore(dto.getMaxScore())
+                .gradeCode(dto.getGradeCode())
+                .build();
+    }
+
     private GradesDto mapEntity(Grades g){
         return GradesDto.builder()
                 .gradeNumber(g.getGradeNumber())
@@ -130,8 +213,7 @@ public class GradesController {
                 .obtainedScore(g.getObtainedScore())
                 .maxScore(g.getMaxScore())
                 .gradeCode(g.getGradeCode())
+                .version(g.getVersion())
                 .build();
     }
-
-    private String get(String[] parts, int i){ return (i>=0 && i<parts.length)? parts[i].trim():""; }
 }
@@ -0,0 +1,141 @@
+package org.example.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.controller.support.KeysetPaging;
+import org.example.dto.AttendanceDataDto;
+import org.example.dto.EnrollmentDataDto;
+import org.example.dto.GradesDto;
+import org.example.entity.AddressDetails;
+import org.example.entity.AttendanceData;
+import org.example.entity.ContactDetails;
+import org.example.entity.CourseDetails;
+import org.example.entity.StudentData;
+import org.example.service.AddressDetailsService;
+import org.example.service.AttendanceDataService;
+import org.example.service.ContactDetailsService;
+import org.example.service.CourseDetailsService;
+import org.example.service.EnrollmentDataService;
+import org.example.service.GradesService;
+import org.example.service.StudentDataService;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * GraphQL read API ({@code /graphql}, schema in {@code graphql/schema.graphqls}). Root lists are the same keyset
+ * pages as the REST endpoints; every edge below them is a {@link BatchMapping}, so a level of the response costs
+ * one {@code IN} query for all parents together (split every {@value #IN_BATCH} keys) rather than one per parent.
+ * Enrollments, grades and attendance come back as the flat row DTOs the list endpoints use.
+ */
+@Controller
+@RequiredArgsConstructor
+public class GraphQlController {
+    static final int IN_BATCH = 1000;
+
+    private final StudentDataService studentService;
+    private final CourseDetailsService courseService;
+    private final EnrollmentDataService enrollmentService;
+    private final GradesService gradesService;
+    private final AttendanceDataService attendanceService;
+    private final AddressDetailsService addressService;
+    private final ContactDetailsService contactService;
+
+    @QueryMapping
+    public List<StudentData> students(@Argument int first, @Argument Long after) {
+        return studentService.getStudentPage(after, KeysetPaging.clampLimit(first), false);
+    }
+
+    @QueryMapping
+    public StudentData student(@Argument Long studentNumber) { return studentService.getStudentByNumber(studentNumber); }
+
+    @QueryMapping
+    public List<CourseDetails> courses(@Argument int first, @Argument Long after) {
+        return courseService.getCoursePage(after, KeysetPaging.clampLimit(first), false);
+    }
+
+    @QueryMapping
+    public CourseDetails course(@Argument Long courseNumber) { return courseService.getCourseByNumber(courseNumber); }
+
+    @QueryMapping
+    public List<EnrollmentDataDto> enrollments(@Argument int first, @Argument Long after) {
+        return enrollmentService.getEnrollmentPage(after, KeysetPaging.clampLimit(first), false);
+    }
+
+    @BatchMapping(typeName = "Student", field = "enrollments")
+    public Map<StudentData, List<EnrollmentDataDto>> studentEnrollments(List<StudentData> students) {
+        return children(students, StudentData::getStudentNumber, enrollmentService::getEnrollmentRowsByStudentNumbers, e -> Long.valueOf(e.getStudentNumber()));
+    }
+
+    @BatchMapping(typeName = "Student")
+    public Map<StudentData, List<AddressDetails>> addresses(List<StudentData> students) {
+        return children(students, StudentData::getStudentNumber, addressService::getAddressesByStudentNumbers, a -> a.getStudent().getStudentNumber());
+    }
+
+    @BatchMapping(typeName = "Student")
+    public Map<StudentData, List<ContactDetails>> contacts(List<StudentData> students) {
+        return children(students, StudentData::getStudentNumber, contactService::getContactsByStudentNumbers, c -> c.getStudent().getStudentNumber());
+    }
+
+    @BatchMapping(typeName = "Course", field = "enrollments")
+    public Map<CourseDetails, List<EnrollmentDataDto>> courseEnrollments(List<CourseDetails> courses) {
+        return children(courses, CourseDetails::getCourseNumber, enrollmentService::getEnrollmentRowsByCourseNumbers, e -> Long.valueOf(e.getCourseNumber()));
+    }
+
+    @BatchMapping(typeName = "Enrollment", field = "student")
+    public Map<EnrollmentDataDto, StudentData> enrollmentStudent(List<EnrollmentDataDto> enrollments) {
+        return parents(enrollments, e -> Long.valueOf(e.getStudentNumber()), studentService::getStudentsByNumbers, StudentData::getStudentNumber);
+    }
+
+    @BatchMapping(typeName = "Enrollment", field = "course")
+    public Map<EnrollmentDataDto, CourseDetails> enrollmentCourse(List<EnrollmentDataDto> enrollments) {
+        return parents(enrollments, e -> Long.valueOf(e.getCourseNumber()), courseService::getCoursesByNumbers, CourseDetails::getCourseNumber);
+    }
+
+    @BatchMapping(typeName = "Enrollment")
+    public Map<EnrollmentDataDto, List<GradesDto>> grades(List<EnrollmentDataDto> enrollments) {
+        return children(enrollments, e -> Long.valueOf(e.getEnrollmentNumber()), gradesService::getGradesByEnrollmentNumbers, GradesDto::getEnrollmentNumber);
+    }
+
+    @BatchMapping(typeName = "Enrollment")
+    public Map<EnrollmentDataDto, List<AttendanceDataDto>> attendance(List<EnrollmentDataDto> enrollments) {
+        return children(enrollments, e -> Long.valueOf(e.getEnrollmentNumber()), attendanceService::getAttendanceByEnrollmentNumbers, AttendanceDataDto::getEnrollmentNumber);
+    }
+
+    @SchemaMapping(typeName = "Attendance")
+    public AttendanceData.AttendanceStatus attendanceStatus(AttendanceDataDto attendance) {
+        return AttendanceData.AttendanceStatus.values()[attendance.getAttendanceStatus()];
+    }
+
+    /** One-to-many edge: loads the children of all {@code parents} and hands each parent its own, in query order. */
+    private static <P, C> Map<P, List<C>> children(List<P> parents, Function<P, Long> parentKey, Function<Collection<Long>, List<C>> loader, Function<C, Long> childKey) {
+        Map<Long, List<C>> byKey = new HashMap<>();
+        for (C child : load(parents, parentKey, loader)) byKey.computeIfAbsent(childKey.apply(child), k -> new ArrayList<>()).add(child);
+        Map<P, List<C>> out = new LinkedHashMap<>();
+        for (P p : parents) out.put(p, byKey.getOrDefault(parentKey.apply(p), List.of()));
+        return out;
+    }
+
+    /** Many-to-one edge: one lookup for all distinct referenced keys. */
+    private static <P, R> Map<P, R> parents(List<P> children, Function<P, Long> reference, Function<Collection<Long>, List<R>> loader, Function<R, Long> key) {
+        Map<Long, R> byKey = new HashMap<>();
+        for (R r : load(children, reference, loader)) byKey.put(key.apply(r), r);
+        Map<P, R> out = new LinkedHashMap<>();
+        for (P c : children) {
+            R r = byKey.get(reference.apply(c));
+            if (r != null) out.put(c, r);
+        }
+        return out;
+    }
+
+    private static <P, T> List<T> load(List<P> sources, Function<P, Long> key, Function<Collection<Long>, List<T>> loader) {
+        List<Long> keys = sources.stream().map(key).distinct().toList();
+        List<T> out = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += IN_BATCH) out.addAll(loader.apply(keys.subList(from, Math.min(from + IN_BATCH, keys.size()))));
+        return out;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.dto.ErrorDto;
+import org.example.service.ImportJob;
+import org.example.service.ImportJobService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/imports")
+@RequiredArgsConstructor
+public class ImportController {
+    private final ImportJobService jobService;
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> get(@PathVariable String jobId) {
+        ImportJob job = jobService.getJob(jobId);
+        if (job == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Import job not found").details("jobId=" + jobId).build());
+        return ResponseEntity.ok(job.toDto());
+    }
+}
@@ -1,22 +1,37 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.example.controller.support.ChunkedImport;
+import org.example.controller.support.CsvExport;
+import org.example.controller.support.CsvFields;
+import org.example.controller.support.CsvUploads;
+import org.example.controller.support.KeysetPaging;
+import org.example.controller.support.Preconditions;
+import org.example.controller.support.StreamFormats;
 import org.example.dto.ErrorDto;
 import org.example.dto.StudentAggregateCreateRequest;
 import org.example.dto.StudentDataDto;
+import org.example.dto.StudentFilter;
+import org.example.dto.TranscriptDto;
 import org.example.entity.StudentData;
 import org.example.entity.StudentData.Gender;
 import org.example.entity.StudentData.StudentStatus;
 import org.example.service.StudentDataService;
+import org.example.service.TranscriptService;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -25,6 +40,14 @@ import java.util.*;
 @RequiredArgsConstructor
 public class StudentController {
     private final StudentDataService service;
+    private final ObjectMapper objectMapper;
+    private final StreamFormats streamFormats;
+    private final CsvUploads csvUploads;
+    private final DatabaseConcurrencyLimiter limiter;
+    private final TranscriptService transcriptService;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
 
     @PostMapping
     public ResponseEntity<?> create(@Validated @RequestBody StudentDataDto dto) {
@@ -39,34 +62,75 @@ public class StudentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(mapEntityToDto(saved));
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > 100)
+            return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("limit must be between 1 and 100").details("limit=" + limit).build());
+        return ResponseEntity.ok(service.searchStudents(q, limit).stream().map(StudentController::mapEntityToDto).toList());
+    }
+
     @GetMapping("/{studentNumber}")
     public ResponseEntity<?> getByNumber(@PathVariable Long studentNumber) {
         StudentData s = service.getStudentByNumber(studentNumber);
         if (s == null)
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Student not found").details("studentNumber=" + studentNumber).build());
-        return ResponseEntity.ok(mapEntityToDto(s));
+        return ResponseEntity.ok().eTag(Preconditions.etag(s.getVersion())).body(mapEntityToDto(s));
+    }
+
+    /**
+     * Student, enrollments with course, grades and attendance summary in one response. The ETag is a hash of the
+     * rendered transcript; Spring answers a matching If-None-Match with 304 and no body.
+     */
+    @GetMapping("/{studentNumber}/transcript")
+    public ResponseEntity<?> transcript(@PathVariable Long studentNumber) throws IOException {
+        TranscriptDto transcript = transcriptService.getTranscript(studentNumber);
+        if (transcript == null)
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Student not found").details("studentNumber=" + studentNumber).build());
+        byte[] body = objectMapper.writeValueAsBytes(transcript);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag("\"" + DigestUtils.md5DigestAsHex(body) + "\"").body(body);
     }
 
     @GetMapping
-    public ResponseEntity<?> getAll() {
-        List<StudentDataDto> students = service.getAllStudents().stream().map(this::mapEntityToDto).toList();
-        return ResponseEntity.ok(students);
+    public ResponseEntity<StreamingResponseBody> getAll(StudentFilter filter, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort, @RequestHeader HttpHeaders headers) {
+        return KeysetPaging.stream(streamFormats.negotiate(headers), after, sort, pages(filter), StudentData::getStudentNumber, StudentController::mapEntityToDto);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<StudentDataDto>> getPage(StudentFilter filter, @RequestParam Integer limit, @RequestParam(required = false) Long after, @RequestParam(defaultValue = "asc") String sort) {
+        return KeysetPaging.page(limit, after, sort, pages(filter), StudentData::getStudentNumber, StudentController::mapEntityToDto);
+    }
+
+    private KeysetPaging.PageLoader<StudentData> pages(StudentFilter filter) {
+        return filter.isEmpty() ? service::getStudentPage : (after, limit, descending) -> service.getStudentPage(filter, after, limit, descending);
+    }
+
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        return CsvExport.<StudentData>stream(limiter, "students.csv", new String[]{"studentNumber", "firstName", "lastName", "dateOfBirth", "gender", "joiningDate", "studentStatus"}, service::exportStudents,
+                s -> new Object[]{s.getStudentNumber(), s.getFirstName(), s.getLastName(), s.getDateOfBirth(), s.getGender(), s.getJoiningDate(), s.getStudentStatus()});
     }
 
     @PutMapping("/{studentNumber}")
-    public ResponseEntity<?> update(@PathVariable Long studentNumber, @Validated @RequestBody StudentDataDto dto) {
+    public ResponseEntity<?> update(@PathVariable Long studentNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch, @Validated @RequestBody StudentDataDto dto) {
+        StudentData existing = service.getStudentByNumber(studentNumber);
+        if (existing == null)
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Student not found").details("studentNumber=" + studentNumber).build());
+        if (Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Student", existing.getVersion());
         StudentData updated = mapDtoToEntity(dto);
+        updated.setVersion(existing.getVersion());
         StudentData saved = service.updateStudent(studentNumber, updated);
         if (saved == null)
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Student not found").details("studentNumber=" + studentNumber).build());
-        return ResponseEntity.ok(mapEntityToDto(saved));
+        return ResponseEntity.ok().eTag(Preconditions.etag(saved.getVersion())).body(mapEntityToDto(saved));
     }
 
     @PatchMapping("/{studentNumber}")
-    public ResponseEntity<?> patchUpdate(@PathVariable Long studentNumber, @RequestBody Map<String, Object> updates) {
+    public ResponseEntity<?> patchUpdate(@PathVariable Long studentNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch, @RequestBody Map<String, Object> updates) {
         StudentData existing = service.getStudentByNumber(studentNumber);
         if (existing == null)
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Student not found").details("studentNumber=" + studentNumber).build());
+        // existing carries the version read here, so the merge below also fails if someone else wrote in between
+        if (Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Student", existing.getVersion());
         if (updates.containsKey("firstName")) existing.setFirstName((String) updates.get("firstName"));
         if (updates.containsKey("lastName")) existing.setLastName((String) updates.get("lastName"));
         if (updates.containsKey("dateOfBirth")) existing.setDateOfBirth(LocalDate.parse((String) updates.get("dateOfBirth")));
@@ -74,59 +138,51 @@ public class StudentController {
         if (updates.containsKey("joiningDate")) existing.setJoiningDate(LocalDate.parse((String) updates.get("joiningDate")));
         if (updates.containsKey("studentStatus")) existing.setStudentStatus(StudentData.StudentStatus.values()[(Integer) updates.get("studentStatus")]);
         StudentData saved = service.updateStudent(studentNumber, existing);
-        return ResponseEntity.ok(mapEntityToDto(saved));
+        return ResponseEntity.ok().eTag(Preconditions.etag(saved.getVersion())).body(mapEntityToDto(saved));
     }
 
     @DeleteMapping("/{studentNumber}")
-    public ResponseEntity<?> delete(@PathVariable Long studentNumber) {
+    public ResponseEntity<?> delete(@PathVariable Long studentNumber, @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         StudentData existing = service.getStudentByNumber(studentNumber);
         if(existing==null)
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().status(404).message("Student not found").details("studentNumber="+studentNumber).build());
+        if (Preconditions.ifMatchFails(ifMatch, existing.getVersion())) return Preconditions.preconditionFailed("Student", existing.getVersion());
         service.deleteStudent(studentNumber);
         return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping
+    public ResponseEntity<?> bulkDelete(@RequestParam(required = false) List<Long> ids, @RequestParam(required = false) StudentStatus status) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        if (byIds == (status != null))
+            return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Specify either ids or status").build());
+        int deleted = byIds ? service.deleteStudents(ids) : service.deleteStudentsByStatus(status);
+        return ResponseEntity.ok(Map.of("deleted", deleted));
+    }
+
     @PostMapping("/upload-csv")
-    public ResponseEntity<?> uploadCsv(@RequestParam("file") MultipartFile file) throws IOException {
-        if (file.isEmpty())
-            return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Empty file").build());
-        List<StudentDataDto> created = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            String headerLine = reader.readLine();
-            if (headerLine == null)
-                return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Missing header row").build());
-            String[] headersRaw = headerLine.split(",");
-            Map<String, Integer> headerIndex = new HashMap<>();
-            for (int i = 0; i < headersRaw.length; i++) headerIndex.put(headersRaw[i].trim().toLowerCase(), i);
-            String[] required = {"firstname", "lastname", "dateofbirth", "gender", "joiningdate", "studentstatus"};
-            for (String r : required) if (!headerIndex.containsKey(r)) return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message("Missing column: " + r).build());
-            String line; int row = 1;
-            while ((line = reader.readLine()) != null) {
-                row++; if (line.isBlank()) continue; String[] parts = line.split(",", -1);
-                try {
-                    StudentDataDto rowDto = StudentDataDto.builder()
-                            .firstName(get(parts, headerIndex.get("firstname")))
-                            .lastName(get(parts, headerIndex.get("lastname")))
-                            .dateOfBirth(LocalDate.parse(get(parts, headerIndex.get("dateofbirth"))))
-                            .gender(mapGender(get(parts, headerIndex.get("gender"))))
-                            .joiningDate(LocalDate.parse(get(parts, headerIndex.get("joiningdate"))))
-                            .studentStatus(mapStatus(get(parts, headerIndex.get("studentstatus"))))
-                            .build();
-                    StudentData saved = service.createStudent(mapDtoToEntity(rowDto));
-                    created.add(mapEntityToDto(saved));
-                } catch (Exception ex) { errors.add("Row "+row+": "+ex.getMessage()); }
-            }
-        }
-        if (!errors.isEmpty()) return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(Map.of("inserted", created.size(), "errors", errors, "students", created));
-        return ResponseEntity.ok(created);
-    }
-
-    private String get(String[] parts, int idx) { return (idx >= 0 && idx < parts.length) ? parts[idx].trim() : ""; }
-    private Integer mapGender(String g) { return switch (g.toUpperCase()) { case "MALE" -> 0; case "FEMALE" -> 1; case "OTHER" -> 2; default -> 2; }; }
-    private Integer mapStatus(String s) { return switch (s.toUpperCase()) { case "ACTIVE" -> 0; case "INACTIVE" -> 1; case "GRADUATED" -> 2; default -> 0; }; }
-
-    private StudentData mapDtoToEntity(StudentDataDto dto) {
+    public ResponseEntity<?> uploadCsv(@RequestParam("file") MultipartFile file, @RequestParam(defaultValue = "false") boolean sync) throws IOException {
+        return csvUploads.accept(file, sync, "students", new String[]{"firstname", "lastname", "dateofbirth", "gender", "joiningdate", "studentstatus"},
+                () -> new ChunkedImport<>(chunkSize, service::createStudents, service::createStudent, s -> { s.setStudentNumber(null); s.setVersion(null); }),
+                StudentController::parseRow, StudentController::mapEntityToDto);
+    }
+
+    // Package-private static so the jmh source set can benchmark the exact upload/list hot paths.
+    static StudentData parseRow(CsvFields row) {
+        return StudentData.builder()
+                .firstName(row.text("firstname"))
+                .lastName(row.text("lastname"))
+                .dateOfBirth(row.date("dateofbirth"))
+                .gender(StudentData.Gender.values()[mapGender(row.text("gender"))])
+                .joiningDate(row.date("joiningdate"))
+                .studentStatus(StudentData.StudentStatus.values()[mapStatus(row.text("studentstatus"))])
+                .build();
+    }
+
+    static Integer mapGender(String g) { return switch (g.toUpperCase()) { case "MALE" -> 0; case "FEMALE" -> 1; case "OTHER" -> 2; default -> 2; }; }
+    static Integer mapStatus(String s) { return switch (s.toUpperCase()) { case "ACTIVE" -> 0; case "INACTIVE" -> 1; case "GRADUATED" -> 2; default -> 0; }; }
+
+    static StudentData mapDtoToEntity(StudentDataDto dto) {
         return StudentData.builder()
                 .firstName(dto.getFirstName())
                 .lastName(dto.getLastName())
@@ -137,15 +193,7 @@ public class StudentController {
                 .build();
     }
 
-    private StudentDataDto mapEntityToDto(StudentData s) {
-        return StudentDataDto.builder()
-                .studentNumber(s.getStudentNumber()!=null? s.getStudentNumber().toString(): null)
-                .firstName(s.getFirstName())
-                .lastName(s.getLastName())
-                .dateOfBirth(s.getDateOfBirth())
-                .gender(s.getGender().ordinal())
-                .joiningDate(s.getJoiningDate())
-                .studentStatus(s.getStudentStatus().ordinal())
-                .build();
+    static StudentDataDto mapEntityToDto(StudentData s) {
+        return StudentDataDto.from(s);
     }
 }
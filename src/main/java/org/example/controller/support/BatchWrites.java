@@ -0,0 +1,90 @@
+package org.example.controller.support;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.example.dto.BatchResultDto;
+import org.example.dto.ErrorDto;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shared body of the JSON {@code /batch} endpoints. Items are validated one by one, their foreign keys are
+ * resolved per chunk through the caller's {@link ReferenceResolver}s and the entities go through the same
+ * {@link ChunkedImport} as CSV uploads, so a chunk is one transaction of JDBC batch inserts and a bad item
+ * only costs its own chunk a row-by-row replay. The answer reports a status for every item by its index.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchWrites {
+    private final Validator validator;
+    private final ImportMetrics metrics;
+    private final DatabaseConcurrencyLimiter limiter;
+
+    @Value("${app.batch.max-items:10000}")
+    private int maxItems;
+
+    /**
+     * @param prefetch warms the resolvers with the foreign keys of one chunk of (not yet validated, non-null) items
+     * @param toEntity maps a valid item; throws {@link IllegalArgumentException} for unknown references
+     */
+    public <D, T> ResponseEntity<?> accept(String entity, List<D> items, int chunkSize, ChunkedImport<T> importer,
+                                           Consumer<List<D>> prefetch, Function<D, T> toEntity, Function<T, Long> id) {
+        if (items == null || items.isEmpty()) return badRequest("Empty batch");
+        if (items.size() > maxItems) return badRequest("Batch exceeds " + maxItems + " items");
+        importer.observedBy(metrics.forEntity(entity));
+        return limiter.call(() -> write(items, chunkSize, importer, prefetch, toEntity, id));
+    }
+
+    private <D, T> ResponseEntity<?> write(List<D> items, int chunkSize, ChunkedImport<T> importer,
+                                           Consumer<List<D>> prefetch, Function<D, T> toEntity, Function<T, Long> id) {
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<D> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            prefetch.accept(chunk.stream().filter(Objects::nonNull).toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                int index = from + i;
+                D item = chunk.get(i);
+                try {
+                    if (item == null) throw new IllegalArgumentException("Item is null");
+                    Set<ConstraintViolation<D>> violations = validator.validate(item);
+                    if (!violations.isEmpty()) throw new IllegalArgumentException(violations.stream()
+                            .map(v -> v.getPropertyPath() + " " + v.getMessage()).sorted().collect(Collectors.joining(", ")));
+                    importer.add(index, toEntity.apply(item));
+                } catch (Exception ex) { importer.fail(index, ex.getMessage()); }
+            }
+        }
+        importer.flush();
+
+        BatchResultDto.Item[] results = new BatchResultDto.Item[items.size()];
+        List<T> created = importer.getCreated();
+        List<Integer> rows = importer.getCreatedRows();
+        for (int i = 0; i < created.size(); i++)
+            results[rows.get(i)] = BatchResultDto.Item.builder().index(rows.get(i)).status(201).id(id.apply(created.get(i))).build();
+        importer.getErrorsByRow().forEach((index, message) ->
+                results[index] = BatchResultDto.Item.builder().index(index).status(400).error(message).build());
+        BatchResultDto body = BatchResultDto.builder()
+                .total(items.size()).created(created.size()).failed(importer.getErrorsByRow().size()).items(Arrays.asList(results)).build();
+        return ResponseEntity.status(body.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(body);
+    }
+
+    /** Lenient key parse for prefetching: malformed keys are skipped here and reported by the item itself. */
+    public static Long number(String value) {
+        try { return value == null ? null : Long.valueOf(value.trim()); }
+        catch (NumberFormatException e) { return null; }
+    }
+
+    private static ResponseEntity<ErrorDto> badRequest(String message) {
+        return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message(message).build());
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.controller.support;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * In-memory change log behind {@code GET /api/changes/stream}. The last {@code app.changes.buffer-size} changes are
+ * kept in a ring buffer; every SSE event carries {@code <instance>:<sequence>} as its id, so a reconnecting client
+ * that sends it back as {@code Last-Event-ID} gets what it missed. A token from another instance (or a restart) or
+ * one older than the buffer gets a {@code reset} event instead, telling the client to reload.
+ * <p>
+ * Publishing only appends and wakes the subscribers; each subscriber is drained by at most one virtual thread at a
+ * time, so a slow client never holds up a committing transaction. One that falls a whole buffer behind is reset.
+ */
+@Component
+public class ChangeFeed {
+
+    /** One change as sent in the {@code data} of a {@code change} event; {@code row} is absent for deletes and reloads. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Change(String entity, String op, Long id, Object row) {}
+
+    private final String instance = UUID.randomUUID().toString().substring(0, 8);
+    private final Change[] ring;
+    private long last; // sequence of the newest change, guarded by this
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory());
+    private final long timeoutMillis;
+
+    public ChangeFeed(@Value("${app.changes.buffer-size:10000}") int bufferSize,
+                      @Value("${app.changes.heartbeat:25s}") Duration heartbeat,
+                      @Value("${app.changes.timeout:30m}") Duration timeout,
+                      MeterRegistry registry) {
+        this.ring = new Change[Math.max(1, bufferSize)];
+        this.timeoutMillis = timeout.toMillis();
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(Subscriber::heartbeat), heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        Gauge.builder("app.changes.subscribers", subscribers, Set::size).description("Open change streams").register(registry);
+    }
+
+    public void publish(Change change) {
+        synchronized (this) {
+            last++;
+            ring[(int) (last % ring.length)] = change;
+        }
+        subscribers.forEach(Subscriber::signal);
+    }
+
+    /**
+     * Opens a stream of the changes whose entity passes {@code entities}: from {@code lastEventId} when it is still
+     * in the buffer, else from now (preceded by a {@code reset} when a token was given).
+     */
+    public SseEmitter subscribe(Predicate<String> entities, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Long resume = position(lastEventId);
+        Subscriber subscriber = new Subscriber(emitter, entities, resume != null ? resume : position(), lastEventId != null && resume == null);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscriber.heartbeat(); // replays what was missed and hands out a token even if nothing happens
+        return emitter;
+    }
+
+    @PreDestroy
+    void close() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private synchronized long position() { return last; }
+
+    /** The sequence in a token issued by this instance, or {@code null}. */
+    private Long position(String token) {
+        if (token == null) return null;
+        int colon = token.lastIndexOf(':');
+        if (colon < 0 || !token.substring(0, colon).equals(instance)) return null;
+        try {
+            long seq = Long.parseLong(token.substring(colon + 1));
+            return seq >= 0 && seq <= position() ? seq : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Changes after {@code seq}, oldest first, or {@code null} when some of them have been overwritten already. */
+    private synchronized List<Change> since(long seq) {
+        if (last - seq > ring.length) return null;
+        List<Change> out = new ArrayList<>((int) (last - seq));
+        for (long s = seq + 1; s <= last; s++) out.add(ring[(int) (s % ring.length)]);
+        return out;
+    }
+
+    private String token(long seq) { return instance + ":" + seq; }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Predicate<String> entities;
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean ping;
+        // only touched by the drain in progress
+        private long cursor;
+        private boolean reset;
+
+        Subscriber(SseEmitter emitter, Predicate<String> entities, long cursor, boolean reset) {
+            this.emitter = emitter;
+            this.entities = entities;
+            this.cursor = cursor;
+            this.reset = reset;
+        }
+
+        void heartbeat() {
+            ping = true;
+            signal();
+        }
+
+        void signal() {
+            if (pending.getAndIncrement() == 0) senders.execute(this::drain);
+        }
+
+        private void drain() {
+            int missed = 1;
+            try {
+                do {
+                    send();
+                    missed = pending.addAndGet(-missed);
+                } while (missed != 0);
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this); // gone or timed out; the container completes the emitter
+            }
+        }
+
+        private void send() throws IOException {
+            List<Change> changes = reset ? null : since(cursor);
+            if (changes == null) {
+                reset = false;
+                cursor = position();
+                emitter.send(SseEmitter.event().id(token(cursor)).name("reset").data("reset"));
+                return;
+            }
+            for (Change change : changes) {
+                cursor++;
+                if (entities.test(change.entity())) emitter.send(SseEmitter.event().id(token(cursor)).name("change").data(change, MediaType.APPLICATION_JSON));
+            }
+            if (ping) {
+                ping = false;
+                // no data, so browsers dispatch nothing but still take the id as their resume token
+                emitter.send(SseEmitter.event().id(token(cursor)).comment("ping"));
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.controller.support;
+
+import org.example.service.ImportProgress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Buffers parsed CSV rows and hands them to a transactional batch writer one chunk at a time, so each
+ * chunk is a single commit made of JDBC batch inserts. If a chunk fails it is rolled back and replayed
+ * row by row, which keeps error reporting exact to the CSV row without paying per-row transactions on
+ * the happy path. When attached to an {@link ImportProgress} (asynchronous jobs) created rows and errors
+ * are reported there instead of being retained, so memory stays bounded by the chunk size. Observers
+ * (metrics) see the same events without changing what is retained.
+ */
+public class ChunkedImport<T> {
+    private final int chunkSize;
+    private final UnaryOperator<List<T>> batchWriter;
+    private final UnaryOperator<T> rowWriter;
+    private final Consumer<T> reset;
+    private final List<Integer> pendingRows = new ArrayList<>();
+    private final List<T> pending = new ArrayList<>();
+    private final List<T> created = new ArrayList<>();
+    private final List<Integer> createdRows = new ArrayList<>();
+    private final Map<Integer, String> errors = new TreeMap<>();
+    private final List<ImportProgress> listeners = new ArrayList<>();
+    private boolean retain = true;
+
+    /**
+     * @param reset clears state assigned during a rolled back flush (generated id) before a row is replayed
+     */
+    public ChunkedImport(int chunkSize, UnaryOperator<List<T>> batchWriter, UnaryOperator<T> rowWriter, Consumer<T> reset) {
+        this.chunkSize = Math.max(1, chunkSize);
+        this.batchWriter = batchWriter;
+        this.rowWriter = rowWriter;
+        this.reset = reset;
+    }
+
+    public ChunkedImport<T> reportingTo(ImportProgress progress) {
+        listeners.add(progress);
+        retain = false;
+        return this;
+    }
+
+    public ChunkedImport<T> observedBy(ImportProgress observer) {
+        listeners.add(observer);
+        return this;
+    }
+
+    public void add(int row, T entity) {
+        for (ImportProgress l : listeners) l.parsed(1);
+        pendingRows.add(row);
+        pending.add(entity);
+        if (pending.size() >= chunkSize) flush();
+    }
+
+    /** Records a row that could not be parsed or resolved. */
+    public void fail(int row, String message) {
+        for (ImportProgress l : listeners) l.parsed(1);
+        rejected(row, message);
+    }
+
+    public void flush() {
+        if (pending.isEmpty()) return;
+        try {
+            created(pendingRows, batchWriter.apply(new ArrayList<>(pending)));
+        } catch (RuntimeException chunkFailure) {
+            for (int i = 0; i < pending.size(); i++) {
+                T entity = pending.get(i);
+                reset.accept(entity);
+                try {
+                    created(List.of(pendingRows.get(i)), List.of(rowWriter.apply(entity)));
+                } catch (RuntimeException ex) {
+                    rejected(pendingRows.get(i), ex.getMessage());
+                }
+            }
+        }
+        pending.clear();
+        pendingRows.clear();
+    }
+
+    private void created(List<Integer> rowNumbers, List<T> rows) {
+        for (ImportProgress l : listeners) l.persisted(rows.size());
+        if (retain) {
+            created.addAll(rows);
+            createdRows.addAll(rowNumbers);
+        }
+    }
+
+    private void rejected(int row, String message) {
+        for (ImportProgress l : listeners) l.failed(row, message);
+        if (retain) errors.put(row, message);
+    }
+
+    public List<T> getCreated() { return created; }
+
+    /** Row number of each entry of {@link #getCreated()}, in the same order. */
+    public List<Integer> getCreatedRows() { return createdRows; }
+
+    public Map<Integer, String> getErrorsByRow() { return errors; }
+
+    public List<String> getErrors() {
+        List<String> out = new ArrayList<>(errors.size());
+        errors.forEach((row, message) -> out.add("Row " + row + ": " + message));
+        return out;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.controller.support;
+
+import org.example.dto.ErrorDto;
+import org.example.service.DatabaseBusyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ConcurrencyExceptionHandler {
+    /** A version check failed at merge/flush: the resource changed after the request's precondition was evaluated. */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDto> versionConflict(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(ErrorDto.builder().status(412).message("Resource was modified concurrently").details(ex.getMessage()).build());
+    }
+
+    /** The database limiter shed the request instead of letting it queue on the connection pool. */
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ResponseEntity<ErrorDto> databaseBusy(DatabaseBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ErrorDto.builder().status(503).message(ex.getMessage()).build());
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.controller.support;
+
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Streams CSV exports straight from a service-side row cursor to the response. The header row uses the
+ * column names accepted by the matching upload-csv endpoint so exported files can be re-imported.
+ * Whether the database can take the export is decided before the response starts; once it has, the export
+ * queues for its permit rather than be cut off half-way.
+ */
+public final class CsvExport {
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private CsvExport() {}
+
+    public static <T> ResponseEntity<StreamingResponseBody> stream(DatabaseConcurrencyLimiter limiter, String filename, String[] columns, Consumer<Consumer<T>> exporter, Function<T, Object[]> toRow) {
+        limiter.admit();
+        StreamingResponseBody body = out -> {
+            boolean previous = DatabaseConcurrencyLimiter.background(true);
+            try {
+                write(out, columns, exporter, toRow);
+            } finally {
+                DatabaseConcurrencyLimiter.restore(previous);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    private static <T> void write(OutputStream out, String[] columns, Consumer<Consumer<T>> exporter, Function<T, Object[]> toRow) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        writeLine(writer, columns);
+        try {
+            exporter.accept(row -> {
+                try { writeLine(writer, toRow.apply(row)); }
+                catch (IOException ex) { throw new UncheckedIOException(ex); }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.flush();
+    }
+
+    static void writeLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            writer.write(escape(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    static String escape(Object value) {
+        if (value == null) return "";
+        String s = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + s.replace("\"", "\"\"") + '"' : s;
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.controller.support;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Quote-aware view of one CSV line inside a (memory-mapped) byte buffer. Tokenizing only records field
+ * offsets in arrays that are reused line after line; numbers and ISO dates are parsed straight from the
+ * bytes, and a {@code String} is only built when a column is read as text. Unquoted fields are trimmed
+ * like the old {@code split(",")} readers did; quoted fields keep their content verbatim, may contain
+ * commas and use {@code ""} for a literal quote. Line breaks inside quotes are not supported: every line
+ * feed ends a record, which is what lets the file be split at any line feed and parsed in parallel.
+ * Instances are not thread-safe; each parser thread tokenizes with its own.
+ */
+public final class CsvFields {
+    private static final long NOT_DIGITS = Long.MIN_VALUE;
+
+    private final Map<String, Integer> columns;
+    private ByteBuffer buf;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+    private int count;
+    private byte[] scratch = new byte[128];
+
+    /** @param columns lower-cased header name to field index */
+    public CsvFields(Map<String, Integer> columns) {
+        this.columns = columns;
+    }
+
+    /** Splits {@code buf[from, to)}, one line without its line feed, into fields. */
+    public CsvFields tokenize(ByteBuffer buf, int from, int to) {
+        this.buf = buf;
+        count = 0;
+        int p = from;
+        while (true) {
+            while (p < to && blank(buf.get(p))) p++;
+            int start, end;
+            boolean quotes = false;
+            if (p < to && buf.get(p) == '"') {
+                start = ++p;
+                while (true) {
+                    if (p >= to) throw new IllegalArgumentException("Unterminated quoted field " + (count + 1));
+                    if (buf.get(p) == '"') {
+                        if (p + 1 < to && buf.get(p + 1) == '"') { quotes = true; p += 2; continue; }
+                        break;
+                    }
+                    p++;
+                }
+                end = p++;
+                while (p < to && blank(buf.get(p))) p++;
+                if (p < to && buf.get(p) != ',') throw new IllegalArgumentException("Unexpected character after quoted field " + (count + 1));
+            } else {
+                start = p;
+                while (p < to && buf.get(p) != ',') p++;
+                end = p;
+                while (end > start && blank(buf.get(end - 1))) end--;
+            }
+            add(start, end, quotes);
+            if (p >= to) return this;
+            p++; // the comma
+        }
+    }
+
+    public int size() { return count; }
+
+    /** Field value, or {@code ""} when the column is absent from the header or the line is short. */
+    public String text(String column) {
+        int i = index(column);
+        return i < 0 ? "" : text(i);
+    }
+
+    public String text(int i) {
+        int start = starts[i], len = ends[i] - start;
+        if (len == 0) return "";
+        if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+        byte[] b = scratch;
+        buf.get(start, b, 0, len);
+        if (escaped[i]) {
+            int w = 0;
+            for (int r = 0; r < len; r++) {
+                b[w++] = b[r];
+                if (b[r] == '"') r++; // "" -> "
+            }
+            len = w;
+        }
+        return new String(b, 0, len, StandardCharsets.UTF_8);
+    }
+
+    public long longValue(String column) {
+        int i = index(column);
+        long v = i < 0 ? NOT_DIGITS : signed(starts[i], ends[i], 18);
+        return v != NOT_DIGITS ? v : Long.parseLong(text(column)); // anything unusual gets the JDK's parse and message
+    }
+
+    public int intValue(String column) {
+        int i = index(column);
+        long v = i < 0 ? NOT_DIGITS : signed(starts[i], ends[i], 9);
+        return v != NOT_DIGITS ? (int) v : Integer.parseInt(text(column));
+    }
+
+    public double doubleValue(String column) {
+        return Double.parseDouble(text(column));
+    }
+
+    /** ISO {@code yyyy-MM-dd}, decoded without allocating for well-formed values. */
+    public LocalDate date(String column) {
+        int i = index(column);
+        if (i >= 0 && ends[i] - starts[i] == 10 && buf.get(starts[i] + 4) == '-' && buf.get(starts[i] + 7) == '-') {
+            int s = starts[i];
+            long y = digits(s, s + 4), m = digits(s + 5, s + 7), d = digits(s + 8, s + 10);
+            if (y != NOT_DIGITS && m != NOT_DIGITS && d != NOT_DIGITS) {
+                try { return LocalDate.of((int) y, (int) m, (int) d); }
+                catch (DateTimeException ignored) { } // out of range: fall through for the standard message
+            }
+        }
+        return LocalDate.parse(text(column));
+    }
+
+    private int index(String column) {
+        Integer i = columns.get(column);
+        return i == null || i >= count ? -1 : i;
+    }
+
+    private long signed(int from, int to, int maxDigits) {
+        boolean negative = from < to && buf.get(from) == '-';
+        if (negative || (from < to && buf.get(from) == '+')) from++;
+        if (to - from > maxDigits) return NOT_DIGITS;
+        long v = digits(from, to);
+        return v == NOT_DIGITS || !negative ? v : -v;
+    }
+
+    private long digits(int from, int to) {
+        if (from >= to) return NOT_DIGITS;
+        long v = 0;
+        for (int p = from; p < to; p++) {
+            int d = buf.get(p) - '0';
+            if (d < 0 || d > 9) return NOT_DIGITS;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    private void add(int start, int end, boolean quotes) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            escaped = Arrays.copyOf(escaped, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        escaped[count++] = quotes;
+    }
+
+    /** Same notion of whitespace as {@link String#trim()}; UTF-8 continuation bytes are negative and never blank. */
+    static boolean blank(byte b) { return b >= 0 && b <= ' '; }
+}
@@ -0,0 +1,200 @@
+package org.example.controller.support;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel reader behind every upload-csv endpoint. The spooled file is memory-mapped and cut into chunks of
+ * about {@code app.import.parse-chunk-bytes} that end on a line feed; chunks are tokenized and turned into typed
+ * rows on a pool of {@code app.import.parse-threads} platform threads, while the calling thread takes the parsed
+ * chunks back in file order and hands them to the endpoint's {@link ChunkHandler} (foreign-key resolution and
+ * {@link ChunkedImport}), so database writes stay sequential and row numbers stay exact. At most two chunks per
+ * parser thread are in flight, which bounds memory regardless of file size.
+ */
+@Component
+public class CsvIngest {
+    /** Longest line accepted; chunk boundaries are searched within this distance of the target size. */
+    static final int MAX_LINE = 1 << 20;
+    private static final long WINDOW = 256L << 20;
+
+    /** Turns one tokenized line into a typed row. Runs on parser threads, so it must not touch shared state. */
+    @FunctionalInterface
+    public interface RowParser<R> {
+        R parse(CsvFields fields) throws Exception;
+    }
+
+    /** Consumes the parsed rows of one chunk, in file order, on the importing thread. */
+    @FunctionalInterface
+    public interface ChunkHandler<R, T> {
+        void importChunk(List<CsvRow<R>> rows, ChunkedImport<T> importer);
+    }
+
+    /** Lower-cased column name to index, and where the data rows begin. */
+    public record Header(Map<String, Integer> columns, long dataStart) {}
+
+    private final ExecutorService parsers;
+    private final int threads;
+    private final int chunkBytes;
+
+    public CsvIngest(@Value("${app.import.parse-threads:0}") int threads,
+                     @Value("${app.import.parse-chunk-bytes:4194304}") int chunkBytes) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.chunkBytes = Math.max(4096, Math.min(chunkBytes, 64 << 20));
+        AtomicInteger n = new AtomicInteger();
+        this.parsers = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread t = new Thread(r, "csv-parse-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Rows map straight to entities: every parsed row is added as is. */
+    public static <T> ChunkHandler<T, T> direct() {
+        return (rows, importer) -> { for (CsvRow<T> r : rows) importer.add(r.row(), r.value()); };
+    }
+
+    /** Reads the first line; {@code null} when the file has no content. A UTF-8 byte order mark is skipped. */
+    public Header header(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(channel.size(), MAX_LINE));
+            while (head.hasRemaining() && channel.read(head) >= 0) { }
+            head.flip();
+            int start = head.limit() >= 3 && head.get(0) == (byte) 0xEF && head.get(1) == (byte) 0xBB && head.get(2) == (byte) 0xBF ? 3 : 0;
+            if (start == head.limit()) return null;
+            int end = lineEnd(head, start, head.limit());
+            if (end == head.limit() && end < channel.size()) throw new IllegalArgumentException("Header row longer than " + MAX_LINE + " bytes");
+            CsvFields fields = new CsvFields(Map.of()).tokenize(head, start, end);
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) columns.put(fields.text(i).toLowerCase(), i);
+            return new Header(columns, Math.min(end + 1L, channel.size()));
+        }
+    }
+
+    /** Parses every data row of {@code file} and feeds them to {@code handler}; does not flush {@code importer}. */
+    public <R, T> void ingest(Path file, Header header, RowParser<R> parser, ChunkHandler<R, T> handler, ChunkedImport<T> importer) throws IOException {
+        Deque<Future<Parsed<R>>> inFlight = new ArrayDeque<>();
+        int row = 2; // the header is row 1
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer window = null;
+            long windowStart = 0, windowEnd = 0;
+            for (long pos = header.dataStart(); pos < size; ) {
+                if (window == null || Math.min(size, pos + chunkBytes + MAX_LINE) > windowEnd) {
+                    windowStart = pos;
+                    windowEnd = Math.min(size, pos + WINDOW);
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+                }
+                int from = (int) (pos - windowStart);
+                int to = pos + chunkBytes >= size ? (int) (size - windowStart) : chunkEnd(window, from + chunkBytes, windowStart, size);
+                ByteBuffer chunk = window.slice(from, to - from);
+                inFlight.add(parsers.submit(() -> parse(chunk, header.columns(), parser)));
+                if (inFlight.size() >= 2 * threads) row = deliver(inFlight.poll(), row, handler, importer);
+                pos = windowStart + to;
+            }
+            while (!inFlight.isEmpty()) row = deliver(inFlight.poll(), row, handler, importer);
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /** Tokenizes and parses one line-aligned chunk; row numbers in the result are relative to the chunk. */
+    static <R> Parsed<R> parse(ByteBuffer chunk, Map<String, Integer> columns, RowParser<R> parser) {
+        CsvFields fields = new CsvFields(columns);
+        Parsed<R> out = new Parsed<>();
+        int limit = chunk.limit();
+        for (int p = 0; p < limit; out.lines++) {
+            int end = lineEnd(chunk, p, limit);
+            if (!blank(chunk, p, end)) {
+                try { out.add(out.lines, parser.parse(fields.tokenize(chunk, p, end))); }
+                catch (Exception ex) { out.fail(out.lines, ex.getMessage()); }
+            }
+            p = end + 1;
+        }
+        return out;
+    }
+
+    private static <R, T> int deliver(Future<Parsed<R>> future, int firstRow, ChunkHandler<R, T> handler, ChunkedImport<T> importer) throws IOException {
+        Parsed<R> parsed;
+        try {
+            parsed = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("CSV parsing interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IOException("CSV parsing failed", e.getCause());
+        }
+        for (int i = 0; i < parsed.errorCount; i++) importer.fail(firstRow + parsed.errorRows[i], parsed.errors.get(i));
+        List<CsvRow<R>> rows = new ArrayList<>(parsed.values.size());
+        for (int i = 0; i < parsed.values.size(); i++) rows.add(new CsvRow<>(firstRow + parsed.rows[i], parsed.values.get(i)));
+        handler.importChunk(rows, importer);
+        return firstRow + parsed.lines;
+    }
+
+    /** Offset just past the first line feed at or after {@code target}. */
+    private static int chunkEnd(ByteBuffer window, int target, long windowStart, long size) throws IOException {
+        int limit = Math.min(window.limit(), target + MAX_LINE);
+        int end = lineEnd(window, target, limit);
+        if (end == limit && windowStart + limit < size) throw new IOException("CSV line longer than " + MAX_LINE + " bytes after byte " + (windowStart + target));
+        return Math.min(end + 1, window.limit());
+    }
+
+    private static int lineEnd(ByteBuffer buf, int from, int limit) {
+        int p = from;
+        while (p < limit && buf.get(p) != '\n') p++;
+        return p;
+    }
+
+    private static boolean blank(ByteBuffer buf, int from, int to) {
+        for (int p = from; p < to; p++) if (!CsvFields.blank(buf.get(p))) return false;
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        parsers.shutdownNow();
+    }
+
+    static final class Parsed<R> {
+        int lines;
+        int[] rows = new int[256];
+        final List<R> values = new ArrayList<>(256);
+        int[] errorRows = new int[16];
+        final List<String> errors = new ArrayList<>();
+        int errorCount;
+
+        void add(int row, R value) {
+            if (values.size() == rows.length) rows = Arrays.copyOf(rows, rows.length * 2);
+            rows[values.size()] = row;
+            values.add(value);
+        }
+
+        void fail(int row, String message) {
+            if (errorCount == errorRows.length) errorRows = Arrays.copyOf(errorRows, errorCount * 2);
+            errorRows[errorCount++] = row;
+            errors.add(message);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package org.example.controller.support;
+
+/** One parsed CSV row with its 1-based file row number (the header is row 1). */
+public record CsvRow<R>(int row, R value) {}
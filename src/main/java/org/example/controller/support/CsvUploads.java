@@ -0,0 +1,116 @@
+package org.example.controller.support;
+
+import lombok.RequiredArgsConstructor;
+import org.example.config.PrimaryReads;
+import org.example.dto.ErrorDto;
+import org.example.service.ImportJob;
+import org.example.service.ImportJobService;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shared front half of every upload-csv endpoint. The multipart is spooled to a temp file and its header is
+ * validated on the request thread, so malformed files still fail fast with 400. The rows are then parsed in
+ * parallel by {@link CsvIngest} and imported either inline ({@code sync=true}, the original 200/207 response)
+ * or as a background job answered with 202 and a {@code /api/imports/{id}} location to poll.
+ */
+@Component
+@RequiredArgsConstructor
+public class CsvUploads {
+    private final ImportJobService jobs;
+    private final ImportMetrics metrics;
+    private final DatabaseConcurrencyLimiter limiter;
+    private final CsvIngest ingest;
+
+    /** For rows that parse straight into entities. */
+    public <T> ResponseEntity<?> accept(MultipartFile file, boolean sync, String entity, String[] required,
+                                        Supplier<ChunkedImport<T>> importer, CsvIngest.RowParser<T> parser, Function<T, ?> view) throws IOException {
+        return accept(file, sync, entity, required, importer, parser, CsvIngest::direct, view);
+    }
+
+    /**
+     * @param handler fresh per import, so per-file state such as a {@link ReferenceResolver} lives as long as the import
+     */
+    public <R, T> ResponseEntity<?> accept(MultipartFile file, boolean sync, String entity, String[] required,
+                                           Supplier<ChunkedImport<T>> importer, CsvIngest.RowParser<R> parser,
+                                           Supplier<CsvIngest.ChunkHandler<R, T>> handler, Function<T, ?> view) throws IOException {
+        if (file.isEmpty()) return badRequest("Empty file");
+        Path spool = Files.createTempFile("import-" + entity + "-", ".csv");
+        boolean handedOff = false;
+        try {
+            file.transferTo(spool);
+            metrics.bytesRead(entity, file.getSize());
+            CsvIngest.Header header;
+            try {
+                header = ingest.header(spool);
+            } catch (IllegalArgumentException e) {
+                return badRequest("Malformed header row: " + e.getMessage());
+            }
+            if (header == null) return badRequest("Missing header row");
+            for (String r : required) if (!header.columns().containsKey(r)) return badRequest("Missing column: " + r);
+
+            if (sync) {
+                ChunkedImport<T> inline = importer.get().observedBy(metrics.forEntity(entity));
+                // one database permit for the whole file, so a busy database answers 503 up front instead of failing rows
+                limiter.call(() -> {
+                    try { importRows(spool, header, parser, handler.get(), inline); }
+                    catch (IOException e) { throw new UncheckedIOException(e); }
+                    return null;
+                });
+                List<?> created = inline.getCreated().stream().map(view).toList();
+                List<String> errors = inline.getErrors();
+                if (!errors.isEmpty()) return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(Map.of("inserted", created.size(), "errors", errors, entity, created));
+                return ResponseEntity.ok(created);
+            }
+
+            ImportJob job;
+            try {
+                job = jobs.submit(entity, file.getOriginalFilename(), file.getSize(), progress -> {
+                    boolean previous = PrimaryReads.pin(true); // foreign-key lookups must see rows committed just before
+                    try {
+                        importRows(spool, header, parser, handler.get(), importer.get().reportingTo(progress).observedBy(metrics.forEntity(entity)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        PrimaryReads.restore(previous);
+                    }
+                }, () -> deleteQuietly(spool));
+            } catch (RejectedExecutionException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5")
+                        .body(ErrorDto.builder().status(503).message(e.getMessage()).build());
+            }
+            handedOff = true;
+            return ResponseEntity.accepted().location(URI.create("/api/imports/" + job.getId())).body(job.toDto());
+        } finally {
+            if (!handedOff) deleteQuietly(spool);
+        }
+    }
+
+    private <R, T> void importRows(Path spool, CsvIngest.Header header, CsvIngest.RowParser<R> parser,
+                                   CsvIngest.ChunkHandler<R, T> handler, ChunkedImport<T> importer) throws IOException {
+        ingest.ingest(spool, header, parser, handler, importer);
+        importer.flush();
+    }
+
+    private static ResponseEntity<ErrorDto> badRequest(String message) {
+        return ResponseEntity.badRequest().body(ErrorDto.builder().status(400).message(message).build());
+    }
+
+    private static void deleteQuietly(Path path) {
+        try { Files.deleteIfExists(path); } catch (IOException ignored) { }
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.controller.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.example.service.ImportProgress;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Import counters per entity (CSV uploads and JSON batches): {@code app.import.rows{outcome=parsed|persisted|failed}} and {@code app.import.bytes}. */
+@Component
+@RequiredArgsConstructor
+public class ImportMetrics {
+    private final MeterRegistry registry;
+    private final Map<String, ImportProgress> byEntity = new ConcurrentHashMap<>();
+
+    public ImportProgress forEntity(String entity) {
+        return byEntity.computeIfAbsent(entity, e -> {
+            Counter parsed = rows(e, "parsed"), persisted = rows(e, "persisted"), failed = rows(e, "failed");
+            return new ImportProgress() {
+                @Override public void parsed(int n) { parsed.increment(n); }
+                @Override public void persisted(int n) { persisted.increment(n); }
+                @Override public void failed(int row, String message) { failed.increment(); }
+            };
+        });
+    }
+
+    public void bytesRead(String entity, long bytes) {
+        Counter.builder("app.import.bytes").baseUnit("bytes").description("CSV bytes received by upload-csv")
+                .tag("entity", entity).register(registry).increment(bytes);
+    }
+
+    private Counter rows(String entity, String outcome) {
+        return Counter.builder("app.import.rows").description("Rows handled by upload-csv and the batch endpoints")
+                .tag("entity", entity).tag("outcome", outcome).register(registry);
+    }
+}
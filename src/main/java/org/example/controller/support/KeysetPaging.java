@@ -0,0 +1,89 @@
+package org.example.controller.support;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) paging over the numeric primary key shared by all list endpoints.
+ * A page request returns at most {@code limit} rows after the {@code after} cursor and advertises the
+ * next cursor in {@link #NEXT_CURSOR_HEADER}; the unpaged form streams the whole table in fixed-size keyset
+ * chunks so memory stays flat regardless of table size, as a JSON array by default or in the format and
+ * content coding negotiated by {@link StreamFormats}. The first chunk is read on the handler thread, so a busy
+ * database is answered with 503 before anything is sent; the rest queue for the database rather than be shed.
+ */
+public final class KeysetPaging {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+    public static final int STREAM_CHUNK = 500;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-After";
+
+    private KeysetPaging() {}
+
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        List<T> load(Long after, int limit, boolean descending);
+    }
+
+    public static boolean descending(String sort) { return "desc".equalsIgnoreCase(sort); }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    public static <T, R> ResponseEntity<List<R>> page(Integer limit, Long after, String sort, PageLoader<T> loader, Function<T, Long> key, Function<T, R> view) {
+        int size = clampLimit(limit);
+        List<T> rows = loader.load(after, size, descending(sort));
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (rows.size() == size) ok.header(NEXT_CURSOR_HEADER, String.valueOf(key.apply(rows.get(rows.size() - 1))));
+        return ok.body(rows.stream().map(view).toList());
+    }
+
+    public static <T, R> ResponseEntity<StreamingResponseBody> stream(StreamFormats.StreamFormat format, Long after, String sort, PageLoader<T> loader, Function<T, Long> key, Function<T, R> view) {
+        boolean desc = descending(sort);
+        List<T> first = loader.load(after, STREAM_CHUNK, desc);
+        StreamingResponseBody body = out -> {
+            boolean previous = DatabaseConcurrencyLimiter.background(true);
+            try {
+                write(out, format, first, desc, loader, key, view);
+            } finally {
+                DatabaseConcurrencyLimiter.restore(previous);
+            }
+        };
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().contentType(format.mediaType()).varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (format.contentEncoding() != null) ok.header(HttpHeaders.CONTENT_ENCODING, format.contentEncoding());
+        return ok.body(body);
+    }
+
+    private static <T, R> void write(OutputStream out, StreamFormats.StreamFormat format, List<T> first, boolean desc, PageLoader<T> loader, Function<T, Long> key, Function<T, R> view) throws IOException {
+        ObjectMapper mapper = format.mapper();
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (OutputStream encoded = format.encode(out); JsonGenerator gen = mapper.getFactory().createGenerator(encoded)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (format.lines()) gen.setRootValueSeparator(null);
+            if (!format.lines()) gen.writeStartArray();
+            List<T> chunk = first;
+            while (true) {
+                for (T row : chunk) {
+                    writer.writeValue(gen, view.apply(row));
+                    if (format.lines()) gen.writeRaw('\n');
+                }
+                gen.flush();
+                if (chunk.size() < STREAM_CHUNK) break;
+                chunk = loader.load(key.apply(chunk.get(chunk.size() - 1)), STREAM_CHUNK, desc);
+            }
+            if (!format.lines()) gen.writeEndArray();
+        }
+    }
+}
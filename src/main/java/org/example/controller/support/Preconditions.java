@@ -0,0 +1,33 @@
+package org.example.controller.support;
+
+import org.example.dto.ErrorDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Version-based conditional requests. Every entity carries a {@code @Version}; its value quoted is the strong
+ * ETag of the single-resource representation, so {@code If-None-Match} on GET is answered with 304 by Spring
+ * and {@code If-Match} on PUT/PATCH/DELETE is checked here before the write. The version read here is also
+ * handed to the merge, so a change committed between the check and the write still fails with 412.
+ */
+public final class Preconditions {
+    private Preconditions() {}
+
+    public static String etag(Long version) { return "\"" + version + "\""; }
+
+    /** True when an {@code If-Match} header is present and none of its entity tags is the current version. */
+    public static boolean ifMatchFails(String ifMatch, Long version) {
+        if (ifMatch == null || ifMatch.isBlank()) return false;
+        String current = etag(version);
+        for (String tag : ifMatch.split(",")) {
+            String t = tag.trim();
+            if (t.equals("*") || t.equals(current)) return false; // weak tags (W/"..") never match: If-Match is strong
+        }
+        return true;
+    }
+
+    public static ResponseEntity<ErrorDto> preconditionFailed(String resource, Long currentVersion) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etag(currentVersion))
+                .body(ErrorDto.builder().status(412).message(resource + " was modified").details("current ETag " + etag(currentVersion)).build());
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.controller.support;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Per-import cache of foreign-key targets. Ids seen in a chunk of CSV rows are resolved with one
+ * {@code IN} query per batch of {@link #IN_BATCH} ids, and both hits and misses are remembered for the
+ * rest of the file, so repeated references never go back to the database.
+ */
+public class ReferenceResolver<T> {
+    static final int IN_BATCH = 1000;
+
+    private final Function<Collection<Long>, List<T>> loader;
+    private final Function<T, Long> key;
+    private final Map<Long, T> resolved = new HashMap<>();
+    private final Set<Long> missing = new HashSet<>();
+
+    public ReferenceResolver(Function<Collection<Long>, List<T>> loader, Function<T, Long> key) {
+        this.loader = loader;
+        this.key = key;
+    }
+
+    public void prefetch(Collection<Long> ids) {
+        List<Long> unknown = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .filter(id -> !resolved.containsKey(id) && !missing.contains(id))
+                .toList();
+        for (int from = 0; from < unknown.size(); from += IN_BATCH) {
+            List<Long> batch = unknown.subList(from, Math.min(from + IN_BATCH, unknown.size()));
+            for (T ref : loader.apply(batch)) resolved.put(key.apply(ref), ref);
+            for (Long id : batch) if (!resolved.containsKey(id)) missing.add(id);
+        }
+    }
+
+    public T get(Long id) {
+        if (id == null) return null;
+        if (!resolved.containsKey(id) && !missing.contains(id)) prefetch(List.of(id));
+        return resolved.get(id);
+    }
+}
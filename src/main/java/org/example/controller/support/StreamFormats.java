@@ -0,0 +1,116 @@
+package org.example.controller.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content negotiation for the streamed (unpaged) list responses, which write their body themselves and so
+ * bypass the message converters. {@code Accept} picks JSON (default), NDJSON, CBOR or Smile; {@code
+ * Accept-Encoding} picks zstd over gzip. The body is compressed here rather than by Tomcat, so the compressor
+ * is finished when the last chunk has been written; Tomcat's own gzip skips responses that already carry a
+ * {@code Content-Encoding}.
+ */
+@Component
+public class StreamFormats {
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    /** How a streamed list is written: media type, mapper, one value per line or one array, content coding. */
+    public record StreamFormat(MediaType mediaType, ObjectMapper mapper, boolean lines, String contentEncoding, Encoder encoder) {
+        /** Wraps the response stream; closing the result finishes the compressor but leaves {@code out} open. */
+        public OutputStream encode(OutputStream out) throws IOException { return encoder.wrap(new NonClosing(out)); }
+    }
+
+    @FunctionalInterface
+    public interface Encoder {
+        OutputStream wrap(OutputStream out) throws IOException;
+    }
+
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+    private final ObjectMapper smile;
+    private final int zstdLevel;
+
+    public StreamFormats(ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cbor, MappingJackson2SmileHttpMessageConverter smile,
+                         @Value("${app.compression.zstd-level:3}") int zstdLevel) {
+        this.json = objectMapper;
+        this.cbor = cbor.getObjectMapper();
+        this.smile = smile.getObjectMapper();
+        this.zstdLevel = zstdLevel;
+    }
+
+    public StreamFormat negotiate(HttpHeaders request) {
+        String coding = contentCoding(request.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        Encoder encoder = switch (coding == null ? "" : coding) {
+            case "zstd" -> out -> new ZstdOutputStream(out, zstdLevel);
+            case "gzip" -> out -> new GZIPOutputStream(out, 64 * 1024);
+            default -> out -> out;
+        };
+        for (MediaType accepted : byQuality(request.getFirst(HttpHeaders.ACCEPT))) {
+            if (accepted.includes(MediaType.APPLICATION_JSON)) break;
+            if (accepted.includes(NDJSON)) return new StreamFormat(NDJSON, json, true, coding, encoder);
+            if (accepted.includes(MediaType.APPLICATION_CBOR)) return new StreamFormat(MediaType.APPLICATION_CBOR, cbor, false, coding, encoder);
+            if (accepted.includes(SMILE)) return new StreamFormat(SMILE, smile, false, coding, encoder);
+        }
+        return new StreamFormat(MediaType.APPLICATION_JSON, json, false, coding, encoder);
+    }
+
+    /** {@code "zstd"}, {@code "gzip"} or {@code null} (identity), by the client's preference and then in that order. */
+    static String contentCoding(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        double zstd = 0, gzip = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] pieces = part.split(";");
+            String name = pieces[0].trim().toLowerCase();
+            double q = 1;
+            for (int i = 1; i < pieces.length; i++) {
+                String param = pieces[i].trim();
+                if (param.startsWith("q=")) {
+                    try { q = Double.parseDouble(param.substring(2)); } catch (NumberFormatException e) { q = 0; }
+                }
+            }
+            if (name.equals("zstd")) zstd = q;
+            else if (name.equals("gzip") || name.equals("x-gzip")) gzip = Math.max(gzip, q);
+        }
+        if (zstd > 0 && zstd >= gzip) return "zstd";
+        return gzip > 0 ? "gzip" : null;
+    }
+
+    private static List<MediaType> byQuality(String accept) {
+        if (accept == null || accept.isBlank()) return List.of();
+        List<MediaType> types;
+        try {
+            types = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return List.of();
+        }
+        types.removeIf(t -> t.getQualityValue() <= 0);
+        types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        return types;
+    }
+
+    private static final class NonClosing extends OutputStream {
+        private final OutputStream out;
+
+        NonClosing(OutputStream out) { this.out = out; }
+
+        @Override public void write(int b) throws IOException { out.write(b); }
+        @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+        @Override public void flush() throws IOException { out.flush(); }
+        @Override public void close() throws IOException { out.flush(); }
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.controller.support;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Per-import guard for one unique constraint, so duplicates are reported per row instead of costing a failed
+ * insert and a rolled-back chunk. The keys of a chunk that have not been seen yet are checked against the
+ * database with one {@code IN} query per {@link ReferenceResolver#IN_BATCH}; keys found there and keys accepted
+ * from earlier rows are remembered with the row that took them, in a flat open-addressing table probed by 64-bit
+ * fingerprint (16 bytes per key besides the key itself, no map entries or boxed owners). A fingerprint hit is
+ * confirmed against the stored key, so two keys sharing a fingerprint are never mistaken for duplicates.
+ * The database constraint stays authoritative for rows written concurrently by someone else.
+ */
+public class UniqueKeys<K> {
+    private static final int IN_DATABASE = 0;
+    private static final long EMPTY = 0L;
+
+    private final String name;
+    private final Function<Collection<K>, List<K>> existing;
+    private long[] fingerprints = new long[1024];
+    private int[] owners = new int[1024];
+    private Object[] keys = new Object[1024];
+    private int size;
+
+    /**
+     * @param name     how the key is called in error messages, e.g. {@code "courseCode"}
+     * @param existing returns the given keys that are already stored
+     */
+    public UniqueKeys(String name, Function<Collection<K>, List<K>> existing) {
+        this.name = name;
+        this.existing = existing;
+    }
+
+    public void prefetch(Collection<K> keys) {
+        List<K> unseen = keys.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .filter(k -> owner(k) < 0)
+                .toList();
+        for (int from = 0; from < unseen.size(); from += ReferenceResolver.IN_BATCH) {
+            for (K k : existing.apply(unseen.subList(from, Math.min(from + ReferenceResolver.IN_BATCH, unseen.size()))))
+                put(k, IN_DATABASE);
+        }
+    }
+
+    /** Why {@code key} cannot be used, or {@code null} when it is free. Check every key of a row before claiming any. */
+    public String conflict(K key) {
+        if (key == null) return null;
+        int owner = owner(key);
+        if (owner < 0) return null;
+        String shown = key instanceof String ? "'" + key + "'" : key.toString();
+        return owner == IN_DATABASE ? "Duplicate " + name + " " + shown + " already exists" : "Duplicate " + name + " " + shown + " (same as row " + owner + ")";
+    }
+
+    /** Marks {@code key} as taken by CSV row (or batch position) {@code row}, which must be positive. */
+    public void claim(K key, int row) {
+        if (key != null) put(key, row);
+    }
+
+    private int owner(K key) {
+        long fp = fingerprint(key);
+        int mask = fingerprints.length - 1;
+        for (int i = (int) fp & mask; fingerprints[i] != EMPTY; i = (i + 1) & mask)
+            if (fingerprints[i] == fp && keys[i].equals(key)) return owners[i];
+        return -1;
+    }
+
+    private void put(Object key, int owner) {
+        if (2 * (size + 1) > fingerprints.length) grow();
+        long fp = fingerprint(key);
+        int mask = fingerprints.length - 1;
+        int i = (int) fp & mask;
+        while (fingerprints[i] != EMPTY) {
+            if (fingerprints[i] == fp && keys[i].equals(key)) return; // first owner wins
+            i = (i + 1) & mask;
+        }
+        fingerprints[i] = fp;
+        owners[i] = owner;
+        keys[i] = key;
+        size++;
+    }
+
+    private void grow() {
+        long[] oldFingerprints = fingerprints;
+        int[] oldOwners = owners;
+        Object[] oldKeys = keys;
+        fingerprints = new long[oldFingerprints.length * 2];
+        owners = new int[oldFingerprints.length * 2];
+        keys = new Object[oldFingerprints.length * 2];
+        size = 0;
+        for (int i = 0; i < oldFingerprints.length; i++) if (oldFingerprints[i] != EMPTY) put(oldKeys[i], oldOwners[i]);
+    }
+
+    /** FNV-1a over the key's characters, finished with the murmur3 mixer so the low bits index well. */
+    static long fingerprint(Object key) {
+        CharSequence chars = key instanceof CharSequence cs ? cs : key.toString();
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < chars.length(); i++) {
+            h ^= chars.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == EMPTY ? 1 : h;
+    }
+}
@@ -16,4 +16,5 @@ public class AddressDetailsDto {
     private String state;
     @NotNull @Size(max = 20)
     private String zipCode;
+    private Long version; // optimistic-lock version, also the single-resource ETag; ignored on input
 }
@@ -2,6 +2,7 @@ package org.example.dto;
 
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.example.entity.AttendanceData;
 import java.time.LocalDate;
 
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -16,4 +17,10 @@ public class AttendanceDataDto {
     @NotNull
     private Integer attendanceStatus; // ordinal
     private String semester; // optional
+    private Long version; // optimistic-lock version, also the single-resource ETag; ignored on input
+
+    /** JPQL projection constructor used by the attendance list queries; the status is exposed as its ordinal. */
+    public AttendanceDataDto(Long attendanceNumber, Long enrollmentNumber, Long studentNumber, LocalDate attendanceDate, AttendanceData.AttendanceStatus attendanceStatus, String semester, Long version) {
+        this(attendanceNumber, enrollmentNumber, String.valueOf(studentNumber), attendanceDate, attendanceStatus.ordinal(), semester, version);
+    }
 }
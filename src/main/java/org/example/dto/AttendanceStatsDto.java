@@ -0,0 +1,20 @@
+package org.example.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/** Attendance of one enrollment over a date range, counted in days from the attendance bitmaps. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class AttendanceStatsDto {
+    private Long enrollmentNumber;
+    private LocalDate firstDate; // first and last day with attendance in the range, null when none
+    private LocalDate lastDate;
+    private long present;
+    private long absent;
+    private long excused;
+    private long total;
+    private Double attendanceRate; // present / total, null when no records
+    private int currentStreak; // present days since the last absence; excused days neither count nor break it
+    private int longestStreak;
+}
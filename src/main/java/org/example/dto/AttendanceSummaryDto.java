@@ -0,0 +1,19 @@
+package org.example.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class AttendanceSummaryDto {
+    private Long enrollmentNumber;
+    private Long studentNumber;
+    private String semester; // null when summed over all semesters
+    private Long courseNumber;
+    private LocalDate attendanceDate;
+    private long present;
+    private long absent;
+    private long excused;
+    private long total;
+    private Double attendanceRate; // present / total, null when no records
+}
@@ -0,0 +1,23 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class BatchResultDto {
+    private int total;
+    private int created;
+    private int failed;
+    private List<Item> items; // one per submitted item, in request order
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+        private int index;   // 0-based position in the request array
+        private int status;  // 201 created, 400 rejected
+        private Long id;     // generated number when created
+        private String error;
+    }
+}
@@ -12,4 +12,5 @@ public class ContactDetailsDto {
     private String emailAddress;
     @NotNull @Size(max = 15)
     private String mobileNumber;
+    private Long version; // optimistic-lock version, also the single-resource ETag; ignored on input
 }
@@ -12,4 +12,5 @@ public class CourseDetailsDto {
     private String courseCode;
     @NotNull
     private Double courseCredits;
+    private Long version; // optimistic-lock version, also the single-resource ETag; ignored on input
 }
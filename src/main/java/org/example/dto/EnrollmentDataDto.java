@@ -19,4 +19,10 @@ public class EnrollmentDataDto {
     private String semester;
     @NotNull @Size(max = 100)
     private String instructorName;
+    private Long version; // optimistic-lock version, also the single-resource ETag; ignored on input
+
+    /** JPQL projection constructor used by the enrollment list queries (numeric keys straight from the columns). */
+    public EnrollmentDataDto(Long enrollmentNumber, Long studentNumber, Long courseNumber, LocalDate enrollmentDate, Integer overallGrade, String semester, String instructorName, Long version) {
+        this(String.valueOf(enrollmentNumber), String.valueOf(studentNumber), String.valueOf(courseNumber), enrollmentDate, overallGrade, semester, instructorName, version);
+    }
 }
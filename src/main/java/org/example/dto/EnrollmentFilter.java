@@ -0,0 +1,15 @@
+package org.example.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/** Optional filters of {@code GET /api/enrollments}, bound from the query string; date bounds are inclusive. */
+public record EnrollmentFilter(String semester, String instructor, Long course,
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate enrolledAfter,
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate enrolledBefore) {
+    public boolean isEmpty() {
+        return (semester == null || semester.isBlank()) && (instructor == null || instructor.isBlank()) && course == null
+                && enrolledAfter == null && enrolledBefore == null;
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.dto;
+
+/** Natural key of an enrollment, as enforced by {@code uk_student_course_semester}. */
+public record EnrollmentKey(Long studentNumber, Long courseNumber, String semester) {
+    @Override
+    public String toString() { return "(student " + studentNumber + ", course " + courseNumber + ", semester '" + semester + "')"; }
+}
@@ -0,0 +1,19 @@
+package org.example.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class GradeStatsDto {
+    private Long studentNumber;
+    private Long enrollmentNumber;
+    private Long courseNumber;
+    private String assessmentType; // null for totals
+    private long gradeCount;
+    private Double averagePercent; // sum(obtained) / sum(max) * 100
+    private Double minPercent;
+    private Double maxPercent;
+    private LocalDate latestAssessment;
+    private Double gpa; // 4.0 scale; credit-weighted over enrollments for students
+}
@@ -19,4 +19,5 @@ public class GradesDto {
     @Builder.Default
     private Integer maxScore = 100;
     private Integer gradeCode; // 0=A etc.
+    private Long version; // optimistic-lock version, also the single-resource ETag; ignored on input
 }
@@ -0,0 +1,24 @@
+package org.example.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ImportJobDto {
+    private String jobId;
+    private String entity;
+    private String fileName;
+    private long bytes;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long processed;
+    private long persisted;
+    private long failed;
+    private double rowsPerSecond;
+    private List<String> errors; // first N row errors
+    private String failure; // job-level failure (I/O, interrupted, ...)
+}
@@ -2,6 +2,8 @@ package org.example.dto;
 
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.example.entity.StudentData;
+
 import java.time.LocalDate;
 
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -20,4 +22,19 @@ public class StudentDataDto {
     private LocalDate joiningDate;
     @NotNull
     private Integer studentStatus;
+    private Long version; // optimistic-lock version, also the single-resource ETag; ignored on input
+
+    /** The one entity-to-dto mapping, shared by the student endpoints, the change feed and transcripts. */
+    public static StudentDataDto from(StudentData s) {
+        return StudentDataDto.builder()
+                .studentNumber(s.getStudentNumber()!=null? s.getStudentNumber().toString(): null)
+                .firstName(s.getFirstName())
+                .lastName(s.getLastName())
+                .dateOfBirth(s.getDateOfBirth())
+                .gender(s.getGender().ordinal())
+                .joiningDate(s.getJoiningDate())
+                .studentStatus(s.getStudentStatus().ordinal())
+                .version(s.getVersion())
+                .build();
+    }
 }
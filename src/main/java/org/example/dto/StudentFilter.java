@@ -0,0 +1,16 @@
+package org.example.dto;
+
+import org.example.entity.StudentData.StudentStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/** Optional filters of {@code GET /api/students}, bound from the query string; date bounds are inclusive. */
+public record StudentFilter(StudentStatus status,
+                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate joinedAfter,
+                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate joinedBefore,
+                            String lastName) {
+    public boolean isEmpty() {
+        return status == null && joinedAfter == null && joinedBefore == null && (lastName == null || lastName.isBlank());
+    }
+}
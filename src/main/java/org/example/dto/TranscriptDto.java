@@ -0,0 +1,36 @@
+package org.example.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class TranscriptDto {
+    private StudentDataDto student;
+    private List<Enrollment> enrollments;
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Enrollment {
+        private Long enrollmentNumber;
+        private Long courseNumber;
+        private String courseName;
+        private String courseCode;
+        private Double courseCredits;
+        private LocalDate enrollmentDate;
+        private String semester;
+        private String instructorName;
+        private Integer overallGrade;
+        private List<GradesDto> grades;
+        private Attendance attendance;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Attendance {
+        private long present;
+        private long absent;
+        private long excused;
+        private long total;
+        private Double attendanceRate; // present / total, null when no records
+    }
+}
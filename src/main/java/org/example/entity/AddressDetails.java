@@ -13,10 +13,15 @@ import lombok.*;
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class AddressDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "address_details_seq")
+    @SequenceGenerator(name = "address_details_seq", sequenceName = "address_details_seq", allocationSize = 50)
     @Column(name = "address_number")
     private Long addressNumber;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(optional = false)
     @JoinColumn(name = "student_number", referencedColumnName = "student_number", nullable = false)
     private StudentData student;
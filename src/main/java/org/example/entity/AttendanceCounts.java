@@ -0,0 +1,28 @@
+package org.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.Setter;
+
+/** Present/absent/excused counters shared by the attendance rollup tables; deltas are indexed by status ordinal. */
+@MappedSuperclass
+@Getter @Setter
+public abstract class AttendanceCounts {
+    @Column(name = "present_count", nullable = false)
+    private long present;
+
+    @Column(name = "absent_count", nullable = false)
+    private long absent;
+
+    @Column(name = "excused_count", nullable = false)
+    private long excused;
+
+    public void apply(long[] delta) {
+        present += delta[AttendanceData.AttendanceStatus.PRESENT.ordinal()];
+        absent += delta[AttendanceData.AttendanceStatus.ABSENT.ordinal()];
+        excused += delta[AttendanceData.AttendanceStatus.EXCUSED.ordinal()];
+    }
+
+    public long total() { return present + absent + excused; }
+}
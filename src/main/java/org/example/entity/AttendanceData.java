@@ -14,10 +14,15 @@ import java.time.LocalDate;
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class AttendanceData {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attendance_data_seq")
+    @SequenceGenerator(name = "attendance_data_seq", sequenceName = "attendance_data_seq", allocationSize = 50)
     @Column(name = "attendance_number")
     private Long attendanceNumber;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(optional = false)
     @JoinColumn(name = "enrollment_number", referencedColumnName = "enrollment_number", nullable = false)
     private EnrollmentData enrollment;
@@ -15,10 +15,15 @@ import lombok.*;
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class ContactDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_details_seq")
+    @SequenceGenerator(name = "contact_details_seq", sequenceName = "contact_details_seq", allocationSize = 50)
     @Column(name = "contact_number")
     private Long contactNumber;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(optional = false)
     @JoinColumn(name = "student_number", referencedColumnName = "student_number", nullable = false)
     private StudentData student;
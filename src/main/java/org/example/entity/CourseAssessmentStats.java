@@ -0,0 +1,26 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Entity
+@Table(name = "course_assessment_stats")
+@Getter @Setter @NoArgsConstructor
+public class CourseAssessmentStats extends GradeStats {
+    @EmbeddedId
+    private Key id;
+
+    public CourseAssessmentStats(Key id) { this.id = id; }
+
+    @Embeddable
+    @Getter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+    public static class Key implements Serializable {
+        @Column(name = "course_number")
+        private Long courseNumber;
+
+        @Column(name = "assessment_type", length = 50)
+        private String assessmentType;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "course_date_attendance_rollup")
+@Getter @Setter @NoArgsConstructor
+public class CourseDateAttendance extends AttendanceCounts {
+    @EmbeddedId
+    private Key id;
+
+    public CourseDateAttendance(Key id) { this.id = id; }
+
+    @Embeddable
+    @Getter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+    public static class Key implements Serializable {
+        @Column(name = "course_number")
+        private Long courseNumber;
+
+        @Column(name = "attendance_date")
+        private LocalDate attendanceDate;
+    }
+}
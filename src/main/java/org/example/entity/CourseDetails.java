@@ -2,6 +2,8 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "course_details", indexes = {
@@ -12,13 +14,20 @@ import lombok.*;
         @UniqueConstraint(name = "uk_course_name", columnNames = {"course_name"}),
         @UniqueConstraint(name = "uk_course_code", columnNames = {"course_code"})
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "courses")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class CourseDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "course_details_seq")
+    @SequenceGenerator(name = "course_details_seq", sequenceName = "course_details_seq", allocationSize = 50)
     @Column(name = "course_number")
     private Long courseNumber;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "course_name", nullable = false, length = 100)
     private String courseName;
 
@@ -0,0 +1,15 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "enrollment_attendance_rollup")
+@Getter @Setter @NoArgsConstructor
+public class EnrollmentAttendance extends AttendanceCounts {
+    @Id
+    @Column(name = "enrollment_number")
+    private Long enrollmentNumber;
+
+    public EnrollmentAttendance(Long enrollmentNumber) { this.enrollmentNumber = enrollmentNumber; }
+}
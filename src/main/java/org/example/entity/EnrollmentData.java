@@ -10,21 +10,27 @@ import java.util.ArrayList;
 @Entity
 @Table(name = "enrollment_data", indexes = {
         @Index(name = "idx_enrollment_student", columnList = "student_number"),
-        @Index(name = "idx_enrollment_course", columnList = "course_number"),
+        // filter columns + key: the filtered list pages come straight off these indexes
+        @Index(name = "idx_enrollment_course", columnList = "course_number, enrollment_number"),
         @Index(name = "idx_enrollment_date", columnList = "enrollment_date"),
         @Index(name = "idx_enrollment_overall_grade", columnList = "overall_grade"),
-        @Index(name = "idx_enrollment_semester", columnList = "semester"),
-        @Index(name = "idx_enrollment_instructor", columnList = "instructor_name")
+        @Index(name = "idx_enrollment_semester", columnList = "semester, enrollment_number"),
+        @Index(name = "idx_enrollment_instructor", columnList = "instructor_name, enrollment_number")
 }, uniqueConstraints = {
         @UniqueConstraint(name = "uk_student_course_semester", columnNames = {"student_number", "course_number", "semester"})
 })
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class EnrollmentData {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enrollment_data_seq")
+    @SequenceGenerator(name = "enrollment_data_seq", sequenceName = "enrollment_data_seq", allocationSize = 50)
     @Column(name = "enrollment_number")
     private Long enrollmentNumber;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(optional = false)
     @JoinColumn(name = "student_number", referencedColumnName = "student_number", nullable = false)
     private StudentData student;
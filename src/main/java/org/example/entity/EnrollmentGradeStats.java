@@ -0,0 +1,15 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "enrollment_grade_stats")
+@Getter @Setter @NoArgsConstructor
+public class EnrollmentGradeStats extends GradeStats {
+    @Id
+    @Column(name = "enrollment_number")
+    private Long enrollmentNumber;
+
+    public EnrollmentGradeStats(Long enrollmentNumber) { this.enrollmentNumber = enrollmentNumber; }
+}
@@ -0,0 +1,68 @@
+package org.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Running grade aggregates shared by the summary tables. Counts and sums are maintained incrementally;
+ * min/max/latest cannot be "un-applied", so removing a grade that was one of the extremes reports that the
+ * row has to be recomputed from the grades table instead.
+ */
+@MappedSuperclass
+@Getter @Setter
+public abstract class GradeStats {
+    @Column(name = "grade_count", nullable = false)
+    private long gradeCount;
+
+    @Column(name = "obtained_sum", nullable = false)
+    private long obtainedSum;
+
+    @Column(name = "max_sum", nullable = false)
+    private long maxSum;
+
+    @Column(name = "min_percent")
+    private Double minPercent;
+
+    @Column(name = "max_percent")
+    private Double maxPercent;
+
+    @Column(name = "latest_assessment")
+    private LocalDate latestAssessment;
+
+    public static double percent(Grades g) { return g.getObtainedScore() * 100.0 / g.getMaxScore(); }
+
+    public void add(Grades g) {
+        double p = percent(g);
+        gradeCount++;
+        obtainedSum += g.getObtainedScore();
+        maxSum += g.getMaxScore();
+        minPercent = minPercent == null ? p : Math.min(minPercent, p);
+        maxPercent = maxPercent == null ? p : Math.max(maxPercent, p);
+        if (latestAssessment == null || g.getAssessmentDate().isAfter(latestAssessment)) latestAssessment = g.getAssessmentDate();
+    }
+
+    /** @return false if the row can no longer be maintained incrementally and must be recomputed */
+    public boolean remove(Grades g) {
+        double p = percent(g);
+        if (gradeCount <= 1 || p <= minPercent || p >= maxPercent || !g.getAssessmentDate().isBefore(latestAssessment)) return false;
+        gradeCount--;
+        obtainedSum -= g.getObtainedScore();
+        maxSum -= g.getMaxScore();
+        return true;
+    }
+
+    public void load(long gradeCount, long obtainedSum, long maxSum, Double minPercent, Double maxPercent, LocalDate latestAssessment) {
+        this.gradeCount = gradeCount;
+        this.obtainedSum = obtainedSum;
+        this.maxSum = maxSum;
+        this.minPercent = minPercent;
+        this.maxPercent = maxPercent;
+        this.latestAssessment = latestAssessment;
+    }
+
+    public Double averagePercent() { return maxSum == 0 ? null : obtainedSum * 100.0 / maxSum; }
+}
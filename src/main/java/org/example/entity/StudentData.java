@@ -3,23 +3,33 @@ package org.example.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.util.*;
 
 @Entity
 @Table(name = "student_data", indexes = {
-        @Index(name = "idx_student_last_name", columnList = "last_name"),
+        // equality filters end in the key, so a filtered keyset page is one index range (see ListSpecifications)
+        @Index(name = "idx_student_last_name", columnList = "last_name, student_number"),
         @Index(name = "idx_student_first_name", columnList = "first_name"),
         @Index(name = "idx_student_joining_date", columnList = "joining_date"),
-        @Index(name = "idx_student_status", columnList = "student_status")
+        @Index(name = "idx_student_status", columnList = "student_status, student_number")
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "students")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class StudentData {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_data_seq")
+    @SequenceGenerator(name = "student_data_seq", sequenceName = "student_data_seq", allocationSize = 50)
     @Column(name = "student_number")
     private Long studentNumber;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "first_name", nullable = false, length = 100)
     private String firstName;
 
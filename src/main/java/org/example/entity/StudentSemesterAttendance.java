@@ -0,0 +1,26 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Entity
+@Table(name = "student_semester_attendance_rollup")
+@Getter @Setter @NoArgsConstructor
+public class StudentSemesterAttendance extends AttendanceCounts {
+    @EmbeddedId
+    private Key id;
+
+    public StudentSemesterAttendance(Key id) { this.id = id; }
+
+    @Embeddable
+    @Getter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+    public static class Key implements Serializable {
+        @Column(name = "student_number")
+        private Long studentNumber;
+
+        @Column(name = "semester", length = 20)
+        private String semester; // '' for records without a semester
+    }
+}
@@ -1,10 +1,35 @@
 package org.example.repository;
 
 import org.example.entity.AddressDetails;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface AddressDetailsRepository extends JpaRepository<AddressDetails, Long> {
     List<AddressDetails> findByStudentStudentNumber(Long studentNumber);
+    List<AddressDetails> findByAddressNumberGreaterThan(Long after, Pageable pageable);
+    List<AddressDetails> findByAddressNumberLessThan(Long before, Pageable pageable);
+
+    @Query("select a from AddressDetails a join fetch a.student where a.student.studentNumber in :studentNumbers order by a.addressNumber")
+    List<AddressDetails> findWithStudentByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
+
+    @Query("select a from AddressDetails a join fetch a.student order by a.addressNumber")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<AddressDetails> streamAllForExport();
+
+    @Query("select a.addressNumber from AddressDetails a where a.student.studentNumber in :studentNumbers order by a.addressNumber")
+    List<Long> findAddressNumbersByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from AddressDetails a where a.student.studentNumber in :studentNumbers")
+    int bulkDeleteByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
 }
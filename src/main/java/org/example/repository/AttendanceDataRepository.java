@@ -1,10 +1,83 @@
 package org.example.repository;
 
 import org.example.entity.AttendanceData;
+import org.example.dto.AttendanceDataDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface AttendanceDataRepository extends JpaRepository<AttendanceData, Long> {
     List<AttendanceData> findByStudentStudentNumber(Long studentNumber);
+
+    // Flat list rows: foreign keys are read from the FK columns, so a page is one single-table select
+    String ROW_PROJECTION = "select new org.example.dto.AttendanceDataDto(a.attendanceNumber, a.enrollment.enrollmentNumber, a.student.studentNumber, a.attendanceDate, a.attendanceStatus, a.semester, a.version) from AttendanceData a ";
+
+    @Query(ROW_PROJECTION + "where a.attendanceNumber > :after order by a.attendanceNumber")
+    List<AttendanceDataDto> findRowsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query(ROW_PROJECTION + "where a.attendanceNumber < :before order by a.attendanceNumber desc")
+    List<AttendanceDataDto> findRowsBefore(@Param("before") Long before, Pageable pageable);
+
+    @Query(ROW_PROJECTION + "where a.enrollment.enrollmentNumber in :enrollmentNumbers order by a.attendanceDate, a.attendanceNumber")
+    List<AttendanceDataDto> findRowsByEnrollmentNumbers(@Param("enrollmentNumbers") Collection<Long> enrollmentNumbers);
+
+    interface StatusCount {
+        Long getEnrollmentNumber();
+        AttendanceData.AttendanceStatus getStatus();
+        Long getTotal();
+    }
+
+    @Query("select a.enrollment.enrollmentNumber as enrollmentNumber, a.attendanceStatus as status, count(a) as total from AttendanceData a " +
+            "where a.enrollment.enrollmentNumber in :enrollmentNumbers group by a.enrollment.enrollmentNumber, a.attendanceStatus")
+    List<StatusCount> countByEnrollmentAndStatus(@Param("enrollmentNumbers") Collection<Long> enrollmentNumbers);
+
+    interface BitmapRow {
+        Long getAttendanceNumber();
+        Long getEnrollmentNumber();
+        Long getStudentNumber();
+        LocalDate getAttendanceDate();
+        AttendanceData.AttendanceStatus getAttendanceStatus();
+        Long getVersion();
+    }
+
+    String BITMAP_ROWS = "select a.attendanceNumber as attendanceNumber, a.enrollment.enrollmentNumber as enrollmentNumber, a.student.studentNumber as studentNumber, " +
+            "a.attendanceDate as attendanceDate, a.attendanceStatus as attendanceStatus, a.version as version from AttendanceData a ";
+
+    @Query(BITMAP_ROWS)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<BitmapRow> streamBitmapRows();
+
+    @Query(BITMAP_ROWS + "where a.enrollment.enrollmentNumber in :enrollmentNumbers")
+    List<BitmapRow> findBitmapRowsByEnrollmentNumbers(@Param("enrollmentNumbers") Collection<Long> enrollmentNumbers);
+
+    interface Fingerprint {
+        Long getTotal();
+        Long getNumberSum();
+        Long getVersionSum();
+    }
+
+    /** Row count and sums of keys and versions: any insert, update or delete changes at least one of them. */
+    @Query("select count(a) as total, coalesce(sum(a.attendanceNumber), 0) as numberSum, coalesce(sum(a.version), 0) as versionSum from AttendanceData a")
+    Fingerprint fingerprint();
+
+    @Query("select a from AttendanceData a join fetch a.student join fetch a.enrollment en join fetch en.student join fetch en.course order by a.attendanceNumber")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<AttendanceData> streamAllForExport();
+
+    @Query("select a.attendanceNumber from AttendanceData a where a.student.studentNumber in :studentNumbers or a.enrollment.enrollmentNumber in (select e.enrollmentNumber from EnrollmentData e where e.student.studentNumber in :studentNumbers) order by a.attendanceNumber")
+    List<Long> findAttendanceNumbersByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from AttendanceData a where a.student.studentNumber in :studentNumbers or a.enrollment.enrollmentNumber in (select e.enrollmentNumber from EnrollmentData e where e.student.studentNumber in :studentNumbers)")
+    int bulkDeleteByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
 }
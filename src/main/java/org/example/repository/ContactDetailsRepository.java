@@ -1,10 +1,41 @@
 package org.example.repository;
 
 import org.example.entity.ContactDetails;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ContactDetailsRepository extends JpaRepository<ContactDetails, Long> {
     List<ContactDetails> findByStudentStudentNumber(Long studentNumber);
+    List<ContactDetails> findByContactNumberGreaterThan(Long after, Pageable pageable);
+    List<ContactDetails> findByContactNumberLessThan(Long before, Pageable pageable);
+
+    @Query("select c from ContactDetails c join fetch c.student where c.student.studentNumber in :studentNumbers order by c.contactNumber")
+    List<ContactDetails> findWithStudentByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
+
+    @Query("select c from ContactDetails c join fetch c.student order by c.contactNumber")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<ContactDetails> streamAllForExport();
+
+    @Query("select c.emailAddress from ContactDetails c where c.emailAddress in :emailAddresses")
+    List<String> findExistingEmailAddresses(@Param("emailAddresses") Collection<String> emailAddresses);
+
+    @Query("select c.mobileNumber from ContactDetails c where c.mobileNumber in :mobileNumbers")
+    List<String> findExistingMobileNumbers(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+    @Query("select c.contactNumber from ContactDetails c where c.student.studentNumber in :studentNumbers order by c.contactNumber")
+    List<Long> findContactNumbersByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ContactDetails c where c.student.studentNumber in :studentNumbers")
+    int bulkDeleteByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
 }
@@ -0,0 +1,36 @@
+package org.example.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.entity.CourseAssessmentStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CourseAssessmentStatsRepository extends JpaRepository<CourseAssessmentStats, CourseAssessmentStats.Key> {
+    @Query("select s from CourseAssessmentStats s where s.id.courseNumber = :courseNumber order by s.id.assessmentType")
+    List<CourseAssessmentStats> findByCourseNumber(@Param("courseNumber") Long courseNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from CourseAssessmentStats s where s.id.courseNumber in :courseNumbers")
+    List<CourseAssessmentStats> lockAllByCourseNumberIn(@Param("courseNumbers") Collection<Long> courseNumbers);
+
+    @Modifying
+    @Query(value = "insert into course_assessment_stats (course_number, assessment_type, grade_count, obtained_sum, max_sum) " +
+            "values (:courseNumber, :assessmentType, 0, 0, 0) on conflict do nothing", nativeQuery = true)
+    int insertIfMissing(@Param("courseNumber") Long courseNumber, @Param("assessmentType") String assessmentType);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "delete from course_assessment_stats", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "insert into course_assessment_stats (course_number, assessment_type, grade_count, obtained_sum, max_sum, min_percent, max_percent, latest_assessment) " +
+            "select e.course_number, g.assessment_type, count(*), sum(g.obtained_score), sum(g.max_score), min(g.obtained_score * 100.0 / g.max_score), max(g.obtained_score * 100.0 / g.max_score), max(g.assessment_date) " +
+            "from grades g join enrollment_data e on e.enrollment_number = g.enrollment_number group by e.course_number, g.assessment_type", nativeQuery = true)
+    int rebuildAll();
+}
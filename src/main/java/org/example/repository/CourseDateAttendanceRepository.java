@@ -0,0 +1,48 @@
+package org.example.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.entity.CourseDateAttendance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.example.repository.EnrollmentAttendanceRepository.STATUS_COUNTS;
+
+public interface CourseDateAttendanceRepository extends JpaRepository<CourseDateAttendance, CourseDateAttendance.Key> {
+    String REBUILD = "insert into course_date_attendance_rollup (course_number, attendance_date, present_count, absent_count, excused_count) " +
+            "select e.course_number, a.attendance_date, " + STATUS_COUNTS + "from attendance_data a join enrollment_data e on e.enrollment_number = a.enrollment_number ";
+
+    @Query("select r from CourseDateAttendance r where r.id.courseNumber = :courseNumber and r.id.attendanceDate between :from and :to order by r.id.attendanceDate")
+    List<CourseDateAttendance> findByCourseNumberBetween(@Param("courseNumber") Long courseNumber, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from CourseDateAttendance r where r.id.courseNumber in :courseNumbers and r.id.attendanceDate in :dates")
+    List<CourseDateAttendance> lockAllByCourseNumberInAndDateIn(@Param("courseNumbers") Collection<Long> courseNumbers, @Param("dates") Collection<LocalDate> dates);
+
+    @Modifying
+    @Query(value = "insert into course_date_attendance_rollup (course_number, attendance_date, present_count, absent_count, excused_count) " +
+            "values (:courseNumber, :date, 0, 0, 0) on conflict do nothing", nativeQuery = true)
+    int insertIfMissing(@Param("courseNumber") Long courseNumber, @Param("date") LocalDate date);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from CourseDateAttendance r where r.id.courseNumber in :courseNumbers")
+    int deleteByCourseNumbers(@Param("courseNumbers") Collection<Long> courseNumbers);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = REBUILD + "where e.course_number in (:courseNumbers) group by e.course_number, a.attendance_date", nativeQuery = true)
+    int rebuildCourses(@Param("courseNumbers") Collection<Long> courseNumbers);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "delete from course_date_attendance_rollup", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = REBUILD + "group by e.course_number, a.attendance_date", nativeQuery = true)
+    int rebuildAll();
+}
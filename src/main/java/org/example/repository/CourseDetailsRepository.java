@@ -1,10 +1,35 @@
 package org.example.repository;
 
 import org.example.entity.CourseDetails;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CourseDetailsRepository extends JpaRepository<CourseDetails, Long> { // changed ID type to Long
-    Optional<CourseDetails> findByCourseNumber(Long courseNumber);
+    /** Primary-key lookup routed through {@link #findById} so it is answered from the second-level cache. */
+    default Optional<CourseDetails> findByCourseNumber(Long courseNumber) {
+        return courseNumber == null ? Optional.empty() : findById(courseNumber);
+    }
+
+    List<CourseDetails> findByCourseNumberGreaterThan(Long after, Pageable pageable);
+    List<CourseDetails> findByCourseNumberLessThan(Long before, Pageable pageable);
+
+    @Query("select c from CourseDetails c order by c.courseNumber")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<CourseDetails> streamAllForExport();
+
+    @Query("select c.courseName from CourseDetails c where c.courseName in :courseNames")
+    List<String> findExistingCourseNames(@Param("courseNames") Collection<String> courseNames);
+
+    @Query("select c.courseCode from CourseDetails c where c.courseCode in :courseCodes")
+    List<String> findExistingCourseCodes(@Param("courseCodes") Collection<String> courseCodes);
 }
@@ -0,0 +1,40 @@
+package org.example.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.entity.EnrollmentAttendance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EnrollmentAttendanceRepository extends JpaRepository<EnrollmentAttendance, Long> {
+    // Shared by the rollup rebuild statements: one pass over attendance_data per table
+    String STATUS_COUNTS = "sum(case when a.attendance_status = 'PRESENT' then 1 else 0 end), sum(case when a.attendance_status = 'ABSENT' then 1 else 0 end), sum(case when a.attendance_status = 'EXCUSED' then 1 else 0 end) ";
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from EnrollmentAttendance r where r.enrollmentNumber in :enrollmentNumbers")
+    List<EnrollmentAttendance> lockAllByEnrollmentNumberIn(@Param("enrollmentNumbers") Collection<Long> enrollmentNumbers);
+
+    /** Creates the zero row unless it exists; a concurrent first insert of the same key waits on it instead of failing. */
+    @Modifying
+    @Query(value = "insert into enrollment_attendance_rollup (enrollment_number, present_count, absent_count, excused_count) " +
+            "values (:enrollmentNumber, 0, 0, 0) on conflict do nothing", nativeQuery = true)
+    int insertIfMissing(@Param("enrollmentNumber") Long enrollmentNumber);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from EnrollmentAttendance r where r.enrollmentNumber in (select e.enrollmentNumber from EnrollmentData e where e.student.studentNumber in :studentNumbers)")
+    int bulkDeleteByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "delete from enrollment_attendance_rollup", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "insert into enrollment_attendance_rollup (enrollment_number, present_count, absent_count, excused_count) " +
+            "select a.enrollment_number, " + STATUS_COUNTS + "from attendance_data a group by a.enrollment_number", nativeQuery = true)
+    int rebuildAll();
+}
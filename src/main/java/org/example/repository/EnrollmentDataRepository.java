@@ -1,10 +1,68 @@
 package org.example.repository;
 
 import org.example.entity.EnrollmentData;
+import org.example.dto.EnrollmentDataDto;
+import org.example.dto.EnrollmentKey;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface EnrollmentDataRepository extends JpaRepository<EnrollmentData, Long> {
+public interface EnrollmentDataRepository extends JpaRepository<EnrollmentData, Long>, EnrollmentRowQueries {
     List<EnrollmentData> findByStudentStudentNumber(Long studentNumber);
+
+    // Flat list rows: foreign keys are read from the FK columns, so a page is one single-table select
+    String ROW_PROJECTION = "select new org.example.dto.EnrollmentDataDto(e.enrollmentNumber, e.student.studentNumber, e.course.courseNumber, e.enrollmentDate, e.overallGrade, e.semester, e.instructorName, e.version) from EnrollmentData e ";
+
+    @Query(ROW_PROJECTION + "where e.enrollmentNumber > :after order by e.enrollmentNumber")
+    List<EnrollmentDataDto> findRowsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query(ROW_PROJECTION + "where e.enrollmentNumber < :before order by e.enrollmentNumber desc")
+    List<EnrollmentDataDto> findRowsBefore(@Param("before") Long before, Pageable pageable);
+
+    @Query(ROW_PROJECTION + "where e.student.studentNumber in :studentNumbers order by e.enrollmentDate, e.enrollmentNumber")
+    List<EnrollmentDataDto> findRowsByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
+
+    @Query(ROW_PROJECTION + "where e.course.courseNumber in :courseNumbers order by e.enrollmentDate, e.enrollmentNumber")
+    List<EnrollmentDataDto> findRowsByCourseNumbers(@Param("courseNumbers") Collection<Long> courseNumbers);
+
+    @Query("select e from EnrollmentData e join fetch e.course where e.student.studentNumber = :studentNumber order by e.enrollmentDate, e.enrollmentNumber")
+    List<EnrollmentData> findWithCourseByStudentNumber(@Param("studentNumber") Long studentNumber);
+
+    @Query("select e from EnrollmentData e join fetch e.student join fetch e.course where e.enrollmentNumber in :enrollmentNumbers")
+    List<EnrollmentData> findAllWithReferencesByEnrollmentNumberIn(@Param("enrollmentNumbers") Collection<Long> enrollmentNumbers);
+
+    @Query("select e from EnrollmentData e join fetch e.student join fetch e.course order by e.enrollmentNumber")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<EnrollmentData> streamAllForExport();
+
+    @Modifying
+    @Query("update EnrollmentData e set e.overallGrade = :overallGrade, e.version = e.version + 1 where e.enrollmentNumber = :enrollmentNumber")
+    int updateOverallGrade(@Param("enrollmentNumber") Long enrollmentNumber, @Param("overallGrade") int overallGrade);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update enrollment_data set version = version + 1, overall_grade = (select round(s.obtained_sum * 100.0 / s.max_sum) from enrollment_grade_stats s where s.enrollment_number = enrollment_data.enrollment_number) " +
+            "where enrollment_number in (select enrollment_number from enrollment_grade_stats where max_sum > 0)", nativeQuery = true)
+    int syncOverallGradesFromStats();
+
+    @Query("select new org.example.dto.EnrollmentKey(e.student.studentNumber, e.course.courseNumber, e.semester) from EnrollmentData e where e.student.studentNumber in :studentNumbers")
+    List<EnrollmentKey> findKeysByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
+
+    @Query("select distinct e.course.courseNumber from EnrollmentData e where e.student.studentNumber in :studentNumbers")
+    List<Long> findCourseNumbersByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
+
+    @Query("select e.enrollmentNumber from EnrollmentData e where e.student.studentNumber in :studentNumbers order by e.enrollmentNumber")
+    List<Long> findEnrollmentNumbersByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from EnrollmentData e where e.student.studentNumber in :studentNumbers")
+    int bulkDeleteByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
 }
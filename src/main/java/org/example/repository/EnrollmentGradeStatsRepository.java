@@ -0,0 +1,47 @@
+package org.example.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.entity.EnrollmentGradeStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EnrollmentGradeStatsRepository extends JpaRepository<EnrollmentGradeStats, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from EnrollmentGradeStats s where s.enrollmentNumber in :enrollmentNumbers")
+    List<EnrollmentGradeStats> lockAllByEnrollmentNumberIn(@Param("enrollmentNumbers") Collection<Long> enrollmentNumbers);
+
+    /** Creates an empty row unless it exists; a concurrent first insert of the same key waits on it instead of failing. */
+    @Modifying
+    @Query(value = "insert into enrollment_grade_stats (enrollment_number, grade_count, obtained_sum, max_sum) " +
+            "values (:enrollmentNumber, 0, 0, 0) on conflict do nothing", nativeQuery = true)
+    int insertIfMissing(@Param("enrollmentNumber") Long enrollmentNumber);
+
+    interface StudentRow {
+        EnrollmentGradeStats getStats();
+        Double getCourseCredits();
+    }
+
+    @Query("select s as stats, e.course.courseCredits as courseCredits from EnrollmentGradeStats s, EnrollmentData e " +
+            "where e.enrollmentNumber = s.enrollmentNumber and e.student.studentNumber = :studentNumber")
+    List<StudentRow> findByStudentNumber(@Param("studentNumber") Long studentNumber);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from EnrollmentGradeStats s where s.enrollmentNumber in (select e.enrollmentNumber from EnrollmentData e where e.student.studentNumber in :studentNumbers)")
+    int bulkDeleteByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "delete from enrollment_grade_stats", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "insert into enrollment_grade_stats (enrollment_number, grade_count, obtained_sum, max_sum, min_percent, max_percent, latest_assessment) " +
+            "select enrollment_number, count(*), sum(obtained_score), sum(max_score), min(obtained_score * 100.0 / max_score), max(obtained_score * 100.0 / max_score), max(assessment_date) " +
+            "from grades group by enrollment_number", nativeQuery = true)
+    int rebuildAll();
+}
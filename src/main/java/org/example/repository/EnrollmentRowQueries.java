@@ -0,0 +1,13 @@
+package org.example.repository;
+
+import org.example.dto.EnrollmentDataDto;
+import org.example.entity.EnrollmentData;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/** Criteria counterpart of {@link EnrollmentDataRepository#ROW_PROJECTION}, for filters only known at runtime. */
+public interface EnrollmentRowQueries {
+    /** Up to {@code limit} flat rows matching {@code spec}, in enrollment number order. */
+    List<EnrollmentDataDto> findRows(Specification<EnrollmentData> spec, boolean descending, int limit);
+}
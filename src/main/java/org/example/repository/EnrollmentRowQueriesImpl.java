@@ -0,0 +1,31 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.example.dto.EnrollmentDataDto;
+import org.example.entity.EnrollmentData;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+class EnrollmentRowQueriesImpl implements EnrollmentRowQueries {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EnrollmentDataDto> findRows(Specification<EnrollmentData> spec, boolean descending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EnrollmentDataDto> query = cb.createQuery(EnrollmentDataDto.class);
+        Root<EnrollmentData> e = query.from(EnrollmentData.class);
+        query.select(cb.construct(EnrollmentDataDto.class, e.get("enrollmentNumber"), e.get("student").get("studentNumber"), e.get("course").get("courseNumber"),
+                e.get("enrollmentDate"), e.get("overallGrade"), e.get("semester"), e.get("instructorName"), e.get("version")));
+        Predicate where = spec.toPredicate(e, query, cb);
+        if (where != null) query.where(where);
+        query.orderBy(descending ? cb.desc(e.get("enrollmentNumber")) : cb.asc(e.get("enrollmentNumber")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -1,9 +1,67 @@
 package org.example.repository;
 
 import org.example.entity.Grades;
+import org.example.dto.GradesDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface GradesRepository extends JpaRepository<Grades, Long> {
     List<Grades> findByEnrollmentEnrollmentNumber(Long enrollmentNumber);
+
+    // Flat list rows: foreign keys are read from the FK columns, so a page is one single-table select
+    String ROW_PROJECTION = "select new org.example.dto.GradesDto(g.gradeNumber, g.enrollment.enrollmentNumber, g.assessmentDate, g.assessmentType, g.obtainedScore, g.maxScore, g.gradeCode, g.version) from Grades g ";
+
+    @Query(ROW_PROJECTION + "where g.gradeNumber > :after order by g.gradeNumber")
+    List<GradesDto> findRowsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query(ROW_PROJECTION + "where g.gradeNumber < :before order by g.gradeNumber desc")
+    List<GradesDto> findRowsBefore(@Param("before") Long before, Pageable pageable);
+
+    @Query(ROW_PROJECTION + "where g.enrollment.enrollmentNumber in :enrollmentNumbers order by g.assessmentDate, g.gradeNumber")
+    List<GradesDto> findRowsByEnrollmentNumbers(@Param("enrollmentNumbers") Collection<Long> enrollmentNumbers);
+
+    /** Aggregate of one summary group, used to recompute rows that can't be maintained incrementally. */
+    interface Aggregate {
+        Long getEnrollmentNumber();
+        Long getCourseNumber();
+        String getAssessmentType();
+        Long getGradeCount();
+        Long getObtainedSum();
+        Long getMaxSum();
+        Double getMinPercent();
+        Double getMaxPercent();
+        LocalDate getLatestAssessment();
+    }
+
+    String AGGREGATE_COLUMNS = "count(g) as gradeCount, sum(g.obtainedScore) as obtainedSum, sum(g.maxScore) as maxSum, " +
+            "min(g.obtainedScore * 100.0 / g.maxScore) as minPercent, max(g.obtainedScore * 100.0 / g.maxScore) as maxPercent, max(g.assessmentDate) as latestAssessment ";
+
+    @Query("select g.enrollment.enrollmentNumber as enrollmentNumber, " + AGGREGATE_COLUMNS +
+            "from Grades g where g.enrollment.enrollmentNumber in :enrollmentNumbers group by g.enrollment.enrollmentNumber")
+    List<Aggregate> aggregateByEnrollment(@Param("enrollmentNumbers") Collection<Long> enrollmentNumbers);
+
+    @Query("select g.enrollment.course.courseNumber as courseNumber, g.assessmentType as assessmentType, " + AGGREGATE_COLUMNS +
+            "from Grades g where g.enrollment.course.courseNumber in :courseNumbers group by g.enrollment.course.courseNumber, g.assessmentType")
+    List<Aggregate> aggregateByCourseAndType(@Param("courseNumbers") Collection<Long> courseNumbers);
+
+    @Query("select g from Grades g join fetch g.enrollment en join fetch en.student join fetch en.course order by g.gradeNumber")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Grades> streamAllForExport();
+
+    @Query("select g.gradeNumber from Grades g where g.enrollment.student.studentNumber in :studentNumbers order by g.gradeNumber")
+    List<Long> findGradeNumbersByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Grades g where g.enrollment.enrollmentNumber in (select e.enrollmentNumber from EnrollmentData e where e.student.studentNumber in :studentNumbers)")
+    int bulkDeleteByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
 }
@@ -0,0 +1,46 @@
+package org.example.repository;
+
+import org.example.dto.EnrollmentFilter;
+import org.example.dto.StudentFilter;
+import org.example.entity.EnrollmentData;
+import org.example.entity.StudentData;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The list filters as {@link Specification}s. Every filter is a plain comparison on an indexed column; the equality
+ * filters' indexes end in the primary key, so a filtered keyset page is read as one index range in key order.
+ */
+public final class ListSpecifications {
+    private ListSpecifications() {}
+
+    public static Specification<StudentData> students(StudentFilter f) {
+        List<Specification<StudentData>> specs = new ArrayList<>();
+        if (f.status() != null) specs.add((s, q, cb) -> cb.equal(s.get("studentStatus"), f.status()));
+        if (f.joinedAfter() != null) specs.add((s, q, cb) -> cb.greaterThanOrEqualTo(s.<LocalDate>get("joiningDate"), f.joinedAfter()));
+        if (f.joinedBefore() != null) specs.add((s, q, cb) -> cb.lessThanOrEqualTo(s.<LocalDate>get("joiningDate"), f.joinedBefore()));
+        if (StringUtils.hasText(f.lastName())) specs.add((s, q, cb) -> cb.equal(s.get("lastName"), f.lastName().trim()));
+        return Specification.allOf(specs);
+    }
+
+    public static Specification<EnrollmentData> enrollments(EnrollmentFilter f) {
+        List<Specification<EnrollmentData>> specs = new ArrayList<>();
+        if (StringUtils.hasText(f.semester())) specs.add((e, q, cb) -> cb.equal(e.get("semester"), f.semester().trim()));
+        if (StringUtils.hasText(f.instructor())) specs.add((e, q, cb) -> cb.equal(e.get("instructorName"), f.instructor().trim()));
+        // the FK column itself, no join
+        if (f.course() != null) specs.add((e, q, cb) -> cb.equal(e.get("course").get("courseNumber"), f.course()));
+        if (f.enrolledAfter() != null) specs.add((e, q, cb) -> cb.greaterThanOrEqualTo(e.<LocalDate>get("enrollmentDate"), f.enrolledAfter()));
+        if (f.enrolledBefore() != null) specs.add((e, q, cb) -> cb.lessThanOrEqualTo(e.<LocalDate>get("enrollmentDate"), f.enrolledBefore()));
+        return Specification.allOf(specs);
+    }
+
+    /** Rows past the keyset cursor {@code after} on {@code key} in the given direction; no restriction on the first page. */
+    public static <T> Specification<T> after(String key, Long after, boolean descending) {
+        if (after == null) return (r, q, cb) -> null;
+        return (r, q, cb) -> descending ? cb.lessThan(r.<Long>get(key), after) : cb.greaterThan(r.<Long>get(key), after);
+    }
+}
@@ -1,10 +1,48 @@
 package org.example.repository;
 
 import org.example.entity.StudentData;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface StudentDataRepository extends JpaRepository<StudentData, Long> { // changed ID type to Long
-    Optional<StudentData> findByStudentNumber(Long studentNumber);
+public interface StudentDataRepository extends JpaRepository<StudentData, Long>, JpaSpecificationExecutor<StudentData> { // changed ID type to Long
+    /** Primary-key lookup routed through {@link #findById} so it is answered from the second-level cache. */
+    default Optional<StudentData> findByStudentNumber(Long studentNumber) {
+        return studentNumber == null ? Optional.empty() : findById(studentNumber);
+    }
+
+    List<StudentData> findByStudentNumberGreaterThan(Long after, Pageable pageable);
+    List<StudentData> findByStudentNumberLessThan(Long before, Pageable pageable);
+
+    @Query("select s from StudentData s order by s.studentNumber")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<StudentData> streamAllForExport();
+
+    interface NameRow {
+        Long getStudentNumber();
+        String getFirstName();
+        String getLastName();
+    }
+
+    @Query("select s.studentNumber as studentNumber, s.firstName as firstName, s.lastName as lastName from StudentData s")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<NameRow> streamNames();
+
+    @Query("select s.studentNumber from StudentData s where s.studentStatus = :status")
+    List<Long> findStudentNumbersByStudentStatus(@Param("status") StudentData.StudentStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from StudentData s where s.studentNumber in :studentNumbers")
+    int bulkDeleteByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
 }
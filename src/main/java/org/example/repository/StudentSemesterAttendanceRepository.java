@@ -0,0 +1,41 @@
+package org.example.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.entity.StudentSemesterAttendance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.example.repository.EnrollmentAttendanceRepository.STATUS_COUNTS;
+
+public interface StudentSemesterAttendanceRepository extends JpaRepository<StudentSemesterAttendance, StudentSemesterAttendance.Key> {
+    @Query("select r from StudentSemesterAttendance r where r.id.studentNumber = :studentNumber order by r.id.semester")
+    List<StudentSemesterAttendance> findByStudentNumber(@Param("studentNumber") Long studentNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StudentSemesterAttendance r where r.id.studentNumber in :studentNumbers")
+    List<StudentSemesterAttendance> lockAllByStudentNumberIn(@Param("studentNumbers") Collection<Long> studentNumbers);
+
+    @Modifying
+    @Query(value = "insert into student_semester_attendance_rollup (student_number, semester, present_count, absent_count, excused_count) " +
+            "values (:studentNumber, :semester, 0, 0, 0) on conflict do nothing", nativeQuery = true)
+    int insertIfMissing(@Param("studentNumber") Long studentNumber, @Param("semester") String semester);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from StudentSemesterAttendance r where r.id.studentNumber in :studentNumbers")
+    int bulkDeleteByStudentNumbers(@Param("studentNumbers") Collection<Long> studentNumbers);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "delete from student_semester_attendance_rollup", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "insert into student_semester_attendance_rollup (student_number, semester, present_count, absent_count, excused_count) " +
+            "select a.student_number, coalesce(a.semester, ''), " + STATUS_COUNTS + "from attendance_data a group by a.student_number, coalesce(a.semester, '')", nativeQuery = true)
+    int rebuildAll();
+}
@@ -1,12 +1,18 @@
 package org.example.service;
 
 import org.example.entity.AddressDetails;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AddressDetailsService {
     AddressDetails createAddress(AddressDetails address);
+    List<AddressDetails> createAddresses(List<AddressDetails> addresses);
     AddressDetails getAddressById(Long id);
+    List<AddressDetails> getAddressesByStudentNumbers(Collection<Long> studentNumbers);
     List<AddressDetails> getAllAddresses();
+    List<AddressDetails> getAddressPage(Long after, int limit, boolean descending);
+    void exportAddresses(Consumer<AddressDetails> sink);
     AddressDetails updateAddress(Long id, AddressDetails updated);
     void deleteAddress(Long id);
 }
@@ -1,12 +1,23 @@
 package org.example.service;
 
+import org.example.dto.AttendanceDataDto;
+import org.example.dto.AttendanceStatsDto;
 import org.example.entity.AttendanceData;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AttendanceDataService {
     AttendanceData createAttendance(AttendanceData attendance);
+    List<AttendanceData> createAttendanceRecords(List<AttendanceData> records);
     AttendanceData getAttendanceById(Long id);
+    List<AttendanceDataDto> getAttendanceByEnrollmentNumbers(Collection<Long> enrollmentNumbers);
     List<AttendanceData> getAllAttendance();
+    List<AttendanceDataDto> getAttendancePage(Long after, int limit, boolean descending);
+    /** Per-enrollment day counts, rate and streaks in [from, to] (either bound optional), from the in-memory bitmaps. */
+    List<AttendanceStatsDto> getAttendanceStats(Collection<Long> enrollmentNumbers, LocalDate from, LocalDate to);
+    void exportAttendance(Consumer<AttendanceData> sink);
     AttendanceData updateAttendance(Long id, AttendanceData updated);
     void deleteAttendance(Long id);
 }
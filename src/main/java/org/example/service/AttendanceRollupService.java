@@ -0,0 +1,27 @@
+package org.example.service;
+
+import org.example.dto.AttendanceSummaryDto;
+import org.example.entity.AttendanceData;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface AttendanceRollupService {
+    /**
+     * Applies attendance writes to the rollup counters in the caller's transaction, with {@code removed} holding
+     * the records as they were before the change.
+     */
+    void attendanceChanged(Collection<AttendanceData> removed, Collection<AttendanceData> added);
+    /** Recomputes the per course+date counters of the given courses, e.g. after enrollments moved or were deleted. */
+    void refreshCourses(Collection<Long> courseNumbers);
+    /** Recomputes all rollup tables from attendance_data; returns row counts per table. */
+    Map<String, Integer> rebuild();
+
+    AttendanceSummaryDto getEnrollmentSummary(Long enrollmentNumber);
+    /** One semester, or all semesters summed when {@code semester} is null. */
+    AttendanceSummaryDto getStudentSummary(Long studentNumber, String semester);
+    /** One row per date with attendance in [from, to]. */
+    List<AttendanceSummaryDto> getCourseSummary(Long courseNumber, LocalDate from, LocalDate to);
+}
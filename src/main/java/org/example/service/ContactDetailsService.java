@@ -1,12 +1,21 @@
 package org.example.service;
 
 import org.example.entity.ContactDetails;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ContactDetailsService {
     ContactDetails createContact(ContactDetails contact);
+    List<ContactDetails> createContacts(List<ContactDetails> contacts);
     ContactDetails getContactById(Long id);
+    /** The given values that are already taken, for duplicate checks before a write. */
+    List<String> getExistingEmailAddresses(Collection<String> emailAddresses);
+    List<String> getExistingMobileNumbers(Collection<String> mobileNumbers);
+    List<ContactDetails> getContactsByStudentNumbers(Collection<Long> studentNumbers);
     List<ContactDetails> getAllContacts();
+    List<ContactDetails> getContactPage(Long after, int limit, boolean descending);
+    void exportContacts(Consumer<ContactDetails> sink);
     ContactDetails updateContact(Long id, ContactDetails updated);
     void deleteContact(Long id);
 }
@@ -1,12 +1,21 @@
 package org.example.service;
 
 import org.example.entity.CourseDetails;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CourseDetailsService {
     CourseDetails createCourse(CourseDetails course);
+    List<CourseDetails> createCourses(List<CourseDetails> courses);
     CourseDetails getCourseByNumber(Long courseNumber);
+    List<CourseDetails> getCoursesByNumbers(Collection<Long> courseNumbers);
+    /** The given values that are already taken, for duplicate checks before a write. */
+    List<String> getExistingCourseNames(Collection<String> courseNames);
+    List<String> getExistingCourseCodes(Collection<String> courseCodes);
     List<CourseDetails> getAllCourses();
+    List<CourseDetails> getCoursePage(Long after, int limit, boolean descending);
+    void exportCourses(Consumer<CourseDetails> sink);
     CourseDetails updateCourse(Long courseNumber, CourseDetails updated);
     void deleteCourse(Long courseNumber);
 }
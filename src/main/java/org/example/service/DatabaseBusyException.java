@@ -0,0 +1,14 @@
+package org.example.service;
+
+import lombok.Getter;
+
+/** The database concurrency limit stayed saturated for longer than a request may wait; the caller should retry later. */
+@Getter
+public class DatabaseBusyException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public DatabaseBusyException(int retryAfterSeconds) {
+        super("Database is at capacity, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
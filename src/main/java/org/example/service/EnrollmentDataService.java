@@ -1,12 +1,26 @@
 package org.example.service;
 
+import org.example.dto.EnrollmentDataDto;
+import org.example.dto.EnrollmentFilter;
+import org.example.dto.EnrollmentKey;
 import org.example.entity.EnrollmentData;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface EnrollmentDataService {
     EnrollmentData createEnrollment(EnrollmentData enrollment);
+    List<EnrollmentData> createEnrollments(List<EnrollmentData> enrollments);
     EnrollmentData getEnrollmentByNumber(Long enrollmentNumber);
+    List<EnrollmentData> getEnrollmentsByNumbers(Collection<Long> enrollmentNumbers);
+    /** The given keys that already have an enrollment, for duplicate checks before a write. */
+    List<EnrollmentKey> getExistingEnrollmentKeys(Collection<EnrollmentKey> keys);
+    List<EnrollmentDataDto> getEnrollmentRowsByStudentNumbers(Collection<Long> studentNumbers);
+    List<EnrollmentDataDto> getEnrollmentRowsByCourseNumbers(Collection<Long> courseNumbers);
     List<EnrollmentData> getAllEnrollments();
+    List<EnrollmentDataDto> getEnrollmentPage(Long after, int limit, boolean descending);
+    List<EnrollmentDataDto> getEnrollmentPage(EnrollmentFilter filter, Long after, int limit, boolean descending);
+    void exportEnrollments(Consumer<EnrollmentData> sink);
     EnrollmentData updateEnrollment(Long enrollmentNumber, EnrollmentData updated);
     void deleteEnrollmentByNumber(Long enrollmentNumber);
 }
@@ -0,0 +1,22 @@
+package org.example.service;
+
+import java.util.Set;
+
+/**
+ * A committed write, published by the services as an application event. {@code entity} is the section name of the
+ * REST API, {@code value} the saved entity ({@code null} for deletes and reloads). {@code RELOAD} stands for a
+ * write too large or too indirect to describe row by row (bulk imports, cascading deletes).
+ */
+public record EntityChange(String entity, Op op, Long id, Object value) {
+    public enum Op { INSERT, UPDATE, DELETE, RELOAD }
+
+    public static final String STUDENTS = "students";
+    public static final String COURSES = "courses";
+    public static final String ENROLLMENTS = "enrollments";
+    public static final String GRADES = "grades";
+    public static final String ATTENDANCE = "attendance";
+    public static final String ADDRESSES = "addresses";
+    public static final String CONTACTS = "contacts";
+
+    public static final Set<String> ENTITIES = Set.of(STUDENTS, COURSES, ENROLLMENTS, GRADES, ATTENDANCE, ADDRESSES, CONTACTS);
+}
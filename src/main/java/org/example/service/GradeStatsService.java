@@ -0,0 +1,25 @@
+package org.example.service;
+
+import org.example.dto.GradeStatsDto;
+import org.example.entity.Grades;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface GradeStatsService {
+    /**
+     * Applies grade writes to the summary tables in the caller's transaction. Must be called after the grade
+     * rows have been saved/deleted, with {@code removed} holding the values as they were before the change.
+     */
+    void gradesChanged(Collection<Grades> removed, Collection<Grades> added);
+    void refreshEnrollments(Collection<Long> enrollmentNumbers);
+    void refreshCourses(Collection<Long> courseNumbers);
+    /** Recomputes both summary tables from the grades table; returns row counts per table. */
+    Map<String, Integer> rebuild();
+
+    GradeStatsDto getEnrollmentStats(Long enrollmentNumber);
+    /** Per assessment type, preceded by the course total; empty if the course has no grades. */
+    List<GradeStatsDto> getCourseStats(Long courseNumber);
+    GradeStatsDto getStudentStats(Long studentNumber);
+}
@@ -1,12 +1,19 @@
 package org.example.service;
 
+import org.example.dto.GradesDto;
 import org.example.entity.Grades;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface GradesService {
     Grades createGrade(Grades grade);
+    List<Grades> createGrades(List<Grades> grades);
     Grades getGradeById(Long id);
+    List<GradesDto> getGradesByEnrollmentNumbers(Collection<Long> enrollmentNumbers);
     List<Grades> getAllGrades();
+    List<GradesDto> getGradePage(Long after, int limit, boolean descending);
+    void exportGrades(Consumer<Grades> sink);
     Grades updateGrade(Long id, Grades updated);
     void deleteGrade(Long id);
 }
@@ -0,0 +1,89 @@
+package org.example.service;
+
+import lombok.Getter;
+import org.example.dto.ImportJobDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** State and live counters of one asynchronous CSV import. */
+@Getter
+public class ImportJob implements ImportProgress {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final String entity;
+    private final String fileName;
+    private final long bytes;
+    private final int maxErrors;
+    private final Instant submittedAt = Instant.now();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    public ImportJob(String id, String entity, String fileName, long bytes, int maxErrors) {
+        this.id = id;
+        this.entity = entity;
+        this.fileName = fileName;
+        this.bytes = bytes;
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public void persisted(int rows) { persisted.addAndGet(rows); }
+
+    @Override
+    public void failed(int row, String message) {
+        failed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) errors.add("Row " + row + ": " + message);
+        }
+    }
+
+    public void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    public void finish(String failure) {
+        this.failure = failure;
+        finishedAt = Instant.now();
+        status = failure == null ? Status.COMPLETED : Status.FAILED;
+    }
+
+    public boolean isFinished() { return finishedAt != null; }
+
+    public ImportJobDto toDto() {
+        long ok = persisted.get(), bad = failed.get();
+        double rate = 0;
+        if (startedAt != null) {
+            long millis = Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toMillis();
+            rate = millis > 0 ? (ok + bad) * 1000.0 / millis : 0;
+        }
+        List<String> firstErrors;
+        synchronized (errors) { firstErrors = List.copyOf(errors); }
+        return ImportJobDto.builder()
+                .jobId(id)
+                .entity(entity)
+                .fileName(fileName)
+                .bytes(bytes)
+                .status(status.name())
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .processed(ok + bad)
+                .persisted(ok)
+                .failed(bad)
+                .rowsPerSecond(Math.round(rate * 10) / 10.0)
+                .errors(firstErrors)
+                .failure(failure)
+                .build();
+    }
+}
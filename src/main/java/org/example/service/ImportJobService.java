@@ -0,0 +1,12 @@
+package org.example.service;
+
+import java.util.function.Consumer;
+
+public interface ImportJobService {
+    /**
+     * Queues {@code work} on the import executor; throws RejectedExecutionException when the queue is full.
+     * {@code cleanup} runs once the job is over, however it ends, including when it never got to run.
+     */
+    ImportJob submit(String entity, String fileName, long bytes, Consumer<ImportJob> work, Runnable cleanup);
+    ImportJob getJob(String id);
+}
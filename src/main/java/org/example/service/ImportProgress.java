@@ -0,0 +1,9 @@
+package org.example.service;
+
+/** Receives row-level progress from a running CSV import. */
+public interface ImportProgress {
+    /** A data row was read and handed to the importer (whether or not it turns out valid). */
+    default void parsed(int rows) { }
+    void persisted(int rows);
+    void failed(int row, String message);
+}
@@ -1,13 +1,25 @@
 package org.example.service;
 
+import org.example.dto.StudentFilter;
 import org.example.entity.StudentData;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StudentDataService {
     StudentData createStudent(StudentData student);
+    List<StudentData> createStudents(List<StudentData> students);
     StudentData getStudentByNumber(Long studentNumber);
+    List<StudentData> getStudentsByNumbers(Collection<Long> studentNumbers);
     List<StudentData> getAllStudents();
+    List<StudentData> getStudentPage(Long after, int limit, boolean descending);
+    List<StudentData> getStudentPage(StudentFilter filter, Long after, int limit, boolean descending);
+    /** Ranked name matches from the in-memory n-gram index, best first. */
+    List<StudentData> searchStudents(String query, int limit);
+    void exportStudents(Consumer<StudentData> sink);
     StudentData updateStudent(Long studentNumber, StudentData updated);
     void deleteStudent(Long studentNumber);
+    int deleteStudents(Collection<Long> studentNumbers);
+    int deleteStudentsByStatus(StudentData.StudentStatus status);
     StudentData createStudentAggregate(org.example.dto.StudentAggregateCreateRequest request);
 }
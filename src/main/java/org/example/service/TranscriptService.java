@@ -0,0 +1,8 @@
+package org.example.service;
+
+import org.example.dto.TranscriptDto;
+
+public interface TranscriptService {
+    /** @return the transcript, or null if the student does not exist */
+    TranscriptDto getTranscript(Long studentNumber);
+}
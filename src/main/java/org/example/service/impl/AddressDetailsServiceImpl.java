@@ -1,36 +1,80 @@
 package org.example.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.example.entity.AddressDetails;
 import org.example.repository.AddressDetailsRepository;
 import org.example.service.AddressDetailsService;
+import org.example.service.EntityChange;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 public class AddressDetailsServiceImpl implements AddressDetailsService {
     private final AddressDetailsRepository repository;
+    private final ChangeEvents changes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public AddressDetails createAddress(AddressDetails address) { return changes.inserted(EntityChange.ADDRESSES, repository.save(address), AddressDetails::getAddressNumber); }
 
     @Override
-    public AddressDetails createAddress(AddressDetails address) { return repository.save(address); }
+    @Transactional
+    public List<AddressDetails> createAddresses(List<AddressDetails> addresses) { return changes.insertedAll(EntityChange.ADDRESSES, repository.saveAll(addresses), AddressDetails::getAddressNumber); }
 
     @Override
+    @Transactional(readOnly = true)
     public AddressDetails getAddressById(Long id) { return repository.findById(id).orElse(null); }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<AddressDetails> getAddressesByStudentNumbers(Collection<Long> studentNumbers) { return repository.findWithStudentByStudentNumbers(studentNumbers); }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<AddressDetails> getAllAddresses() { return repository.findAll(); }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<AddressDetails> getAddressPage(Long after, int limit, boolean descending) {
+        if (descending) return repository.findByAddressNumberLessThan(after != null ? after : Long.MAX_VALUE, PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "addressNumber")));
+        return repository.findByAddressNumberGreaterThan(after != null ? after : 0L, PageRequest.of(0, limit, Sort.by("addressNumber")));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAddresses(Consumer<AddressDetails> sink) {
+        try (Stream<AddressDetails> rows = repository.streamAllForExport()) {
+            StreamingExport.drain(rows, entityManager, sink);
+        }
+    }
+
     @Override
     public AddressDetails updateAddress(Long id, AddressDetails updated) {
         Optional<AddressDetails> existing = repository.findById(id);
         if (existing.isEmpty()) return null;
         updated.setAddressNumber(id);
-        return repository.save(updated);
+        if (updated.getVersion() == null) updated.setVersion(existing.get().getVersion());
+        return changes.updated(EntityChange.ADDRESSES, repository.save(updated), AddressDetails::getAddressNumber);
     }
 
     @Override
-    public void deleteAddress(Long id) { repository.deleteById(id); }
+    public void deleteAddress(Long id) {
+        repository.deleteById(id);
+        changes.deleted(EntityChange.ADDRESSES, id);
+    }
 }
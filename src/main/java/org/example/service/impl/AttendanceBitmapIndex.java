@@ -0,0 +1,408 @@
+package org.example.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.AttendanceStatsDto;
+import org.example.entity.AttendanceData;
+import org.example.repository.AttendanceDataRepository;
+import org.example.repository.AttendanceDataRepository.BitmapRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Attendance bitmaps per enrollment: bit {@code d} of the present, absent and excused bitsets says whether the
+ * enrollment has a record with that status {@code d} days after its origin (a multiple of 64 days, so rebasing to
+ * an earlier date only shifts whole words). Counts, rates and streaks over a date range are then a few word-wise
+ * bit operations on the heap. The bits themselves are about 50 bytes per enrollment and semester, but with the
+ * three BitSets, their word arrays and the map entry an enrollment with one semester of records takes roughly
+ * 350 bytes, and each further semester adds about 50.
+ * <p>
+ * Built at startup by streaming attendance_data, unless the snapshot written at the last shutdown still matches
+ * the table: the snapshot carries the row count and the sums of attendance numbers and versions, which the index
+ * keeps current on every write and checks against one aggregate query. Writes are applied after their transaction
+ * commits; enrollments written while the startup load runs are re-read once it is done.
+ */
+@Slf4j
+@Component
+public class AttendanceBitmapIndex {
+    private static final int BUILD_BATCH = 10_000;
+    private static final int SNAPSHOT_MAGIC = 0x41424d32;
+    private static final int PRESENT = AttendanceData.AttendanceStatus.PRESENT.ordinal();
+    private static final int ABSENT = AttendanceData.AttendanceStatus.ABSENT.ordinal();
+    private static final int EXCUSED = AttendanceData.AttendanceStatus.EXCUSED.ordinal();
+
+    private final AttendanceDataRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path snapshot;
+    private final String database;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Days> byEnrollment = new HashMap<>();
+    /** Further records of an enrollment, status and day whose bit is already set, so deleting one keeps the bit. */
+    private final Map<DayKey, Integer> duplicates = new HashMap<>();
+    private long rows, numberSum, versionSum;
+    /** Enrollments and deleted students written before the startup load is done; what was loaded of them may be stale. */
+    private Set<Long> touchedDuringBuild = new HashSet<>();
+    private Set<Long> studentsDeletedDuringBuild = new HashSet<>();
+
+    public AttendanceBitmapIndex(AttendanceDataRepository repository, TransactionTemplate transactionTemplate,
+                                 @Value("${app.attendance.bitmap-snapshot:}") String snapshot,
+                                 @Value("${spring.datasource.url:}") String database) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshot = snapshot.isBlank() ? null : Path.of(snapshot);
+        this.database = database;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        build();
+    }
+
+    /** Loads the snapshot or, when there is none or it is stale, scans the table; returns whether the snapshot was used. */
+    public boolean build() {
+        long started = System.currentTimeMillis();
+        withWriteLock(() -> {
+            if (touchedDuringBuild == null) touchedDuringBuild = new HashSet<>();
+            if (studentsDeletedDuringBuild == null) studentsDeletedDuringBuild = new HashSet<>();
+        });
+        boolean restored = restore();
+        if (!restored) scan();
+        // catch up with the enrollments written meanwhile, until a round finds none
+        while (true) {
+            Set<Long> touched = withWriteLock(() -> {
+                Set<Long> t = touchedDuringBuild;
+                byEnrollment.forEach((enrollment, days) -> { if (studentsDeletedDuringBuild.contains(days.student)) t.add(enrollment); });
+                touchedDuringBuild = t.isEmpty() ? null : new HashSet<>();
+                if (t.isEmpty()) studentsDeletedDuringBuild = null;
+                return t;
+            });
+            if (touched.isEmpty()) break;
+            List<BitmapRow> fresh = transactionTemplate.execute(tx -> repository.findBitmapRowsByEnrollmentNumbers(touched));
+            withWriteLock(() -> {
+                drop(touched);
+                fresh.forEach(this::add);
+            });
+        }
+        log.info("Attendance bitmap index {}: {} enrollments, {} records in {} ms", restored ? "restored from " + snapshot : "built",
+                enrollments(), records(), System.currentTimeMillis() - started);
+        return restored;
+    }
+
+    /** Applies committed attendance writes, {@code removed} holding the records as they were before the change. */
+    public void attendanceChanged(Collection<AttendanceData> removed, Collection<AttendanceData> added) {
+        // read after commit: versions are only bumped when the update is flushed
+        afterCommit(() -> withWriteLock(() -> {
+            for (AttendanceData a : removed) remove(touch(a.getEnrollment().getEnrollmentNumber()), a);
+            for (AttendanceData a : added) add(a.getAttendanceNumber(), touch(a.getEnrollment().getEnrollmentNumber()), a.getStudent().getStudentNumber(),
+                    a.getAttendanceDate(), a.getAttendanceStatus().ordinal(), a.getVersion());
+        }));
+    }
+
+    /** Forgets deleted enrollments, whose attendance went with them. */
+    public void enrollmentsDeleted(Collection<Long> enrollmentNumbers) {
+        afterCommit(() -> withWriteLock(() -> {
+            enrollmentNumbers.forEach(this::touch);
+            drop(enrollmentNumbers);
+        }));
+    }
+
+    /** Forgets the enrollments of deleted students. */
+    public void studentsDeleted(Collection<Long> studentNumbers) {
+        Set<Long> students = new HashSet<>(studentNumbers);
+        afterCommit(() -> withWriteLock(() -> {
+            if (studentsDeletedDuringBuild != null) studentsDeletedDuringBuild.addAll(students);
+            List<Long> gone = new ArrayList<>();
+            byEnrollment.forEach((enrollment, days) -> { if (students.contains(days.student)) gone.add(enrollment); });
+            drop(gone);
+        }));
+    }
+
+    public int enrollments() {
+        lock.readLock().lock();
+        try { return byEnrollment.size(); } finally { lock.readLock().unlock(); }
+    }
+
+    public long records() {
+        lock.readLock().lock();
+        try { return rows; } finally { lock.readLock().unlock(); }
+    }
+
+    /** Day counts, rate and streaks of one enrollment between {@code from} and {@code to}, both inclusive and optional. */
+    public AttendanceStatsDto stats(Long enrollmentNumber, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            AttendanceStatsDto stats = AttendanceStatsDto.builder().enrollmentNumber(enrollmentNumber).build();
+            Days days = byEnrollment.get(enrollmentNumber);
+            if (days == null) return stats;
+            int end = Math.max(days.bits[PRESENT].length(), Math.max(days.bits[ABSENT].length(), days.bits[EXCUSED].length()));
+            int lo = from == null ? 0 : days.clamp(from.toEpochDay(), end);
+            int hi = to == null ? end : days.clamp(to.toEpochDay() + 1, end);
+            if (lo >= hi) return stats;
+            BitSet present = days.bits[PRESENT].get(lo, hi), absent = days.bits[ABSENT].get(lo, hi), excused = days.bits[EXCUSED].get(lo, hi);
+            BitSet recorded = (BitSet) present.clone();
+            recorded.or(absent);
+            recorded.or(excused);
+            if (recorded.isEmpty()) return stats;
+            stats.setFirstDate(LocalDate.ofEpochDay(days.origin + lo + recorded.nextSetBit(0)));
+            stats.setLastDate(LocalDate.ofEpochDay(days.origin + lo + recorded.length() - 1));
+            stats.setPresent(present.cardinality());
+            stats.setAbsent(absent.cardinality());
+            stats.setExcused(excused.cardinality());
+            stats.setTotal(stats.getPresent() + stats.getAbsent() + stats.getExcused());
+            stats.setAttendanceRate((double) stats.getPresent() / stats.getTotal());
+            // a streak is the present days between two absences
+            int longest = 0, start = 0;
+            for (int b = absent.nextSetBit(0); b >= 0; b = absent.nextSetBit(b + 1)) {
+                longest = Math.max(longest, present.get(start, b).cardinality());
+                start = b + 1;
+            }
+            int current = present.get(start, Math.max(start, present.length())).cardinality();
+            stats.setCurrentStreak(current);
+            stats.setLongestStreak(Math.max(longest, current));
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Writes the index and its fingerprint to the snapshot file, through a temporary file so a crash leaves the old one. */
+    @PreDestroy
+    public void saveSnapshot() {
+        if (snapshot == null) return;
+        lock.readLock().lock();
+        try {
+            if (touchedDuringBuild != null) return; // never finished loading
+            Path parent = snapshot.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, snapshot.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeUTF(database);
+                out.writeLong(rows);
+                out.writeLong(numberSum);
+                out.writeLong(versionSum);
+                out.writeInt(byEnrollment.size());
+                for (Map.Entry<Long, Days> e : byEnrollment.entrySet()) {
+                    Days days = e.getValue();
+                    out.writeLong(e.getKey());
+                    out.writeLong(days.student);
+                    out.writeLong(days.origin);
+                    out.writeLong(days.records);
+                    out.writeLong(days.numberSum);
+                    out.writeLong(days.versionSum);
+                    for (BitSet bits : days.bits) {
+                        long[] words = bits.toLongArray();
+                        out.writeInt(words.length);
+                        for (long word : words) out.writeLong(word);
+                    }
+                }
+                out.writeInt(duplicates.size());
+                for (Map.Entry<DayKey, Integer> e : duplicates.entrySet()) {
+                    out.writeLong(e.getKey().enrollment());
+                    out.writeInt(e.getKey().status());
+                    out.writeLong(e.getKey().epochDay());
+                    out.writeInt(e.getValue());
+                }
+            }
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Attendance bitmap snapshot written to {}: {} enrollments", snapshot, byEnrollment.size());
+        } catch (IOException e) {
+            log.warn("Could not write attendance bitmap snapshot {}", snapshot, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Loads the snapshot if it was taken of this database in its current state. */
+    private boolean restore() {
+        if (snapshot == null || !Files.isRegularFile(snapshot)) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || !in.readUTF().equals(database)) return false;
+            long snapRows = in.readLong(), snapNumbers = in.readLong(), snapVersions = in.readLong();
+            AttendanceDataRepository.Fingerprint db = transactionTemplate.execute(tx -> repository.fingerprint());
+            if (db.getTotal() != snapRows || db.getNumberSum() != snapNumbers || db.getVersionSum() != snapVersions) {
+                log.info("Attendance bitmap snapshot {} is out of date, rescanning", snapshot);
+                return false;
+            }
+            Map<Long, Days> loaded = new HashMap<>();
+            for (int n = in.readInt(); n > 0; n--) {
+                long enrollment = in.readLong();
+                Days days = new Days(in.readLong(), in.readLong());
+                days.records = in.readLong();
+                days.numberSum = in.readLong();
+                days.versionSum = in.readLong();
+                for (int s = 0; s < days.bits.length; s++) {
+                    long[] words = new long[in.readInt()];
+                    for (int w = 0; w < words.length; w++) words[w] = in.readLong();
+                    days.bits[s] = BitSet.valueOf(words);
+                }
+                loaded.put(enrollment, days);
+            }
+            Map<DayKey, Integer> loadedDuplicates = new HashMap<>();
+            for (int n = in.readInt(); n > 0; n--) loadedDuplicates.put(new DayKey(in.readLong(), in.readInt(), in.readLong()), in.readInt());
+            withWriteLock(() -> {
+                // writes that got in first are rolled into the snapshot state by the catch-up in build()
+                byEnrollment.clear();
+                byEnrollment.putAll(loaded);
+                duplicates.clear();
+                duplicates.putAll(loadedDuplicates);
+                rows = snapRows;
+                numberSum = snapNumbers;
+                versionSum = snapVersions;
+            });
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not read attendance bitmap snapshot {}, rescanning", snapshot, e);
+            return false;
+        }
+    }
+
+    private void scan() {
+        withWriteLock(() -> {
+            byEnrollment.clear();
+            duplicates.clear();
+            rows = numberSum = versionSum = 0;
+        });
+        List<BitmapRow> batch = new ArrayList<>(BUILD_BATCH);
+        transactionTemplate.executeWithoutResult(tx -> {
+            try (Stream<BitmapRow> stream = repository.streamBitmapRows()) {
+                stream.forEach(row -> {
+                    batch.add(row);
+                    if (batch.size() == BUILD_BATCH) { load(batch); batch.clear(); }
+                });
+            }
+        });
+        load(batch);
+    }
+
+    private void load(List<BitmapRow> batch) {
+        withWriteLock(() -> batch.forEach(this::add));
+    }
+
+    private void add(BitmapRow row) {
+        add(row.getAttendanceNumber(), row.getEnrollmentNumber(), row.getStudentNumber(), row.getAttendanceDate(), row.getAttendanceStatus().ordinal(), row.getVersion());
+    }
+
+    private void add(long number, long enrollment, long student, LocalDate date, int status, long version) {
+        long epochDay = date.toEpochDay();
+        Days days = byEnrollment.computeIfAbsent(enrollment, e -> new Days(student, Math.floorDiv(epochDay, 64) * 64));
+        int day = days.index(epochDay);
+        if (days.bits[status].get(day)) duplicates.merge(new DayKey(enrollment, status, epochDay), 1, Integer::sum);
+        else days.bits[status].set(day);
+        days.count(1, number, version);
+        count(1, number, version);
+    }
+
+    private void remove(long enrollment, AttendanceData a) {
+        Days days = byEnrollment.get(enrollment);
+        if (days == null) return;
+        int status = a.getAttendanceStatus().ordinal();
+        long epochDay = a.getAttendanceDate().toEpochDay();
+        DayKey key = new DayKey(enrollment, status, epochDay);
+        Integer extra = duplicates.get(key);
+        if (extra != null) {
+            if (extra == 1) duplicates.remove(key);
+            else duplicates.put(key, extra - 1);
+        } else if (epochDay >= days.origin) {
+            days.bits[status].clear((int) (epochDay - days.origin));
+        }
+        days.count(-1, -a.getAttendanceNumber(), -a.getVersion());
+        count(-1, -a.getAttendanceNumber(), -a.getVersion());
+        if (days.records == 0) byEnrollment.remove(enrollment);
+    }
+
+    private void drop(Collection<Long> enrollmentNumbers) {
+        if (enrollmentNumbers.isEmpty()) return;
+        Set<Long> gone = new HashSet<>(enrollmentNumbers);
+        for (Long enrollment : gone) {
+            Days days = byEnrollment.remove(enrollment);
+            if (days != null) count(-days.records, -days.numberSum, -days.versionSum);
+        }
+        if (!duplicates.isEmpty()) duplicates.keySet().removeIf(k -> gone.contains(k.enrollment()));
+    }
+
+    private long touch(long enrollment) {
+        if (touchedDuringBuild != null) touchedDuringBuild.add(enrollment);
+        return enrollment;
+    }
+
+    private void count(long records, long number, long version) {
+        rows += records;
+        numberSum += number;
+        versionSum += version;
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try { action.run(); } finally { lock.writeLock().unlock(); }
+    }
+
+    private <T> T withWriteLock(Supplier<T> action) {
+        lock.writeLock().lock();
+        try { return action.get(); } finally { lock.writeLock().unlock(); }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) { action.run(); return; }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() { action.run(); }
+        });
+    }
+
+    private record DayKey(long enrollment, int status, long epochDay) {}
+
+    private static final class Days {
+        final long student;
+        long origin; // epoch day of bit 0, a multiple of 64
+        final BitSet[] bits = {new BitSet(), new BitSet(), new BitSet()}; // by AttendanceStatus ordinal
+        long records, numberSum, versionSum;
+
+        Days(long student, long origin) {
+            this.student = student;
+            this.origin = origin;
+        }
+
+        int index(long epochDay) {
+            if (epochDay < origin) {
+                long newOrigin = Math.floorDiv(epochDay, 64) * 64;
+                int shift = (int) ((origin - newOrigin) / 64);
+                for (int s = 0; s < bits.length; s++) {
+                    long[] words = bits[s].toLongArray();
+                    long[] shifted = new long[words.length + shift];
+                    System.arraycopy(words, 0, shifted, shift, words.length);
+                    bits[s] = BitSet.valueOf(shifted);
+                }
+                origin = newOrigin;
+            }
+            return (int) (epochDay - origin);
+        }
+
+        /** Bit position of {@code epochDay}, clamped to [0, end]. */
+        int clamp(long epochDay, int end) {
+            return (int) Math.max(0, Math.min(epochDay - origin, end));
+        }
+
+        void count(long records, long number, long version) {
+            this.records += records;
+            numberSum += number;
+            versionSum += version;
+        }
+    }
+}
@@ -1,36 +1,120 @@
 package org.example.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.example.dto.AttendanceDataDto;
+import org.example.dto.AttendanceStatsDto;
 import org.example.entity.AttendanceData;
 import org.example.repository.AttendanceDataRepository;
 import org.example.service.AttendanceDataService;
+import org.example.service.AttendanceRollupService;
+import org.example.service.EntityChange;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 public class AttendanceDataServiceImpl implements AttendanceDataService {
     private final AttendanceDataRepository repository;
+    private final AttendanceRollupService rollups;
+    private final AttendanceBitmapIndex bitmaps;
+    private final ChangeEvents changes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
-    public AttendanceData createAttendance(AttendanceData attendance) { return repository.save(attendance); }
+    @Transactional
+    public AttendanceData createAttendance(AttendanceData attendance) {
+        AttendanceData saved = repository.save(attendance);
+        rollups.attendanceChanged(List.of(), List.of(saved));
+        bitmaps.attendanceChanged(List.of(), List.of(saved));
+        return changes.inserted(EntityChange.ATTENDANCE, saved, AttendanceData::getAttendanceNumber);
+    }
+
+    @Override
+    @Transactional
+    public List<AttendanceData> createAttendanceRecords(List<AttendanceData> records) {
+        List<AttendanceData> saved = repository.saveAll(records);
+        rollups.attendanceChanged(List.of(), saved);
+        bitmaps.attendanceChanged(List.of(), saved);
+        return changes.insertedAll(EntityChange.ATTENDANCE, saved, AttendanceData::getAttendanceNumber);
+    }
 
     @Override
+    @Transactional(readOnly = true)
     public AttendanceData getAttendanceById(Long id) { return repository.findById(id).orElse(null); }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<AttendanceDataDto> getAttendanceByEnrollmentNumbers(Collection<Long> enrollmentNumbers) { return repository.findRowsByEnrollmentNumbers(enrollmentNumbers); }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<AttendanceData> getAllAttendance() { return repository.findAll(); }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<AttendanceDataDto> getAttendancePage(Long after, int limit, boolean descending) {
+        if (descending) return repository.findRowsBefore(after != null ? after : Long.MAX_VALUE, PageRequest.of(0, limit));
+        return repository.findRowsAfter(after != null ? after : 0L, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<AttendanceStatsDto> getAttendanceStats(Collection<Long> enrollmentNumbers, LocalDate from, LocalDate to) {
+        return enrollmentNumbers.stream().map(n -> bitmaps.stats(n, from, to)).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAttendance(Consumer<AttendanceData> sink) {
+        try (Stream<AttendanceData> rows = repository.streamAllForExport()) {
+            StreamingExport.drain(rows, entityManager, sink);
+        }
+    }
+
+    @Override
+    @Transactional
     public AttendanceData updateAttendance(Long id, AttendanceData updated) {
         Optional<AttendanceData> existing = repository.findById(id);
         if (existing.isEmpty()) return null;
+        // save() merges into the managed instance, so snapshot the old values for the rollup delta first
+        AttendanceData before = AttendanceData.builder()
+                .attendanceNumber(id)
+                .student(existing.get().getStudent())
+                .enrollment(existing.get().getEnrollment())
+                .attendanceDate(existing.get().getAttendanceDate())
+                .attendanceStatus(existing.get().getAttendanceStatus())
+                .semester(existing.get().getSemester())
+                .version(existing.get().getVersion())
+                .build();
         updated.setAttendanceNumber(id);
-        return repository.save(updated);
+        if (updated.getVersion() == null) updated.setVersion(existing.get().getVersion());
+        AttendanceData saved = repository.save(updated);
+        rollups.attendanceChanged(List.of(before), List.of(saved));
+        bitmaps.attendanceChanged(List.of(before), List.of(saved));
+        return changes.updated(EntityChange.ATTENDANCE, saved, AttendanceData::getAttendanceNumber);
     }
 
     @Override
-    public void deleteAttendance(Long id) { repository.deleteById(id); }
+    @Transactional
+    public void deleteAttendance(Long id) {
+        repository.findById(id).ifPresent(a -> {
+            repository.delete(a);
+            rollups.attendanceChanged(List.of(a), List.of());
+            bitmaps.attendanceChanged(List.of(a), List.of());
+            changes.deleted(EntityChange.ATTENDANCE, id);
+        });
+    }
 }
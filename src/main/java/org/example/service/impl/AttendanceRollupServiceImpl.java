@@ -0,0 +1,149 @@
+package org.example.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.example.dto.AttendanceSummaryDto;
+import org.example.entity.*;
+import org.example.repository.CourseDateAttendanceRepository;
+import org.example.repository.EnrollmentAttendanceRepository;
+import org.example.repository.StudentSemesterAttendanceRepository;
+import org.example.service.AttendanceRollupService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps present/absent/excused counters per enrollment, per student+semester and per course+date. A batch of
+ * writes is folded into one delta per rollup key first, so a CSV chunk touches each counter row once however many
+ * records it carries.
+ */
+@Service
+@Timed(value = "app.service", histogram = true)
+@RequiredArgsConstructor
+public class AttendanceRollupServiceImpl implements AttendanceRollupService {
+    private final EnrollmentAttendanceRepository enrollmentRepository;
+    private final StudentSemesterAttendanceRepository studentSemesterRepository;
+    private final CourseDateAttendanceRepository courseDateRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void attendanceChanged(Collection<AttendanceData> removed, Collection<AttendanceData> added) {
+        Map<Long, long[]> byEnrollment = new HashMap<>();
+        Map<StudentSemesterAttendance.Key, long[]> byStudentSemester = new HashMap<>();
+        Map<CourseDateAttendance.Key, long[]> byCourseDate = new HashMap<>();
+        for (AttendanceData a : removed) fold(a, -1, byEnrollment, byStudentSemester, byCourseDate);
+        for (AttendanceData a : added) fold(a, 1, byEnrollment, byStudentSemester, byCourseDate);
+
+        apply(byEnrollment, enrollmentRepository::lockAllByEnrollmentNumberIn, EnrollmentAttendance::getEnrollmentNumber, enrollmentRepository::insertIfMissing);
+        apply(byStudentSemester, keys -> studentSemesterRepository.lockAllByStudentNumberIn(keys.stream().map(StudentSemesterAttendance.Key::getStudentNumber).toList()),
+                StudentSemesterAttendance::getId, k -> studentSemesterRepository.insertIfMissing(k.getStudentNumber(), k.getSemester()));
+        apply(byCourseDate, keys -> courseDateRepository.lockAllByCourseNumberInAndDateIn(keys.stream().map(CourseDateAttendance.Key::getCourseNumber).toList(),
+                        keys.stream().map(CourseDateAttendance.Key::getAttendanceDate).toList()),
+                CourseDateAttendance::getId, k -> courseDateRepository.insertIfMissing(k.getCourseNumber(), k.getAttendanceDate()));
+    }
+
+    @Override
+    @Transactional
+    public void refreshCourses(Collection<Long> courseNumbers) {
+        if (courseNumbers.isEmpty()) return;
+        courseDateRepository.deleteByCourseNumbers(courseNumbers);
+        courseDateRepository.rebuildCourses(courseNumbers);
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Integer> rebuild() {
+        enrollmentRepository.deleteAllRows();
+        studentSemesterRepository.deleteAllRows();
+        courseDateRepository.deleteAllRows();
+        return Map.of("enrollments", enrollmentRepository.rebuildAll(),
+                "studentSemesters", studentSemesterRepository.rebuildAll(),
+                "courseDates", courseDateRepository.rebuildAll());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AttendanceSummaryDto getEnrollmentSummary(Long enrollmentNumber) {
+        return summary(enrollmentRepository.findById(enrollmentNumber).orElse(null)).enrollmentNumber(enrollmentNumber).build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AttendanceSummaryDto getStudentSummary(Long studentNumber, String semester) {
+        if (semester != null)
+            return summary(studentSemesterRepository.findById(new StudentSemesterAttendance.Key(studentNumber, semester)).orElse(null))
+                    .studentNumber(studentNumber).semester(semester).build();
+        long[] total = new long[AttendanceData.AttendanceStatus.values().length];
+        for (StudentSemesterAttendance r : studentSemesterRepository.findByStudentNumber(studentNumber)) {
+            total[AttendanceData.AttendanceStatus.PRESENT.ordinal()] += r.getPresent();
+            total[AttendanceData.AttendanceStatus.ABSENT.ordinal()] += r.getAbsent();
+            total[AttendanceData.AttendanceStatus.EXCUSED.ordinal()] += r.getExcused();
+        }
+        EnrollmentAttendance sum = new EnrollmentAttendance();
+        sum.apply(total);
+        return summary(sum).studentNumber(studentNumber).build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AttendanceSummaryDto> getCourseSummary(Long courseNumber, LocalDate from, LocalDate to) {
+        return courseDateRepository.findByCourseNumberBetween(courseNumber, from, to).stream()
+                .map(r -> summary(r).courseNumber(courseNumber).attendanceDate(r.getId().getAttendanceDate()).build())
+                .toList();
+    }
+
+    private static void fold(AttendanceData a, int sign, Map<Long, long[]> byEnrollment,
+                             Map<StudentSemesterAttendance.Key, long[]> byStudentSemester, Map<CourseDateAttendance.Key, long[]> byCourseDate) {
+        int status = a.getAttendanceStatus().ordinal();
+        EnrollmentData enrollment = a.getEnrollment();
+        delta(byEnrollment, enrollment.getEnrollmentNumber())[status] += sign;
+        delta(byStudentSemester, new StudentSemesterAttendance.Key(a.getStudent().getStudentNumber(), Objects.toString(a.getSemester(), "")))[status] += sign;
+        delta(byCourseDate, new CourseDateAttendance.Key(enrollment.getCourse().getCourseNumber(), a.getAttendanceDate()))[status] += sign;
+    }
+
+    private static <K> long[] delta(Map<K, long[]> deltas, K key) {
+        return deltas.computeIfAbsent(key, k -> new long[AttendanceData.AttendanceStatus.values().length]);
+    }
+
+    /**
+     * Locks the counter rows of {@code deltas}, creating missing ones with an insert that skips existing keys rather than
+     * a persist: with nothing to lock yet, two first writes of a key would otherwise both insert and one would roll back.
+     */
+    private <K, R extends AttendanceCounts> void apply(Map<K, long[]> deltas, Function<Set<K>, List<R>> lock, Function<R, K> key, Consumer<K> insertIfMissing) {
+        if (deltas.isEmpty()) return;
+        Map<K, R> rows = new HashMap<>();
+        for (R row : lock.apply(deltas.keySet())) rows.put(key.apply(row), row);
+        Set<K> missing = new HashSet<>(deltas.keySet());
+        missing.removeAll(rows.keySet());
+        if (!missing.isEmpty()) {
+            missing.forEach(insertIfMissing);
+            for (R row : lock.apply(missing)) rows.put(key.apply(row), row);
+        }
+        deltas.forEach((k, delta) -> {
+            R row = rows.get(k);
+            row.apply(delta);
+            if (row.total() <= 0) entityManager.remove(row);
+        });
+    }
+
+    private static AttendanceSummaryDto.AttendanceSummaryDtoBuilder summary(AttendanceCounts counts) {
+        if (counts == null) return AttendanceSummaryDto.builder();
+        long total = counts.total();
+        return AttendanceSummaryDto.builder()
+                .present(counts.getPresent())
+                .absent(counts.getAbsent())
+                .excused(counts.getExcused())
+                .total(total)
+                .attendanceRate(total == 0 ? null : (double) counts.getPresent() / total);
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.example.service.EntityChange;
+import org.example.service.EntityChange.Op;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Publishes {@link EntityChange}s for the writes of the service layer. Transactional listeners receive them once the
+ * surrounding transaction commits, so rolled-back writes are never announced. A multi-row write of more than
+ * {@value #MAX_ROW_EVENTS} rows (an import chunk) is announced as one {@code RELOAD} instead of row by row.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeEvents {
+    static final int MAX_ROW_EVENTS = 100;
+
+    private final ApplicationEventPublisher publisher;
+
+    public <T> T inserted(String entity, T row, Function<T, Long> id) {
+        publisher.publishEvent(new EntityChange(entity, Op.INSERT, id.apply(row), row));
+        return row;
+    }
+
+    public <T> List<T> insertedAll(String entity, List<T> rows, Function<T, Long> id) {
+        if (rows.size() > MAX_ROW_EVENTS) reload(entity);
+        else for (T row : rows) inserted(entity, row, id);
+        return rows;
+    }
+
+    /** Passes {@code null} (nothing to update) through unannounced. */
+    public <T> T updated(String entity, T row, Function<T, Long> id) {
+        if (row != null) publisher.publishEvent(new EntityChange(entity, Op.UPDATE, id.apply(row), row));
+        return row;
+    }
+
+    public void deleted(String entity, Long id) {
+        publisher.publishEvent(new EntityChange(entity, Op.DELETE, id, null));
+    }
+
+    /** Like {@link #insertedAll}: more than {@value #MAX_ROW_EVENTS} ids become one {@code RELOAD}. */
+    public void deletedAll(String entity, Collection<Long> ids) {
+        if (ids.size() > MAX_ROW_EVENTS) reload(entity);
+        else for (Long id : ids) deleted(entity, id);
+    }
+
+    public void reload(String... entities) {
+        for (String entity : entities) publisher.publishEvent(new EntityChange(entity, Op.RELOAD, null, null));
+    }
+}
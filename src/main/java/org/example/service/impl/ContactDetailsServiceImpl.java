@@ -1,36 +1,88 @@
 package org.example.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.example.entity.ContactDetails;
 import org.example.repository.ContactDetailsRepository;
 import org.example.service.ContactDetailsService;
+import org.example.service.EntityChange;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 public class ContactDetailsServiceImpl implements ContactDetailsService {
     private final ContactDetailsRepository repository;
+    private final ChangeEvents changes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public ContactDetails createContact(ContactDetails contact) { return changes.inserted(EntityChange.CONTACTS, repository.save(contact), ContactDetails::getContactNumber); }
 
     @Override
-    public ContactDetails createContact(ContactDetails contact) { return repository.save(contact); }
+    @Transactional
+    public List<ContactDetails> createContacts(List<ContactDetails> contacts) { return changes.insertedAll(EntityChange.CONTACTS, repository.saveAll(contacts), ContactDetails::getContactNumber); }
 
     @Override
+    @Transactional(readOnly = true)
     public ContactDetails getContactById(Long id) { return repository.findById(id).orElse(null); }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<String> getExistingEmailAddresses(Collection<String> emailAddresses) { return repository.findExistingEmailAddresses(emailAddresses); }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> getExistingMobileNumbers(Collection<String> mobileNumbers) { return repository.findExistingMobileNumbers(mobileNumbers); }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContactDetails> getContactsByStudentNumbers(Collection<Long> studentNumbers) { return repository.findWithStudentByStudentNumbers(studentNumbers); }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ContactDetails> getAllContacts() { return repository.findAll(); }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContactDetails> getContactPage(Long after, int limit, boolean descending) {
+        if (descending) return repository.findByContactNumberLessThan(after != null ? after : Long.MAX_VALUE, PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "contactNumber")));
+        return repository.findByContactNumberGreaterThan(after != null ? after : 0L, PageRequest.of(0, limit, Sort.by("contactNumber")));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportContacts(Consumer<ContactDetails> sink) {
+        try (Stream<ContactDetails> rows = repository.streamAllForExport()) {
+            StreamingExport.drain(rows, entityManager, sink);
+        }
+    }
+
     @Override
     public ContactDetails updateContact(Long id, ContactDetails updated) {
         Optional<ContactDetails> existing = repository.findById(id);
         if (existing.isEmpty()) return null;
         updated.setContactNumber(id);
-        return repository.save(updated);
+        if (updated.getVersion() == null) updated.setVersion(existing.get().getVersion());
+        return changes.updated(EntityChange.CONTACTS, repository.save(updated), ContactDetails::getContactNumber);
     }
 
     @Override
-    public void deleteContact(Long id) { repository.deleteById(id); }
+    public void deleteContact(Long id) {
+        repository.deleteById(id);
+        changes.deleted(EntityChange.CONTACTS, id);
+    }
 }
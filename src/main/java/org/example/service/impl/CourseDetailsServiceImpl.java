@@ -1,35 +1,87 @@
 package org.example.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.example.entity.CourseDetails;
 import org.example.repository.CourseDetailsRepository;
 import org.example.service.CourseDetailsService;
+import org.example.service.EntityChange;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 public class CourseDetailsServiceImpl implements CourseDetailsService {
     private final CourseDetailsRepository repository;
+    private final ChangeEvents changes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public CourseDetails createCourse(CourseDetails course) { return changes.inserted(EntityChange.COURSES, repository.save(course), CourseDetails::getCourseNumber); }
 
     @Override
-    public CourseDetails createCourse(CourseDetails course) { return repository.save(course); }
+    @Transactional
+    public List<CourseDetails> createCourses(List<CourseDetails> courses) { return changes.insertedAll(EntityChange.COURSES, repository.saveAll(courses), CourseDetails::getCourseNumber); }
 
     @Override
+    @Transactional(readOnly = true)
     public CourseDetails getCourseByNumber(Long courseNumber) { return repository.findByCourseNumber(courseNumber).orElse(null); }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<CourseDetails> getCoursesByNumbers(Collection<Long> courseNumbers) { return repository.findAllById(courseNumbers); }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> getExistingCourseNames(Collection<String> courseNames) { return repository.findExistingCourseNames(courseNames); }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> getExistingCourseCodes(Collection<String> courseCodes) { return repository.findExistingCourseCodes(courseCodes); }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<CourseDetails> getAllCourses() { return repository.findAll(); }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseDetails> getCoursePage(Long after, int limit, boolean descending) {
+        if (descending) return repository.findByCourseNumberLessThan(after != null ? after : Long.MAX_VALUE, PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "courseNumber")));
+        return repository.findByCourseNumberGreaterThan(after != null ? after : 0L, PageRequest.of(0, limit, Sort.by("courseNumber")));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCourses(Consumer<CourseDetails> sink) {
+        try (Stream<CourseDetails> rows = repository.streamAllForExport()) {
+            StreamingExport.drain(rows, entityManager, sink);
+        }
+    }
+
     @Override
     public CourseDetails updateCourse(Long courseNumber, CourseDetails updated) {
         CourseDetails existing = repository.findByCourseNumber(courseNumber).orElse(null);
         if(existing==null) return null;
         updated.setCourseNumber(existing.getCourseNumber());
-        return repository.save(updated);
+        if (updated.getVersion() == null) updated.setVersion(existing.getVersion());
+        return changes.updated(EntityChange.COURSES, repository.save(updated), CourseDetails::getCourseNumber);
     }
 
     @Override
-    public void deleteCourse(Long courseNumber) { repository.deleteById(courseNumber); }
+    public void deleteCourse(Long courseNumber) {
+        repository.deleteById(courseNumber);
+        changes.deleted(EntityChange.COURSES, courseNumber);
+    }
 }
@@ -0,0 +1,210 @@
+package org.example.service.impl;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.service.DatabaseBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the repository layer. With virtual threads a request no longer waits for a
+ * Tomcat worker, so thousands of them could reach Hikari at once and time out there; instead every outermost
+ * service call takes a permit here first. The limit starts at the pool size and adapts: it shrinks by 10% while
+ * Hikari reports threads waiting for a connection and grows by one while callers queue here but the pool keeps up.
+ * Callers wait at most {@code app.db-limiter.max-wait} (and only if fewer than {@code max-queue} are already
+ * waiting) before failing with {@link DatabaseBusyException} (503 + Retry-After). Threads marked with
+ * {@link #background(boolean)} wait for their turn instead: import jobs, startup backfills and the bodies of
+ * streamed responses, which run after the status line is sent and could only fail by truncating the body. Those
+ * endpoints take their admission decision on the handler thread first (see {@link #admit()}). Nested service
+ * calls reuse the caller's permit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // outside @Transactional, so no connection is held while queued
+public class DatabaseConcurrencyLimiter {
+    private static final long ADJUST_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @FunctionalInterface
+    private interface Work<T> { T run() throws Throwable; }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private static final ThreadLocal<Boolean> BACKGROUND = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final int retryAfterSeconds;
+    private final IntSupplier awaitingConnection;
+    private final Counter rejected;
+    private int limit;
+    private int inFlight;
+    private int waiting;
+    private long lastAdjust = System.nanoTime();
+
+    public DatabaseConcurrencyLimiter(DataSource dataSource, MeterRegistry registry,
+                                      @Value("${app.db-limiter.enabled:true}") boolean enabled,
+                                      @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                      @Value("${app.db-limiter.min-limit:1}") int minLimit,
+                                      @Value("${app.db-limiter.max-limit:0}") int maxLimit,
+                                      @Value("${app.db-limiter.max-queue:1000}") int maxQueue,
+                                      @Value("${app.db-limiter.max-wait:500ms}") Duration maxWait,
+                                      @Value("${app.db-limiter.retry-after:1}") int retryAfterSeconds) {
+        this.enabled = enabled;
+        this.maxLimit = maxLimit > 0 ? maxLimit : 2 * poolSize; // calls also spend time outside a connection
+        this.minLimit = Math.max(1, Math.min(minLimit, this.maxLimit));
+        this.limit = Math.max(this.minLimit, Math.min(poolSize, this.maxLimit));
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.awaitingConnection = awaitingConnection(dataSource);
+        this.rejected = Counter.builder("app.db.limiter.rejected").description("Requests answered 503 because the database limit stayed saturated").register(registry);
+        Gauge.builder("app.db.limiter.limit", this, l -> l.limit).description("Current database concurrency limit").register(registry);
+        Gauge.builder("app.db.limiter.in-flight", this, l -> l.inFlight).description("Service calls holding a database permit").register(registry);
+        Gauge.builder("app.db.limiter.waiting", this, l -> l.waiting).description("Service calls queued for a database permit").register(registry);
+    }
+
+    @Around("@within(org.springframework.stereotype.Service) && within(org.example.service.impl..*) && !within(org.example.service.impl.ImportJobServiceImpl)")
+    public Object limitServiceCall(ProceedingJoinPoint call) throws Throwable {
+        return withPermit(call::proceed);
+    }
+
+    /** Runs a multi-statement unit of work (batch endpoints, inline imports) under one permit. */
+    public <T> T call(Supplier<T> work) {
+        try {
+            return withPermit(work::get);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t); // Supplier cannot throw checked exceptions
+        }
+    }
+
+    /**
+     * Admission for a response whose database work happens after it is committed: waits like any request call
+     * for a permit and hands it straight back, so a saturated database still answers 503 instead of a cut-off body.
+     */
+    public void admit() {
+        call(() -> null);
+    }
+
+    public int getLimit() { return limit; }
+
+    /** Marks the current thread's calls as never shed; returns the previous value, to be handed back to {@link #restore}. */
+    public static boolean background(boolean background) {
+        boolean previous = BACKGROUND.get();
+        BACKGROUND.set(background);
+        return previous;
+    }
+
+    public static void restore(boolean previous) {
+        if (previous) BACKGROUND.set(true);
+        else BACKGROUND.remove();
+    }
+
+    private <T> T withPermit(Work<T> work) throws Throwable {
+        int[] nesting = depth.get();
+        if (!enabled || nesting[0] > 0) {
+            nesting[0]++;
+            try { return work.run(); } finally { nesting[0]--; }
+        }
+        acquire(!BACKGROUND.get());
+        nesting[0] = 1;
+        try {
+            return work.run();
+        } finally {
+            nesting[0] = 0;
+            release();
+        }
+    }
+
+    private void acquire(boolean shedOnTimeout) {
+        lock.lock();
+        try {
+            if (inFlight < limit) { inFlight++; return; }
+            if (shedOnTimeout && waiting >= maxQueue) throw busy();
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= limit) {
+                    if (!shedOnTimeout) released.await();
+                    else if (remaining <= 0) throw busy();
+                    else remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+            } finally {
+                waiting--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            if (adjust()) released.signalAll();
+            else released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** AIMD step, at most every 100ms; returns true when the limit grew. */
+    private boolean adjust() {
+        long now = System.nanoTime();
+        if (now - lastAdjust < ADJUST_INTERVAL_NANOS) return false;
+        lastAdjust = now;
+        if (awaitingConnection.getAsInt() > 0) {
+            limit = Math.max(minLimit, (int) (limit * 0.9));
+            return false;
+        }
+        if (waiting > 0 && limit < maxLimit) {
+            limit++;
+            return true;
+        }
+        return false;
+    }
+
+    private DatabaseBusyException busy() {
+        rejected.increment();
+        return new DatabaseBusyException(retryAfterSeconds);
+    }
+
+    private static IntSupplier awaitingConnection(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                return () -> {
+                    HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                    return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+                };
+            }
+        } catch (SQLException ignored) { }
+        return () -> 0; // not Hikari: the limit stays where it is unless callers queue
+    }
+}
@@ -1,35 +1,137 @@
 package org.example.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.example.dto.EnrollmentDataDto;
+import org.example.dto.EnrollmentFilter;
+import org.example.dto.EnrollmentKey;
+import org.example.entity.AttendanceData;
 import org.example.entity.EnrollmentData;
+import org.example.entity.Grades;
 import org.example.repository.EnrollmentDataRepository;
+import org.example.repository.EnrollmentGradeStatsRepository;
+import org.example.repository.ListSpecifications;
+import org.example.service.AttendanceRollupService;
 import org.example.service.EnrollmentDataService;
+import org.example.service.EntityChange;
+import org.example.service.GradeStatsService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 public class EnrollmentDataServiceImpl implements EnrollmentDataService {
     private final EnrollmentDataRepository repository;
+    private final EnrollmentGradeStatsRepository gradeStatsRepository;
+    private final GradeStatsService gradeStatsService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final AttendanceBitmapIndex attendanceBitmaps;
+    private final ChangeEvents changes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public EnrollmentData createEnrollment(EnrollmentData enrollment) { return changes.inserted(EntityChange.ENROLLMENTS, repository.save(enrollment), EnrollmentData::getEnrollmentNumber); }
 
     @Override
-    public EnrollmentData createEnrollment(EnrollmentData enrollment) { return repository.save(enrollment); }
+    @Transactional
+    public List<EnrollmentData> createEnrollments(List<EnrollmentData> enrollments) { return changes.insertedAll(EntityChange.ENROLLMENTS, repository.saveAll(enrollments), EnrollmentData::getEnrollmentNumber); }
 
     @Override
+    @Transactional(readOnly = true)
     public EnrollmentData getEnrollmentByNumber(Long enrollmentNumber) { return repository.findById(enrollmentNumber).orElse(null); }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<EnrollmentData> getEnrollmentsByNumbers(Collection<Long> enrollmentNumbers) { return repository.findAllWithReferencesByEnrollmentNumberIn(enrollmentNumbers); }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EnrollmentKey> getExistingEnrollmentKeys(Collection<EnrollmentKey> keys) {
+        Set<EnrollmentKey> wanted = new HashSet<>(keys);
+        List<Long> students = keys.stream().map(EnrollmentKey::studentNumber).distinct().toList();
+        return repository.findKeysByStudentNumbers(students).stream().filter(wanted::contains).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EnrollmentDataDto> getEnrollmentRowsByStudentNumbers(Collection<Long> studentNumbers) { return repository.findRowsByStudentNumbers(studentNumbers); }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EnrollmentDataDto> getEnrollmentRowsByCourseNumbers(Collection<Long> courseNumbers) { return repository.findRowsByCourseNumbers(courseNumbers); }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<EnrollmentData> getAllEnrollments() { return repository.findAll(); }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<EnrollmentDataDto> getEnrollmentPage(Long after, int limit, boolean descending) {
+        if (descending) return repository.findRowsBefore(after != null ? after : Long.MAX_VALUE, PageRequest.of(0, limit));
+        return repository.findRowsAfter(after != null ? after : 0L, PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EnrollmentDataDto> getEnrollmentPage(EnrollmentFilter filter, Long after, int limit, boolean descending) {
+        return repository.findRows(ListSpecifications.enrollments(filter).and(ListSpecifications.after("enrollmentNumber", after, descending)), descending, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportEnrollments(Consumer<EnrollmentData> sink) {
+        try (Stream<EnrollmentData> rows = repository.streamAllForExport()) {
+            StreamingExport.drain(rows, entityManager, sink);
+        }
+    }
+
+    @Override
+    @Transactional
     public EnrollmentData updateEnrollment(Long enrollmentNumber, EnrollmentData updated) {
         EnrollmentData existing = repository.findById(enrollmentNumber).orElse(null);
         if(existing==null) return null;
+        Long previousCourse = existing.getCourse().getCourseNumber();
         updated.setEnrollmentNumber(existing.getEnrollmentNumber());
-        return repository.save(updated);
+        if (updated.getVersion() == null) updated.setVersion(existing.getVersion());
+        EnrollmentData saved = repository.save(updated);
+        // Moving an enrollment to another course moves its grades and attendance between course summaries
+        if (!previousCourse.equals(saved.getCourse().getCourseNumber())) {
+            gradeStatsService.refreshCourses(List.of(previousCourse, saved.getCourse().getCourseNumber()));
+            attendanceRollupService.refreshCourses(List.of(previousCourse, saved.getCourse().getCourseNumber()));
+        }
+        return changes.updated(EntityChange.ENROLLMENTS, saved, EnrollmentData::getEnrollmentNumber);
     }
 
     @Override
-    public void deleteEnrollmentByNumber(Long enrollmentNumber) { repository.deleteById(enrollmentNumber); }
+    @Transactional
+    public void deleteEnrollmentByNumber(Long enrollmentNumber) {
+        EnrollmentData existing = repository.findById(enrollmentNumber).orElse(null);
+        if (existing == null) return;
+        List<Long> grades = existing.getGrades().stream().map(Grades::getGradeNumber).toList();
+        List<Long> attendance = existing.getAttendanceRecords().stream().map(AttendanceData::getAttendanceNumber).toList();
+        gradeStatsRepository.deleteById(enrollmentNumber);
+        // take its attendance out of all three rollups first; only the enrollment row has a cascading key, and only on Postgres
+        attendanceRollupService.attendanceChanged(List.copyOf(existing.getAttendanceRecords()), List.of());
+        repository.delete(existing);
+        repository.flush();
+        gradeStatsService.refreshCourses(List.of(existing.getCourse().getCourseNumber()));
+        // grades and attendance went with it (orphan removal)
+        attendanceBitmaps.enrollmentsDeleted(List.of(enrollmentNumber));
+        changes.deleted(EntityChange.ENROLLMENTS, enrollmentNumber);
+        changes.deletedAll(EntityChange.GRADES, grades);
+        changes.deletedAll(EntityChange.ATTENDANCE, attendance);
+    }
 }
@@ -0,0 +1,249 @@
+package org.example.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.example.dto.GradeStatsDto;
+import org.example.entity.CourseAssessmentStats;
+import org.example.entity.EnrollmentGradeStats;
+import org.example.entity.GradeStats;
+import org.example.entity.Grades;
+import org.example.repository.CourseAssessmentStatsRepository;
+import org.example.repository.EnrollmentDataRepository;
+import org.example.repository.EnrollmentGradeStatsRepository;
+import org.example.repository.GradesRepository;
+import org.example.service.GradeStatsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maintains {@code enrollment_grade_stats} and {@code course_assessment_stats} inside the grade write
+ * transaction. Touched summary rows are locked, inserts are applied as deltas, and only groups whose
+ * min/max/latest value was removed are recomputed with one grouped query, so reads stay O(1) without
+ * rescanning the grades table. Missing rows are created with an insert that skips existing keys and then
+ * locked like the others, never persisted: two first writes of a key would both insert and one would roll back.
+ */
+@Service
+@Timed(value = "app.service", histogram = true)
+@RequiredArgsConstructor
+public class GradeStatsServiceImpl implements GradeStatsService {
+    private final EnrollmentGradeStatsRepository enrollmentStatsRepository;
+    private final CourseAssessmentStatsRepository courseStatsRepository;
+    private final GradesRepository gradesRepository;
+    private final EnrollmentDataRepository enrollmentRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.grades.sync-overall-grade:false}")
+    private boolean syncOverallGrade;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void gradesChanged(Collection<Grades> removed, Collection<Grades> added) {
+        if (removed.isEmpty() && added.isEmpty()) return;
+        Set<Long> enrollmentNumbers = new HashSet<>(), courseNumbers = new HashSet<>();
+        Stream.concat(removed.stream(), added.stream()).forEach(g -> {
+            enrollmentNumbers.add(enrollmentOf(g));
+            courseNumbers.add(courseOf(g));
+        });
+        Map<Long, EnrollmentGradeStats> byEnrollment = index(enrollmentStatsRepository.lockAllByEnrollmentNumberIn(enrollmentNumbers), EnrollmentGradeStats::getEnrollmentNumber);
+        Map<CourseAssessmentStats.Key, CourseAssessmentStats> byCourse = index(courseStatsRepository.lockAllByCourseNumberIn(courseNumbers), CourseAssessmentStats::getId);
+        // an empty row fails remove() and is recomputed, so removed grades can share the created rows
+        createEnrollmentRows(enrollmentNumbers, byEnrollment);
+        createCourseRows(Stream.concat(removed.stream(), added.stream()).map(GradeStatsServiceImpl::courseKey).collect(Collectors.toSet()), byCourse);
+
+        Set<Long> staleEnrollments = new HashSet<>(), staleCourses = new HashSet<>();
+        for (Grades g : removed) {
+            EnrollmentGradeStats e = byEnrollment.get(enrollmentOf(g));
+            if (e == null || !e.remove(g)) staleEnrollments.add(enrollmentOf(g));
+            CourseAssessmentStats c = byCourse.get(courseKey(g));
+            if (c == null || !c.remove(g)) staleCourses.add(courseOf(g));
+        }
+        for (Grades g : added) {
+            if (!staleEnrollments.contains(enrollmentOf(g))) byEnrollment.get(enrollmentOf(g)).add(g);
+            if (!staleCourses.contains(courseOf(g))) byCourse.get(courseKey(g)).add(g);
+        }
+        recomputeEnrollments(staleEnrollments, byEnrollment);
+        recomputeCourses(staleCourses, byCourse);
+        if (syncOverallGrade) syncOverallGrades(enrollmentNumbers, byEnrollment);
+    }
+
+    @Override
+    @Transactional
+    public void refreshEnrollments(Collection<Long> enrollmentNumbers) {
+        if (enrollmentNumbers.isEmpty()) return;
+        Map<Long, EnrollmentGradeStats> loaded = index(enrollmentStatsRepository.lockAllByEnrollmentNumberIn(enrollmentNumbers), EnrollmentGradeStats::getEnrollmentNumber);
+        recomputeEnrollments(new HashSet<>(enrollmentNumbers), loaded);
+        if (syncOverallGrade) syncOverallGrades(enrollmentNumbers, loaded);
+    }
+
+    @Override
+    @Transactional
+    public void refreshCourses(Collection<Long> courseNumbers) {
+        if (courseNumbers.isEmpty()) return;
+        recomputeCourses(new HashSet<>(courseNumbers), index(courseStatsRepository.lockAllByCourseNumberIn(courseNumbers), CourseAssessmentStats::getId));
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Integer> rebuild() {
+        enrollmentStatsRepository.deleteAllRows();
+        courseStatsRepository.deleteAllRows();
+        int enrollments = enrollmentStatsRepository.rebuildAll();
+        int courses = courseStatsRepository.rebuildAll();
+        if (syncOverallGrade) enrollmentRepository.syncOverallGradesFromStats();
+        return Map.of("enrollments", enrollments, "courseAssessments", courses);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public GradeStatsDto getEnrollmentStats(Long enrollmentNumber) {
+        return enrollmentStatsRepository.findById(enrollmentNumber)
+                .map(s -> toDto(s).enrollmentNumber(enrollmentNumber).build())
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GradeStatsDto> getCourseStats(Long courseNumber) {
+        List<CourseAssessmentStats> rows = courseStatsRepository.findByCourseNumber(courseNumber);
+        if (rows.isEmpty()) return List.of();
+        List<GradeStatsDto> out = new ArrayList<>(rows.size() + 1);
+        out.add(toDto(total(rows)).courseNumber(courseNumber).build());
+        for (CourseAssessmentStats s : rows) out.add(toDto(s).courseNumber(courseNumber).assessmentType(s.getId().getAssessmentType()).build());
+        return out;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public GradeStatsDto getStudentStats(Long studentNumber) {
+        List<EnrollmentGradeStatsRepository.StudentRow> rows = enrollmentStatsRepository.findByStudentNumber(studentNumber);
+        double points = 0, credits = 0;
+        for (EnrollmentGradeStatsRepository.StudentRow r : rows) {
+            Double avg = r.getStats().averagePercent();
+            if (avg == null) continue;
+            points += gradePoints(avg) * r.getCourseCredits();
+            credits += r.getCourseCredits();
+        }
+        return toDto(total(rows.stream().map(EnrollmentGradeStatsRepository.StudentRow::getStats).toList()))
+                .studentNumber(studentNumber)
+                .gpa(credits == 0 ? null : points / credits)
+                .build();
+    }
+
+    private void recomputeEnrollments(Set<Long> enrollmentNumbers, Map<Long, EnrollmentGradeStats> loaded) {
+        if (enrollmentNumbers.isEmpty()) return;
+        Map<Long, GradesRepository.Aggregate> fresh = index(gradesRepository.aggregateByEnrollment(enrollmentNumbers), GradesRepository.Aggregate::getEnrollmentNumber);
+        createEnrollmentRows(fresh.keySet(), loaded);
+        for (Long n : enrollmentNumbers) {
+            EnrollmentGradeStats s = loaded.get(n);
+            GradesRepository.Aggregate a = fresh.get(n);
+            if (a == null) {
+                if (s != null) entityManager.remove(loaded.remove(n));
+                continue;
+            }
+            load(s, a);
+        }
+    }
+
+    private void recomputeCourses(Set<Long> courseNumbers, Map<CourseAssessmentStats.Key, CourseAssessmentStats> loaded) {
+        if (courseNumbers.isEmpty()) return;
+        Map<CourseAssessmentStats.Key, GradesRepository.Aggregate> fresh = index(gradesRepository.aggregateByCourseAndType(courseNumbers),
+                a -> new CourseAssessmentStats.Key(a.getCourseNumber(), a.getAssessmentType()));
+        for (Iterator<CourseAssessmentStats> it = loaded.values().iterator(); it.hasNext(); ) {
+            CourseAssessmentStats s = it.next();
+            if (courseNumbers.contains(s.getId().getCourseNumber()) && !fresh.containsKey(s.getId())) {
+                entityManager.remove(s);
+                it.remove();
+            }
+        }
+        createCourseRows(fresh.keySet(), loaded);
+        fresh.forEach((key, a) -> load(loaded.get(key), a));
+    }
+
+    private void createEnrollmentRows(Set<Long> enrollmentNumbers, Map<Long, EnrollmentGradeStats> loaded) {
+        Set<Long> missing = new HashSet<>(enrollmentNumbers);
+        missing.removeAll(loaded.keySet());
+        if (missing.isEmpty()) return;
+        missing.forEach(enrollmentStatsRepository::insertIfMissing);
+        loaded.putAll(index(enrollmentStatsRepository.lockAllByEnrollmentNumberIn(missing), EnrollmentGradeStats::getEnrollmentNumber));
+    }
+
+    private void createCourseRows(Set<CourseAssessmentStats.Key> keys, Map<CourseAssessmentStats.Key, CourseAssessmentStats> loaded) {
+        Set<CourseAssessmentStats.Key> missing = new HashSet<>(keys);
+        missing.removeAll(loaded.keySet());
+        if (missing.isEmpty()) return;
+        missing.forEach(k -> courseStatsRepository.insertIfMissing(k.getCourseNumber(), k.getAssessmentType()));
+        for (CourseAssessmentStats s : courseStatsRepository.lockAllByCourseNumberIn(missing.stream().map(CourseAssessmentStats.Key::getCourseNumber).toList()))
+            loaded.putIfAbsent(s.getId(), s);
+    }
+
+    private void syncOverallGrades(Collection<Long> enrollmentNumbers, Map<Long, EnrollmentGradeStats> stats) {
+        for (Long n : enrollmentNumbers) {
+            EnrollmentGradeStats s = stats.get(n);
+            Double avg = s == null ? null : s.averagePercent();
+            if (avg != null) enrollmentRepository.updateOverallGrade(n, (int) Math.round(avg));
+        }
+    }
+
+    private static void load(GradeStats s, GradesRepository.Aggregate a) {
+        s.load(a.getGradeCount(), a.getObtainedSum(), a.getMaxSum(), a.getMinPercent(), a.getMaxPercent(), a.getLatestAssessment());
+    }
+
+    private static GradeStats total(List<? extends GradeStats> rows) {
+        GradeStats total = new EnrollmentGradeStats();
+        long count = 0, obtained = 0, max = 0;
+        Double min = null, maxP = null;
+        LocalDate latest = null;
+        for (GradeStats s : rows) {
+            count += s.getGradeCount();
+            obtained += s.getObtainedSum();
+            max += s.getMaxSum();
+            if (s.getMinPercent() != null) min = min == null ? s.getMinPercent() : Math.min(min, s.getMinPercent());
+            if (s.getMaxPercent() != null) maxP = maxP == null ? s.getMaxPercent() : Math.max(maxP, s.getMaxPercent());
+            if (s.getLatestAssessment() != null && (latest == null || s.getLatestAssessment().isAfter(latest))) latest = s.getLatestAssessment();
+        }
+        total.load(count, obtained, max, min, maxP, latest);
+        return total;
+    }
+
+    private static GradeStatsDto.GradeStatsDtoBuilder toDto(GradeStats s) {
+        Double avg = s.averagePercent();
+        return GradeStatsDto.builder()
+                .gradeCount(s.getGradeCount())
+                .averagePercent(avg)
+                .minPercent(s.getMinPercent())
+                .maxPercent(s.getMaxPercent())
+                .latestAssessment(s.getLatestAssessment())
+                .gpa(avg == null ? null : gradePoints(avg));
+    }
+
+    /** 4.0 scale matching the gradeCode bands (A >= 90, B >= 80, C >= 70, D >= 60, else F). */
+    static double gradePoints(double percent) {
+        if (percent >= 90) return 4.0;
+        if (percent >= 80) return 3.0;
+        if (percent >= 70) return 2.0;
+        if (percent >= 60) return 1.0;
+        return 0.0;
+    }
+
+    private static Long enrollmentOf(Grades g) { return g.getEnrollment().getEnrollmentNumber(); }
+    private static Long courseOf(Grades g) { return g.getEnrollment().getCourse().getCourseNumber(); }
+    private static CourseAssessmentStats.Key courseKey(Grades g) { return new CourseAssessmentStats.Key(courseOf(g), g.getAssessmentType()); }
+
+    private static <K, V> Map<K, V> index(Collection<V> rows, Function<V, K> key) {
+        Map<K, V> out = new HashMap<>();
+        for (V row : rows) out.put(key.apply(row), row);
+        return out;
+    }
+}
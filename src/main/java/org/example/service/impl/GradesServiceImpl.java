@@ -1,36 +1,112 @@
 package org.example.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.example.dto.GradesDto;
 import org.example.entity.Grades;
 import org.example.repository.GradesRepository;
+import org.example.service.GradeStatsService;
 import org.example.service.GradesService;
+import org.example.service.EntityChange;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 public class GradesServiceImpl implements GradesService {
     private final GradesRepository repository;
+    private final GradeStatsService gradeStats;
+    private final ChangeEvents changes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Grades createGrade(Grades grade) {
+        Grades saved = repository.save(grade);
+        gradeStats.gradesChanged(List.of(), List.of(saved));
+        return changes.inserted(EntityChange.GRADES, saved, Grades::getGradeNumber);
+    }
 
     @Override
-    public Grades createGrade(Grades grade) { return repository.save(grade); }
+    @Transactional
+    public List<Grades> createGrades(List<Grades> grades) {
+        List<Grades> saved = repository.saveAll(grades);
+        gradeStats.gradesChanged(List.of(), saved);
+        return changes.insertedAll(EntityChange.GRADES, saved, Grades::getGradeNumber);
+    }
 
     @Override
+    @Transactional(readOnly = true)
     public Grades getGradeById(Long id) { return repository.findById(id).orElse(null); }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<GradesDto> getGradesByEnrollmentNumbers(Collection<Long> enrollmentNumbers) { return repository.findRowsByEnrollmentNumbers(enrollmentNumbers); }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Grades> getAllGrades() { return repository.findAll(); }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<GradesDto> getGradePage(Long after, int limit, boolean descending) {
+        if (descending) return repository.findRowsBefore(after != null ? after : Long.MAX_VALUE, PageRequest.of(0, limit));
+        return repository.findRowsAfter(after != null ? after : 0L, PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportGrades(Consumer<Grades> sink) {
+        try (Stream<Grades> rows = repository.streamAllForExport()) {
+            StreamingExport.drain(rows, entityManager, sink);
+        }
+    }
+
+    @Override
+    @Transactional
     public Grades updateGrade(Long id, Grades updated) {
         Optional<Grades> existing = repository.findById(id);
         if (existing.isEmpty()) return null;
+        // save() merges into the managed instance, so snapshot the old values for the stats delta first
+        Grades before = copy(existing.get());
         updated.setGradeNumber(id);
-        return repository.save(updated);
+        if (updated.getVersion() == null) updated.setVersion(existing.get().getVersion());
+        Grades saved = repository.save(updated);
+        gradeStats.gradesChanged(List.of(before), List.of(saved));
+        return changes.updated(EntityChange.GRADES, saved, Grades::getGradeNumber);
     }
 
     @Override
-    public void deleteGrade(Long id) { repository.deleteById(id); }
+    @Transactional
+    public void deleteGrade(Long id) {
+        repository.findById(id).ifPresent(g -> {
+            repository.delete(g);
+            gradeStats.gradesChanged(List.of(g), List.of());
+            changes.deleted(EntityChange.GRADES, id);
+        });
+    }
+
+    private static Grades copy(Grades g) {
+        return Grades.builder()
+                .gradeNumber(g.getGradeNumber())
+                .enrollment(g.getEnrollment())
+                .assessmentDate(g.getAssessmentDate())
+                .assessmentType(g.getAssessmentType())
+                .obtainedScore(g.getObtainedScore())
+                .maxScore(g.getMaxScore())
+                .gradeCode(g.getGradeCode())
+                .build();
+    }
 }
@@ -0,0 +1,102 @@
+package org.example.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.service.ImportJob;
+import org.example.service.ImportJobService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs imports on virtual threads. Threads are cheap, database connections are not: a semaphore caps
+ * how many jobs run at once so imports never hold more than {@code app.import.max-concurrent} pooled
+ * connections, and the remaining jobs park (as virtual threads) until a permit frees up.
+ */
+@Service
+public class ImportJobServiceImpl implements ImportJobService {
+    private static final Duration RETENTION = Duration.ofHours(1);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Semaphore permits;
+    private final int maxQueued;
+    private final int maxErrors;
+
+    public ImportJobServiceImpl(@Value("${app.import.max-concurrent:2}") int maxConcurrent,
+                                @Value("${app.import.max-queued:20}") int maxQueued,
+                                @Value("${app.import.max-errors:100}") int maxErrors,
+                                MeterRegistry registry) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.maxQueued = maxQueued;
+        this.maxErrors = maxErrors;
+        Gauge.builder("app.import.jobs.outstanding", outstanding, AtomicInteger::get).description("Import jobs queued or running").register(registry);
+        Gauge.builder("app.import.jobs.waiting", permits, Semaphore::getQueueLength).description("Import jobs waiting for a concurrency permit").register(registry);
+    }
+
+    @Override
+    public ImportJob submit(String entity, String fileName, long bytes, Consumer<ImportJob> work, Runnable cleanup) {
+        purgeFinished();
+        if (outstanding.incrementAndGet() > maxQueued) {
+            outstanding.decrementAndGet();
+            throw new RejectedExecutionException("Too many imports in progress, try again later");
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), entity, fileName, bytes, maxErrors);
+        try {
+            executor.execute(() -> run(job, work, cleanup));
+        } catch (RejectedExecutionException e) { // shutting down; the caller still owns its resources
+            outstanding.decrementAndGet();
+            throw e;
+        }
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    @Override
+    public ImportJob getJob(String id) { return jobs.get(id); }
+
+    private void run(ImportJob job, Consumer<ImportJob> work, Runnable cleanup) {
+        String failure = null;
+        DatabaseConcurrencyLimiter.background(true); // the job's own thread: nobody is waiting on a 503
+        try {
+            permits.acquire();
+            try {
+                job.start();
+                work.accept(job);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Interrupted";
+        } catch (RuntimeException e) {
+            failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            // also reached when the job is interrupted while parked on a permit, e.g. by shutdownNow()
+            try { cleanup.run(); } catch (RuntimeException ignored) { }
+            outstanding.decrementAndGet();
+            job.finish(failure);
+        }
+    }
+
+    private void purgeFinished() {
+        Instant cutoff = Instant.now().minus(RETENTION);
+        jobs.values().removeIf(j -> j.isFinished() && j.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() { executor.shutdownNow(); }
+}
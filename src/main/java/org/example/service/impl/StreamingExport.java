@@ -0,0 +1,24 @@
+package org.example.service.impl;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Drains a forward-only JPA result stream, clearing the persistence context every
+ * {@link #CLEAR_INTERVAL} rows so that memory stays bounded for exports of any size.
+ */
+final class StreamingExport {
+    static final int CLEAR_INTERVAL = 500;
+
+    private StreamingExport() {}
+
+    static <T> void drain(Stream<T> rows, EntityManager entityManager, Consumer<T> sink) {
+        int[] count = {0};
+        rows.forEach(row -> {
+            sink.accept(row);
+            if (++count[0] % CLEAR_INTERVAL == 0) entityManager.clear();
+        });
+    }
+}
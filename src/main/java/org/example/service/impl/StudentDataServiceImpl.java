@@ -1,63 +1,190 @@
 package org.example.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.example.dto.AddressCreateDto;
 import org.example.dto.ContactCreateDto;
 import org.example.dto.EnrollmentCreateDto;
 import org.example.dto.StudentAggregateCreateRequest;
+import org.example.dto.StudentFilter;
 import org.example.entity.AddressDetails;
 import org.example.entity.ContactDetails;
 import org.example.entity.EnrollmentData;
 import org.example.entity.CourseDetails;
 import org.example.entity.StudentData;
 import org.example.repository.*;
+import org.example.service.AttendanceRollupService;
+import org.example.service.EntityChange;
+import org.example.service.GradeStatsService;
 import org.example.service.StudentDataService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 public class StudentDataServiceImpl implements StudentDataService {
+    private static final int DELETE_BATCH = 1000;
+
     private final StudentDataRepository repository;
     private final AddressDetailsRepository addressRepository;
     private final ContactDetailsRepository contactRepository;
     private final EnrollmentDataRepository enrollmentRepository;
     private final AttendanceDataRepository attendanceRepository;
     private final CourseDetailsRepository courseDetailsRepository;
+    private final GradesRepository gradesRepository;
+    private final EnrollmentGradeStatsRepository enrollmentGradeStatsRepository;
+    private final GradeStatsService gradeStatsService;
+    private final EnrollmentAttendanceRepository enrollmentAttendanceRepository;
+    private final StudentSemesterAttendanceRepository studentSemesterAttendanceRepository;
+    private final AttendanceRollupService attendanceRollupService;
+    private final AttendanceBitmapIndex attendanceBitmaps;
+    private final StudentNameIndex nameIndex;
+    private final ChangeEvents changes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public StudentData createStudent(StudentData student) {
-        return repository.save(student);
+        return changes.inserted(EntityChange.STUDENTS, indexed(repository.save(student)), StudentData::getStudentNumber);
+    }
+
+    @Override
+    @Transactional
+    public List<StudentData> createStudents(List<StudentData> students) {
+        List<StudentData> saved = repository.saveAll(students);
+        saved.forEach(this::indexed);
+        return changes.insertedAll(EntityChange.STUDENTS, saved, StudentData::getStudentNumber);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public StudentData getStudentByNumber(Long studentNumber) {
         return repository.findByStudentNumber(studentNumber).orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<StudentData> getStudentsByNumbers(Collection<Long> studentNumbers) {
+        return repository.findAllById(studentNumbers);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<StudentData> getAllStudents() {
         return repository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<StudentData> searchStudents(String query, int limit) {
+        List<Long> ranked = nameIndex.search(query, limit);
+        Map<Long, StudentData> byNumber = new HashMap<>();
+        for (StudentData s : repository.findAllById(ranked)) byNumber.put(s.getStudentNumber(), s);
+        return ranked.stream().map(byNumber::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StudentData> getStudentPage(Long after, int limit, boolean descending) {
+        if (descending) return repository.findByStudentNumberLessThan(after != null ? after : Long.MAX_VALUE, PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "studentNumber")));
+        return repository.findByStudentNumberGreaterThan(after != null ? after : 0L, PageRequest.of(0, limit, Sort.by("studentNumber")));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StudentData> getStudentPage(StudentFilter filter, Long after, int limit, boolean descending) {
+        Sort order = Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, "studentNumber");
+        return repository.findBy(ListSpecifications.students(filter).and(ListSpecifications.after("studentNumber", after, descending)), q -> q.sortBy(order).limit(limit).all());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportStudents(Consumer<StudentData> sink) {
+        try (Stream<StudentData> rows = repository.streamAllForExport()) {
+            StreamingExport.drain(rows, entityManager, sink);
+        }
+    }
+
     @Override
     public StudentData updateStudent(Long studentNumber, StudentData updated) {
         StudentData existing = repository.findByStudentNumber(studentNumber).orElse(null);
         if(existing==null) return null;
         updated.setStudentNumber(existing.getStudentNumber());
-        return repository.save(updated);
+        if (updated.getVersion() == null) updated.setVersion(existing.getVersion());
+        return changes.updated(EntityChange.STUDENTS, indexed(repository.save(updated)), StudentData::getStudentNumber);
     }
 
     @Override
+    @Transactional
     public void deleteStudent(Long studentNumber) {
-        StudentData student = repository.findByStudentNumber(studentNumber).orElse(null);
-        if(student==null) return;
-        // Delete enrollments (cascade removes grades & attendance)
-        enrollmentRepository.deleteAll(enrollmentRepository.findByStudentStudentNumber(studentNumber));
-        contactRepository.deleteAll(contactRepository.findByStudentStudentNumber(studentNumber));
-        addressRepository.deleteAll(addressRepository.findByStudentStudentNumber(studentNumber));
-        repository.deleteById(studentNumber);
+        deleteStudents(List.of(studentNumber));
+    }
+
+    @Override
+    @Transactional
+    public int deleteStudents(Collection<Long> studentNumbers) {
+        List<Long> distinct = studentNumbers.stream().filter(Objects::nonNull).distinct().toList();
+        Map<String, List<Long>> cascaded = new LinkedHashMap<>();
+        int deleted = 0;
+        // Set-based cascade in FK order: grade stats & attendance rollups, grades & attendance -> enrollments -> contacts & addresses -> students
+        for (int from = 0; from < distinct.size(); from += DELETE_BATCH) {
+            List<Long> batch = distinct.subList(from, Math.min(from + DELETE_BATCH, distinct.size()));
+            List<Long> courses = enrollmentRepository.findCourseNumbersByStudentNumbers(batch);
+            cascaded(cascaded, EntityChange.GRADES, page -> gradesRepository.findGradeNumbersByStudentNumbers(batch, page));
+            cascaded(cascaded, EntityChange.ATTENDANCE, page -> attendanceRepository.findAttendanceNumbersByStudentNumbers(batch, page));
+            cascaded(cascaded, EntityChange.ENROLLMENTS, page -> enrollmentRepository.findEnrollmentNumbersByStudentNumbers(batch, page));
+            cascaded(cascaded, EntityChange.CONTACTS, page -> contactRepository.findContactNumbersByStudentNumbers(batch, page));
+            cascaded(cascaded, EntityChange.ADDRESSES, page -> addressRepository.findAddressNumbersByStudentNumbers(batch, page));
+            enrollmentGradeStatsRepository.bulkDeleteByStudentNumbers(batch);
+            enrollmentAttendanceRepository.bulkDeleteByStudentNumbers(batch);
+            studentSemesterAttendanceRepository.bulkDeleteByStudentNumbers(batch);
+            gradesRepository.bulkDeleteByStudentNumbers(batch);
+            attendanceRepository.bulkDeleteByStudentNumbers(batch);
+            enrollmentRepository.bulkDeleteByStudentNumbers(batch);
+            contactRepository.bulkDeleteByStudentNumbers(batch);
+            addressRepository.bulkDeleteByStudentNumbers(batch);
+            deleted += repository.bulkDeleteByStudentNumbers(batch);
+            gradeStatsService.refreshCourses(courses);
+            attendanceRollupService.refreshCourses(courses);
+        }
+        nameIndex.remove(distinct);
+        attendanceBitmaps.studentsDeleted(distinct);
+        changes.deletedAll(EntityChange.STUDENTS, distinct);
+        cascaded.forEach(changes::deletedAll);
+        return deleted;
+    }
+
+    /**
+     * Adds the ids of dependent rows a cascading delete is about to remove. Only one more than
+     * {@link ChangeEvents#MAX_ROW_EVENTS} is ever read per section, enough to know it will be announced as a reload.
+     */
+    private static void cascaded(Map<String, List<Long>> cascaded, String entity, Function<Pageable, List<Long>> ids) {
+        List<Long> seen = cascaded.computeIfAbsent(entity, e -> new ArrayList<>());
+        if (seen.size() <= ChangeEvents.MAX_ROW_EVENTS) seen.addAll(ids.apply(PageRequest.of(0, ChangeEvents.MAX_ROW_EVENTS + 1 - seen.size())));
+    }
+
+    @Override
+    @Transactional
+    public int deleteStudentsByStatus(StudentData.StudentStatus status) {
+        return deleteStudents(repository.findStudentNumbersByStudentStatus(status));
     }
 
     @Override
@@ -70,36 +197,41 @@ public class StudentDataServiceImpl implements StudentDataService {
                 .joiningDate(request.getJoiningDate())
                 .studentStatus(StudentData.StudentStatus.values()[request.getStudentStatus()])
                 .build();
-        student = repository.save(student);
+        student = changes.inserted(EntityChange.STUDENTS, indexed(repository.save(student)), StudentData::getStudentNumber);
         // persist addresses
         for(AddressCreateDto a : request.getAddresses()) {
-            addressRepository.save(AddressDetails.builder()
+            changes.inserted(EntityChange.ADDRESSES, addressRepository.save(AddressDetails.builder()
                     .student(student)
                     .street(a.getStreet())
                     .city(a.getCity())
                     .state(a.getState())
                     .zipCode(a.getZipCode())
-                    .build());
+                    .build()), AddressDetails::getAddressNumber);
         }
         for(ContactCreateDto c : request.getContacts()) {
-            contactRepository.save(ContactDetails.builder()
+            changes.inserted(EntityChange.CONTACTS, contactRepository.save(ContactDetails.builder()
                     .student(student)
                     .emailAddress(c.getEmailAddress())
                     .mobileNumber(c.getMobileNumber())
-                    .build());
+                    .build()), ContactDetails::getContactNumber);
         }
         for(EnrollmentCreateDto e : request.getEnrollments()) {
             CourseDetails course = courseDetailsRepository.findByCourseNumber(e.getCourseNumber()).orElse(null);
             if(course == null) continue; // skip invalid
-            enrollmentRepository.save(EnrollmentData.builder()
+            changes.inserted(EntityChange.ENROLLMENTS, enrollmentRepository.save(EnrollmentData.builder()
                     .student(student)
                     .course(course)
                     .enrollmentDate(e.getEnrollmentDate())
                     .overallGrade(e.getOverallGrade())
                     .semester(e.getSemester())
                     .instructorName(e.getInstructorName())
-                    .build());
+                    .build()), EnrollmentData::getEnrollmentNumber);
         }
         return student;
     }
+
+    private StudentData indexed(StudentData student) {
+        nameIndex.put(student.getStudentNumber(), student.getFirstName(), student.getLastName());
+        return student;
+    }
 }
@@ -0,0 +1,256 @@
+package org.example.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.StudentDataRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process trigram index over student first + last names. Every name token is indexed as the trigrams of
+ * {@code "  token "}, so a query token (indexed without the trailing pad) matches prefixes fully and
+ * misspellings partially. Hits are scored by the share of query trigrams they contain, with a bonus for
+ * prefix and exact token matches, and only the top {@code limit} student numbers are returned. The share is
+ * also taken over the query's interior trigrams alone (those without the leading pad), and the better of the
+ * two counts, so a query inside a name ("mit" in "smith") matches as well as a prefix does.
+ * <p>
+ * Postings are append-only int arrays in document order; updates and deletes tombstone the old document and
+ * the postings are compacted once a quarter of the documents are dead. Writes are applied after the surrounding
+ * transaction commits so rolled-back changes never become searchable.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StudentNameIndex {
+    private static final int BUILD_BATCH = 10_000;
+    private static final double MIN_SCORE = 0.5;
+
+    private final StudentDataRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docByStudent = new HashMap<>();
+    private long[] studentNumbers = new long[1024];
+    private String[] names = new String[1024];
+    private final BitSet live = new BitSet();
+    private int docCount, deadCount;
+    /** Counters reused across searches; one per concurrent query instead of one per request. */
+    private final Queue<int[]> scratch = new ConcurrentLinkedQueue<>();
+
+    /** Students written while the startup scan is running; their scanned rows may be stale and are skipped. */
+    private Set<Long> touchedDuringBuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.currentTimeMillis();
+        withWriteLock(() -> touchedDuringBuild = new HashSet<>());
+        List<StudentDataRepository.NameRow> batch = new ArrayList<>(BUILD_BATCH);
+        transactionTemplate.executeWithoutResult(tx -> {
+            try (Stream<StudentDataRepository.NameRow> rows = repository.streamNames()) {
+                rows.forEach(row -> {
+                    batch.add(row);
+                    if (batch.size() == BUILD_BATCH) { load(batch); batch.clear(); }
+                });
+            }
+        });
+        load(batch);
+        withWriteLock(() -> touchedDuringBuild = null);
+        log.info("Student name index built: {} students in {} ms", size(), System.currentTimeMillis() - started);
+    }
+
+    public void put(Long studentNumber, String firstName, String lastName) {
+        afterCommit(() -> withWriteLock(() -> {
+            if (touchedDuringBuild != null) touchedDuringBuild.add(studentNumber);
+            index(studentNumber, normalize(firstName + " " + lastName));
+        }));
+    }
+
+    public void remove(Collection<Long> studentNumbers) {
+        afterCommit(() -> withWriteLock(() -> {
+            for (Long studentNumber : studentNumbers) {
+                if (touchedDuringBuild != null) touchedDuringBuild.add(studentNumber);
+                Integer doc = docByStudent.remove(studentNumber);
+                if (doc != null) kill(doc);
+            }
+            if (deadCount > docCount / 4) compact();
+        }));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try { return docByStudent.size(); } finally { lock.readLock().unlock(); }
+    }
+
+    /** Student numbers best matching {@code query}, best first. */
+    public List<Long> search(String query, int limit) {
+        String[] tokens = tokens(normalize(query));
+        if (tokens.length == 0 || limit <= 0) return List.of();
+        Set<Long> grams = new LinkedHashSet<>(), interior = new HashSet<>();
+        for (String token : tokens) grams(token, false, grams);
+        for (String token : tokens) interiorGrams(token, interior);
+
+        lock.readLock().lock();
+        try {
+            int[] hits = scratch.poll();
+            if (hits == null || hits.length < docCount) hits = new int[Math.max(docCount, 1024)];
+            int[] touched = new int[64];
+            int touchedCount = 0;
+            for (Long gram : grams) {
+                Postings p = postings.get(gram);
+                if (p == null) continue;
+                // anchored hits in the low half of the counter, interior ones in the high half
+                int step = interior.contains(gram) ? 1 | 1 << 16 : 1;
+                for (int i = 0; i < p.size; i++) {
+                    int doc = p.docs[i];
+                    int before = hits[doc];
+                    hits[doc] += step;
+                    if (before == 0) {
+                        if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                        touched[touchedCount++] = doc;
+                    }
+                }
+            }
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Hit.ORDER);
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                double coverage = (double) (hits[doc] & 0xFFFF) / grams.size();
+                if (!interior.isEmpty()) coverage = Math.max(coverage, (double) (hits[doc] >>> 16) / interior.size());
+                hits[doc] = 0;
+                if (coverage < MIN_SCORE || !live.get(doc)) continue;
+                top.add(new Hit(doc, coverage + bonus(tokens, names[doc]), names[doc].length()));
+                if (top.size() > limit) top.poll();
+            }
+            scratch.offer(hits);
+            Long[] out = new Long[top.size()];
+            for (int i = out.length - 1; i >= 0; i--) out[i] = studentNumbers[top.poll().doc];
+            return List.of(out);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void load(List<StudentDataRepository.NameRow> rows) {
+        withWriteLock(() -> {
+            for (StudentDataRepository.NameRow row : rows)
+                if (touchedDuringBuild == null || !touchedDuringBuild.contains(row.getStudentNumber()))
+                    index(row.getStudentNumber(), normalize(row.getFirstName() + " " + row.getLastName()));
+        });
+    }
+
+    private void index(Long studentNumber, String name) {
+        Integer existing = docByStudent.get(studentNumber);
+        if (existing != null) {
+            if (names[existing].equals(name)) return;
+            kill(existing);
+        }
+        int doc = docCount++;
+        if (doc == names.length) {
+            names = Arrays.copyOf(names, doc * 2);
+            studentNumbers = Arrays.copyOf(studentNumbers, doc * 2);
+        }
+        names[doc] = name;
+        studentNumbers[doc] = studentNumber;
+        live.set(doc);
+        docByStudent.put(studentNumber, doc);
+        Set<Long> grams = new HashSet<>();
+        for (String token : tokens(name)) grams(token, true, grams);
+        for (Long gram : grams) postings.computeIfAbsent(gram, g -> new Postings()).add(doc);
+    }
+
+    private void kill(int doc) {
+        live.clear(doc);
+        names[doc] = null;
+        deadCount++;
+    }
+
+    /** Renumbers live documents densely and rebuilds the postings without tombstones. */
+    private void compact() {
+        long[] oldNumbers = studentNumbers;
+        String[] oldNames = names;
+        int oldCount = docCount;
+        postings.clear();
+        docByStudent.clear();
+        live.clear();
+        studentNumbers = new long[Math.max(1024, oldCount - deadCount)];
+        names = new String[studentNumbers.length];
+        docCount = deadCount = 0;
+        scratch.clear();
+        for (int doc = 0; doc < oldCount; doc++)
+            if (oldNames[doc] != null) index(oldNumbers[doc], oldNames[doc]);
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try { action.run(); } finally { lock.writeLock().unlock(); }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) { action.run(); return; }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() { action.run(); }
+        });
+    }
+
+    private static double bonus(String[] queryTokens, String name) {
+        double bonus = 0;
+        for (String q : queryTokens) {
+            for (String token : tokens(name)) {
+                if (token.equals(q)) { bonus += 0.5; break; }
+                if (token.startsWith(q)) { bonus += 0.25; break; }
+            }
+        }
+        return bonus / queryTokens.length;
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static String[] tokens(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    /** Trigrams of {@code "  token"}, plus the closing {@code "xy "} gram for indexed (complete) tokens. */
+    private static void grams(String token, boolean complete, Set<Long> out) {
+        String padded = "  " + token + (complete ? " " : "");
+        for (int i = 0; i + 3 <= padded.length(); i++)
+            out.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+    }
+
+    /** Trigrams of the bare {@code token}, i.e. those that can match anywhere inside an indexed token. */
+    private static void interiorGrams(String token, Set<Long> out) {
+        for (int i = 0; i + 3 <= token.length(); i++)
+            out.add(((long) token.charAt(i) << 32) | ((long) token.charAt(i + 1) << 16) | token.charAt(i + 2));
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            docs[size++] = doc;
+        }
+    }
+
+    private record Hit(int doc, double score, int length) {
+        /** Worst hit first, so the priority queue evicts it once it holds more than {@code limit}. */
+        static final Comparator<Hit> ORDER = Comparator.comparingDouble(Hit::score)
+                .thenComparing(Comparator.comparingInt(Hit::length).reversed())
+                .thenComparing(Comparator.comparingInt(Hit::doc).reversed());
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.example.dto.GradesDto;
+import org.example.dto.StudentDataDto;
+import org.example.dto.TranscriptDto;
+import org.example.entity.AttendanceData.AttendanceStatus;
+import org.example.entity.EnrollmentData;
+import org.example.entity.StudentData;
+import org.example.repository.AttendanceDataRepository;
+import org.example.repository.EnrollmentDataRepository;
+import org.example.repository.GradesRepository;
+import org.example.repository.StudentDataRepository;
+import org.example.service.TranscriptService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a transcript with a fixed number of queries however many enrollments the student has:
+ * the student (primary key, usually a second-level cache hit), enrollments fetch-joined with their
+ * course, then one {@code IN} projection for all grades and one grouped count for all attendance.
+ */
+@Service
+@Timed(value = "app.service", histogram = true)
+@RequiredArgsConstructor
+public class TranscriptServiceImpl implements TranscriptService {
+    private final StudentDataRepository studentRepository;
+    private final EnrollmentDataRepository enrollmentRepository;
+    private final GradesRepository gradesRepository;
+    private final AttendanceDataRepository attendanceRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public TranscriptDto getTranscript(Long studentNumber) {
+        StudentData student = studentRepository.findByStudentNumber(studentNumber).orElse(null);
+        if (student == null) return null;
+        List<EnrollmentData> enrollments = enrollmentRepository.findWithCourseByStudentNumber(studentNumber);
+        List<Long> enrollmentNumbers = enrollments.stream().map(EnrollmentData::getEnrollmentNumber).toList();
+
+        Map<Long, List<GradesDto>> grades = new HashMap<>();
+        Map<Long, Map<AttendanceStatus, Long>> attendance = new HashMap<>();
+        if (!enrollmentNumbers.isEmpty()) {
+            grades = gradesRepository.findRowsByEnrollmentNumbers(enrollmentNumbers).stream()
+                    .collect(Collectors.groupingBy(GradesDto::getEnrollmentNumber));
+            for (AttendanceDataRepository.StatusCount c : attendanceRepository.countByEnrollmentAndStatus(enrollmentNumbers))
+                attendance.computeIfAbsent(c.getEnrollmentNumber(), k -> new EnumMap<>(AttendanceStatus.class)).put(c.getStatus(), c.getTotal());
+        }
+
+        List<TranscriptDto.Enrollment> rows = new ArrayList<>(enrollments.size());
+        for (EnrollmentData e : enrollments) {
+            rows.add(TranscriptDto.Enrollment.builder()
+                    .enrollmentNumber(e.getEnrollmentNumber())
+                    .courseNumber(e.getCourse().getCourseNumber())
+                    .courseName(e.getCourse().getCourseName())
+                    .courseCode(e.getCourse().getCourseCode())
+                    .courseCredits(e.getCourse().getCourseCredits())
+                    .enrollmentDate(e.getEnrollmentDate())
+                    .semester(e.getSemester())
+                    .instructorName(e.getInstructorName())
+                    .overallGrade(e.getOverallGrade())
+                    .grades(grades.getOrDefault(e.getEnrollmentNumber(), List.of()))
+                    .attendance(attendanceSummary(attendance.getOrDefault(e.getEnrollmentNumber(), Map.of())))
+                    .build());
+        }
+        return TranscriptDto.builder().student(StudentDataDto.from(student)).enrollments(rows).build();
+    }
+
+    private static TranscriptDto.Attendance attendanceSummary(Map<AttendanceStatus, Long> counts) {
+        long present = counts.getOrDefault(AttendanceStatus.PRESENT, 0L);
+        long absent = counts.getOrDefault(AttendanceStatus.ABSENT, 0L);
+        long excused = counts.getOrDefault(AttendanceStatus.EXCUSED, 0L);
+        long total = present + absent + excused;
+        return TranscriptDto.Attendance.builder()
+                .present(present).absent(absent).excused(excused).total(total)
+                .attendanceRate(total == 0 ? null : (double) present / total)
+                .build();
+    }
+}
@@ -1,5 +1,14 @@
+-- Id sequences: INCREMENT BY must match allocationSize of the entity @SequenceGenerator (pooled optimizer)
+CREATE SEQUENCE IF NOT EXISTS student_data_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS course_details_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS address_details_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS contact_details_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS enrollment_data_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS attendance_data_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS grades_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS student_data (
-    student_number BIGSERIAL PRIMARY KEY,
+    student_number BIGINT PRIMARY KEY,
     first_name VARCHAR(100) NOT NULL,
     last_name VARCHAR(100) NOT NULL,
     date_of_birth DATE NOT NULL,
@@ -9,14 +18,14 @@ CREATE TABLE IF NOT EXISTS student_data (
 );
 
 CREATE TABLE IF NOT EXISTS course_details (
-    course_number BIGSERIAL PRIMARY KEY,
+    course_number BIGINT PRIMARY KEY,
     course_name VARCHAR(100) NOT NULL,
     course_code VARCHAR(10) NOT NULL,
     course_credits DOUBLE PRECISION NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS address_details (
-    address_number BIGSERIAL PRIMARY KEY,
+    address_number BIGINT PRIMARY KEY,
     student_number BIGINT NOT NULL,
     street VARCHAR(200) NOT NULL,
     city VARCHAR(100) NOT NULL,
@@ -26,7 +35,7 @@ CREATE TABLE IF NOT EXISTS address_details (
 );
 
 CREATE TABLE IF NOT EXISTS contact_details (
-    contact_number BIGSERIAL PRIMARY KEY,
+    contact_number BIGINT PRIMARY KEY,
     student_number BIGINT NOT NULL,
     email_address VARCHAR(100) NOT NULL,
     mobile_number VARCHAR(15) NOT NULL,
@@ -34,7 +43,7 @@ CREATE TABLE IF NOT EXISTS contact_details (
 );
 
 CREATE TABLE IF NOT EXISTS enrollment_data (
-    enrollment_number BIGSERIAL PRIMARY KEY,
+    enrollment_number BIGINT PRIMARY KEY,
     student_number BIGINT NOT NULL,
     course_number BIGINT NOT NULL,
     enrollment_date DATE NOT NULL,
@@ -45,8 +54,18 @@ CREATE TABLE IF NOT EXISTS enrollment_data (
     CONSTRAINT fk_enrollment_course FOREIGN KEY (course_number) REFERENCES course_details(course_number)
 );
 
+-- Indexes behind the list filters (GET /api/students?status=..., GET /api/enrollments?semester=...); the equality
+-- filters' indexes end in the primary key so a filtered keyset page is a single index range scan
+CREATE INDEX IF NOT EXISTS idx_student_status ON student_data (student_status, student_number);
+CREATE INDEX IF NOT EXISTS idx_student_joining_date ON student_data (joining_date);
+CREATE INDEX IF NOT EXISTS idx_student_last_name ON student_data (last_name, student_number);
+CREATE INDEX IF NOT EXISTS idx_enrollment_semester ON enrollment_data (semester, enrollment_number);
+CREATE INDEX IF NOT EXISTS idx_enrollment_instructor ON enrollment_data (instructor_name, enrollment_number);
+CREATE INDEX IF NOT EXISTS idx_enrollment_course ON enrollment_data (course_number, enrollment_number);
+CREATE INDEX IF NOT EXISTS idx_enrollment_date ON enrollment_data (enrollment_date);
+
 CREATE TABLE IF NOT EXISTS attendance_data (
-    attendance_number BIGSERIAL PRIMARY KEY,
+    attendance_number BIGINT PRIMARY KEY,
     enrollment_number BIGINT NOT NULL,
     student_number BIGINT NOT NULL,
     attendance_date DATE NOT NULL,
@@ -57,7 +76,7 @@ CREATE TABLE IF NOT EXISTS attendance_data (
 );
 
 CREATE TABLE IF NOT EXISTS grades (
-    grade_number BIGSERIAL PRIMARY KEY,
+    grade_number BIGINT PRIMARY KEY,
     enrollment_number BIGINT NOT NULL,
     assessment_date DATE NOT NULL,
     assessment_type VARCHAR(50) NOT NULL,
@@ -67,3 +86,91 @@ CREATE TABLE IF NOT EXISTS grades (
     CONSTRAINT fk_grades_enrollment FOREIGN KEY (enrollment_number) REFERENCES enrollment_data(enrollment_number)
 );
 
+-- Keys come only from the <table>_seq sequences above (allocated by Hibernate in blocks of 50), so a database created
+-- with the old BIGSERIAL keys loses their column defaults and sequences, and every <table>_seq is moved past the
+-- largest existing key. setval is not portable to H2, so it steps with nextval, one block per call; a re-run costs one block.
+ALTER TABLE student_data ALTER COLUMN student_number DROP DEFAULT;
+ALTER TABLE course_details ALTER COLUMN course_number DROP DEFAULT;
+ALTER TABLE address_details ALTER COLUMN address_number DROP DEFAULT;
+ALTER TABLE contact_details ALTER COLUMN contact_number DROP DEFAULT;
+ALTER TABLE enrollment_data ALTER COLUMN enrollment_number DROP DEFAULT;
+ALTER TABLE attendance_data ALTER COLUMN attendance_number DROP DEFAULT;
+ALTER TABLE grades ALTER COLUMN grade_number DROP DEFAULT;
+DROP SEQUENCE IF EXISTS student_data_student_number_seq;
+DROP SEQUENCE IF EXISTS course_details_course_number_seq;
+DROP SEQUENCE IF EXISTS address_details_address_number_seq;
+DROP SEQUENCE IF EXISTS contact_details_contact_number_seq;
+DROP SEQUENCE IF EXISTS enrollment_data_enrollment_number_seq;
+DROP SEQUENCE IF EXISTS attendance_data_attendance_number_seq;
+DROP SEQUENCE IF EXISTS grades_grade_number_seq;
+SELECT COUNT(nextval('student_data_seq')) FROM generate_series(1, (SELECT CAST(CEIL(GREATEST(0, (SELECT COALESCE(MAX(student_number), 0) FROM student_data) - nextval('student_data_seq')) / 50.0) AS BIGINT)));
+SELECT COUNT(nextval('course_details_seq')) FROM generate_series(1, (SELECT CAST(CEIL(GREATEST(0, (SELECT COALESCE(MAX(course_number), 0) FROM course_details) - nextval('course_details_seq')) / 50.0) AS BIGINT)));
+SELECT COUNT(nextval('address_details_seq')) FROM generate_series(1, (SELECT CAST(CEIL(GREATEST(0, (SELECT COALESCE(MAX(address_number), 0) FROM address_details) - nextval('address_details_seq')) / 50.0) AS BIGINT)));
+SELECT COUNT(nextval('contact_details_seq')) FROM generate_series(1, (SELECT CAST(CEIL(GREATEST(0, (SELECT COALESCE(MAX(contact_number), 0) FROM contact_details) - nextval('contact_details_seq')) / 50.0) AS BIGINT)));
+SELECT COUNT(nextval('enrollment_data_seq')) FROM generate_series(1, (SELECT CAST(CEIL(GREATEST(0, (SELECT COALESCE(MAX(enrollment_number), 0) FROM enrollment_data) - nextval('enrollment_data_seq')) / 50.0) AS BIGINT)));
+SELECT COUNT(nextval('attendance_data_seq')) FROM generate_series(1, (SELECT CAST(CEIL(GREATEST(0, (SELECT COALESCE(MAX(attendance_number), 0) FROM attendance_data) - nextval('attendance_data_seq')) / 50.0) AS BIGINT)));
+SELECT COUNT(nextval('grades_seq')) FROM generate_series(1, (SELECT CAST(CEIL(GREATEST(0, (SELECT COALESCE(MAX(grade_number), 0) FROM grades) - nextval('grades_seq')) / 50.0) AS BIGINT)));
+
+-- Optimistic-lock versions (@Version, exposed as ETags); ADD COLUMN IF NOT EXISTS also upgrades existing databases
+ALTER TABLE student_data ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE course_details ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE address_details ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE contact_details ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE enrollment_data ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE attendance_data ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE grades ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+
+-- Grade summaries maintained by GradeStatsService alongside every grade write (POST /api/grades/stats/rebuild backfills)
+CREATE TABLE IF NOT EXISTS enrollment_grade_stats (
+    enrollment_number BIGINT PRIMARY KEY,
+    grade_count BIGINT NOT NULL,
+    obtained_sum BIGINT NOT NULL,
+    max_sum BIGINT NOT NULL,
+    min_percent DOUBLE PRECISION,
+    max_percent DOUBLE PRECISION,
+    latest_assessment DATE,
+    CONSTRAINT fk_enrollment_grade_stats_enrollment FOREIGN KEY (enrollment_number) REFERENCES enrollment_data(enrollment_number) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS course_assessment_stats (
+    course_number BIGINT NOT NULL,
+    assessment_type VARCHAR(50) NOT NULL,
+    grade_count BIGINT NOT NULL,
+    obtained_sum BIGINT NOT NULL,
+    max_sum BIGINT NOT NULL,
+    min_percent DOUBLE PRECISION,
+    max_percent DOUBLE PRECISION,
+    latest_assessment DATE,
+    PRIMARY KEY (course_number, assessment_type),
+    CONSTRAINT fk_course_assessment_stats_course FOREIGN KEY (course_number) REFERENCES course_details(course_number) ON DELETE CASCADE
+);
+
+-- Attendance counters maintained by AttendanceRollupService alongside every attendance write (POST /api/attendance/summary/rebuild backfills)
+CREATE TABLE IF NOT EXISTS enrollment_attendance_rollup (
+    enrollment_number BIGINT PRIMARY KEY,
+    present_count BIGINT NOT NULL,
+    absent_count BIGINT NOT NULL,
+    excused_count BIGINT NOT NULL,
+    CONSTRAINT fk_enrollment_attendance_rollup_enrollment FOREIGN KEY (enrollment_number) REFERENCES enrollment_data(enrollment_number) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS student_semester_attendance_rollup (
+    student_number BIGINT NOT NULL,
+    semester VARCHAR(20) NOT NULL,
+    present_count BIGINT NOT NULL,
+    absent_count BIGINT NOT NULL,
+    excused_count BIGINT NOT NULL,
+    PRIMARY KEY (student_number, semester),
+    CONSTRAINT fk_student_semester_attendance_rollup_student FOREIGN KEY (student_number) REFERENCES student_data(student_number) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS course_date_attendance_rollup (
+    course_number BIGINT NOT NULL,
+    attendance_date DATE NOT NULL,
+    present_count BIGINT NOT NULL,
+    absent_count BIGINT NOT NULL,
+    excused_count BIGINT NOT NULL,
+    PRIMARY KEY (course_number, attendance_date),
+    CONSTRAINT fk_course_date_attendance_rollup_course FOREIGN KEY (course_number) REFERENCES course_details(course_number) ON DELETE CASCADE
+);
@@ -122,6 +122,32 @@
     return attendanceStatusMap[val] ?? val;
   }
 
+  // Enrollment, grade and attendance lists are flat (numbers only); names come from whatever lists are loaded.
+  // Lookups go through a number -> row Map per loaded list: built on first use, so a freshly loaded list gets a
+  // new one, and dropped by applyChange when it edits a list in place.
+  const lookups = new WeakMap();
+  function byNumber(list, key){
+    let index = lookups.get(list);
+    if(!index){
+      index = new Map();
+      for(const row of list) index.set(String(row[key]), row);
+      lookups.set(list, index);
+    }
+    return index;
+  }
+  function studentName(studentNumber){
+    const s = byNumber(studentDataCache, 'studentNumber').get(String(studentNumber));
+    return s ? s.firstName+' '+s.lastName : (studentNumber ?? '');
+  }
+  function courseName(courseNumber){
+    const c = byNumber(courseDataCache, 'courseNumber').get(String(courseNumber));
+    return c ? c.courseName : (courseNumber ?? '');
+  }
+  function enrollmentStudentName(enrollmentNumber){
+    const e = byNumber(enrollmentDataCache, 'enrollmentNumber').get(String(enrollmentNumber));
+    return e ? studentName(e.studentNumber) : '';
+  }
+
   function renderData(sectionId, data){
     const section = document.getElementById(sectionId);
     if(!section) return;
@@ -144,13 +170,12 @@
           addCells(tr,[item.studentNumber,item.firstName,item.lastName,item.dateOfBirth,getGenderString(item.gender),getStatusString(item.studentStatus)]);
           break;
         case 'enrollments':
-          addCells(tr,[item.enrollmentNumber,(item.student? item.student.firstName+' '+item.student.lastName:''),(item.course? item.course.courseName:''), item.enrollmentDate, item.semester, item.overallGrade, item.instructorName]);
+          addCells(tr,[item.enrollmentNumber, studentName(item.studentNumber), courseName(item.courseNumber), item.enrollmentDate, item.semester, item.overallGrade, item.instructorName]);
           break;
         case 'grades':
           addCells(tr,[
-            item.enrollment && item.enrollment.enrollmentNumber? item.enrollment.enrollmentNumber: '',
-            (item.enrollment && item.enrollment.student? item.enrollment.student.firstName+' '+item.enrollment.student.lastName:''),
-            nested(item,'enrollment','enrollmentNumber'),
+            item.enrollmentNumber,
+            enrollmentStudentName(item.enrollmentNumber),
             item.assessmentType,
             item.assessmentDate,
             item.obtainedScore,
@@ -160,8 +185,8 @@
           break;
         case 'attendance':
           addCells(tr,[
-            item.enrollment && item.enrollment.enrollmentNumber? item.enrollment.enrollmentNumber: '',
-            (item.student? item.student.firstName+' '+item.student.lastName:''),
+            item.enrollmentNumber,
+            studentName(item.studentNumber),
             item.attendanceDate,
             getAttendanceStatusString(item.attendanceStatus),
             item.semester
@@ -199,11 +224,6 @@
     },0);
   }
 
-  function nested(obj, key, prop){
-    if(!obj || !obj[key]) return '';
-    return obj[key][prop] ?? '';
-  }
-
   function addCells(tr, arr){
     arr.forEach(v=>{ const td=document.createElement('td'); td.textContent=v==null?'':v; tr.appendChild(td); });
   }
@@ -216,6 +236,20 @@
     });
   });
 
+  // Uploads run as background jobs (202 + job id); poll until the job finishes
+  async function awaitImport(job){
+    while(job && (job.status === 'QUEUED' || job.status === 'RUNNING')){
+      showStatus(`Importing ${job.entity}: ${job.processed} rows (${job.rowsPerSecond} rows/s)`,'info');
+      await new Promise(r => setTimeout(r, 1000));
+      const res = await fetch(`/api/imports/${job.jobId}`);
+      if(!res.ok) throw new Error(res.status+' '+res.statusText);
+      job = await res.json();
+    }
+    if(job.status === 'FAILED') throw new Error(job.failure || 'import failed');
+    const errors = job.failed ? `, ${job.failed} failed (${job.errors.slice(0,3).join('; ')})` : '';
+    showStatus(`Import complete: ${job.persisted} rows${errors}`, job.failed ? 'warn' : 'info');
+  }
+
   // CSV upload handler
   const uploadForm = document.getElementById('studentUploadForm');
   uploadForm?.addEventListener('submit', async e => {
@@ -229,9 +263,9 @@
       const res = await fetch('/api/students/upload-csv', { method: 'POST', body: formData });
       if(!res.ok){ throw new Error(res.status+' '+res.statusText); }
       const result = await res.json().catch(()=>null);
-      showStatus('Upload complete','info');
-      // refresh list
-      fetchData('/api/students', 'students');
+      if(res.status === 202) await awaitImport(result);
+      else showStatus('Upload complete','info');
+      refresh('students');
     } catch(err){
       console.error(err);
       showStatus('Upload failed: '+err.message,'error');
@@ -250,11 +284,9 @@
         const res = await fetch(endpoint, { method: 'POST', body: formData });
         const json = await res.json().catch(()=>null);
         if(!res.ok) throw new Error((json?.message)||res.status+' '+res.statusText);
-        showStatus('Upload complete ('+endpoint+')','info');
-        // trigger refresh button inside same section if present
-        const section = form.closest('section');
-        const refreshBtn = section?.querySelector('button.refresh');
-        if(refreshBtn) refreshBtn.click(); else fetchData(endpoint.replace('/upload-csv',''), section.id);
+        if(res.status === 202) await awaitImport(json);
+        else showStatus('Upload complete ('+endpoint+')','info');
+        refresh(form.closest('section').id);
       } catch(err){
         showStatus('Upload failed: '+err.message,'error');
       }
@@ -264,23 +296,32 @@
   // --- STUDENT SEARCH, UPDATE, DELETE ---
   let studentDataCache = [];
 
-  // Search handler
-  document.getElementById('studentSearchBtn').addEventListener('click', () => {
-    const query = document.getElementById('studentSearchInput').value.trim().toLowerCase();
+  // Search handler: ranked name matches from the server-side n-gram index, then the loaded students
+  // whose date of birth contains the query or whose gender / status equals it
+  document.getElementById('studentSearchBtn').addEventListener('click', async () => {
+    const query = document.getElementById('studentSearchInput').value.trim();
     if (!query) {
       renderData('students', studentDataCache);
       showStatus('Showing all students', 'info');
       return;
     }
-    const filtered = studentDataCache.filter(s =>
-      (s.firstName && s.firstName.toLowerCase().includes(query)) ||
-      (s.lastName && s.lastName.toLowerCase().includes(query)) ||
-      (s.dateOfBirth && s.dateOfBirth.toLowerCase().includes(query)) ||
-      (getGenderString(s.gender).toLowerCase() === query) ||
-      (getStatusString(s.studentStatus).toLowerCase() === query)
-    );
-    renderData('students', filtered);
-    showStatus('Found ' + filtered.length + ' students for "' + query + '"', 'info');
+    try {
+      const res = await fetch('/api/students/search?limit=50&q=' + encodeURIComponent(query));
+      if(!res.ok){ throw new Error(res.status+' '+res.statusText); }
+      const byName = await res.json();
+      const q = query.toLowerCase();
+      const seen = new Set(byName.map(s => s.studentNumber));
+      const byField = studentDataCache.filter(s => !seen.has(s.studentNumber) && (
+        (s.dateOfBirth && s.dateOfBirth.toLowerCase().includes(q)) ||
+        (getGenderString(s.gender).toLowerCase() === q) ||
+        (getStatusString(s.studentStatus).toLowerCase() === q)
+      ));
+      const found = byName.concat(byField);
+      renderData('students', found);
+      showStatus('Found ' + found.length + ' students for "' + query + '"', 'info');
+    } catch(err){
+      showStatus('Search failed: '+err.message,'error');
+    }
   });
 
   // Override fetchData for students to cache data
@@ -384,12 +425,13 @@
       try {
         const res = await fetch(`/api/students/${student.studentNumber}`, {
           method: 'PATCH',
-          headers: { 'Content-Type': 'application/json' },
+          headers: ifMatch(student, { 'Content-Type': 'application/json' }),
           body: JSON.stringify(updated)
         });
+        if (res.status === 412) { staleWrite('students'); return; }
         if (!res.ok) throw new Error(res.status+' '+res.statusText);
         showStatus('Student updated','info');
-        fetchData('/api/students','students');
+        refresh('students');
       } catch(err) {
         showStatus('Update failed: '+err.message,'error');
       }
@@ -412,10 +454,12 @@
     if (!confirm('Delete this student?')) return;
     try {
       console.log('Deleting student key', key);
-      const res = await fetch(`/api/students/${key}`, { method: 'DELETE' });
+      const student = studentDataCache.find(s => String(getStudentKey(s)) === String(key));
+      const res = await fetch(`/api/students/${key}`, { method: 'DELETE', headers: ifMatch(student) });
+      if (res.status === 412) { staleWrite('students'); return; }
       if (!res.ok) throw new Error(res.status+' '+res.statusText);
       showStatus('Student deleted','info');
-      fetchData('/api/students','students');
+      refresh('students');
     } catch(err) {
       showStatus('Delete failed: '+err.message,'error');
     }
@@ -447,8 +491,8 @@
       return;
     }
     const filtered = enrollmentDataCache.filter(e =>
-      (e.student && ((e.student.firstName && e.student.firstName.toLowerCase().includes(query)) || (e.student.lastName && e.student.lastName.toLowerCase().includes(query)))) ||
-      (e.course && e.course.courseName && e.course.courseName.toLowerCase().includes(query)) ||
+      String(studentName(e.studentNumber)).toLowerCase().includes(query) ||
+      String(courseName(e.courseNumber)).toLowerCase().includes(query) ||
       (e.semester && e.semester.toLowerCase().includes(query))
     );
     renderData('enrollments', filtered);
@@ -464,11 +508,8 @@
     }
     const filtered = gradeDataCache.filter(g =>
       // Search by student name (first or last)
-      (g.enrollment && g.enrollment.student && (
-        (g.enrollment.student.firstName && g.enrollment.student.firstName.toLowerCase().includes(query)) ||
-        (g.enrollment.student.lastName && g.enrollment.student.lastName.toLowerCase().includes(query))
-      )) ||
-      (g.enrollment && g.enrollment.enrollmentNumber && (g.enrollment.enrollmentNumber+"").toLowerCase().includes(query)) || // replaced enrollmentId
+      enrollmentStudentName(g.enrollmentNumber).toLowerCase().includes(query) ||
+      (g.enrollmentNumber && (g.enrollmentNumber+"").toLowerCase().includes(query)) ||
       (g.assessmentType && g.assessmentType.toLowerCase().includes(query)) ||
       (g.gradeCode && (g.gradeCode+"").toLowerCase().includes(query))
     );
@@ -485,7 +526,7 @@
     }
     // Exact match for attendanceStatus, partial for others
     const filtered = attendanceDataCache.filter(a =>
-      (a.student && ((a.student.firstName && a.student.firstName.toLowerCase().includes(query)) || (a.student.lastName && a.student.lastName.toLowerCase().includes(query)))) ||
+      String(studentName(a.studentNumber)).toLowerCase().includes(query) ||
       (a.attendanceDate && a.attendanceDate.toLowerCase().includes(query)) ||
       (getAttendanceStatusString(a.attendanceStatus).toLowerCase() === query) ||
       (a.semester && a.semester.toLowerCase().includes(query))
@@ -502,7 +543,7 @@
       return;
     }
     const filtered = addressDataCache.filter(a =>
-      (a.student && ((a.student.firstName && a.student.firstName.toLowerCase().includes(query)) || (a.student.lastName && a.student.lastName.toLowerCase().includes(query)))) ||
+      String(studentName(a.studentNumber)).toLowerCase().includes(query) ||
       (a.street && a.street.toLowerCase().includes(query)) ||
       (a.city && a.city.toLowerCase().includes(query)) ||
       (a.state && a.state.toLowerCase().includes(query)) ||
@@ -771,7 +812,7 @@
       }
       showStatus('Student added','info');
       addForm.classList.add('hidden'); addForm.reset();
-      fetchData('/api/students','students');
+      refresh('students');
     } catch(err){
       showStatus('Create failed: '+err.message,'error');
     }
@@ -823,7 +864,7 @@
     const missing = requireFields(payload,['courseName','courseCode','courseCredits']);
     if(missing){ showStatus('Missing '+missing,'error'); return; }
     if(isNaN(payload.courseCredits)){ showStatus('Invalid credits','error'); return; }
-    try { showStatus('Saving course...','info'); await postJson('/api/courses',payload); showStatus('Course added','info'); toggleForm('addCourseForm',false); fetchData('/api/courses','courses'); } catch(err){ showStatus('Course add failed: '+err.message,'error'); }
+    try { showStatus('Saving course...','info'); await postJson('/api/courses',payload); showStatus('Course added','info'); toggleForm('addCourseForm',false); refresh('courses'); } catch(err){ showStatus('Course add failed: '+err.message,'error'); }
   });
   // Enrollment form
   const enrollmentForm = document.getElementById('addEnrollmentForm');
@@ -835,7 +876,7 @@
     if(isNaN(payload.overallGrade) || payload.overallGrade<0 || payload.overallGrade>100){ showStatus('Overall grade must be 0-100','error'); return; }
     if(!(await ensureStudentExists(payload.studentNumber))){ showStatus('Student '+payload.studentNumber+' does not exist','error'); return; }
     if(!(await ensureCourseExists(payload.courseNumber))){ showStatus('Course '+payload.courseNumber+' does not exist','error'); return; }
-    try { showStatus('Saving enrollment...','info'); await postJson('/api/enrollments',payload); showStatus('Enrollment added','info'); toggleForm('addEnrollmentForm',false); fetchData('/api/enrollments','enrollments'); } catch(err){ showStatus('Enrollment add failed: '+err.message,'error'); }
+    try { showStatus('Saving enrollment...','info'); await postJson('/api/enrollments',payload); showStatus('Enrollment added','info'); toggleForm('addEnrollmentForm',false); refresh('enrollments'); } catch(err){ showStatus('Enrollment add failed: '+err.message,'error'); }
   });
   // Grade form
   const gradeForm = document.getElementById('addGradeForm');
@@ -851,7 +892,7 @@
     if(isNaN(payload.obtainedScore) || payload.obtainedScore<0 || payload.obtainedScore>100){ showStatus('Score 0-100','error'); return; }
     if(isNaN(payload.maxScore) || payload.maxScore<1 || payload.maxScore>100){ showStatus('Max 1-100','error'); return; }
     if(payload.gradeCode!==null && (isNaN(payload.gradeCode) || payload.gradeCode<0 || payload.gradeCode>10)){ showStatus('Grade Code 0-10','error'); return; }
-    try { showStatus('Saving grade...','info'); await postJson('/api/grades',payload); showStatus('Grade added','info'); toggleForm('addGradeForm',false); fetchData('/api/grades','grades'); } catch(err){ showStatus('Grade add failed: '+err.message,'error'); }
+    try { showStatus('Saving grade...','info'); await postJson('/api/grades',payload); showStatus('Grade added','info'); toggleForm('addGradeForm',false); refresh('grades'); } catch(err){ showStatus('Grade add failed: '+err.message,'error'); }
   }); }
   // Attendance form rewrite
   const attendanceForm2 = document.getElementById('addAttendanceForm');
@@ -865,28 +906,36 @@
     if(!(await ensureStudentExists(studentNumber))){ showStatus('Student '+studentNumber+' does not exist','error'); return; }
     if(!(await ensureEnrollmentNumberExists(enrollmentNumber))){ showStatus('Enrollment number '+enrollmentNumber+' not found','error'); return; }
     if(isNaN(payload.attendanceStatus) || payload.attendanceStatus<0 || payload.attendanceStatus>2){ showStatus('Invalid status','error'); return; }
-    try { showStatus('Saving attendance...','info'); await postJson('/api/attendance',payload); showStatus('Attendance added','info'); toggleForm('addAttendanceForm',false); fetchData('/api/attendance','attendance'); } catch(err){ showStatus('Attendance add failed: '+err.message,'error'); }
+    try { showStatus('Saving attendance...','info'); await postJson('/api/attendance',payload); showStatus('Attendance added','info'); toggleForm('addAttendanceForm',false); refresh('attendance'); } catch(err){ showStatus('Attendance add failed: '+err.message,'error'); }
   }); }
+  function sectionCache(section){
+    if(section==='enrollments') return enrollmentDataCache; if(section==='grades') return gradeDataCache; if(section==='attendance') return attendanceDataCache;
+    if(section==='addresses') return addressDataCache; if(section==='contacts') return contactDataCache; if(section==='courses') return courseDataCache;
+    return [];
+  }
+  // Writes carry the version the row was rendered with; the server answers 412 if someone changed it since
+  function ifMatch(item, headers={}){ if(item && item.version!=null) headers['If-Match']=`"${item.version}"`; return headers; }
+  function staleWrite(section){ showStatus('This record was modified by someone else; reloaded the latest version','error'); fetchData(`/api/${section}`, section); }
   // Update generic delete/edit handlers
   async function handleGenericDelete(e){
     const btn = e.currentTarget; const section = btn.getAttribute('data-section'); const id = btn.getAttribute('data-id');
     if(!id){ showStatus('Missing number','error'); return; }
     if(!confirm('Delete this record?')) return;
-    try { const res = await fetch(`/api/${section}/${id}`, { method:'DELETE' }); if(!res.ok) throw new Error(res.status+' '+res.statusText); showStatus('Deleted','info'); fetchData(`/api/${section}`, section); } catch(err){ showStatus('Delete failed: '+err.message,'error'); }
+    const item = sectionCache(section).find(it=> String(extractNumericId(it, section))===String(id));
+    try { const res = await fetch(`/api/${section}/${id}`, { method:'DELETE', headers: ifMatch(item) }); if(res.status===412){ staleWrite(section); return; } if(!res.ok) throw new Error(res.status+' '+res.statusText); showStatus('Deleted','info'); refresh(section); } catch(err){ showStatus('Delete failed: '+err.message,'error'); }
   }
   function handleGenericEdit(e){
     const btn=e.currentTarget; const section=btn.getAttribute('data-section'); const id=Number(btn.getAttribute('data-id'));
-    let sourceArr=[]; if(section==='enrollments') sourceArr=enrollmentDataCache; else if(section==='grades') sourceArr=gradeDataCache; else if(section==='attendance') sourceArr=attendanceDataCache; else if(section==='addresses') sourceArr=addressDataCache; else if(section==='contacts') sourceArr=contactDataCache; else if(section==='courses') sourceArr=courseDataCache;
-    const item = sourceArr.find(it=> extractNumericId(it, section)===id);
+    const item = sectionCache(section).find(it=> extractNumericId(it, section)===id);
     if(!item){ showStatus('Record not found','error'); return; }
     const tr=btn.closest('tr'); if(!tr) return; replaceRowWithEdit(tr, section, item);
   }
   // Inline edit save uses numeric id
   function replaceRowWithEdit(tr, section, item){
     tr.innerHTML=''; const cells=[]; const append=(name,value,type='text')=>{ const td=document.createElement('td'); const inp=document.createElement('input'); inp.name=name; inp.type=type; inp.value=value==null?'':value; td.appendChild(inp); tr.appendChild(td); cells.push(inp); };
-    if(section==='enrollments'){ append('studentNumber', item.student?.studentNumber,'number'); append('courseNumber', item.course?.courseNumber,'number'); append('enrollmentDate', item.enrollmentDate,'date'); append('semester', item.semester); append('overallGrade', item.overallGrade,'number'); append('instructorName', item.instructorName); }
-    else if(section==='grades'){ append('enrollmentNumber', item.enrollment?.enrollmentNumber,'number'); append('assessmentType', item.assessmentType); append('assessmentDate', item.assessmentDate,'date'); append('obtainedScore', item.obtainedScore,'number'); append('maxScore', item.maxScore,'number'); append('gradeCode', item.gradeCode,'number'); }
-    else if(section==='attendance'){ append('enrollmentNumber', item.enrollment?.enrollmentNumber,'number'); append('studentNumber', item.student?.studentNumber,'number'); append('attendanceDate', item.attendanceDate,'date'); append('attendanceStatus', item.attendanceStatus,'number'); append('semester', item.semester); }
+    if(section==='enrollments'){ append('studentNumber', item.studentNumber,'number'); append('courseNumber', item.courseNumber,'number'); append('enrollmentDate', item.enrollmentDate,'date'); append('semester', item.semester); append('overallGrade', item.overallGrade,'number'); append('instructorName', item.instructorName); }
+    else if(section==='grades'){ append('enrollmentNumber', item.enrollmentNumber,'number'); append('assessmentType', item.assessmentType); append('assessmentDate', item.assessmentDate,'date'); append('obtainedScore', item.obtainedScore,'number'); append('maxScore', item.maxScore,'number'); append('gradeCode', item.gradeCode,'number'); }
+    else if(section==='attendance'){ append('enrollmentNumber', item.enrollmentNumber,'number'); append('studentNumber', item.studentNumber,'number'); append('attendanceDate', item.attendanceDate,'date'); append('attendanceStatus', item.attendanceStatus,'number'); append('semester', item.semester); }
     else if(section==='addresses'){ append('studentNumber', item.student?.studentNumber,'number'); append('street', item.street); append('city', item.city); append('state', item.state); append('zipCode', item.zipCode); }
     else if(section==='contacts'){ append('studentNumber', item.student?.studentNumber,'number'); append('emailAddress', item.emailAddress); append('mobileNumber', item.mobileNumber); }
     else if(section==='courses'){ append('courseName', item.courseName); append('courseCode', item.courseCode); append('courseCredits', item.courseCredits,'number'); }
@@ -896,9 +945,9 @@
       const payload={}; cells.forEach(inp=> payload[inp.name]=inp.value.trim());
       ['studentNumber','courseNumber','enrollmentNumber','overallGrade','obtainedScore','maxScore','gradeCode','attendanceStatus','courseCredits'].forEach(f=>{ if(payload[f]!==undefined && payload[f]!=='' && !isNaN(payload[f])) payload[f]=Number(payload[f]); });
       let endpoint=`/api/${section}/${id}`;
-      try { const res=await fetch(endpoint,{method:'PUT',headers:{'Content-Type':'application/json'},body:JSON.stringify(payload)}); if(!res.ok) throw new Error(res.status+' '+res.statusText); showStatus('Updated','info'); fetchData(`/api/${section}`, section); } catch(err){ showStatus('Update failed: '+err.message,'error'); }
+      try { const res=await fetch(endpoint,{method:'PUT',headers:ifMatch(item,{'Content-Type':'application/json'}),body:JSON.stringify(payload)}); if(res.status===412){ staleWrite(section); return; } if(!res.ok) throw new Error(res.status+' '+res.statusText); showStatus('Updated','info'); refresh(section); } catch(err){ showStatus('Update failed: '+err.message,'error'); }
     });
-    td.querySelector('.cancel-inline-btn').addEventListener('click', ()=> fetchData(`/api/${section}`, section));
+    td.querySelector('.cancel-inline-btn').addEventListener('click', ()=> renderData(section, sectionCache(section)));
   }
   // Replace action key logic to use numeric numbers only
   function getStudentKey(student){ return student.studentNumber; }
@@ -930,4 +979,49 @@
   async function ensureStudentExists(num){ if(studentNumberSet.has(Number(num))) return true; await fetchData('/api/students','students'); return studentNumberSet.has(Number(num)); }
   async function ensureCourseExists(num){ if(courseNumberSet.has(Number(num))) return true; await fetchData('/api/courses','courses'); return courseNumberSet.has(Number(num)); }
   async function ensureEnrollmentNumberExists(num){ if(enrollmentNumberSet.has(Number(num))) return true; await fetchData('/api/enrollments','enrollments'); return enrollmentNumberSet.has(Number(num)); }
+
+  // --- LIVE CHANGES ---
+  // Committed writes (from this console or any other) arrive on /api/changes/stream and are applied to the loaded
+  // lists in place, so while the stream is connected a write needs no re-fetch. RELOAD (imports, cascading deletes)
+  // re-fetches the section once things go quiet; reset (events were missed) re-fetches everything loaded.
+  let changeFeedLive = false;
+  function refresh(section){ if(!changeFeedLive) fetchData(sectionEndpoints[section], section); }
+  function loadedCache(section){ return section==='students' ? studentDataCache : sectionCache(section); }
+  function rowKey(section, row){ return section==='students' ? row.studentNumber : extractNumericId(row, section); }
+  const pendingReloads = {};
+  function reloadSoon(section){
+    clearTimeout(pendingReloads[section]);
+    pendingReloads[section] = setTimeout(()=>{ delete pendingReloads[section]; fetchData(sectionEndpoints[section], section); }, 2000);
+  }
+  const dirtySections = new Set();
+  function renderSoon(section){
+    if(dirtySections.has(section)) return;
+    dirtySections.add(section);
+    requestAnimationFrame(()=>{
+      dirtySections.delete(section);
+      const el = document.getElementById(section);
+      // leave an open inline edit or a filtered search result alone; Save, Cancel and clearing the search re-render
+      if(!el || el.querySelector('.save-inline-btn, .save-student-btn') || el.querySelector('input[id$="SearchInput"]')?.value) return;
+      renderData(section, loadedCache(section));
+    });
+  }
+  function applyChange(change){
+    if(!sectionEndpoints[change.entity]) return;
+    if(change.op === 'RELOAD'){ reloadSoon(change.entity); return; }
+    const cache = loadedCache(change.entity);
+    const at = cache.findIndex(row => String(rowKey(change.entity, row)) === String(change.id));
+    if(change.op === 'DELETE'){ if(at >= 0) cache.splice(at, 1); }
+    else if(at >= 0) cache[at] = change.row;
+    else cache.push(change.row); // new keys are the largest, so the list stays in key order
+    lookups.delete(cache);
+    if(change.entity === 'courses' && cachedCourses) cachedCourses = courseDataCache;
+    renderSoon(change.entity);
+  }
+  if(window.EventSource){
+    const changes = new EventSource('/api/changes/stream');
+    changes.onopen = ()=>{ changeFeedLive = true; };
+    changes.onerror = ()=>{ changeFeedLive = false; }; // the browser reconnects with Last-Event-ID by itself
+    changes.addEventListener('change', e => { try { applyChange(JSON.parse(e.data)); } catch(err){ console.error('change event', err); } });
+    changes.addEventListener('reset', ()=>{ Object.keys(sectionEndpoints).forEach(reloadSoon); });
+  }
 })();
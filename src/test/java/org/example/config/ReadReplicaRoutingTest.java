@@ -0,0 +1,91 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two embedded H2 databases stand in for primary and replica; "replication" is an explicit copy of the primary
+ * (H2 {@code SCRIPT}), so everything written since the last copy is visible on the primary only. Replica 0 points
+ * at a closed port to exercise the fallback.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:rwprimary;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.datasource.replicas[0].url=jdbc:h2:tcp://localhost:1/unreachable",
+        "app.datasource.replicas[0].username=sa",
+        "app.datasource.replicas[0].password=",
+        "app.datasource.replicas[0].connection-timeout=250ms",
+        "app.datasource.replicas[1].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "app.datasource.replicas[1].username=sa",
+        "app.datasource.replicas[1].password=",
+        "app.datasource.read-your-writes=10s"
+})
+class ReadReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:rwreplica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+
+    @Autowired private MockMvc mvc;
+    @Autowired private HikariDataSource primaryDataSource;
+    @Autowired private ReplicaPoolDataSource replicaDataSource;
+
+    @BeforeEach
+    void replicate() throws SQLException {
+        List<String> script = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT", String.class);
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", ""); Statement st = replica.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            for (String sql : script) st.execute(sql);
+        }
+    }
+
+    @Test
+    void readsGoToTheReplicaUnlessTheClientJustWrote() throws Exception {
+        MvcResult created = mvc.perform(post("/api/courses").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"courseName\":\"Distributed Systems\",\"courseCode\":\"CS550\",\"courseCredits\":4}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Cookie sticky = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(sticky);
+
+        // another client reads the replica, which has not seen the insert yet (a list query: single rows by id may come from the L2 cache)
+        mvc.perform(get("/api/courses").param("limit", "100")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(0));
+        // the writer is pinned to the primary for the stickiness window
+        mvc.perform(get("/api/courses").param("limit", "100").cookie(sticky)).andExpect(jsonPath("$.length()").value(1));
+
+        replicate();
+        mvc.perform(get("/api/courses").param("limit", "100")).andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void unreachableReplicaIsSkipped() throws Exception {
+        for (int i = 0; i < 4; i++) mvc.perform(get("/api/courses").param("limit", "10")).andExpect(status().isOk());
+        assertEquals(1, replicaDataSource.healthyReplicas());
+    }
+}
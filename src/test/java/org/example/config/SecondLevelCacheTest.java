@@ -0,0 +1,63 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.CourseDetails;
+import org.example.repository.CourseDetailsRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:secondlevelcachedb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class SecondLevelCacheTest {
+
+    @Autowired private CourseDetailsRepository courseRepo;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private CacheManager secondLevelCacheManager;
+    @Autowired private MeterRegistry registry;
+
+    @Test
+    void repeatedFindByIdIsServedFromTheCache() {
+        Long id = courseRepo.save(CourseDetails.builder().courseName("Caching").courseCode("L2-1").courseCredits(3.0).build()).getCourseNumber();
+        entityManagerFactory.getCache().evictAll();
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        double hitsBefore = gets("hit");
+
+        assertEquals("Caching", courseRepo.findById(id).orElseThrow().getCourseName());
+        assertEquals("Caching", courseRepo.findById(id).orElseThrow().getCourseName());
+
+        assertEquals(1, stats.getPrepareStatementCount(), "only the first lookup reaches the database");
+        assertEquals(1, stats.getSecondLevelCacheHitCount());
+        assertEquals(hitsBefore + 1, gets("hit"));
+        assertTrue(gets("miss") >= 1);
+    }
+
+    @Test
+    void theCacheManagerBelongsToThisContext() {
+        CacheManager shared = Caching.getCachingProvider(secondLevelCacheManager.getCachingProvider().getClass().getName()).getCacheManager();
+        assertNotSame(shared, secondLevelCacheManager);
+        assertNotNull(secondLevelCacheManager.getCache("courses"));
+    }
+
+    private double gets(String result) {
+        return registry.get("cache.gets").tag("cache", "courses").tag("result", result).functionCounter().count();
+    }
+}
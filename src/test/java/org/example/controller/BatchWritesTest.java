@@ -0,0 +1,133 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.CourseDetails;
+import org.example.entity.EnrollmentData;
+import org.example.entity.StudentData;
+import org.example.repository.AttendanceDataRepository;
+import org.example.repository.CourseDetailsRepository;
+import org.example.repository.EnrollmentDataRepository;
+import org.example.repository.GradesRepository;
+import org.example.repository.StudentDataRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:batchwritesdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.import.chunk-size=100"
+})
+class BatchWritesTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private StudentDataRepository studentRepo;
+    @Autowired private CourseDetailsRepository courseRepo;
+    @Autowired private EnrollmentDataRepository enrollmentRepo;
+    @Autowired private GradesRepository gradesRepo;
+    @Autowired private AttendanceDataRepository attendanceRepo;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void gradesBatchReportsPerItemStatusAndUsesBatchedStatements() throws Exception {
+        EnrollmentData enrollment = enrollment("Ada", "Lovelace", "BW101");
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < 300; i++)
+            items.add(Map.of("enrollmentNumber", enrollment.getEnrollmentNumber(), "assessmentDate", "2024-10-01",
+                    "assessmentType", "Quiz", "obtainedScore", i % 100, "maxScore", 100, "gradeCode", 1));
+        items.set(5, Map.of("enrollmentNumber", -1, "assessmentDate", "2024-10-01", "assessmentType", "Quiz", "obtainedScore", 50, "maxScore", 100));
+        items.set(150, Map.of("enrollmentNumber", enrollment.getEnrollmentNumber(), "assessmentDate", "2024-10-01", "assessmentType", "Quiz", "obtainedScore", 500, "maxScore", 100));
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        JsonNode body = postBatch("/api/grades/batch", items, 207);
+        long statements = stats.getPrepareStatementCount();
+
+        assertEquals(300, body.get("total").asInt());
+        assertEquals(298, body.get("created").asInt());
+        assertEquals(2, body.get("failed").asInt());
+        JsonNode results = body.get("items");
+        assertEquals(300, results.size());
+        assertEquals(201, results.get(0).get("status").asInt());
+        assertTrue(results.get(0).get("id").asLong() > 0);
+        assertEquals(5, results.get(5).get("index").asInt());
+        assertEquals(400, results.get(5).get("status").asInt());
+        assertEquals("Invalid enrollmentNumber", results.get(5).get("error").asText());
+        assertTrue(results.get(150).get("error").asText().startsWith("obtainedScore"));
+        assertEquals(298, gradesRepo.count());
+        // one insert per row would be ~300 statements; chunks of JDBC batches stay an order of magnitude below
+        assertTrue(statements < 60, "expected batched statements, was " + statements);
+    }
+
+    @Test
+    void attendanceAndEnrollmentBatches() throws Exception {
+        EnrollmentData enrollment = enrollment("Alan", "Turing", "BW102");
+        String student = String.valueOf(enrollment.getStudent().getStudentNumber());
+        JsonNode attendance = postBatch("/api/attendance/batch", List.of(
+                Map.of("enrollmentNumber", enrollment.getEnrollmentNumber(), "studentNumber", student, "attendanceDate", "2024-10-02", "attendanceStatus", 0, "semester", "FALL24"),
+                Map.of("enrollmentNumber", enrollment.getEnrollmentNumber(), "studentNumber", "abc", "attendanceDate", "2024-10-03", "attendanceStatus", 1, "semester", "FALL24")), 207);
+        assertEquals(201, attendance.get("items").get(0).get("status").asInt());
+        assertEquals(400, attendance.get("items").get(1).get("status").asInt());
+        assertEquals(1, attendanceRepo.findByStudentStudentNumber(enrollment.getStudent().getStudentNumber()).size());
+
+        CourseDetails other = courseRepo.save(CourseDetails.builder().courseName("Batch Course").courseCode("BW103").courseCredits(3.0).build());
+        JsonNode enrollments = postBatch("/api/enrollments/batch", List.of(
+                Map.of("studentNumber", student, "courseNumber", String.valueOf(other.getCourseNumber()), "enrollmentDate", "2024-09-10",
+                        "overallGrade", 0, "semester", "FALL24", "instructorName", "Prof. Hoare")), 200);
+        assertEquals(1, enrollments.get("created").asInt());
+
+        mvc.perform(post("/api/grades/batch").contentType(MediaType.APPLICATION_JSON).content("[]")).andExpect(status().isBadRequest());
+    }
+
+    private JsonNode postBatch(String path, List<Map<String, Object>> items, int expectedStatus) throws Exception {
+        String json = mvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json);
+    }
+
+    private EnrollmentData enrollment(String first, String last, String courseCode) {
+        StudentData student = studentRepo.save(StudentData.builder()
+                .firstName(first)
+                .lastName(last)
+                .dateOfBirth(LocalDate.of(2001, 1, 1))
+                .gender(StudentData.Gender.FEMALE)
+                .joiningDate(LocalDate.of(2023, 9, 1))
+                .studentStatus(StudentData.StudentStatus.ACTIVE)
+                .build());
+        CourseDetails course = courseRepo.save(CourseDetails.builder().courseName("Course " + courseCode).courseCode(courseCode).courseCredits(4.0).build());
+        return enrollmentRepo.save(EnrollmentData.builder()
+                .student(student)
+                .course(course)
+                .enrollmentDate(LocalDate.of(2024, 9, 10))
+                .overallGrade(0)
+                .semester("FALL24")
+                .instructorName("Prof. Dijkstra")
+                .build());
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.controller;
+
+import org.example.dto.AddressCreateDto;
+import org.example.dto.ContactCreateDto;
+import org.example.dto.EnrollmentCreateDto;
+import org.example.dto.StudentAggregateCreateRequest;
+import org.example.entity.CourseDetails;
+import org.example.entity.StudentData;
+import org.example.repository.AddressDetailsRepository;
+import org.example.repository.ContactDetailsRepository;
+import org.example.repository.EnrollmentDataRepository;
+import org.example.service.CourseDetailsService;
+import org.example.service.StudentDataService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:changestreamdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.changes.buffer-size=5"
+})
+class ChangeStreamTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private CourseDetailsService courseService;
+    @Autowired private StudentDataService studentService;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private EnrollmentDataRepository enrollmentRepository;
+    @Autowired private AddressDetailsRepository addressRepository;
+    @Autowired private ContactDetailsRepository contactRepository;
+
+    @Test
+    void committedWritesAreStreamedForTheRequestedEntities() throws Exception {
+        MockHttpServletResponse stream = open("courses", null);
+
+        CourseDetails course = courseService.createCourse(course("CS-A"));
+        studentService.createStudent(StudentData.builder().firstName("Feed").lastName("Student").dateOfBirth(LocalDate.of(2000, 1, 1))
+                .gender(StudentData.Gender.OTHER).joiningDate(LocalDate.of(2020, 9, 1)).studentStatus(StudentData.StudentStatus.ACTIVE).build());
+        courseService.updateCourse(course.getCourseNumber(), CourseDetails.builder().courseName("Renamed").courseCode("CS-A").courseCredits(4.0).build());
+        courseService.deleteCourse(course.getCourseNumber());
+
+        String events = await(stream, "\"op\":\"DELETE\"");
+        assertTrue(events.contains("\"entity\":\"courses\",\"op\":\"INSERT\",\"id\":" + course.getCourseNumber() + ",\"row\":{"), events);
+        assertTrue(events.contains("\"courseName\":\"Renamed\""), events);
+        assertFalse(events.contains("students"), events);
+    }
+
+    @Test
+    void rolledBackWritesAreNotStreamed() throws Exception {
+        MockHttpServletResponse stream = open("courses", null);
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            courseService.createCourse(course("CS-ROLLBACK"));
+            tx.setRollbackOnly();
+        });
+        courseService.createCourse(course("CS-COMMIT"));
+
+        assertFalse(await(stream, "CS-COMMIT").contains("CS-ROLLBACK"));
+    }
+
+    @Test
+    void lastEventIdReplaysMissedChangesOrResets() throws Exception {
+        MockHttpServletResponse first = open(null, null);
+        courseService.createCourse(course("CS-B"));
+        Matcher event = Pattern.compile("id:(\\S+)\nevent:change\ndata:[^\n]*CS-B").matcher(await(first, "CS-B"));
+        assertTrue(event.find());
+        String seen = event.group(1);
+
+        courseService.createCourse(course("CS-C"));
+        String replay = await(open(null, seen), "CS-C");
+        assertFalse(replay.contains("CS-B"), replay);
+
+        await(open(null, "another-instance:1"), "event:reset");
+        // six more changes push CS-C out of the five-slot buffer
+        for (int i = 0; i < 6; i++) courseService.createCourse(course("CS-D" + i));
+        String expired = await(open(null, seen), "event:reset");
+        assertFalse(expired.contains("CS-D"), expired);
+    }
+
+    @Test
+    void deletingAStudentAnnouncesItsDependentRowsOneByOne() throws Exception {
+        CourseDetails course = courseService.createCourse(course("CS-CASCADE"));
+        StudentData student = studentService.createStudentAggregate(StudentAggregateCreateRequest.builder()
+                .firstName("Cascade").lastName("Student").dateOfBirth(LocalDate.of(2000, 1, 1)).gender(2)
+                .joiningDate(LocalDate.of(2020, 9, 1)).studentStatus(0)
+                .addresses(List.of(AddressCreateDto.builder().street("1 Main St").city("Springfield").state("IL").zipCode("62701").build()))
+                .contacts(List.of(ContactCreateDto.builder().emailAddress("cascade@example.org").mobileNumber("555-0100").build()))
+                .enrollments(List.of(EnrollmentCreateDto.builder().courseNumber(course.getCourseNumber()).enrollmentDate(LocalDate.of(2020, 9, 2))
+                        .overallGrade(80).semester("FALL20").instructorName("Prof. Feed").build()))
+                .build());
+        List<Long> students = List.of(student.getStudentNumber());
+        Long enrollment = enrollmentRepository.findEnrollmentNumbersByStudentNumbers(students, Pageable.unpaged()).get(0);
+        Long address = addressRepository.findAddressNumbersByStudentNumbers(students, Pageable.unpaged()).get(0);
+        Long contact = contactRepository.findContactNumbersByStudentNumbers(students, Pageable.unpaged()).get(0);
+        MockHttpServletResponse stream = open("students,enrollments,addresses,contacts,grades,attendance", null);
+
+        studentService.deleteStudent(student.getStudentNumber());
+
+        String events = await(stream, "\"entity\":\"addresses\",\"op\":\"DELETE\",\"id\":" + address);
+        assertTrue(events.contains("\"entity\":\"students\",\"op\":\"DELETE\",\"id\":" + student.getStudentNumber()), events);
+        assertTrue(events.contains("\"entity\":\"enrollments\",\"op\":\"DELETE\",\"id\":" + enrollment), events);
+        assertTrue(events.contains("\"entity\":\"contacts\",\"op\":\"DELETE\",\"id\":" + contact), events);
+        assertFalse(events.contains("RELOAD"), events);
+    }
+
+    @Test
+    void unknownEntitiesAreRejected() throws Exception {
+        mvc.perform(get("/api/changes/stream").param("entities", "courses,teachers").header("Accept", "text/event-stream"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details").value(containsString("teachers")));
+    }
+
+    private MockHttpServletResponse open(String entities, String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder stream = get("/api/changes/stream");
+        if (entities != null) stream.param("entities", entities);
+        if (lastEventId != null) stream.header("Last-Event-ID", lastEventId);
+        return mvc.perform(stream).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    /** Polls the open stream until {@code text} shows up. */
+    private static String await(MockHttpServletResponse stream, String text) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String body;
+        while (!(body = stream.getContentAsString()).contains(text)) {
+            if (System.nanoTime() > deadline) fail("no " + text + " in " + body);
+            Thread.sleep(20);
+        }
+        return body;
+    }
+
+    private static CourseDetails course(String code) {
+        return CourseDetails.builder().courseName("Course " + code).courseCode(code).courseCredits(3.0).build();
+    }
+}
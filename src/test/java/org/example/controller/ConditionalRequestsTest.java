@@ -0,0 +1,75 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:conditionaldb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class ConditionalRequestsTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private ObjectMapper objectMapper;
+
+    @Test
+    void versionEtagDrivesNotModifiedAndPreconditions() throws Exception {
+        String created = mvc.perform(post("/api/courses").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"courseName\":\"Compilers\",\"courseCode\":\"CS301\",\"courseCredits\":4}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode course = objectMapper.readTree(created);
+        String path = "/api/courses/" + course.get("courseNumber").asText();
+
+        mvc.perform(get(path)).andExpect(status().isOk()).andExpect(header().string("ETag", "\"0\""));
+        mvc.perform(get(path).header("If-None-Match", "\"0\"")).andExpect(status().isNotModified());
+
+        String update = "{\"courseName\":\"Compilers II\",\"courseCode\":\"CS302\",\"courseCredits\":4}";
+        mvc.perform(put(path).header("If-Match", "\"0\"").contentType(MediaType.APPLICATION_JSON).content(update))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+        // A second writer still holding version 0 loses instead of silently overwriting
+        mvc.perform(put(path).header("If-Match", "\"0\"").contentType(MediaType.APPLICATION_JSON).content(update))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("ETag", "\"1\""));
+        mvc.perform(get(path).header("If-None-Match", "\"0\"")).andExpect(status().isOk());
+
+        mvc.perform(delete(path).header("If-Match", "\"0\"")).andExpect(status().isPreconditionFailed());
+        mvc.perform(delete(path).header("If-Match", "W/\"1\"")).andExpect(status().isPreconditionFailed());
+        mvc.perform(delete(path).header("If-Match", "\"1\"")).andExpect(status().isNoContent());
+    }
+
+    @Test
+    void patchWithStaleVersionIsRejected() throws Exception {
+        String created = mvc.perform(post("/api/students").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Edsger\",\"lastName\":\"Dijkstra\",\"dateOfBirth\":\"2001-05-11\",\"gender\":0,\"joiningDate\":\"2023-09-01\",\"studentStatus\":0}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String path = "/api/students/" + objectMapper.readTree(created).get("studentNumber").asText();
+
+        mvc.perform(patch(path).header("If-Match", "\"0\"").contentType(MediaType.APPLICATION_JSON).content("{\"lastName\":\"Dijkstra-Smith\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+        mvc.perform(patch(path).header("If-Match", "\"0\"").contentType(MediaType.APPLICATION_JSON).content("{\"firstName\":\"E. W.\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(get(path)).andExpect(jsonPath("$.firstName").value("Edsger")).andExpect(jsonPath("$.lastName").value("Dijkstra-Smith"));
+    }
+}
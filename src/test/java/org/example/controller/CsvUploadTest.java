@@ -0,0 +1,155 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.CourseDetails;
+import org.example.entity.EnrollmentData;
+import org.example.entity.StudentData;
+import org.example.repository.CourseDetailsRepository;
+import org.example.repository.EnrollmentDataRepository;
+import org.example.repository.GradesRepository;
+import org.example.repository.StudentDataRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:csvuploaddb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.import.chunk-size=50",
+        "app.import.parse-threads=3",
+        "app.import.parse-chunk-bytes=4096" // ~60 rows per parse chunk, so the file below spans several
+})
+class CsvUploadTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private StudentDataRepository studentRepo;
+    @Autowired private CourseDetailsRepository courseRepo;
+    @Autowired private EnrollmentDataRepository enrollmentRepo;
+    @Autowired private GradesRepository gradesRepo;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void studentsParseQuotedFieldsInParallelAndReportExactRows() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("firstName,lastName,dateOfBirth,gender,joiningDate,studentStatus");
+        for (int row = 2; row <= 401; row++) lines.add("Csv" + row + ",Parallel" + row + ",2001-02-03,FEMALE,2019-09-01,ACTIVE");
+        lines.set(50 - 1, "   ");
+        lines.set(120 - 1, "Csv120,Parallel120,2001-13-40,MALE,2019-09-01,ACTIVE");
+        lines.set(300 - 1, "Csv300,\"Parallel300,2001-02-03,MALE,2019-09-01,ACTIVE");
+        lines.set(333 - 1, " Csv333 , \"O\"\"Brien, Jr\" ,2001-02-03,OTHER,2019-09-01,GRADUATED");
+
+        JsonNode body = upload("/api/students/upload-csv", String.join("\r\n", lines) + "\r\n", 207);
+
+        assertEquals(397, body.get("inserted").asInt());
+        JsonNode errors = body.get("errors");
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(0).asText().startsWith("Row 120: "), errors.get(0).asText());
+        assertEquals("Row 300: Unterminated quoted field 2", errors.get(1).asText());
+
+        StudentData quoted = studentRepo.findAll().stream().filter(s -> "Csv333".equals(s.getFirstName())).findFirst().orElseThrow();
+        assertEquals("O\"Brien, Jr", quoted.getLastName());
+        assertEquals(StudentData.StudentStatus.GRADUATED, quoted.getStudentStatus());
+        assertEquals(LocalDate.of(2001, 2, 3), quoted.getDateOfBirth());
+        // created rows come back in file order
+        assertEquals("Csv2", body.get("students").get(0).get("firstName").asText());
+        assertEquals("Csv401", body.get("students").get(396).get("firstName").asText());
+    }
+
+    @Test
+    void gradesResolveForeignKeysPerParsedChunk() throws Exception {
+        StudentData student = studentRepo.save(StudentData.builder().firstName("Grace").lastName("Hopper").dateOfBirth(LocalDate.of(1990, 1, 1))
+                .gender(StudentData.Gender.FEMALE).joiningDate(LocalDate.of(2020, 9, 1)).studentStatus(StudentData.StudentStatus.ACTIVE).build());
+        CourseDetails course = courseRepo.save(CourseDetails.builder().courseName("Compilers").courseCode("CSV201").courseCredits(4.0).build());
+        EnrollmentData enrollment = enrollmentRepo.save(EnrollmentData.builder().student(student).course(course)
+                .enrollmentDate(LocalDate.of(2024, 9, 1)).overallGrade(0).semester("Fall").instructorName("Wirth").build());
+        long before = gradesRepo.count();
+
+        StringBuilder csv = new StringBuilder("\uFEFFEnrollmentNumber,AssessmentDate,AssessmentType,ObtainedScore,MaxScore,GradeCode\n");
+        for (int row = 2; row <= 201; row++) {
+            long ref = row == 77 ? -1 : enrollment.getEnrollmentNumber();
+            csv.append(ref).append(",2024-10-01,\"Quiz, part ").append(row).append("\",").append(row % 100).append(",100,1\n");
+        }
+
+        JsonNode body = upload("/api/grades/upload-csv", csv.toString(), 207);
+
+        assertEquals(199, body.get("inserted").asInt());
+        assertEquals("Row 77: Missing FK enrollment", body.get("errors").get(0).asText());
+        assertEquals(before + 199, gradesRepo.count());
+        assertTrue(gradesRepo.findAll().stream().anyMatch(g -> "Quiz, part 2".equals(g.getAssessmentType())));
+    }
+
+    @Test
+    void duplicateKeysAreRejectedPerRowBeforeAnyInsert() throws Exception {
+        courseRepo.save(CourseDetails.builder().courseName("Upload 30").courseCode("EXISTING").courseCredits(3.0).build());
+        StringBuilder csv = new StringBuilder("courseName,courseCode,courseCredits\n");
+        for (int row = 2; row <= 121; row++) csv.append("Upload ").append(row).append(",U").append(row == 60 ? 5 : row).append(",3.0\n");
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        JsonNode body = upload("/api/courses/upload-csv", csv.toString(), 207);
+
+        assertEquals(118, body.get("inserted").asInt());
+        JsonNode errors = body.get("errors");
+        assertEquals("Row 30: Duplicate courseName 'Upload 30' already exists", errors.get(0).asText());
+        assertEquals("Row 60: Duplicate courseCode 'U5' (same as row 5)", errors.get(1).asText());
+        // three chunk commits plus the lookups; a duplicate reaching the database would replay its chunk row by row
+        assertTrue(stats.getTransactionCount() < 10, "transactions: " + stats.getTransactionCount());
+    }
+
+    @Test
+    void aRowTheDatabaseRejectsFailsAloneAndTheRestOfItsChunkIsCommitted() throws Exception {
+        StringBuilder csv = new StringBuilder("courseName,courseCode,courseCredits\n");
+        // rows 52-101 form the second chunk; row 75 passes every check up front but is too long for course_code
+        for (int row = 2; row <= 121; row++) csv.append("Replay ").append(row).append(",").append(row == 75 ? "R-TOO-LONG-75" : "R" + row).append(",3.0\n");
+
+        JsonNode body = upload("/api/courses/upload-csv", csv.toString(), 207);
+
+        assertEquals(119, body.get("inserted").asInt());
+        JsonNode errors = body.get("errors");
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).asText().startsWith("Row 75: "), errors.get(0).asText());
+
+        List<Long> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        body.get("courses").forEach(c -> { ids.add(c.get("courseNumber").asLong()); names.add(c.get("courseName").asText()); });
+        assertEquals("Replay 74", names.get(72));
+        assertEquals("Replay 76", names.get(73));
+        // the replayed rows were given new ids, distinct from each other and from the committed chunks
+        assertEquals(119, ids.stream().distinct().count());
+        assertEquals(119, courseRepo.findAllById(ids).size());
+        assertEquals("Replay 76", courseRepo.findById(ids.get(73)).orElseThrow().getCourseName());
+        assertTrue(courseRepo.findAll().stream().noneMatch(c -> "Replay 75".equals(c.getCourseName())));
+    }
+
+    private JsonNode upload(String url, String csv, int expectedStatus) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "upload.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+        String json = mvc.perform(multipart(url).file(file).param("sync", "true"))
+                .andExpect(status().is(expectedStatus)).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json);
+    }
+}
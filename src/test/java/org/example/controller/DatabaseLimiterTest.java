@@ -0,0 +1,169 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.controller.support.CsvExport;
+import org.example.controller.support.KeysetPaging;
+import org.example.controller.support.StreamFormats;
+import org.example.entity.CourseDetails;
+import org.example.service.CourseDetailsService;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:limiterdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.db-limiter.max-limit=1",
+        "app.db-limiter.max-wait=50ms",
+        "app.db-limiter.retry-after=2"
+})
+class DatabaseLimiterTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private DatabaseConcurrencyLimiter limiter;
+    @Autowired private CourseDetailsService courseService;
+    @Autowired private StreamFormats streamFormats;
+
+    @Test
+    void requestsAreShedWith503WhileTheLimitIsSaturated() throws Exception {
+        assertEquals(1, limiter.getLimit());
+        CountDownLatch holding = new CountDownLatch(1), finish = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> limiter.call(() -> {
+            holding.countDown();
+            awaitQuietly(finish);
+            return null;
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        mvc.perform(get("/api/courses/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+        mvc.perform(post("/api/courses").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"courseName\":\"Databases\",\"courseCode\":\"CS401\",\"courseCredits\":3}"))
+                .andExpect(status().isServiceUnavailable());
+
+        finish.countDown();
+        holder.join();
+        mvc.perform(get("/api/courses/999999")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void backgroundCallersWaitForAPermitInsteadOfFailing() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1), finish = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> limiter.call(() -> {
+            holding.countDown();
+            awaitQuietly(finish);
+            return null;
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        // marked as background work (like an import job): queues past max-wait rather than throwing
+        CompletableFuture<Integer> background = CompletableFuture.supplyAsync(() -> {
+            boolean previous = DatabaseConcurrencyLimiter.background(true);
+            try { return courseService.getAllCourses().size(); } finally { DatabaseConcurrencyLimiter.restore(previous); }
+        });
+        Thread.sleep(200);
+        assertFalse(background.isDone());
+
+        finish.countDown();
+        holder.join();
+        assertEquals(courseService.getAllCourses().size(), background.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void streamedResponsesAreAdmittedUpFrontAndNeverCutOff() throws Exception {
+        List<CourseDetails> courses = new ArrayList<>();
+        for (int i = 0; i < KeysetPaging.STREAM_CHUNK + 100; i++)
+            courses.add(CourseDetails.builder().courseName("Streamed " + i).courseCode("STR-" + i).courseCredits(3.0).build());
+        courseService.createCourses(courses);
+        int total = courseService.getAllCourses().size();
+
+        CountDownLatch holding = new CountDownLatch(1), finish = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> limiter.call(() -> {
+            holding.countDown();
+            awaitQuietly(finish);
+            return null;
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        // saturated before the handler runs: answered 503 while a status can still be sent
+        mvc.perform(get("/api/courses")).andExpect(status().isServiceUnavailable());
+        mvc.perform(get("/api/courses/export.csv")).andExpect(status().isServiceUnavailable());
+        finish.countDown();
+        holder.join();
+
+        // admitted, then the limiter saturates while the bodies stream their remaining chunks
+        StreamingResponseBody list = KeysetPaging.stream(streamFormats.negotiate(new HttpHeaders()), null, null,
+                courseService::getCoursePage, CourseDetails::getCourseNumber, Function.identity()).getBody();
+        StreamingResponseBody csv = CsvExport.<CourseDetails>stream(limiter, "courses.csv", new String[]{"courseNumber"},
+                courseService::exportCourses, c -> new Object[]{c.getCourseNumber()}).getBody();
+        CountDownLatch saturated = new CountDownLatch(1), release = new CountDownLatch(1);
+        Thread saturating = Thread.ofVirtual().start(() -> limiter.call(() -> {
+            saturated.countDown();
+            awaitQuietly(release);
+            return null;
+        }));
+        assertTrue(saturated.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> listBody = writeOnAsyncThread(list), csvBody = writeOnAsyncThread(csv);
+        Thread.sleep(300); // well past max-wait
+        assertFalse(listBody.isDone());
+        assertFalse(csvBody.isDone());
+
+        release.countDown();
+        saturating.join();
+        assertEquals(total, new ObjectMapper().readTree(listBody.get(5, TimeUnit.SECONDS)).size());
+        assertEquals(total + 1, csvBody.get(5, TimeUnit.SECONDS).lines().count());
+    }
+
+    /** Runs a response body the way Spring MVC does: on another thread, with the request attributes bound. */
+    private static CompletableFuture<String> writeOnAsyncThread(StreamingResponseBody body) {
+        CompletableFuture<String> written = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                body.writeTo(out);
+                written.complete(out.toString(StandardCharsets.UTF_8));
+            } catch (Throwable t) {
+                written.completeExceptionally(t);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+        return written;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try { latch.await(10, TimeUnit.SECONDS); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+}
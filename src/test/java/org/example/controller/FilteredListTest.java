@@ -0,0 +1,183 @@
+package org.example.controller;
+
+import org.example.dto.EnrollmentFilter;
+import org.example.dto.StudentFilter;
+import org.example.entity.CourseDetails;
+import org.example.entity.EnrollmentData;
+import org.example.entity.StudentData;
+import org.example.entity.StudentData.StudentStatus;
+import org.example.service.CourseDetailsService;
+import org.example.service.EnrollmentDataService;
+import org.example.service.StudentDataService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:filteredlistdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        // filter values rendered into the SQL, so a captured statement can be EXPLAINed as is
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.example.controller.FilteredListTest$CapturedSql"
+})
+class FilteredListTest {
+
+    public static class CapturedSql implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired private MockMvc mvc;
+    @Autowired private StudentDataService studentService;
+    @Autowired private CourseDetailsService courseService;
+    @Autowired private EnrollmentDataService enrollmentService;
+    @Autowired private JdbcTemplate jdbc;
+
+    @Test
+    void studentFiltersCombineWithKeysetPages() throws Exception {
+        for (int i = 0; i < 5; i++) student("Filtered", StudentStatus.GRADUATED, LocalDate.of(2024, 1, 1 + i));
+        student("Filtered", StudentStatus.ACTIVE, LocalDate.of(2024, 3, 1));
+        student("Filtered", StudentStatus.GRADUATED, LocalDate.of(2023, 12, 31));
+
+        MvcResult first = mvc.perform(get("/api/students").param("status", "GRADUATED").param("lastName", "Filtered")
+                        .param("joinedAfter", "2024-01-01").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(header().exists("X-Next-After"))
+                .andReturn();
+        mvc.perform(get("/api/students").param("status", "GRADUATED").param("lastName", "Filtered")
+                        .param("joinedAfter", "2024-01-01").param("limit", "3").param("after", first.getResponse().getHeader("X-Next-After")))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].joiningDate", everyItem(startsWith("2024-01"))))
+                .andExpect(header().doesNotExist("X-Next-After"));
+
+        mvc.perform(get("/api/students").param("status", "graduated").param("limit", "3")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bulkDeleteTakesTheSameStatusNamesAsTheFilter() throws Exception {
+        student("Purged", StudentStatus.INACTIVE, LocalDate.of(2024, 2, 1));
+        student("Purged", StudentStatus.INACTIVE, LocalDate.of(2024, 2, 2));
+
+        mvc.perform(delete("/api/students").param("status", "1")).andExpect(status().isBadRequest());
+        mvc.perform(delete("/api/students").param("status", "INACTIVE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(2)));
+        mvc.perform(get("/api/students").param("status", "INACTIVE").param("limit", "10")).andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void enrollmentFiltersApplyToPagesAndStreams() throws Exception {
+        CourseDetails course = courseService.createCourse(CourseDetails.builder().courseName("Filtering").courseCode("FLT-1").courseCredits(3.0).build());
+        CourseDetails other = courseService.createCourse(CourseDetails.builder().courseName("Other").courseCode("FLT-2").courseCredits(3.0).build());
+        StudentData a = student("Enrolled", StudentStatus.ACTIVE, LocalDate.of(2024, 9, 1));
+        StudentData b = student("Enrolled", StudentStatus.ACTIVE, LocalDate.of(2024, 9, 1));
+        enrollment(a, course, "FLT24", "Knuth");
+        enrollment(b, course, "FLT24", "Knuth");
+        enrollment(a, other, "FLT24", "Knuth");
+        enrollment(b, course, "FLT25", "Knuth");
+        enrollment(a, course, "FLT25", "Dijkstra");
+
+        mvc.perform(get("/api/enrollments").param("semester", "FLT24").param("instructor", "Knuth")
+                        .param("course", course.getCourseNumber().toString()).param("limit", "10"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].courseNumber", everyItem(is(course.getCourseNumber().toString()))));
+
+        MvcResult stream = mvc.perform(get("/api/enrollments").param("instructor", "Dijkstra")).andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(asyncDispatch(stream))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].semester").value("FLT25"));
+    }
+
+    /**
+     * H2 EXPLAINs the query of every filter combination, and of its continuation pages where an equality filter is
+     * set; each has to be answered from an index led by one of its filter columns rather than a table or key scan.
+     * Any such index counts: for {@code course_number} H2 may pick its own foreign-key index over idx_enrollment_course.
+     */
+    @Test
+    void everyFilterCombinationIsServedByAFilterIndex() {
+        String[] studentColumns = {"STUDENT_STATUS", "JOINING_DATE", "JOINING_DATE", "LAST_NAME"};
+        for (int mask = 1; mask < 1 << studentColumns.length; mask++) {
+            StudentFilter filter = new StudentFilter(bit(mask, 0) ? StudentStatus.ACTIVE : null, bit(mask, 1) ? LocalDate.of(2024, 1, 1) : null,
+                    bit(mask, 2) ? LocalDate.of(2024, 12, 31) : null, bit(mask, 3) ? "Lovelace" : null);
+            assertServedBy(plan(() -> studentService.getStudentPage(filter, null, 100, false)), "STUDENT_DATA", studentColumns, mask, filter);
+            // a continuation adds a key range, which only beats a date range when an equality filter narrows it
+            if (bit(mask, 0) || bit(mask, 3))
+                assertServedBy(plan(() -> studentService.getStudentPage(filter, 1000L, 100, false)), "STUDENT_DATA", studentColumns, mask, filter);
+        }
+
+        String[] enrollmentColumns = {"SEMESTER", "INSTRUCTOR_NAME", "COURSE_NUMBER", "ENROLLMENT_DATE", "ENROLLMENT_DATE"};
+        for (int mask = 1; mask < 1 << enrollmentColumns.length; mask++) {
+            EnrollmentFilter filter = new EnrollmentFilter(bit(mask, 0) ? "FALL24" : null, bit(mask, 1) ? "Knuth" : null, bit(mask, 2) ? 7L : null,
+                    bit(mask, 3) ? LocalDate.of(2024, 1, 1) : null, bit(mask, 4) ? LocalDate.of(2024, 12, 31) : null);
+            assertServedBy(plan(() -> enrollmentService.getEnrollmentPage(filter, null, 100, false)), "ENROLLMENT_DATA", enrollmentColumns, mask, filter);
+            if ((mask & 0b111) != 0)
+                assertServedBy(plan(() -> enrollmentService.getEnrollmentPage(filter, 1000L, 100, true)), "ENROLLMENT_DATA", enrollmentColumns, mask, filter);
+        }
+    }
+
+    /** H2's plan for the last select {@code query} ran; the row limit is the only parameter left to fill in. */
+    private String plan(Runnable query) {
+        CapturedSql.statements.clear();
+        query.run();
+        String select = CapturedSql.statements.stream().filter(sql -> sql.startsWith("select")).reduce((first, last) -> last).orElseThrow();
+        return String.join("\n", jdbc.queryForList("explain " + select.replace("?", "100"), String.class)).toUpperCase();
+    }
+
+    private void assertServedBy(String plan, String table, String[] columns, int mask, Object filter) {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) if (bit(mask, i)) expected.addAll(indexesLedBy(table, columns[i]));
+        assertTrue(expected.stream().anyMatch(index -> plan.contains("." + index)), filter + " expected one of " + expected + " in\n" + plan);
+    }
+
+    /** Every index on {@code table} whose first column is {@code column}, whether declared by an entity or made by H2 for a foreign key. */
+    private List<String> indexesLedBy(String table, String column) {
+        return jdbc.queryForList("select index_name from information_schema.index_columns where table_name = ? and column_name = ? and ordinal_position = 1",
+                String.class, table, column);
+    }
+
+    private static boolean bit(int mask, int i) { return (mask & 1 << i) != 0; }
+
+    private StudentData student(String lastName, StudentStatus status, LocalDate joined) {
+        return studentService.createStudent(StudentData.builder().firstName("Filter").lastName(lastName).dateOfBirth(LocalDate.of(2000, 1, 1))
+                .gender(StudentData.Gender.OTHER).joiningDate(joined).studentStatus(status).build());
+    }
+
+    private void enrollment(StudentData student, CourseDetails course, String semester, String instructor) {
+        enrollmentService.createEnrollment(EnrollmentData.builder().student(student).course(course).enrollmentDate(LocalDate.of(2024, 9, 2))
+                .overallGrade(0).semester(semester).instructorName(instructor).build());
+    }
+}
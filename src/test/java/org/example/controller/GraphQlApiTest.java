@@ -0,0 +1,112 @@
+package org.example.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.AttendanceData;
+import org.example.entity.CourseDetails;
+import org.example.entity.EnrollmentData;
+import org.example.entity.Grades;
+import org.example.entity.StudentData;
+import org.example.repository.AttendanceDataRepository;
+import org.example.repository.CourseDetailsRepository;
+import org.example.repository.EnrollmentDataRepository;
+import org.example.repository.GradesRepository;
+import org.example.repository.StudentDataRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:graphqldb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class GraphQlApiTest {
+
+    @Autowired private GraphQlTester graphQlTester;
+    @Autowired private StudentDataRepository studentRepo;
+    @Autowired private CourseDetailsRepository courseRepo;
+    @Autowired private EnrollmentDataRepository enrollmentRepo;
+    @Autowired private GradesRepository gradesRepo;
+    @Autowired private AttendanceDataRepository attendanceRepo;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void nestedListsLoadWithOneQueryPerLevel() {
+        long after = seed(20, 3);
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        List<Map<String, Object>> students = graphQlTester.document("""
+                        query($after: ID) { students(first: 20, after: $after) {
+                            lastName
+                            enrollments { semester course { courseCode } grades { obtainedScore } attendance { attendanceStatus } }
+                        } }""")
+                .variable("after", after)
+                .execute()
+                .path("students").entityList(new ParameterizedTypeReference<Map<String, Object>>() {}).get();
+
+        assertEquals(20, students.size());
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> enrollments = (List<Map<String, Object>>) students.get(7).get("enrollments");
+        assertEquals(3, enrollments.size());
+        assertEquals("GQL1", ((Map<?, ?>) enrollments.get(1).get("course")).get("courseCode"));
+        assertEquals(2, ((List<?>) enrollments.get(1).get("grades")).size());
+        assertEquals("ABSENT", ((Map<?, ?>) ((List<?>) enrollments.get(1).get("attendance")).get(0)).get("attendanceStatus"));
+        // students, enrollments, courses, grades, attendance: 60 enrollments would be 200+ statements one by one
+        assertTrue(stats.getPrepareStatementCount() <= 5, "statements: " + stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void tooDeepQueriesAreRejected() {
+        graphQlTester.document("{ student(studentNumber: 1) { enrollments { course { enrollments { student { contacts { emailAddress } } } } } } }")
+                .execute()
+                .errors().satisfy(errors -> assertTrue(errors.get(0).getMessage().contains("depth"), errors.toString()));
+    }
+
+    @Test
+    void tooComplexQueriesAreRejected() {
+        graphQlTester.document("{ students(first: 1000) { enrollments { grades { obtainedScore } attendance { attendanceStatus } } } }")
+                .execute()
+                .errors().satisfy(errors -> assertTrue(errors.get(0).getMessage().contains("complexity"), errors.toString()));
+    }
+
+    /** Students with {@code perStudent} enrollments each, every enrollment with two grades and an attendance row; returns the id before the first student. */
+    private long seed(int students, int perStudent) {
+        List<CourseDetails> courses = courseRepo.saveAll(IntStream.range(0, perStudent)
+                .mapToObj(i -> CourseDetails.builder().courseName("GraphQL " + i).courseCode("GQL" + i).courseCredits(3.0).build()).toList());
+        long before = Long.MAX_VALUE;
+        for (int s = 0; s < students; s++) {
+            StudentData student = studentRepo.save(StudentData.builder().firstName("Graph").lastName("Student" + s).dateOfBirth(LocalDate.of(2000, 1, 1))
+                    .gender(StudentData.Gender.OTHER).joiningDate(LocalDate.of(2020, 9, 1)).studentStatus(StudentData.StudentStatus.ACTIVE).build());
+            before = Math.min(before, student.getStudentNumber() - 1);
+            for (CourseDetails course : courses) {
+                EnrollmentData enrollment = enrollmentRepo.save(EnrollmentData.builder().student(student).course(course)
+                        .enrollmentDate(LocalDate.of(2024, 9, 1)).overallGrade(0).semester("Fall").instructorName("Knuth").build());
+                for (int g = 0; g < 2; g++)
+                    gradesRepo.save(Grades.builder().enrollment(enrollment).assessmentDate(LocalDate.of(2024, 10, 1 + g)).assessmentType("Quiz").obtainedScore(70 + g).maxScore(100).gradeCode(1).build());
+                attendanceRepo.save(AttendanceData.builder().enrollment(enrollment).student(student).attendanceDate(LocalDate.of(2024, 10, 1))
+                        .attendanceStatus(AttendanceData.AttendanceStatus.ABSENT).semester("Fall").build());
+            }
+        }
+        return before;
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:metricsdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void prometheusScrapeExposesHttpServiceHibernateAndImportMetrics() throws Exception {
+        MockMultipartFile csv = new MockMultipartFile("file", "courses.csv", "text/csv",
+                "courseName,courseCode,courseCredits\nAlgorithms,CS201,4\nBroken,CS202,not-a-number\n".getBytes());
+        mvc.perform(multipart("/api/courses/upload-csv").file(csv).param("sync", "true")).andExpect(status().isMultiStatus());
+        mvc.perform(get("/api/courses").param("limit", "10")).andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("app_service_seconds_count")))
+                .andExpect(content().string(containsString("hibernate_")))
+                .andExpect(content().string(containsString("app_import_rows_total{application=\"StudentManagement\",entity=\"courses\",outcome=\"persisted\"} 1.0")))
+                .andExpect(content().string(containsString("app_import_rows_total{application=\"StudentManagement\",entity=\"courses\",outcome=\"failed\"} 1.0")))
+                .andExpect(content().string(containsString("app_import_rows_total{application=\"StudentManagement\",entity=\"courses\",outcome=\"parsed\"} 2.0")))
+                .andExpect(content().string(containsString("app_import_bytes_total")));
+    }
+}
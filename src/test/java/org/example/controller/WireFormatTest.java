@@ -0,0 +1,98 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import org.example.entity.CourseDetails;
+import org.example.repository.CourseDetailsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:wireformatdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class WireFormatTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private CourseDetailsRepository courseRepo;
+
+    @BeforeEach
+    void seed() {
+        // more than one keyset chunk, so the compressor has to span several flushes
+        if (courseRepo.count() == 0) {
+            for (int i = 0; i < 1200; i++) courseRepo.save(CourseDetails.builder().courseName("Wire " + i).courseCode("W" + i).courseCredits(3.0).build());
+        }
+    }
+
+    @Test
+    void streamedListAsZstdNdjson() throws Exception {
+        MockHttpServletResponse response = stream("application/x-ndjson", "gzip;q=0.8, zstd");
+
+        assertEquals("application/x-ndjson", response.getContentType());
+        assertEquals("zstd", response.getHeader("Content-Encoding"));
+        String[] lines;
+        try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+        }
+        assertEquals(courseRepo.count(), lines.length);
+        assertEquals("W0", objectMapper.readTree(lines[0]).get("courseCode").asText());
+    }
+
+    @Test
+    void streamedListAsGzipCbor() throws Exception {
+        MockHttpServletResponse response = stream("application/cbor", "gzip");
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        JsonNode courses = new CBORMapper().readTree(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+        assertEquals(courseRepo.count(), courses.size());
+        assertEquals("W1199", courses.get(courses.size() - 1).get("courseCode").asText());
+    }
+
+    @Test
+    void pagesNegotiateSmileAndStreamsDefaultToPlainJson() throws Exception {
+        byte[] smile = mvc.perform(get("/api/courses").param("limit", "10").header("Accept", "application/x-jackson-smile"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+        assertEquals(10, new SmileMapper().readTree(smile).size());
+
+        MockHttpServletResponse plain = stream(null, null);
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals(courseRepo.count(), objectMapper.readTree(plain.getContentAsString()).size());
+    }
+
+    private MockHttpServletResponse stream(String accept, String acceptEncoding) throws Exception {
+        var list = get("/api/courses");
+        if (accept != null) list.header("Accept", accept);
+        if (acceptEncoding != null) list.header("Accept-Encoding", acceptEncoding);
+        MvcResult started = mvc.perform(list).andExpect(request().asyncStarted()).andReturn();
+        return mvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.controller.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.service.impl.DatabaseConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CsvExportTest {
+
+    private final DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(mock(DataSource.class), new SimpleMeterRegistry(),
+            true, 10, 1, 0, 1000, Duration.ofMillis(500), 1);
+
+    @Test
+    void onlyFieldsWithSeparatorsQuotesOrLineBreaksAreQuoted() {
+        assertEquals("", CsvExport.escape(null));
+        assertEquals("", CsvExport.escape(""));
+        assertEquals("Smith", CsvExport.escape("Smith"));
+        assertEquals("3.5", CsvExport.escape(3.5));
+        assertEquals("\"Smith, John\"", CsvExport.escape("Smith, John"));
+        assertEquals("\"The \"\"Rock\"\"\"", CsvExport.escape("The \"Rock\""));
+        assertEquals("\"line one\nline two\"", CsvExport.escape("line one\nline two"));
+        assertEquals("\"a\rb\"", CsvExport.escape("a\rb"));
+    }
+
+    @Test
+    void writtenLinesReadBackThroughTheUploadTokenizer() throws Exception {
+        StringWriter out = new StringWriter();
+        CsvExport.writeLine(out, new Object[]{7L, "O'Brien, \"Bob\"", null, LocalDate.of(2024, 9, 1)});
+        assertEquals("7,\"O'Brien, \"\"Bob\"\"\",,2024-09-01\n", out.toString());
+
+        byte[] bytes = out.toString().getBytes(StandardCharsets.UTF_8);
+        CsvFields fields = new CsvFields(Map.of("number", 0, "name", 1, "note", 2, "date", 3))
+                .tokenize(ByteBuffer.wrap(bytes), 0, bytes.length - 1);
+        assertEquals(4, fields.size());
+        assertEquals(7L, fields.longValue("number"));
+        assertEquals("O'Brien, \"Bob\"", fields.text("name"));
+        assertEquals(LocalDate.of(2024, 9, 1), fields.date("date"));
+    }
+
+    @Test
+    void streamWritesTheHeaderThenOneLinePerExportedRow() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = CsvExport.<String[]>stream(limiter, "people.csv", new String[]{"first", "last"},
+                sink -> List.of(new String[]{"Ann", "Lee"}, new String[]{"Jo", "de Souza, Jr."}).forEach(sink), row -> row);
+
+        assertEquals(CsvExport.TEXT_CSV, response.getHeaders().getContentType());
+        assertEquals("attachment; filename=\"people.csv\"", response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        response.getBody().writeTo(body);
+        assertEquals("first,last\nAnn,Lee\nJo,\"de Souza, Jr.\"\n", body.toString(StandardCharsets.UTF_8));
+    }
+}
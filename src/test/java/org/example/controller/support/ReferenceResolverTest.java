@@ -0,0 +1,72 @@
+package org.example.controller.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceResolverTest {
+
+    private record Ref(Long id) {}
+
+    private final List<List<Long>> queries = new ArrayList<>();
+
+    /** Resolves even ids only, recording every {@code IN} list it is asked for. */
+    private ReferenceResolver<Ref> resolver() {
+        return new ReferenceResolver<>(ids -> {
+            queries.add(List.copyOf(ids));
+            return ids.stream().filter(id -> id % 2 == 0).map(Ref::new).toList();
+        }, Ref::id);
+    }
+
+    @Test
+    void duplicateAndNullIdsAreQueriedOnce() {
+        ReferenceResolver<Ref> refs = resolver();
+        refs.prefetch(Arrays.asList(2L, 4L, 2L, null, 4L, 6L));
+
+        assertEquals(List.of(List.of(2L, 4L, 6L)), queries);
+        assertEquals(new Ref(4L), refs.get(4L));
+        assertNull(refs.get(null));
+        assertEquals(1, queries.size());
+    }
+
+    @Test
+    void missingIdsAreRememberedAsMisses() {
+        ReferenceResolver<Ref> refs = resolver();
+        refs.prefetch(List.of(1L, 2L, 3L));
+
+        assertNull(refs.get(1L));
+        assertNull(refs.get(3L));
+        refs.prefetch(List.of(1L, 3L, 5L));
+        assertNull(refs.get(5L));
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(5L)), queries);
+    }
+
+    @Test
+    void idsOutsideAnyPrefetchAreLoadedOnDemandOnce() {
+        ReferenceResolver<Ref> refs = resolver();
+
+        assertEquals(new Ref(8L), refs.get(8L));
+        assertNull(refs.get(9L));
+        assertEquals(new Ref(8L), refs.get(8L));
+        assertNull(refs.get(9L));
+        assertEquals(List.of(List.of(8L), List.of(9L)), queries);
+    }
+
+    @Test
+    void largeChunksAreSplitIntoInBatches() {
+        ReferenceResolver<Ref> refs = resolver();
+        Collection<Long> ids = LongStream.rangeClosed(1, ReferenceResolver.IN_BATCH * 2L + 1).boxed().toList();
+        refs.prefetch(ids);
+
+        assertEquals(List.of(ReferenceResolver.IN_BATCH, ReferenceResolver.IN_BATCH, 1), queries.stream().map(List::size).toList());
+        assertEquals(new Ref(2000L), refs.get(2000L));
+        assertNull(refs.get(2001L));
+        assertEquals(3, queries.size());
+    }
+}
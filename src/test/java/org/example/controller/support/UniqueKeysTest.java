@@ -0,0 +1,50 @@
+package org.example.controller.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniqueKeysTest {
+
+    /** Fingerprints are taken over {@code toString()}, so every one of these keys shares a fingerprint. */
+    private record Colliding(int id) {
+        @Override
+        public String toString() { return "same"; }
+    }
+
+    @Test
+    void fingerprintHitsAreConfirmedAgainstTheKey() {
+        List<Collection<Colliding>> queried = new ArrayList<>();
+        UniqueKeys<Colliding> keys = new UniqueKeys<>("key", batch -> {
+            queried.add(batch);
+            return batch.stream().filter(k -> k.id() == 1).toList();
+        });
+        assertEquals(UniqueKeys.fingerprint(new Colliding(1)), UniqueKeys.fingerprint(new Colliding(2)));
+
+        keys.prefetch(List.of(new Colliding(1), new Colliding(2), new Colliding(3)));
+        assertEquals(List.of(List.of(new Colliding(1), new Colliding(2), new Colliding(3))), queried);
+        assertEquals("Duplicate key same already exists", keys.conflict(new Colliding(1)));
+        assertNull(keys.conflict(new Colliding(2)));
+
+        keys.claim(new Colliding(2), 7);
+        assertEquals("Duplicate key same (same as row 7)", keys.conflict(new Colliding(2)));
+        assertNull(keys.conflict(new Colliding(3)));
+
+        // known keys are not looked up again, colliding unknown ones are
+        keys.prefetch(List.of(new Colliding(1), new Colliding(2), new Colliding(4)));
+        assertEquals(List.of(new Colliding(4)), queried.get(1));
+    }
+
+    @Test
+    void stringKeysSurviveTableGrowth() {
+        UniqueKeys<String> codes = new UniqueKeys<>("courseCode", batch -> List.of());
+        for (int row = 1; row <= 5000; row++) codes.claim("CS" + row, row);
+        assertEquals("Duplicate courseCode 'CS4321' (same as row 4321)", codes.conflict("CS4321"));
+        assertNull(codes.conflict("CS5001"));
+        assertNull(codes.conflict(null));
+    }
+}
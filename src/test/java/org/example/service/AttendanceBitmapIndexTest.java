@@ -0,0 +1,142 @@
+package org.example.service;
+
+import org.example.dto.AttendanceStatsDto;
+import org.example.entity.*;
+import org.example.entity.AttendanceData.AttendanceStatus;
+import org.example.repository.*;
+import org.example.service.impl.AttendanceBitmapIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.entity.AttendanceData.AttendanceStatus.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:attendancebitmapdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.attendance.bitmap-snapshot="
+})
+class AttendanceBitmapIndexTest {
+    private static final LocalDate SEP_2 = LocalDate.of(2024, 9, 2);
+
+    @Autowired private MockMvc mvc;
+    @Autowired private AttendanceDataService attendanceService;
+    @Autowired private StudentDataService studentService;
+    @Autowired private CourseDetailsRepository courseRepo;
+    @Autowired private EnrollmentDataRepository enrollmentRepo;
+    @Autowired private AttendanceDataRepository attendanceRepo;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbc;
+
+    @Test
+    void statsFollowAttendanceWrites() throws Exception {
+        EnrollmentData enrollment = enrollment("BM101");
+        // Sep 2..11: P P A P P P E P P P
+        List<AttendanceData> days = attendanceService.createAttendanceRecords(records(enrollment, PRESENT, PRESENT, ABSENT, PRESENT, PRESENT, PRESENT, EXCUSED, PRESENT, PRESENT, PRESENT));
+        Long number = enrollment.getEnrollmentNumber();
+
+        AttendanceStatsDto all = stats(number, null, null);
+        assertEquals(8, all.getPresent());
+        assertEquals(1, all.getAbsent());
+        assertEquals(1, all.getExcused());
+        assertEquals(0.8, all.getAttendanceRate(), 1e-9);
+        assertEquals(6, all.getCurrentStreak());
+        assertEquals(6, all.getLongestStreak());
+        assertEquals(SEP_2, all.getFirstDate());
+        assertEquals(SEP_2.plusDays(9), all.getLastDate());
+
+        AttendanceStatsDto firstDays = stats(number, SEP_2, SEP_2.plusDays(4));
+        assertEquals(4, firstDays.getPresent());
+        assertEquals(2, firstDays.getCurrentStreak());
+        assertEquals(2, firstDays.getLongestStreak());
+
+        // a second record of a day keeps its bit when one of them is deleted
+        AttendanceData again = attendanceService.createAttendance(record(enrollment, SEP_2.plusDays(3), PRESENT));
+        attendanceService.deleteAttendance(again.getAttendanceNumber());
+        assertEquals(8, stats(number, null, null).getPresent());
+
+        attendanceService.updateAttendance(days.get(2).getAttendanceNumber(), record(enrollment, SEP_2.plusDays(2), PRESENT));
+        attendanceService.deleteAttendance(days.get(9).getAttendanceNumber());
+        attendanceService.createAttendance(record(enrollment, LocalDate.of(2024, 6, 3), ABSENT)); // before the bitmap origin
+        AttendanceStatsDto updated = stats(number, null, null);
+        assertEquals(8, updated.getPresent());
+        assertEquals(1, updated.getAbsent());
+        assertEquals(8, updated.getCurrentStreak());
+        assertEquals(LocalDate.of(2024, 6, 3), updated.getFirstDate());
+        assertEquals(SEP_2.plusDays(8), updated.getLastDate());
+
+        mvc.perform(get("/api/attendance/stats").param("enrollmentNumber", number + ",999999").param("from", "2024-09-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].present").value(8))
+                .andExpect(jsonPath("$[0].absent").value(0))
+                .andExpect(jsonPath("$[1].total").value(0));
+    }
+
+    @Test
+    void snapshotIsReusedOnlyWhileTheTableMatches(@TempDir Path dir) {
+        EnrollmentData enrollment = enrollment("BM102");
+        List<AttendanceData> days = attendanceService.createAttendanceRecords(records(enrollment, PRESENT, ABSENT, PRESENT));
+        String snapshot = dir.resolve("bitmaps.bin").toString();
+
+        AttendanceBitmapIndex first = new AttendanceBitmapIndex(attendanceRepo, transactionTemplate, snapshot, "bitmapdb");
+        assertFalse(first.build());
+        first.saveSnapshot();
+
+        AttendanceBitmapIndex restored = new AttendanceBitmapIndex(attendanceRepo, transactionTemplate, snapshot, "bitmapdb");
+        assertTrue(restored.build());
+        assertEquals(first.records(), restored.records());
+        assertEquals(2, restored.stats(enrollment.getEnrollmentNumber(), null, null).getPresent());
+        assertFalse(new AttendanceBitmapIndex(attendanceRepo, transactionTemplate, snapshot, "otherdb").build());
+
+        // changed behind the index's back: the fingerprint no longer matches
+        jdbc.update("update attendance_data set attendance_status = 'ABSENT', version = version + 1 where attendance_number = ?", days.get(0).getAttendanceNumber());
+        AttendanceBitmapIndex rescanned = new AttendanceBitmapIndex(attendanceRepo, transactionTemplate, snapshot, "bitmapdb");
+        assertFalse(rescanned.build());
+        assertEquals(2, rescanned.stats(enrollment.getEnrollmentNumber(), null, null).getAbsent());
+    }
+
+    private AttendanceStatsDto stats(Long enrollmentNumber, LocalDate from, LocalDate to) {
+        return attendanceService.getAttendanceStats(List.of(enrollmentNumber), from, to).get(0);
+    }
+
+    private EnrollmentData enrollment(String courseCode) {
+        StudentData student = studentService.createStudent(StudentData.builder().firstName("Grace").lastName("Hopper").dateOfBirth(LocalDate.of(2001, 12, 9))
+                .gender(StudentData.Gender.FEMALE).joiningDate(LocalDate.of(2023, 9, 1)).studentStatus(StudentData.StudentStatus.ACTIVE).build());
+        CourseDetails course = courseRepo.save(CourseDetails.builder().courseName("Bitmaps " + courseCode).courseCode(courseCode).courseCredits(3.0).build());
+        return enrollmentRepo.save(EnrollmentData.builder().student(student).course(course).enrollmentDate(LocalDate.of(2024, 9, 1))
+                .overallGrade(0).semester("FALL24").instructorName("Prof. Hamming").build());
+    }
+
+    /** One record per day from Sep 2 on. */
+    private static List<AttendanceData> records(EnrollmentData enrollment, AttendanceStatus... statuses) {
+        List<AttendanceData> out = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) out.add(record(enrollment, SEP_2.plusDays(i), statuses[i]));
+        return out;
+    }
+
+    private static AttendanceData record(EnrollmentData enrollment, LocalDate date, AttendanceStatus status) {
+        return AttendanceData.builder().student(enrollment.getStudent()).enrollment(enrollment).attendanceDate(date).attendanceStatus(status).semester("FALL24").build();
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.service;
+
+import org.example.dto.AttendanceSummaryDto;
+import org.example.entity.*;
+import org.example.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.example.entity.AttendanceData.AttendanceStatus.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:attendancerollupdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class AttendanceRollupServiceImplTest {
+
+    @Autowired private AttendanceRollupService rollupService;
+    @Autowired private AttendanceDataService attendanceService;
+    @Autowired private StudentDataService studentService;
+    @Autowired private CourseDetailsRepository courseRepo;
+    @Autowired private EnrollmentDataRepository enrollmentRepo;
+    @Autowired private EnrollmentDataService enrollmentService;
+    @Autowired private EnrollmentAttendanceRepository enrollmentAttendanceRepo;
+
+    @Test
+    void rollupsFollowAttendanceWritesAndMatchRebuild() {
+        StudentData student = studentService.createStudent(StudentData.builder()
+                .firstName("Alan")
+                .lastName("Turing")
+                .dateOfBirth(LocalDate.of(2001,6,23))
+                .gender(StudentData.Gender.MALE)
+                .joiningDate(LocalDate.of(2023,9,1))
+                .studentStatus(StudentData.StudentStatus.ACTIVE)
+                .build());
+        CourseDetails course = courseRepo.save(CourseDetails.builder()
+                .courseName("Computable Numbers")
+                .courseCode("CN101")
+                .courseCredits(3.0)
+                .build());
+        EnrollmentData enrollment = enrollmentRepo.save(EnrollmentData.builder()
+                .student(student)
+                .course(course)
+                .enrollmentDate(LocalDate.of(2024,9,10))
+                .overallGrade(0)
+                .semester("FALL24")
+                .instructorName("Prof. Church")
+                .build());
+        Long studentNumber = student.getStudentNumber();
+        LocalDate day1 = LocalDate.of(2024,10,1), day2 = LocalDate.of(2024,10,2);
+
+        attendanceService.createAttendanceRecords(List.of(
+                record(student, enrollment, day1, PRESENT, "FALL24"),
+                record(student, enrollment, day1, ABSENT, "FALL24"),
+                record(student, enrollment, day2, PRESENT, "FALL24")));
+        AttendanceData spring = attendanceService.createAttendance(record(student, enrollment, day2, EXCUSED, "SPRING25"));
+
+        AttendanceSummaryDto fall = rollupService.getStudentSummary(studentNumber, "FALL24");
+        assertEquals(2, fall.getPresent());
+        assertEquals(1, fall.getAbsent());
+        assertEquals(2.0 / 3, fall.getAttendanceRate(), 1e-9);
+        assertEquals(4, rollupService.getStudentSummary(studentNumber, null).getTotal());
+        assertEquals(4, rollupService.getEnrollmentSummary(enrollment.getEnrollmentNumber()).getTotal());
+        List<AttendanceSummaryDto> days = rollupService.getCourseSummary(course.getCourseNumber(), day1, day2);
+        assertEquals(2, days.size());
+        assertEquals(2, days.get(0).getTotal());
+        assertEquals(1, days.get(1).getExcused());
+
+        // Moving a record between semesters and statuses shifts both counters
+        attendanceService.updateAttendance(spring.getAttendanceNumber(), record(student, enrollment, day2, PRESENT, "FALL24"));
+        assertEquals(3, rollupService.getStudentSummary(studentNumber, "FALL24").getPresent());
+        assertEquals(0, rollupService.getStudentSummary(studentNumber, "SPRING25").getTotal());
+        assertNull(rollupService.getStudentSummary(studentNumber, "SPRING25").getAttendanceRate());
+        assertEquals(2, rollupService.getCourseSummary(course.getCourseNumber(), day2, day2).get(0).getPresent());
+
+        AttendanceSummaryDto incremental = rollupService.getEnrollmentSummary(enrollment.getEnrollmentNumber());
+        assertEquals(1, rollupService.rebuild().get("enrollments"));
+        AttendanceSummaryDto rebuilt = rollupService.getEnrollmentSummary(enrollment.getEnrollmentNumber());
+        assertEquals(incremental.getPresent(), rebuilt.getPresent());
+        assertEquals(incremental.getAbsent(), rebuilt.getAbsent());
+        assertEquals(incremental.getExcused(), rebuilt.getExcused());
+
+        studentService.deleteStudent(studentNumber);
+        assertEquals(0, rollupService.getEnrollmentSummary(enrollment.getEnrollmentNumber()).getTotal());
+        assertTrue(rollupService.getCourseSummary(course.getCourseNumber(), day1, day2).isEmpty());
+    }
+
+    @Test
+    void deletingAnEnrollmentTakesItsAttendanceOutOfTheRollups() {
+        StudentData kurt = student("Kurt", "Goedel");
+        StudentData emmy = student("Emmy", "Noether");
+        CourseDetails course = courseRepo.save(CourseDetails.builder()
+                .courseName("Incompleteness")
+                .courseCode("IN201")
+                .courseCredits(3.0)
+                .build());
+        EnrollmentData kept = enrollmentRepo.save(enrollment(kurt, course));
+        EnrollmentData dropped = enrollmentRepo.save(enrollment(emmy, course));
+        LocalDate day = LocalDate.of(2024,10,7);
+        attendanceService.createAttendanceRecords(List.of(
+                record(kurt, kept, day, PRESENT, "FALL24"),
+                record(emmy, dropped, day, ABSENT, "FALL24"),
+                record(emmy, dropped, day.plusDays(1), EXCUSED, "FALL24")));
+
+        enrollmentService.deleteEnrollmentByNumber(dropped.getEnrollmentNumber());
+
+        assertFalse(enrollmentAttendanceRepo.existsById(dropped.getEnrollmentNumber()));
+        assertEquals(1, rollupService.getEnrollmentSummary(kept.getEnrollmentNumber()).getTotal());
+        assertEquals(0, rollupService.getStudentSummary(emmy.getStudentNumber(), "FALL24").getTotal());
+        assertEquals(1, rollupService.getStudentSummary(kurt.getStudentNumber(), "FALL24").getPresent());
+        List<AttendanceSummaryDto> days = rollupService.getCourseSummary(course.getCourseNumber(), day, day.plusDays(1));
+        assertEquals(1, days.size());
+        assertEquals(1, days.get(0).getPresent());
+        assertEquals(0, days.get(0).getAbsent());
+
+        enrollmentService.deleteEnrollmentByNumber(kept.getEnrollmentNumber());
+        assertFalse(enrollmentAttendanceRepo.existsById(kept.getEnrollmentNumber()));
+        assertTrue(rollupService.getCourseSummary(course.getCourseNumber(), day, day.plusDays(1)).isEmpty());
+    }
+
+    private StudentData student(String firstName, String lastName) {
+        return studentService.createStudent(StudentData.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .dateOfBirth(LocalDate.of(2002,4,28))
+                .gender(StudentData.Gender.OTHER)
+                .joiningDate(LocalDate.of(2023,9,1))
+                .studentStatus(StudentData.StudentStatus.ACTIVE)
+                .build());
+    }
+
+    private static EnrollmentData enrollment(StudentData student, CourseDetails course) {
+        return EnrollmentData.builder()
+                .student(student)
+                .course(course)
+                .enrollmentDate(LocalDate.of(2024,9,10))
+                .overallGrade(0)
+                .semester("FALL24")
+                .instructorName("Prof. von Neumann")
+                .build();
+    }
+
+    private static AttendanceData record(StudentData student, EnrollmentData enrollment, LocalDate date, AttendanceData.AttendanceStatus status, String semester) {
+        return AttendanceData.builder()
+                .student(student)
+                .enrollment(enrollment)
+                .attendanceDate(date)
+                .attendanceStatus(status)
+                .semester(semester)
+                .build();
+    }
+}
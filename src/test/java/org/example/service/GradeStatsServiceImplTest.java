@@ -0,0 +1,127 @@
+package org.example.service;
+
+import org.example.dto.GradeStatsDto;
+import org.example.entity.*;
+import org.example.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:gradestatsdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.grades.sync-overall-grade=true"
+})
+class GradeStatsServiceImplTest {
+
+    @Autowired private GradeStatsService gradeStatsService;
+    @Autowired private GradesService gradesService;
+    @Autowired private StudentDataService studentService;
+    @Autowired private CourseDetailsRepository courseRepo;
+    @Autowired private EnrollmentDataRepository enrollmentRepo;
+
+    @Test
+    void statsFollowGradeWritesAndMatchRebuild() {
+        StudentData student = studentService.createStudent(StudentData.builder()
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .dateOfBirth(LocalDate.of(2001,12,10))
+                .gender(StudentData.Gender.FEMALE)
+                .joiningDate(LocalDate.of(2023,9,1))
+                .studentStatus(StudentData.StudentStatus.ACTIVE)
+                .build());
+        CourseDetails course = courseRepo.save(CourseDetails.builder()
+                .courseName("Analytical Engines")
+                .courseCode("AE101")
+                .courseCredits(4.0)
+                .build());
+        EnrollmentData enrollment = enrollmentRepo.save(EnrollmentData.builder()
+                .student(student)
+                .course(course)
+                .enrollmentDate(LocalDate.of(2024,9,10))
+                .overallGrade(0)
+                .semester("FALL24")
+                .instructorName("Prof. Babbage")
+                .build());
+        Long enrollmentNumber = enrollment.getEnrollmentNumber();
+
+        gradesService.createGrade(grade(enrollment, "Quiz", 8, 10, 1));
+        Grades low = gradesService.createGrade(grade(enrollment, "Quiz", 6, 10, 2));
+        Grades exam = gradesService.createGrade(grade(enrollment, "Exam", 90, 100, 20));
+        GradeStatsDto stats = gradeStatsService.getEnrollmentStats(enrollmentNumber);
+        assertEquals(3, stats.getGradeCount());
+        assertEquals(104 * 100.0 / 120, stats.getAveragePercent(), 1e-9);
+        assertEquals(60.0, stats.getMinPercent());
+        assertEquals(90.0, stats.getMaxPercent());
+        assertEquals(LocalDate.of(2024,10,20), stats.getLatestAssessment());
+        assertEquals(3.0, stats.getGpa());
+        assertEquals(87, enrollmentRepo.findById(enrollmentNumber).orElseThrow().getOverallGrade());
+
+        // Raising the minimum forces a recompute of the enrollment and the Quiz course row
+        gradesService.updateGrade(low.getGradeNumber(), grade(enrollment, "Quiz", 10, 10, 2));
+        stats = gradeStatsService.getEnrollmentStats(enrollmentNumber);
+        assertEquals(90.0, stats.getAveragePercent(), 1e-9);
+        assertEquals(80.0, stats.getMinPercent());
+        assertEquals(100.0, stats.getMaxPercent());
+
+        // Non-extreme, non-latest grade: applied as a delta in both directions
+        Grades middle = gradesService.createGrade(grade(enrollment, "Quiz", 9, 10, 3));
+        assertEquals(4, gradeStatsService.getEnrollmentStats(enrollmentNumber).getGradeCount());
+        gradesService.deleteGrade(middle.getGradeNumber());
+        assertEquals(3, gradeStatsService.getEnrollmentStats(enrollmentNumber).getGradeCount());
+
+        // Removing the latest assessment drops the Exam course row entirely
+        gradesService.deleteGrade(exam.getGradeNumber());
+        stats = gradeStatsService.getEnrollmentStats(enrollmentNumber);
+        assertEquals(2, stats.getGradeCount());
+        assertEquals(90.0, stats.getAveragePercent(), 1e-9);
+        assertEquals(LocalDate.of(2024,10,2), stats.getLatestAssessment());
+        assertEquals(90, enrollmentRepo.findById(enrollmentNumber).orElseThrow().getOverallGrade());
+
+        List<GradeStatsDto> courseStats = gradeStatsService.getCourseStats(course.getCourseNumber());
+        assertEquals(2, courseStats.size());
+        assertNull(courseStats.get(0).getAssessmentType());
+        assertEquals("Quiz", courseStats.get(1).getAssessmentType());
+        assertEquals(2, courseStats.get(1).getGradeCount());
+
+        GradeStatsDto studentStats = gradeStatsService.getStudentStats(student.getStudentNumber());
+        assertEquals(2, studentStats.getGradeCount());
+        assertEquals(4.0, studentStats.getGpa());
+
+        GradeStatsDto incremental = gradeStatsService.getEnrollmentStats(enrollmentNumber);
+        assertEquals(1, gradeStatsService.rebuild().get("enrollments"));
+        GradeStatsDto rebuilt = gradeStatsService.getEnrollmentStats(enrollmentNumber);
+        assertEquals(incremental.getGradeCount(), rebuilt.getGradeCount());
+        assertEquals(incremental.getAveragePercent(), rebuilt.getAveragePercent(), 1e-9);
+        assertEquals(incremental.getMinPercent(), rebuilt.getMinPercent(), 1e-9);
+        assertEquals(incremental.getMaxPercent(), rebuilt.getMaxPercent(), 1e-9);
+        assertEquals(incremental.getLatestAssessment(), rebuilt.getLatestAssessment());
+
+        studentService.deleteStudent(student.getStudentNumber());
+        assertNull(gradeStatsService.getEnrollmentStats(enrollmentNumber));
+        assertTrue(gradeStatsService.getCourseStats(course.getCourseNumber()).isEmpty());
+    }
+
+    private static Grades grade(EnrollmentData enrollment, String type, int obtained, int max, int day) {
+        return Grades.builder()
+                .enrollment(enrollment)
+                .assessmentDate(LocalDate.of(2024,10,day))
+                .assessmentType(type)
+                .obtainedScore(obtained)
+                .maxScore(max)
+                .gradeCode(1)
+                .build();
+    }
+}
@@ -29,6 +29,7 @@ class StudentCascadeDeleteTest {
     @Autowired private EnrollmentDataRepository enrollmentRepo;
     @Autowired private AttendanceDataRepository attendanceRepo;
     @Autowired private CourseDetailsRepository courseRepo;
+    @Autowired private GradesRepository gradesRepo;
 
     @Test
     void deletingStudentRemovesDependents() {
@@ -102,4 +103,66 @@ class StudentCascadeDeleteTest {
         assertTrue(enrollmentRepo.findByStudentStudentNumber(studentNumber).isEmpty(), "Enrollments should be deleted");
         assertTrue(attendanceRepo.findByStudentStudentNumber(studentNumber).isEmpty(), "Attendance should be deleted");
     }
+
+    @Test
+    void bulkDeleteRemovesOnlyRequestedStudentsAndDependents() {
+        CourseDetails course = courseRepo.save(CourseDetails.builder()
+                .courseName("Physics")
+                .courseCode("PHY101")
+                .courseCredits(4.0)
+                .build());
+        StudentData graduated = studentService.createStudent(student("Ada", StudentData.StudentStatus.GRADUATED));
+        StudentData active = studentService.createStudent(student("Alan", StudentData.StudentStatus.ACTIVE));
+        EnrollmentData gradEnrollment = enrollmentRepo.save(enrollment(graduated, course));
+        EnrollmentData activeEnrollment = enrollmentRepo.save(enrollment(active, course));
+        for (EnrollmentData e : new EnrollmentData[]{gradEnrollment, activeEnrollment}) {
+            gradesRepo.save(Grades.builder()
+                    .enrollment(e)
+                    .assessmentDate(LocalDate.of(2024,10,1))
+                    .assessmentType("Quiz")
+                    .obtainedScore(8)
+                    .maxScore(10)
+                    .gradeCode(1)
+                    .build());
+            attendanceRepo.save(AttendanceData.builder()
+                    .student(e.getStudent())
+                    .enrollment(e)
+                    .attendanceDate(LocalDate.of(2024,10,2))
+                    .semester("FALL24")
+                    .build());
+        }
+
+        int deleted = studentService.deleteStudentsByStatus(StudentData.StudentStatus.GRADUATED);
+
+        assertEquals(1, deleted);
+        assertNull(studentService.getStudentByNumber(graduated.getStudentNumber()));
+        assertTrue(enrollmentRepo.findByStudentStudentNumber(graduated.getStudentNumber()).isEmpty());
+        assertTrue(gradesRepo.findByEnrollmentEnrollmentNumber(gradEnrollment.getEnrollmentNumber()).isEmpty());
+        assertTrue(attendanceRepo.findByStudentStudentNumber(graduated.getStudentNumber()).isEmpty());
+        assertNotNull(studentService.getStudentByNumber(active.getStudentNumber()));
+        assertEquals(1, gradesRepo.findByEnrollmentEnrollmentNumber(activeEnrollment.getEnrollmentNumber()).size());
+        assertEquals(1, attendanceRepo.findByStudentStudentNumber(active.getStudentNumber()).size());
+    }
+
+    private StudentData student(String firstName, StudentData.StudentStatus status) {
+        return StudentData.builder()
+                .firstName(firstName)
+                .lastName("Bulk")
+                .dateOfBirth(LocalDate.of(2000,1,1))
+                .gender(StudentData.Gender.OTHER)
+                .joiningDate(LocalDate.of(2020,9,1))
+                .studentStatus(status)
+                .build();
+    }
+
+    private EnrollmentData enrollment(StudentData student, CourseDetails course) {
+        return EnrollmentData.builder()
+                .student(student)
+                .course(course)
+                .enrollmentDate(LocalDate.of(2024,9,10))
+                .overallGrade(75)
+                .semester("FALL24")
+                .instructorName("Prof. Curie")
+                .build();
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,4 +32,26 @@ class StudentDataServiceImplTest {
         assertNotNull(list);
         assertTrue(list.size() >= 0); // no data inserted
     }
+
+    @Test
+    void studentPagesFollowKeysetCursor() {
+        for (int i = 0; i < 5; i++) {
+            studentDataService.createStudent(StudentData.builder()
+                    .firstName("Page" + i)
+                    .lastName("Cursor")
+                    .dateOfBirth(LocalDate.of(2002, 1, 1))
+                    .gender(StudentData.Gender.OTHER)
+                    .joiningDate(LocalDate.of(2024, 9, 1))
+                    .build());
+        }
+        List<StudentData> first = studentDataService.getStudentPage(null, 2, false);
+        assertEquals(2, first.size());
+        assertTrue(first.get(0).getStudentNumber() < first.get(1).getStudentNumber());
+        List<StudentData> second = studentDataService.getStudentPage(first.get(1).getStudentNumber(), 2, false);
+        assertEquals(2, second.size());
+        assertTrue(second.get(0).getStudentNumber() > first.get(1).getStudentNumber());
+
+        List<StudentData> newest = studentDataService.getStudentPage(null, 2, true);
+        assertTrue(newest.get(0).getStudentNumber() > newest.get(1).getStudentNumber());
+    }
 }
@@ -0,0 +1,68 @@
+package org.example.service;
+
+import org.example.entity.StudentData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:studentsearchdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class StudentSearchTest {
+
+    @Autowired private StudentDataService studentService;
+
+    @Test
+    void searchRanksPrefixAndTypoMatchesAndFollowsWrites() {
+        StudentData john = studentService.createStudent(student("John", "Smith"));
+        StudentData jonathan = studentService.createStudent(student("Jonathan", "Smythe"));
+        studentService.createStudents(List.of(student("Maria", "Gonzalez"), student("José", "Álvarez")));
+
+        assertEquals(john.getStudentNumber(), studentService.searchStudents("john smith", 5).get(0).getStudentNumber());
+        assertEquals(List.of(jonathan.getStudentNumber()), numbers(studentService.searchStudents("jonat", 5)));
+        assertEquals("Gonzalez", studentService.searchStudents("gonzales", 5).get(0).getLastName());
+        assertEquals("Álvarez", studentService.searchStudents("alvarez", 5).get(0).getLastName());
+        assertEquals(1, studentService.searchStudents("smith", 1).size());
+        // substrings inside a name, not only prefixes
+        assertEquals(john.getStudentNumber(), studentService.searchStudents("mit", 5).get(0).getStudentNumber());
+        assertEquals("Gonzalez", studentService.searchStudents("zale", 5).get(0).getLastName());
+        assertEquals(List.of(jonathan.getStudentNumber()), numbers(studentService.searchStudents("ythe", 5)));
+        assertTrue(studentService.searchStudents("   ", 5).isEmpty());
+
+        StudentData renamed = student("Johanna", "Stone");
+        studentService.updateStudent(john.getStudentNumber(), renamed);
+        assertTrue(numbers(studentService.searchStudents("john smith", 5)).stream().noneMatch(john.getStudentNumber()::equals));
+        assertEquals(john.getStudentNumber(), studentService.searchStudents("johanna", 5).get(0).getStudentNumber());
+
+        studentService.deleteStudent(jonathan.getStudentNumber());
+        assertTrue(studentService.searchStudents("jonathan", 5).isEmpty());
+    }
+
+    private static List<Long> numbers(List<StudentData> students) {
+        return students.stream().map(StudentData::getStudentNumber).toList();
+    }
+
+    private static StudentData student(String first, String last) {
+        return StudentData.builder()
+                .firstName(first)
+                .lastName(last)
+                .dateOfBirth(LocalDate.of(2002,1,1))
+                .gender(StudentData.Gender.OTHER)
+                .joiningDate(LocalDate.of(2024,9,1))
+                .studentStatus(StudentData.StudentStatus.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.dto.TranscriptDto;
+import org.example.entity.*;
+import org.example.repository.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:transcriptdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TranscriptServiceImplTest {
+
+    @Autowired private TranscriptService transcriptService;
+    @Autowired private StudentDataService studentService;
+    @Autowired private CourseDetailsRepository courseRepo;
+    @Autowired private EnrollmentDataRepository enrollmentRepo;
+    @Autowired private GradesRepository gradesRepo;
+    @Autowired private AttendanceDataRepository attendanceRepo;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    private int courseSeq;
+
+    @Test
+    void transcriptUsesSameQueryCountRegardlessOfEnrollments() {
+        StudentData student = studentService.createStudent(StudentData.builder()
+                .firstName("Grace")
+                .lastName("Hopper")
+                .dateOfBirth(LocalDate.of(2002,12,9))
+                .gender(StudentData.Gender.FEMALE)
+                .joiningDate(LocalDate.of(2023,9,1))
+                .studentStatus(StudentData.StudentStatus.ACTIVE)
+                .build());
+        enroll(student, 2);
+        long twoEnrollments = countStatements(student.getStudentNumber());
+        enroll(student, 4);
+        long sixEnrollments = countStatements(student.getStudentNumber());
+
+        assertTrue(sixEnrollments <= 4, "transcript should need at most 4 statements, was " + sixEnrollments);
+        assertEquals(twoEnrollments, sixEnrollments);
+
+        TranscriptDto transcript = transcriptService.getTranscript(student.getStudentNumber());
+        assertEquals("Grace", transcript.getStudent().getFirstName());
+        assertEquals(6, transcript.getEnrollments().size());
+        TranscriptDto.Enrollment first = transcript.getEnrollments().get(0);
+        assertNotNull(first.getCourseName());
+        assertEquals(2, first.getGrades().size());
+        assertEquals(1, first.getAttendance().getPresent());
+        assertEquals(1, first.getAttendance().getAbsent());
+        assertEquals(0.5, first.getAttendance().getAttendanceRate());
+        assertNull(transcriptService.getTranscript(-1L));
+    }
+
+    private long countStatements(Long studentNumber) {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        transcriptService.getTranscript(studentNumber);
+        return stats.getPrepareStatementCount();
+    }
+
+    private void enroll(StudentData student, int count) {
+        for (int i = 0; i < count; i++) {
+            courseSeq++;
+            CourseDetails course = courseRepo.save(CourseDetails.builder()
+                    .courseName("Transcript Course " + courseSeq)
+                    .courseCode("TR" + courseSeq)
+                    .courseCredits(3.0)
+                    .build());
+            EnrollmentData enrollment = enrollmentRepo.save(EnrollmentData.builder()
+                    .student(student)
+                    .course(course)
+                    .enrollmentDate(LocalDate.of(2024,9,10))
+                    .overallGrade(80)
+                    .semester("FALL24")
+                    .instructorName("Prof. Knuth")
+                    .build());
+            for (int g = 0; g < 2; g++) {
+                gradesRepo.save(Grades.builder()
+                        .enrollment(enrollment)
+                        .assessmentDate(LocalDate.of(2024,10,1 + g))
+                        .assessmentType("Quiz")
+                        .obtainedScore(7 + g)
+                        .maxScore(10)
+                        .gradeCode(1)
+                        .build());
+            }
+            for (AttendanceData.AttendanceStatus status : new AttendanceData.AttendanceStatus[]{AttendanceData.AttendanceStatus.PRESENT, AttendanceData.AttendanceStatus.ABSENT}) {
+                attendanceRepo.save(AttendanceData.builder()
+                        .student(student)
+                        .enrollment(enrollment)
+                        .attendanceDate(LocalDate.of(2024,10,2))
+                        .attendanceStatus(status)
+                        .semester("FALL24")
+                        .build());
+            }
+        }
+    }
+}
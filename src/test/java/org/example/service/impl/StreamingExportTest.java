@@ -0,0 +1,47 @@
+package org.example.service.impl;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StreamingExportTest {
+
+    @Test
+    void everyRowReachesTheSinkInOrder() {
+        List<Integer> seen = new ArrayList<>();
+        StreamingExport.drain(IntStream.range(0, 1234).boxed(), mock(EntityManager.class), seen::add);
+        assertEquals(IntStream.range(0, 1234).boxed().toList(), seen);
+    }
+
+    @Test
+    void thePersistenceContextIsClearedOncePerInterval() {
+        EntityManager entityManager = mock(EntityManager.class);
+        StreamingExport.drain(IntStream.range(0, StreamingExport.CLEAR_INTERVAL * 2 + 1).boxed(), entityManager, row -> {});
+        verify(entityManager, times(2)).clear();
+
+        EntityManager small = mock(EntityManager.class);
+        StreamingExport.drain(IntStream.range(0, StreamingExport.CLEAR_INTERVAL - 1).boxed(), small, row -> {});
+        verify(small, never()).clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clearingFollowsTheIntervalsLastRow() {
+        EntityManager entityManager = mock(EntityManager.class);
+        Consumer<Integer> sink = mock(Consumer.class);
+        StreamingExport.drain(IntStream.range(0, StreamingExport.CLEAR_INTERVAL + 1).boxed(), entityManager, sink);
+
+        InOrder order = inOrder(sink, entityManager);
+        order.verify(sink).accept(StreamingExport.CLEAR_INTERVAL - 1);
+        order.verify(entityManager).clear();
+        order.verify(sink).accept(StreamingExport.CLEAR_INTERVAL);
+    }
+}